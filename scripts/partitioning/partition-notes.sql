@@ -0,0 +1,78 @@
+-- Converts the notes table into partitions by note state (see PARTITIONING_README.md):
+--
+--   notes                    PARTITION BY LIST (deleted)
+--     notes_live             FOR VALUES IN (false), PARTITION BY LIST (archived)
+--       notes_active         FOR VALUES IN (false), optionally PARTITION BY HASH (user_id)
+--       notes_archived       FOR VALUES IN (true)
+--     notes_deleted          FOR VALUES IN (true)
+--
+-- PostgreSQL 13 or later. Runs in one transaction holding an exclusive lock on notes, so note
+-- requests wait until it commits; stop the application for large tables. Run it once per database,
+-- and with sharding once per shard:
+--
+--   psql -d notedoc -f scripts/partitioning/partition-notes.sql
+--   psql -d notedoc -v active_hash_partitions=8 -f scripts/partitioning/partition-notes.sql
+--
+-- Does nothing if notes is already partitioned.
+
+\set ON_ERROR_STOP on
+\if :{?active_hash_partitions}
+\else
+    \set active_hash_partitions 1
+\endif
+
+BEGIN;
+SET LOCAL notedoc.active_hash_partitions = :'active_hash_partitions';
+LOCK TABLE notes IN ACCESS EXCLUSIVE MODE;
+
+DO $$
+DECLARE
+    hash_partitions int := current_setting('notedoc.active_hash_partitions')::int;
+    fk record;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'notes'::regclass) = 'p' THEN
+        RAISE NOTICE 'notes is already partitioned';
+        RETURN;
+    END IF;
+
+    -- id alone is no longer unique, so it cannot be referenced (note_tag_ids, legacy note_tags)
+    FOR fk IN SELECT conrelid::regclass AS referencing, conname FROM pg_constraint
+              WHERE contype = 'f' AND confrelid = 'notes'::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.referencing, fk.conname);
+    END LOOP;
+
+    ALTER TABLE notes RENAME TO notes_unpartitioned;
+    CREATE TABLE notes (LIKE notes_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY LIST (deleted);
+    CREATE TABLE notes_live PARTITION OF notes FOR VALUES IN (false) PARTITION BY LIST (archived);
+    IF hash_partitions > 1 THEN
+        CREATE TABLE notes_active PARTITION OF notes_live FOR VALUES IN (false) PARTITION BY HASH (user_id);
+        FOR i IN 0 .. hash_partitions - 1 LOOP
+            EXECUTE format('CREATE TABLE notes_active_%s PARTITION OF notes_active '
+                           'FOR VALUES WITH (MODULUS %s, REMAINDER %s)', i, hash_partitions, i);
+        END LOOP;
+    ELSE
+        CREATE TABLE notes_active PARTITION OF notes_live FOR VALUES IN (false);
+    END IF;
+    CREATE TABLE notes_archived PARTITION OF notes_live FOR VALUES IN (true);
+    CREATE TABLE notes_deleted PARTITION OF notes FOR VALUES IN (true);
+
+    INSERT INTO notes SELECT * FROM notes_unpartitioned;
+    DROP TABLE notes_unpartitioned;
+
+    -- Built after the copy, once the old table's names are free. The primary key of a partitioned
+    -- table has to contain the partition keys of every level, so user_id as well when notes_active
+    -- is hash-partitioned. The index names match the Note entity, so Hibernate's schema update
+    -- finds them.
+    IF hash_partitions > 1 THEN
+        ALTER TABLE notes ADD CONSTRAINT notes_pkey PRIMARY KEY (id, deleted, archived, user_id);
+    ELSE
+        ALTER TABLE notes ADD CONSTRAINT notes_pkey PRIMARY KEY (id, deleted, archived);
+    END IF;
+    CREATE INDEX idx_notes_user_updated ON notes (user_id, updated_at);
+    CREATE INDEX idx_notes_deleted_updated ON notes (deleted, updated_at, id);
+END $$;
+
+COMMIT;
+
+ANALYZE notes;
@@ -0,0 +1,34 @@
+-- Converts the notes table partitioned by partition-notes.sql, with or without hash partitions,
+-- back into a single table (see PARTITIONING_README.md). Same locking as partition-notes.sql:
+--
+--   psql -d notedoc -f scripts/partitioning/unpartition-notes.sql
+--
+-- Does nothing if notes is not partitioned. Foreign keys dropped by partition-notes.sql are not
+-- restored; the Note entity no longer declares them.
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+LOCK TABLE notes IN ACCESS EXCLUSIVE MODE;
+
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'notes'::regclass) <> 'p' THEN
+        RAISE NOTICE 'notes is not partitioned';
+        RETURN;
+    END IF;
+
+    ALTER TABLE notes RENAME TO notes_partitioned;
+    CREATE TABLE notes (LIKE notes_partitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+    INSERT INTO notes SELECT * FROM notes_partitioned;
+    -- Drops all partitions along with their primary key and index names
+    DROP TABLE notes_partitioned;
+
+    ALTER TABLE notes ADD CONSTRAINT notes_pkey PRIMARY KEY (id);
+    CREATE INDEX idx_notes_user_updated ON notes (user_id, updated_at);
+    CREATE INDEX idx_notes_deleted_updated ON notes (deleted, updated_at, id);
+END $$;
+
+COMMIT;
+
+ANALYZE notes;
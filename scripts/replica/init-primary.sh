@@ -0,0 +1,11 @@
+#!/bin/sh
+# Runs once on first start of the primary container: creates the replication role and lets it
+# connect from the compose network.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<SQL
+CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD 'replicator_password';
+SELECT pg_create_physical_replication_slot('notedoc_replica');
+SQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,16 @@
+#!/bin/sh
+# Entry point of the replica container: clones the primary with pg_basebackup on first start,
+# then runs PostgreSQL as a hot standby streaming from it.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_isready -h postgres-primary -p 5432 -U replicator; do
+        echo "Waiting for the primary..."
+        sleep 1
+    done
+    PGPASSWORD=replicator_password pg_basebackup -h postgres-primary -p 5432 -U replicator \
+        -D "$PGDATA" -S notedoc_replica -X stream -R
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres -c hot_standby=on
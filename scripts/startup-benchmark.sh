@@ -0,0 +1,148 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time to first successful GET /api/health and resident memory (RSS)
+# for each startup mode. Build the artifacts first (see STARTUP_README.md):
+#
+#   jar      target/notedoc-backend-*.jar                  (mvn -B -DskipTests package)
+#   aot-cds  target/fast-startup/ + application.jsa        (mvn -B -Pfast-startup -DskipTests package)
+#   native   target/notedoc-backend                        (mvn -B -Pnative -DskipTests native:compile)
+#
+# Usage: scripts/startup-benchmark.sh [mode ...]       (default: every mode whose artifact exists)
+#
+# Environment:
+#   RUNS       runs per mode (default 5)
+#   PORT       HTTP port (default 8080)
+#   TIMEOUT    seconds to wait for the first healthy response (default 120)
+#   JAVA       java executable (default: $JAVA_HOME/bin/java, then java on the PATH)
+#   JAVA_OPTS  extra JVM options for the jar and aot-cds modes
+#   APP_ARGS   extra application arguments, e.g. datasource settings
+#
+# The database settings come from the environment / .env as for a normal start.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+TIMEOUT=${TIMEOUT:-120}
+JAVA=${JAVA:-${JAVA_HOME:+$JAVA_HOME/bin/java}}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-}
+APP_ARGS=${APP_ARGS:-}
+HEALTH_URL="http://localhost:${PORT}/api/health"
+
+PLAIN_JAR=$(ls target/notedoc-backend-*.jar 2>/dev/null | grep -v -- '-plain' | head -n 1 || true)
+FAST_DIR=target/fast-startup
+FAST_JAR=$(ls ${FAST_DIR}/notedoc-backend-*.jar 2>/dev/null | head -n 1 || true)
+NATIVE_BIN=target/notedoc-backend
+
+artifact_present() {
+    case "$1" in
+        jar) [[ -n "$PLAIN_JAR" ]] ;;
+        aot-cds) [[ -n "$FAST_JAR" && -f "${FAST_DIR}/application.jsa" ]] ;;
+        native) [[ -x "$NATIVE_BIN" ]] ;;
+        *) echo "Unknown mode: $1" >&2; exit 2 ;;
+    esac
+}
+
+# Start the application for a mode in the background and print its PID
+launch() {
+    local log_file=$2
+    case "$1" in
+        jar)
+            # shellcheck disable=SC2086
+            "$JAVA" $JAVA_OPTS -jar "$PLAIN_JAR" --server.port="$PORT" $APP_ARGS >"$log_file" 2>&1 &
+            ;;
+        aot-cds)
+            # shellcheck disable=SC2086
+            "$JAVA" $JAVA_OPTS -XX:SharedArchiveFile="${FAST_DIR}/application.jsa" -Xlog:cds=off -Xlog:cds+dynamic=off \
+                -Dspring.aot.enabled=true -jar "$FAST_JAR" --server.port="$PORT" $APP_ARGS >"$log_file" 2>&1 &
+            ;;
+        native)
+            # shellcheck disable=SC2086
+            "$NATIVE_BIN" --server.port="$PORT" $APP_ARGS >"$log_file" 2>&1 &
+            ;;
+    esac
+    echo $!
+}
+
+rss_kb() {
+    if [[ -r "/proc/$1/status" ]]; then
+        awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+    else
+        ps -o rss= -p "$1" | tr -d ' '
+    fi
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR % 2) print v[(NR + 1) / 2]; else print int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+# One run: prints "<ms to first healthy response> <RSS in KB>"
+run_once() {
+    local mode=$1 log_file pid start elapsed deadline
+    log_file=$(mktemp)
+    start=$(now_ms)
+    pid=$(launch "$mode" "$log_file")
+    deadline=$((start + TIMEOUT * 1000))
+    until curl -fs -o /dev/null "$HEALTH_URL"; do
+        if ! kill -0 "$pid" 2>/dev/null || (( $(now_ms) > deadline )); then
+            echo "  $mode failed to become healthy, log: $log_file" >&2
+            kill "$pid" 2>/dev/null || true
+            return 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    echo "$elapsed $(rss_kb "$pid")"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log_file"
+}
+
+if curl -fs -o /dev/null "$HEALTH_URL"; then
+    echo "Something is already answering on $HEALTH_URL, stop it first" >&2
+    exit 1
+fi
+
+MODES=("$@")
+if [[ ${#MODES[@]} -eq 0 ]]; then
+    for mode in jar aot-cds native; do
+        if artifact_present "$mode"; then
+            MODES+=("$mode")
+        fi
+    done
+fi
+if [[ ${#MODES[@]} -eq 0 ]]; then
+    echo "No artifacts found, build at least one mode first" >&2
+    exit 1
+fi
+
+printf '%-8s %6s %12s %12s %12s %12s\n' mode runs "start min" "start med" "start max" "rss med"
+for mode in "${MODES[@]}"; do
+    if ! artifact_present "$mode"; then
+        echo "Skipping $mode: artifact not built" >&2
+        continue
+    fi
+    times=()
+    rss=()
+    for ((i = 1; i <= RUNS; i++)); do
+        read -r t r < <(run_once "$mode") || continue
+        times+=("$t")
+        rss+=("$r")
+    done
+    if [[ ${#times[@]} -eq 0 ]]; then
+        printf '%-8s %6s %12s\n' "$mode" 0 failed
+        continue
+    fi
+    t_min=$(printf '%s\n' "${times[@]}" | sort -n | head -n 1)
+    t_max=$(printf '%s\n' "${times[@]}" | sort -n | tail -n 1)
+    t_med=$(printf '%s\n' "${times[@]}" | median)
+    r_med=$(printf '%s\n' "${rss[@]}" | median)
+    printf '%-8s %6d %10d ms %10d ms %10d ms %9d MB\n' "$mode" "${#times[@]}" "$t_min" "$t_med" "$t_max" $((r_med / 1024))
+done
@@ -0,0 +1,73 @@
+package com.rakeshgupta.notedoc_backend.admission;
+
+import com.rakeshgupta.notedoc_backend.config.AdmissionProperties;
+import com.rakeshgupta.notedoc_backend.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an admission decision from 4 threads, for admitted calls and for calls rejected by
+ * the user's rate limit. Run with -prof gc: gc.alloc.rate.norm should stay at ~0 bytes/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AdmissionControlBenchmark {
+
+    private static final UUID USER_ID = UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+    private AdmissionControl unlimited;
+    private AdmissionControl exhausted;
+
+    @Setup
+    public void setUp() {
+        AdmissionProperties admitAll = new AdmissionProperties();
+        admitAll.setUserRateLimitEnabled(true);
+        admitAll.setUserRatePerSecond(1e9);
+        admitAll.setUserBurst(1_000_000_000);
+        admitAll.setInitialLimit(1_000);
+        admitAll.setMaxLimit(1_000);
+        unlimited = new AdmissionControl(admitAll, new SimpleMeterRegistry());
+
+        AdmissionProperties rejectAll = new AdmissionProperties();
+        rejectAll.setUserRateLimitEnabled(true);
+        rejectAll.setUserRatePerSecond(0.001);
+        rejectAll.setUserBurst(1);
+        exhausted = new AdmissionControl(rejectAll, new SimpleMeterRegistry());
+        exhausted.acquire(USER_ID, 0);
+    }
+
+    @Benchmark
+    public long admitAndRelease() {
+        long start = unlimited.acquire(USER_ID, 10);
+        unlimited.release(start);
+        return start;
+    }
+
+    @Benchmark
+    public int rejectRateLimited() {
+        try {
+            exhausted.acquire(USER_ID, 10);
+            return 0;
+        } catch (AdmissionRejectedException e) {
+            return e.getRetryAfterSeconds();
+        }
+    }
+}
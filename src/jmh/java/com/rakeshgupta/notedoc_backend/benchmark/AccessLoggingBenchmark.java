@@ -0,0 +1,136 @@
+package com.rakeshgupta.notedoc_backend.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.rakeshgupta.notedoc_backend.accesslog.AccessLogRingBuffer;
+import com.rakeshgupta.notedoc_backend.accesslog.AccessLogWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-thread cost of access logging from 4 concurrent threads: the former synchronous
+ * logback call (formatting plus the appender lock) against a claim/fill/publish on the
+ * access log ring buffer, and against the unsampled fast path that only draws a random number.
+ * Both loggers write to a discarding output stream so disk speed does not dominate.
+ * The ring buffer result is split into published and dropped entries: once producers outrun
+ * the single writer the buffer fills and further entries are dropped instead of blocking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AccessLoggingBenchmark {
+
+    private static final String METHOD = "GET";
+    private static final String URI = "/api/notes/" + UUID.randomUUID();
+    private static final String ENDPOINT = "NoteController.getNoteById";
+
+    /**
+     * Per-thread outcome of ring buffer publishes, reported as extra JMH results
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PublishCounters {
+        public long published;
+        public long dropped;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            published = 0;
+            dropped = 0;
+        }
+    }
+
+    private Logger syncLogger;
+    private AccessLogRingBuffer ringBuffer;
+    private AccessLogWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        syncLogger = discardingLogger(context, "bench.sync");
+        discardingLogger(context, "ACCESS");
+
+        ringBuffer = new AccessLogRingBuffer(8192);
+        writer = new AccessLogWriter(ringBuffer, 1);
+        writer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Benchmark
+    public void synchronousLogback() {
+        syncLogger.info("Request {} {} handled by {} - status {} in {} us",
+                METHOD, URI, ENDPOINT, 200, 1234L);
+    }
+
+    @Benchmark
+    public void ringBufferPublish(PublishCounters counters) {
+        AccessLogRingBuffer.Entry entry = ringBuffer.claim();
+        if (entry == null) {
+            counters.dropped++;
+            return;
+        }
+        entry.timestampMillis = System.currentTimeMillis();
+        entry.method = METHOD;
+        entry.uri = URI;
+        entry.endpoint = ENDPOINT;
+        entry.status = 200;
+        entry.durationNanos = 1_234_000L;
+        entry.forced = false;
+        ringBuffer.publish(entry);
+        counters.published++;
+    }
+
+    @Benchmark
+    public boolean unsampledSkip() {
+        return ThreadLocalRandom.current().nextDouble() < 0.01;
+    }
+
+    private static Logger discardingLogger(LoggerContext context, String name) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%t] %logger : %m%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        Logger logger = context.getLogger(name);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
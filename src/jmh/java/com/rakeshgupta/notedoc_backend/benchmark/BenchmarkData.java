@@ -0,0 +1,80 @@
+package com.rakeshgupta.notedoc_backend.benchmark;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.entity.Note;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Deterministic sample data shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+    public static final UUID USER_ID = UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+    private static final String[] WORDS = {"agenda", "budget", "timeline", "review", "the", "and", "deploy",
+            "notes", "- [ ] follow up", "## Summary", "**action**", "release", "customer", "sprint"};
+
+    private BenchmarkData() {}
+
+    /**
+     * Build a note entity as it would come back from the repository
+     */
+    public static Note note(int index, int contentLength) {
+        Random random = new Random(index);
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 9, 0).plusHours(index);
+        Note note = new Note();
+        note.setId(new UUID(42L, index));
+        note.setTitle("Meeting notes " + index);
+        note.setContent(markdown(random, contentLength));
+        note.setTags(new HashSet<>(Set.of("work", "meeting", "project-" + (index % 5))));
+        note.setPinned(index % 7 == 0);
+        note.setArchived(false);
+        note.setDeleted(false);
+        note.setUserId(USER_ID);
+        note.setCreatedAt(created);
+        note.setUpdatedAt(created.plusMinutes(random.nextInt(600)));
+        return note;
+    }
+
+    /**
+     * Build a response DTO with the same shape as {@link #note(int, int)}
+     */
+    public static NoteResponseDto responseDto(int index, int contentLength) {
+        Note note = note(index, contentLength);
+        return new NoteResponseDto(note.getId(), note.getTitle(), note.getContent(), note.getTags(),
+                note.getPinned(), note.getArchived(), note.getUserId(), note.getCreatedAt(), note.getUpdatedAt());
+    }
+
+    /**
+     * Build a page of response DTOs as returned by the list and search endpoints
+     */
+    public static Page<NoteResponseDto> responsePage(int pageSize, int contentLength) {
+        List<NoteResponseDto> notes = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            notes.add(responseDto(i, contentLength));
+        }
+        return new PageImpl<>(notes, PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "updatedAt")), 500);
+    }
+
+    /**
+     * Generate markdown-like text of roughly the given length
+     */
+    public static String markdown(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length + 32);
+        while (sb.length() < length) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(10) == 0 ? '\n' : ' ');
+        }
+        return sb.toString();
+    }
+}
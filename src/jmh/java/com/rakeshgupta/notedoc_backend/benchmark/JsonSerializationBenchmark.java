@@ -0,0 +1,57 @@
+package com.rakeshgupta.notedoc_backend.benchmark;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson JSON serialization of a single NoteResponseDto and of a Page of them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"200", "5000"})
+    private int contentLength;
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private JsonMapper mapper;
+    private NoteResponseDto note;
+    private Page<NoteResponseDto> page;
+
+    @Setup
+    public void setUp() {
+        mapper = JsonMapper.builder().build();
+        note = BenchmarkData.responseDto(0, contentLength);
+        page = BenchmarkData.responsePage(pageSize, contentLength);
+    }
+
+    @Benchmark
+    public byte[] serializeNote() {
+        return mapper.writeValueAsBytes(note);
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return mapper.writeValueAsBytes(page);
+    }
+}
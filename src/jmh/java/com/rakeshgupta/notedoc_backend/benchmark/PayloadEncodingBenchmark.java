@@ -0,0 +1,82 @@
+package com.rakeshgupta.notedoc_backend.benchmark;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares serialization CPU and wire size of a realistic note page across
+ * JSON, CBOR and Smile, each with and without gzip.
+ * Wire sizes are printed once per trial so clients' defaults can be picked from both numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"20"})
+    private int pageSize;
+
+    @Param({"2000"})
+    private int contentLength;
+
+    private ObjectMapper mapper;
+    private Page<NoteResponseDto> page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> JsonMapper.builder().build();
+        };
+        page = BenchmarkData.responsePage(pageSize, contentLength);
+        System.out.printf("%n[wire size] format=%s gzip=%s bytes=%d%n", format, gzip, encode().length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return encode();
+    }
+
+    private byte[] encode() throws IOException {
+        byte[] raw = mapper.writeValueAsBytes(page);
+        if (!gzip) {
+            return raw;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(out)) {
+            gzipStream.write(raw);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.rakeshgupta.notedoc_backend.benchmark;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of NoteCreateRequestDto, for a valid request and one that violates both constraints
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private NoteCreateRequestDto validRequest;
+    private NoteCreateRequestDto invalidRequest;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validRequest = new NoteCreateRequestDto("Meeting Notes",
+                BenchmarkData.markdown(new Random(7), 2_000), Set.of("work", "meeting"), false, false);
+        invalidRequest = new NoteCreateRequestDto(" ".repeat(300), "", Set.of(), false, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<NoteCreateRequestDto>> validateValid() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<NoteCreateRequestDto>> validateInvalid() {
+        return validator.validate(invalidRequest);
+    }
+}
@@ -0,0 +1,181 @@
+package com.rakeshgupta.notedoc_backend.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hot note list query against the single notes table and against the table partitioned by
+ * state (scripts/partitioning/partition-notes.sql), without and with active notes hash-partitioned
+ * by user, with the same notes in each. Needs PostgreSQL 13+:
+ * pass -Dbenchmark.postgres.url (and .user, .password) to the forked JVM with -jvmArgsAppend.
+ * Each layout is built in its own scratch schema, which is dropped afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteListPartitioningBenchmark {
+
+    private static final int USERS = 500;
+    private static final int NOTES_PER_USER = 200;
+    private static final int ARCHIVED_PERCENT = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final int HASH_PARTITIONS = 8;
+
+    /**
+     * The queries Hibernate generates for findActiveNoteListByUserId (sorted by updatedAt) and countActiveNotesByUserId
+     */
+    private static final String LIST_QUERY = "SELECT id, archived, content, created_at, deleted, pinned, title, " +
+            "updated_at, user_id FROM notes WHERE deleted = false AND user_id = ? ORDER BY updated_at DESC " +
+            "OFFSET 0 ROWS FETCH FIRST ? ROWS ONLY";
+    private static final String COUNT_QUERY = "SELECT COUNT(*) FROM notes WHERE deleted = false AND user_id = ?";
+
+    @Param({"flat", "partitioned", "hashed"})
+    private String layout;
+
+    /**
+     * Share of the notes in the trash; the rest is split into archived and active notes
+     */
+    @Param({"50", "90"})
+    private int deletedPercent;
+
+    private Connection connection;
+    private String schema;
+    private PreparedStatement list;
+    private PreparedStatement count;
+    private UUID[] users;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.postgres.url");
+        if (url == null) {
+            throw new IllegalStateException("Set -Dbenchmark.postgres.url=jdbc:postgresql://host:5432/db " +
+                    "(and benchmark.postgres.user/password) with -jvmArgsAppend to run this benchmark");
+        }
+        connection = DriverManager.getConnection(url, System.getProperty("benchmark.postgres.user"),
+                System.getProperty("benchmark.postgres.password"));
+        schema = "bench_notes_" + layout + "_" + deletedPercent;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+            for (String ddl : "flat".equals(layout) ? flatSchema() : partitionedSchema("hashed".equals(layout))) {
+                statement.execute(ddl);
+            }
+            // Interleaved states and users, as notes are created, archived and deleted over time
+            statement.execute("INSERT INTO notes (id, title, content, pinned, archived, deleted, user_id, created_at, updated_at) " +
+                    "SELECT gen_random_uuid(), 'Note ' || n, repeat(md5(n::text), 16), false, " +
+                    "(n * 7919) % 100 >= " + deletedPercent + " AND (n * 7919) % 100 < " + (deletedPercent + ARCHIVED_PERCENT) + ", " +
+                    "(n * 7919) % 100 < " + deletedPercent + ", " +
+                    "md5('user' || (n % " + USERS + "))::uuid, now() - n * interval '1 minute', now() - n * interval '1 second' " +
+                    "FROM generate_series(1, " + USERS * NOTES_PER_USER + ") AS n");
+            statement.execute("VACUUM ANALYZE notes");
+        }
+        users = new UUID[USERS];
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT DISTINCT user_id FROM notes ORDER BY user_id")) {
+            for (int i = 0; rows.next(); i++) {
+                users[i] = rows.getObject(1, UUID.class);
+            }
+        }
+        list = connection.prepareStatement(LIST_QUERY);
+        count = connection.prepareStatement(COUNT_QUERY);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void listActiveNotes(Blackhole blackhole) throws SQLException {
+        list.setObject(1, nextUser());
+        list.setInt(2, PAGE_SIZE);
+        try (ResultSet rows = list.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getString(3));
+            }
+        }
+    }
+
+    @Benchmark
+    public long countActiveNotes() throws SQLException {
+        count.setObject(1, nextUser());
+        try (ResultSet rows = count.executeQuery()) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private UUID nextUser() {
+        next = (next + 1) % users.length;
+        return users[next];
+    }
+
+    private static String[] flatSchema() {
+        return new String[]{
+                "CREATE TABLE notes (id uuid PRIMARY KEY, title varchar(255) NOT NULL, content text, " +
+                        "pinned boolean NOT NULL, archived boolean NOT NULL, deleted boolean NOT NULL, " +
+                        "user_id uuid NOT NULL, created_at timestamp(6) NOT NULL, updated_at timestamp(6) NOT NULL)",
+                "CREATE INDEX idx_notes_user_updated ON notes (user_id, updated_at)",
+                "CREATE INDEX idx_notes_deleted_updated ON notes (deleted, updated_at, id)"
+        };
+    }
+
+    /**
+     * The layout created by partition-notes.sql, with the primary key added after the partitions
+     * as the script does, so a key that misses a partition key fails here too
+     */
+    private static String[] partitionedSchema(boolean hashed) {
+        List<String> ddl = new ArrayList<>(List.of(
+                "CREATE TABLE notes (id uuid NOT NULL, title varchar(255) NOT NULL, content text, " +
+                        "pinned boolean NOT NULL, archived boolean NOT NULL, deleted boolean NOT NULL, " +
+                        "user_id uuid NOT NULL, created_at timestamp(6) NOT NULL, updated_at timestamp(6) NOT NULL) " +
+                        "PARTITION BY LIST (deleted)",
+                "CREATE TABLE notes_live PARTITION OF notes FOR VALUES IN (false) PARTITION BY LIST (archived)"));
+        if (hashed) {
+            ddl.add("CREATE TABLE notes_active PARTITION OF notes_live FOR VALUES IN (false) PARTITION BY HASH (user_id)");
+            for (int i = 0; i < HASH_PARTITIONS; i++) {
+                ddl.add("CREATE TABLE notes_active_" + i + " PARTITION OF notes_active " +
+                        "FOR VALUES WITH (MODULUS " + HASH_PARTITIONS + ", REMAINDER " + i + ")");
+            }
+        } else {
+            ddl.add("CREATE TABLE notes_active PARTITION OF notes_live FOR VALUES IN (false)");
+        }
+        ddl.add("CREATE TABLE notes_archived PARTITION OF notes_live FOR VALUES IN (true)");
+        ddl.add("CREATE TABLE notes_deleted PARTITION OF notes FOR VALUES IN (true)");
+        ddl.add("ALTER TABLE notes ADD CONSTRAINT notes_pkey PRIMARY KEY " +
+                (hashed ? "(id, deleted, archived, user_id)" : "(id, deleted, archived)"));
+        ddl.add("CREATE INDEX idx_notes_user_updated ON notes (user_id, updated_at)");
+        ddl.add("CREATE INDEX idx_notes_deleted_updated ON notes (deleted, updated_at, id)");
+        return ddl.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,50 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.benchmark.BenchmarkData;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.entity.Note;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO conversion performed for every note returned by the service
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertToResponseDtoBenchmark {
+
+    @Param({"200", "5000"})
+    private int contentLength;
+
+    private Note note;
+
+    @Setup
+    public void setUp() {
+        note = BenchmarkData.note(0, contentLength);
+    }
+
+    @Benchmark
+    public NoteResponseDto convertToResponseDto() {
+        return NoteResponseMapper.toResponseDto(note);
+    }
+
+    @Benchmark
+    public NoteResponseDto convertToSearchResultDto() {
+        return NoteResponseMapper.toSearchResultDto(note, "budget", false);
+    }
+}
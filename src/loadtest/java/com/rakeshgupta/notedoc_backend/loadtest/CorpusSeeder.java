@@ -0,0 +1,68 @@
+package com.rakeshgupta.notedoc_backend.loadtest;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Seeds the database with a deterministic corpus of notes before the run.
+ * Notes are created through the service, so statistics rows, tag dictionary, tag suggestions and
+ * shard routing are maintained exactly as for notes created over HTTP.
+ */
+public class CorpusSeeder {
+
+    static final String[] WORDS = {"agenda", "budget", "timeline", "review", "deploy", "release",
+            "customer", "sprint", "meeting", "roadmap", "incident", "design", "hiring", "retro"};
+
+    private final NoteService noteService;
+    private final Random random;
+
+    public CorpusSeeder(NoteService noteService, long seed) {
+        this.noteService = noteService;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Create the corpus and return the ids of the created notes
+     */
+    public List<UUID> seed(UUID userId, int corpusSize, int contentLength) {
+        List<UUID> ids = new ArrayList<>(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            NoteCreateRequestDto request = new NoteCreateRequestDto();
+            request.setTitle(randomWord() + " " + randomWord() + " " + i);
+            request.setContent(randomText(contentLength));
+            request.setTags(randomTags());
+            request.setPinned(random.nextInt(20) == 0);
+            request.setArchived(random.nextInt(10) == 0);
+            ids.add(noteService.createNote(request, userId).getId());
+        }
+        return ids;
+    }
+
+    String randomWord() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    String randomText(int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(randomWord()).append(random.nextInt(12) == 0 ? "\n" : " ");
+        }
+        return sb.toString();
+    }
+
+    private Set<String> randomTags() {
+        Set<String> tags = new HashSet<>();
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            tags.add(randomWord());
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rakeshgupta.notedoc_backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error count for one endpoint.
+ * Latencies are recorded in microseconds from the intended start time of each request,
+ * so queueing inside the load generator is not hidden (coordinated omission).
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public void record(long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        histogram.recordValue(micros);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    public void reset() {
+        histogram.reset();
+        errors.reset();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Histogram histogram() {
+        return histogram;
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+}
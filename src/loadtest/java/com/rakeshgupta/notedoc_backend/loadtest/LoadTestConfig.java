@@ -0,0 +1,70 @@
+package com.rakeshgupta.notedoc_backend.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test options parsed from key=value program arguments
+ */
+public record LoadTestConfig(
+        int rate,
+        int durationSeconds,
+        int warmupSeconds,
+        int corpusSize,
+        int contentLength,
+        long seed,
+        WorkloadMix mix,
+        List<String> basePaths,
+        String dbUrl,
+        String dbUsername,
+        String dbPassword,
+        int poolSize,
+        String reportFile) {
+
+    static final String DEFAULT_MIX = "list:40,get:30,search:15,create:8,update:5,delete:2";
+
+    /**
+     * Parse arguments such as "rate=200 duration=60 mix=list:50,get:50"
+     */
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value argument but got: " + arg);
+            }
+            options.put(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+
+        List<String> basePaths = new ArrayList<>();
+        for (String path : options.getOrDefault("paths", "/api/notes,/notes").split(",")) {
+            if (!path.isBlank()) {
+                basePaths.add(path.trim());
+            }
+        }
+
+        return new LoadTestConfig(
+                Integer.parseInt(options.getOrDefault("rate", "200")),
+                Integer.parseInt(options.getOrDefault("duration", "60")),
+                Integer.parseInt(options.getOrDefault("warmup", "10")),
+                Integer.parseInt(options.getOrDefault("corpus", "5000")),
+                Integer.parseInt(options.getOrDefault("content-length", "1000")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                WorkloadMix.parse(options.getOrDefault("mix", DEFAULT_MIX)),
+                basePaths,
+                options.get("db-url"),
+                options.getOrDefault("db-username", "notedoc_user"),
+                options.getOrDefault("db-password", "notedoc_password"),
+                Integer.parseInt(options.getOrDefault("pool-size", "10")),
+                options.get("report"));
+    }
+
+    /**
+     * Whether the run uses the embedded H2 stand-in instead of a real Postgres
+     */
+    public boolean embeddedDatabase() {
+        return dbUrl == null || dbUrl.isBlank();
+    }
+}
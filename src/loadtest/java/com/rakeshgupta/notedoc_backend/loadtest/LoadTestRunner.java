@@ -0,0 +1,251 @@
+package com.rakeshgupta.notedoc_backend.loadtest;
+
+import com.rakeshgupta.notedoc_backend.NotedocApplication;
+import com.rakeshgupta.notedoc_backend.loadtest.WorkloadMix.Operation;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test: boots the application, seeds a corpus and fires a weighted mix of
+ * list/get/search/create/update/delete requests at a fixed target rate through /api/notes and /notes.
+ * Reports throughput and HdrHistogram latency percentiles per endpoint.
+ */
+public class LoadTestRunner {
+
+    /**
+     * Same user the controllers use until authentication is implemented
+     */
+    private static final UUID USER_ID = UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestConfig config;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private HttpClient httpClient;
+    private String baseUrl;
+    private NoteIdPool idPool;
+    private CorpusSeeder textSource;
+
+    public LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        for (String basePath : config.basePaths()) {
+            for (Operation operation : Operation.values()) {
+                String name = endpointName(operation, basePath);
+                stats.put(name, new EndpointStats(name));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        try (ConfigurableApplicationContext context = startApplication(config)) {
+            new LoadTestRunner(config).run(context);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Boot the application on a random port against the configured database
+     */
+    static ConfigurableApplicationContext startApplication(LoadTestConfig config) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--spring.jpa.hibernate.ddl-auto=create-drop");
+        args.add("--spring.datasource.hikari.maximum-pool-size=" + config.poolSize());
+        args.add("--logging.level.root=WARN");
+        args.add("--app.url=http://localhost:0");
+        if (config.embeddedDatabase()) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:notedoc;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            args.add("--spring.datasource.username=sa");
+            args.add("--spring.datasource.password=");
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        } else {
+            args.add("--spring.datasource.url=" + config.dbUrl());
+            args.add("--spring.datasource.username=" + config.dbUsername());
+            args.add("--spring.datasource.password=" + config.dbPassword());
+        }
+        return new SpringApplicationBuilder(NotedocApplication.class).run(args.toArray(new String[0]));
+    }
+
+    void run(ConfigurableApplicationContext context) throws IOException, InterruptedException {
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        textSource = new CorpusSeeder(null, config.seed() + 1);
+
+        System.out.printf("Seeding %d notes (%s database)...%n", config.corpusSize(),
+                config.embeddedDatabase() ? "embedded H2" : config.dbUrl());
+        long seedStart = System.nanoTime();
+        CorpusSeeder seeder = new CorpusSeeder(context.getBean(NoteService.class), config.seed());
+        idPool = new NoteIdPool(seeder.seed(USER_ID, config.corpusSize(), config.contentLength()));
+        System.out.printf("Seeded in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+
+            Random random = new Random(config.seed());
+            System.out.printf("Warming up for %d s at %d req/s...%n", config.warmupSeconds(), config.rate());
+            drive(executor, random, config.warmupSeconds());
+            stats.values().forEach(EndpointStats::reset);
+
+            System.out.printf("Measuring for %d s at %d req/s, mix %s...%n",
+                    config.durationSeconds(), config.rate(), config.mix());
+            long start = System.nanoTime();
+            drive(executor, random, config.durationSeconds());
+            executor.shutdown();
+            executor.awaitTermination(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            report(System.out, elapsedSeconds);
+            if (config.reportFile() != null) {
+                Path reportPath = Path.of(config.reportFile());
+                Files.createDirectories(reportPath.toAbsolutePath().getParent());
+                try (PrintStream out = new PrintStream(Files.newOutputStream(reportPath))) {
+                    report(out, elapsedSeconds);
+                }
+                System.out.printf("Report written to %s%n", reportPath.toAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Issue requests at the target rate for the given duration without waiting for responses
+     */
+    private void drive(ExecutorService executor, Random random, int seconds) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long totalRequests = (long) config.rate() * seconds;
+        long start = System.nanoTime();
+        List<String> basePaths = config.basePaths();
+        for (long i = 0; i < totalRequests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = config.mix().next(random);
+            String basePath = basePaths.get(random.nextInt(basePaths.size()));
+            executor.execute(() -> execute(operation, basePath, intendedStart));
+        }
+    }
+
+    private void execute(Operation operation, String basePath, long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation effective = operation;
+        UUID id = null;
+        if (operation == Operation.GET || operation == Operation.UPDATE) {
+            id = idPool.pick(random);
+        } else if (operation == Operation.DELETE) {
+            id = idPool.take(random);
+        }
+        if (id == null && (operation == Operation.GET || operation == Operation.UPDATE || operation == Operation.DELETE)) {
+            effective = Operation.LIST;
+        }
+
+        boolean success;
+        try {
+            HttpResponse<String> response = httpClient.send(buildRequest(effective, basePath, id, random),
+                    HttpResponse.BodyHandlers.ofString());
+            success = response.statusCode() < 400;
+            if (success && effective == Operation.CREATE) {
+                JsonNode body = jsonMapper.readTree(response.body());
+                idPool.add(UUID.fromString(body.get("id").asString()));
+            }
+        } catch (Exception e) {
+            success = false;
+        }
+        stats.get(endpointName(effective, basePath)).record(System.nanoTime() - intendedStart, success);
+    }
+
+    private HttpRequest buildRequest(Operation operation, String basePath, UUID id, Random random) {
+        String notesUrl = baseUrl + basePath;
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(REQUEST_TIMEOUT);
+        return switch (operation) {
+            case LIST -> builder.uri(URI.create(notesUrl + "?page=" + random.nextInt(5) + "&size=20")).GET().build();
+            case GET -> builder.uri(URI.create(notesUrl + "/" + id)).GET().build();
+            case SEARCH -> builder.uri(URI.create(notesUrl + "/search?q=" + CorpusSeeder.WORDS[random.nextInt(CorpusSeeder.WORDS.length)]
+                    + "&page=0&size=20")).GET().build();
+            case CREATE -> builder.uri(URI.create(notesUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(noteBody(random)))
+                    .build();
+            case UPDATE -> builder.uri(URI.create(notesUrl + "/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(noteBody(random)))
+                    .build();
+            case DELETE -> builder.uri(URI.create(notesUrl + "/" + id)).DELETE().build();
+        };
+    }
+
+    private String noteBody(Random random) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        String content;
+        synchronized (textSource) {
+            body.put("title", textSource.randomWord() + " " + random.nextInt(1_000_000));
+            content = textSource.randomText(config.contentLength());
+            body.put("tags", List.of(textSource.randomWord()));
+        }
+        body.put("content", content);
+        return jsonMapper.writeValueAsString(body);
+    }
+
+    private void report(PrintStream out, double elapsedSeconds) {
+        out.printf("%n%-22s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long totalCount = 0;
+        long totalErrors = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram histogram = endpoint.histogram();
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            totalCount += count;
+            totalErrors += endpoint.errors();
+            out.printf("%-22s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.name(), count, endpoint.errors(), count / elapsedSeconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+        out.printf("%-22s %9d %8d %9.1f%n", "TOTAL", totalCount, totalErrors, totalCount / elapsedSeconds);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static String endpointName(Operation operation, String basePath) {
+        return operation.name().toLowerCase() + " " + basePath;
+    }
+}
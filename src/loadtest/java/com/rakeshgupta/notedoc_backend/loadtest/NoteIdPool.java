@@ -0,0 +1,49 @@
+package com.rakeshgupta.notedoc_backend.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Ids of notes that currently exist, used to target get, update and delete requests.
+ * Contention here is negligible next to the HTTP round trip, so a plain lock is enough.
+ */
+public class NoteIdPool {
+
+    private final List<UUID> ids;
+
+    public NoteIdPool(Collection<UUID> initialIds) {
+        this.ids = new ArrayList<>(initialIds);
+    }
+
+    public synchronized void add(UUID id) {
+        ids.add(id);
+    }
+
+    /**
+     * Pick a random id without removing it, or null if the pool is empty
+     */
+    public synchronized UUID pick(Random random) {
+        return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+    }
+
+    /**
+     * Remove and return a random id so it is not targeted again, or null if the pool is empty
+     */
+    public synchronized UUID take(Random random) {
+        if (ids.isEmpty()) {
+            return null;
+        }
+        int index = random.nextInt(ids.size());
+        UUID id = ids.get(index);
+        ids.set(index, ids.get(ids.size() - 1));
+        ids.remove(ids.size() - 1);
+        return id;
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+}
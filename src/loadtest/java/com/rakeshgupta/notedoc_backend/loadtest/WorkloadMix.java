@@ -0,0 +1,78 @@
+package com.rakeshgupta.notedoc_backend.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted mix of note operations, e.g. "list:40,get:30,search:15,create:8,update:5,delete:2"
+ */
+public class WorkloadMix {
+
+    /**
+     * Operations driven against the note endpoints
+     */
+    public enum Operation {
+        LIST, GET, SEARCH, CREATE, UPDATE, DELETE
+    }
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private WorkloadMix(Map<Operation, Integer> weights) {
+        this.operations = new Operation[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+        int i = 0;
+        int sum = 0;
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            sum += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulativeWeights[i] = sum;
+            i++;
+        }
+        this.totalWeight = sum;
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Workload mix must contain at least one positive weight");
+        }
+    }
+
+    public static WorkloadMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(kv[0].trim().toUpperCase()), weight);
+            }
+        }
+        return new WorkloadMix(weights);
+    }
+
+    public Operation next(Random random) {
+        int r = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(operations[i].name().toLowerCase()).append(':').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.rakeshgupta.notedoc_backend.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free bounded multi-producer / single-consumer ring of preallocated access log entries.
+ * Request threads claim a slot with a single CAS, fill it in place and publish it; when the
+ * ring is full the entry is dropped and counted instead of blocking the request.
+ * Slot sequence numbers follow the classic bounded MPMC queue design: a slot is free for
+ * position p when its sequence equals p, and readable when it equals p + 1.
+ */
+public class AccessLogRingBuffer {
+
+    /**
+     * A reusable access log record. Fields are written by the producer between
+     * {@link #claim()} and {@link #publish(Entry)}, and read only by the consumer.
+     */
+    public static final class Entry {
+
+        private volatile long sequence;
+        private long position;
+
+        public long timestampMillis;
+        public String method;
+        public String uri;
+        public String endpoint;
+        public int status;
+        public long durationNanos;
+        public boolean forced;
+
+        Entry(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private final Entry[] entries;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private long head;
+
+    public AccessLogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new Entry(i);
+        }
+    }
+
+    /**
+     * Claim the next free entry, or return null (and count a drop) when the ring is full
+     */
+    public Entry claim() {
+        while (true) {
+            long position = tail.get();
+            Entry entry = entries[(int) (position & mask)];
+            long difference = entry.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    entry.position = position;
+                    return entry;
+                }
+            } else if (difference < 0) {
+                dropped.increment();
+                return null;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Make a filled entry visible to the consumer
+     */
+    public void publish(Entry entry) {
+        entry.sequence = entry.position + 1;
+    }
+
+    /**
+     * Next published entry for the single consumer, or null if none is ready.
+     * The entry must be handed back with {@link #release(Entry)} once it has been read.
+     */
+    public Entry poll() {
+        Entry entry = entries[(int) (head & mask)];
+        if (entry.sequence != head + 1) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Return a polled entry to the producers
+     */
+    public void release(Entry entry) {
+        entry.method = null;
+        entry.uri = null;
+        entry.endpoint = null;
+        entry.sequence = head + entries.length;
+        head++;
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,99 @@
+package com.rakeshgupta.notedoc_backend.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread that drains the access log ring buffer and writes one structured
+ * line per entry to the "ACCESS" logger, keeping formatting and appender locking off
+ * the request threads.
+ */
+public class AccessLogWriter implements Runnable {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS");
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final AccessLogRingBuffer ringBuffer;
+    private final long drainIntervalNanos;
+    private final StringBuilder line = new StringBuilder(256);
+    private volatile boolean running;
+    private Thread thread;
+    private long reportedDrops;
+    private long lastDropWarningNanos;
+
+    public AccessLogWriter(AccessLogRingBuffer ringBuffer, long drainIntervalMs) {
+        this.ringBuffer = ringBuffer;
+        this.drainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(drainIntervalMs);
+        this.lastDropWarningNanos = System.nanoTime() - DROP_WARNING_INTERVAL_NANOS;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(drainIntervalNanos);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Write all currently published entries
+     *
+     * @return number of entries written
+     */
+    int drain() {
+        int written = 0;
+        AccessLogRingBuffer.Entry entry;
+        while ((entry = ringBuffer.poll()) != null) {
+            try {
+                ACCESS_LOG.info(format(entry));
+            } catch (RuntimeException e) {
+                log.warn("Failed to write access log entry: {}", e.getMessage());
+            } finally {
+                ringBuffer.release(entry);
+            }
+            written++;
+        }
+        long drops = ringBuffer.droppedCount();
+        long now = System.nanoTime();
+        if (drops != reportedDrops && now - lastDropWarningNanos >= DROP_WARNING_INTERVAL_NANOS) {
+            log.warn("Access log buffer full, dropped {} entries so far", drops);
+            reportedDrops = drops;
+            lastDropWarningNanos = now;
+        }
+        return written;
+    }
+
+    private String format(AccessLogRingBuffer.Entry entry) {
+        line.setLength(0);
+        line.append("ts=").append(Instant.ofEpochMilli(entry.timestampMillis))
+                .append(" method=").append(entry.method)
+                .append(" uri=").append(entry.uri)
+                .append(" endpoint=").append(entry.endpoint)
+                .append(" status=").append(entry.status)
+                .append(" durationUs=").append(TimeUnit.NANOSECONDS.toMicros(entry.durationNanos))
+                .append(" reason=").append(entry.forced ? "forced" : "sampled");
+        return line.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.rakeshgupta.notedoc_backend.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global in-flight limit that adapts to observed latency (additive increase, multiplicative
+ * decrease). Every call faster than the latency threshold counts towards growing the limit
+ * by one once a full limit's worth of fast calls has completed; a slower call multiplies the
+ * limit by the backoff ratio, at most once per threshold period so one burst of slow calls
+ * only backs off once. Acquire and release are CAS loops on atomics and never allocate.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger fastSinceIncrease = new AtomicInteger();
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    long latencyThresholdMs, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.clamp(initialLimit, minLimit, maxLimit));
+    }
+
+    /**
+     * Reserve an in-flight slot
+     *
+     * @return false if the limit is reached; the caller must then not call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Free a slot and feed the call's latency into the limit
+     */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else {
+            increase();
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void increase() {
+        int current = limit.get();
+        if (current >= maxLimit || fastSinceIncrease.incrementAndGet() < current) {
+            return;
+        }
+        fastSinceIncrease.set(0);
+        limit.compareAndSet(current, current + 1);
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        long last = lastDecreaseNanos.get();
+        if (now - last < latencyThresholdNanos || !lastDecreaseNanos.compareAndSet(last, now)) {
+            return;
+        }
+        fastSinceIncrease.set(0);
+        int current = limit.get();
+        limit.compareAndSet(current, Math.max(minLimit, (int) (current * backoffRatio)));
+    }
+}
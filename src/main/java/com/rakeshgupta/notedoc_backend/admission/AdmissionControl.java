@@ -0,0 +1,114 @@
+package com.rakeshgupta.notedoc_backend.admission;
+
+import com.rakeshgupta.notedoc_backend.config.AdmissionProperties;
+import com.rakeshgupta.notedoc_backend.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Admission control in front of the note service and its connection pool. The content and
+ * attachment services, which query the database without going through the note service, admit each
+ * of their queries here as well.
+ * A call first takes tokens from the user's bucket (rejected with 429 when empty), then a slot
+ * under the adaptive global concurrency limit (rejected with 503 when full, refunding the
+ * tokens). The per-user buckets can be switched off separately. Rejection is immediate, so a single heavy client cannot make everyone else wait
+ * for a pooled connection until the pool's connection timeout.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    private final boolean enabled;
+    private final boolean userRateLimitEnabled;
+    private final int pageSizePerToken;
+    private final int overloadRetryAfterSeconds;
+    private final UserRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Counter rateLimitedCounter;
+    private final Counter overloadedCounter;
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.userRateLimitEnabled = properties.isUserRateLimitEnabled();
+        this.pageSizePerToken = Math.max(1, properties.getPageSizePerToken());
+        this.overloadRetryAfterSeconds = properties.getOverloadRetryAfterSeconds();
+        this.rateLimiter = new UserRateLimiter(properties.getUserRatePerSecond(), properties.getUserBurst());
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getLatencyThresholdMs(), properties.getBackoffRatio());
+        this.rateLimitedCounter = rejections(meterRegistry, "rate_limited");
+        this.overloadedCounter = rejections(meterRegistry, "overloaded");
+        Gauge.builder("notedoc.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("notedoc.admission.inflight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Note service calls currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("notedoc.admission.users", rateLimiter, UserRateLimiter::size)
+                .description("Users with a partially drained token bucket")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admit a call or throw
+     *
+     * @param userId user the call is made for
+     * @param pageSize requested page size, 0 for single-note operations
+     * @return start time to pass to {@link #release(long)}
+     * @throws AdmissionRejectedException when the user is over its rate or the server is at its limit
+     */
+    public long acquire(UUID userId, int pageSize) {
+        long now = System.nanoTime();
+        if (!enabled) {
+            return now;
+        }
+        int tokens = userRateLimitEnabled ? 1 + pageSize / pageSizePerToken : 0;
+        if (tokens > 0) {
+            long waitNanos = rateLimiter.tryAcquire(userId, tokens, now);
+            if (waitNanos != UserRateLimiter.ADMITTED) {
+                rateLimitedCounter.increment();
+                throw AdmissionRejectedException.rateLimited(waitNanos);
+            }
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            if (tokens > 0) {
+                rateLimiter.refund(userId, tokens);
+            }
+            overloadedCounter.increment();
+            throw AdmissionRejectedException.overloaded(overloadRetryAfterSeconds);
+        }
+        return now;
+    }
+
+    /**
+     * Release the slot taken by a successful {@link #acquire}
+     */
+    public void release(long startNanos) {
+        if (enabled) {
+            concurrencyLimit.release(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Forget users whose buckets have refilled, so the bucket map only holds recently active users
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        int evicted = rateLimiter.evictIdle();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("notedoc.admission.rejected")
+                .description("Note service calls rejected by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,84 @@
+package com.rakeshgupta.notedoc_backend.admission;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user token buckets, implemented with the generic cell rate algorithm: each bucket is a
+ * single "theoretical arrival time" updated by CAS, so a decision is lock-free and, once the
+ * user's bucket exists, allocation-free. A bucket whose arrival time lies in the past is full
+ * and equivalent to a new one, which is what {@link #evictIdle()} relies on.
+ */
+public class UserRateLimiter {
+
+    /** Returned by {@link #tryAcquire} when the tokens were granted */
+    public static final long ADMITTED = 0;
+
+    private final long nanosPerToken;
+    private final int burst;
+    private final long capacityNanos;
+    private final ConcurrentHashMap<UUID, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param tokensPerSecond sustained refill rate
+     * @param burst bucket capacity in tokens
+     */
+    public UserRateLimiter(double tokensPerSecond, int burst) {
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.burst = Math.max(1, burst);
+        this.capacityNanos = nanosPerToken * this.burst;
+    }
+
+    /**
+     * Take tokens from the user's bucket. A call costing more than the bucket holds takes a full
+     * bucket instead, so it is admitted once the bucket has refilled rather than never.
+     *
+     * @return {@link #ADMITTED}, or the nanoseconds until enough tokens will be available
+     */
+    public long tryAcquire(UUID userId, int tokens, long nowNanos) {
+        AtomicLong bucket = buckets.get(userId);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(userId, id -> new AtomicLong(nowNanos));
+        }
+        long cost = nanosPerToken * Math.min(tokens, burst);
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, nowNanos) + cost;
+            long excess = next - nowNanos - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return ADMITTED;
+            }
+        }
+    }
+
+    /**
+     * Give back tokens taken by a call that was rejected further down
+     */
+    public void refund(UUID userId, int tokens) {
+        AtomicLong bucket = buckets.get(userId);
+        if (bucket != null) {
+            bucket.addAndGet(-nanosPerToken * Math.min(tokens, burst));
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled completely
+     *
+     * @return number of buckets removed
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
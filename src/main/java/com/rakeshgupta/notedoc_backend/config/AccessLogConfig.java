@@ -0,0 +1,50 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import com.rakeshgupta.notedoc_backend.accesslog.AccessLogRingBuffer;
+import com.rakeshgupta.notedoc_backend.accesslog.AccessLogWriter;
+import com.rakeshgupta.notedoc_backend.filter.AccessLogFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Asynchronous, sampled access log for the note endpoints.
+ * Request threads hand entries to a lock-free ring buffer; a single background writer
+ * formats them and writes to the "ACCESS" logger. Disabled with app.access-log.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.access-log.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AccessLogConfig {
+
+    @Bean
+    public AccessLogRingBuffer accessLogRingBuffer(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        AccessLogRingBuffer ringBuffer = new AccessLogRingBuffer(properties.getBufferSize());
+        Gauge.builder("notedoc.access.log.dropped", ringBuffer, AccessLogRingBuffer::droppedCount)
+                .description("Access log entries dropped because the buffer was full")
+                .register(meterRegistry);
+        log.info("Access log enabled (buffer {}, default sample rate {}, slow threshold {} ms)",
+                ringBuffer.capacity(), properties.getDefaultSampleRate(), properties.getSlowThresholdMs());
+        return ringBuffer;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AccessLogWriter accessLogWriter(AccessLogRingBuffer ringBuffer, AccessLogProperties properties) {
+        return new AccessLogWriter(ringBuffer, properties.getDrainIntervalMs());
+    }
+
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter(AccessLogRingBuffer ringBuffer,
+                                                                   AccessLogProperties properties) {
+        FilterRegistrationBean<AccessLogFilter> registration =
+                new FilterRegistrationBean<>(new AccessLogFilter(ringBuffer, properties));
+        registration.addUrlPatterns("/api/notes/*", "/notes/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,47 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the asynchronous access log of the note endpoints
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.access-log")
+public class AccessLogProperties {
+
+    /**
+     * Whether access logging is enabled at all
+     */
+    private boolean enabled = true;
+
+    /**
+     * Ring buffer capacity, rounded up to a power of two; entries are dropped when it is full
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * Fraction of successful, fast requests that are logged when no per-endpoint rate is set
+     */
+    private double defaultSampleRate = 0.01;
+
+    /**
+     * Per-endpoint sample rates keyed by Controller.method, e.g. [NoteController.searchNotes]=0.5
+     */
+    private Map<String, Double> sampleRates = new HashMap<>();
+
+    /**
+     * Requests taking at least this long are always logged
+     */
+    private long slowThresholdMs = 500;
+
+    /**
+     * How long the writer sleeps when the buffer is empty
+     */
+    private long drainIntervalMs = 50;
+}
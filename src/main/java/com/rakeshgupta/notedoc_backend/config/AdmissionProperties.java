@@ -0,0 +1,70 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for admission control in front of the note service
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    /**
+     * Whether requests are rate limited and shed at all
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether each user gets a token bucket. Off while every request runs as the same hard-coded
+     * user, since all clients would then share one bucket and be capped at one user's rate
+     */
+    private boolean userRateLimitEnabled = false;
+
+    /**
+     * Sustained tokens per second granted to each user
+     */
+    private double userRatePerSecond = 20;
+
+    /**
+     * Token bucket capacity per user, i.e. the largest burst served at once
+     */
+    private int userBurst = 40;
+
+    /**
+     * Page size covered by one token; a listing of size=1000 costs 1 + 1000 / this value tokens
+     */
+    private int pageSizePerToken = 100;
+
+    /**
+     * Concurrency limit at startup, normally the connection pool size
+     */
+    private int initialLimit = 10;
+
+    /**
+     * Lower bound of the adaptive concurrency limit
+     */
+    private int minLimit = 2;
+
+    /**
+     * Upper bound of the adaptive concurrency limit
+     */
+    private int maxLimit = 40;
+
+    /**
+     * Calls slower than this shrink the concurrency limit, faster ones let it grow
+     */
+    private long latencyThresholdMs = 250;
+
+    /**
+     * Factor applied to the limit on a slow call, at most once per latency threshold
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Retry-After sent with 503 responses when the concurrency limit is reached
+     */
+    private int overloadRetryAfterSeconds = 1;
+}
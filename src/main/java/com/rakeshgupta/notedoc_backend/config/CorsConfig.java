@@ -124,6 +124,8 @@ public class CorsConfig implements WebMvcConfigurer {
             "X-Page-Number",
             "X-Page-Size",
             "Location",
+            "Server-Timing",
+            "Retry-After",
             "Access-Control-Allow-Origin",
             "Access-Control-Allow-Credentials"
         ));
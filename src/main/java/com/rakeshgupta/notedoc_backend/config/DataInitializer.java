@@ -2,28 +2,50 @@ package com.rakeshgupta.notedoc_backend.config;
 
 import com.rakeshgupta.notedoc_backend.entity.HealthCheck;
 import com.rakeshgupta.notedoc_backend.repository.HealthCheckRepository;
+import com.rakeshgupta.notedoc_backend.service.DatabaseReadinessGate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Seeds the health check table once the application is ready, so it never delays startup.
+ * Runs on the first ACCEPTING_TRAFFIC readiness change after the database path is warm.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class DataInitializer implements CommandLineRunner {
-    
+public class DataInitializer {
+
     private final HealthCheckRepository healthCheckRepository;
-    
-    @Override
-    public void run(String... args) {
+    private final DatabaseReadinessGate databaseReadinessGate;
+    private final AtomicBoolean initialized = new AtomicBoolean();
+
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || !databaseReadinessGate.isWarm()
+                || !initialized.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            run();
+        } catch (Exception e) {
+            log.error("❌ Health check data initialization failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run() {
         // Only initialize if table is empty
         if (healthCheckRepository.count() == 0) {
             log.info("🌱 Initializing health check data...");
-            
+
             List<HealthCheck> initialData = Arrays.asList(
                 new HealthCheck("INITIALIZED", LocalDateTime.now().minusHours(5), "System startup check 1"),
                 new HealthCheck("INITIALIZED", LocalDateTime.now().minusHours(4), "System startup check 2"),
@@ -31,7 +53,7 @@ public class DataInitializer implements CommandLineRunner {
                 new HealthCheck("INITIALIZED", LocalDateTime.now().minusHours(2), "System startup check 4"),
                 new HealthCheck("INITIALIZED", LocalDateTime.now().minusHours(1), "System startup check 5")
             );
-            
+
             healthCheckRepository.saveAll(initialData);
             log.info("✅ Successfully initialized {} health check records", initialData.size());
         } else {
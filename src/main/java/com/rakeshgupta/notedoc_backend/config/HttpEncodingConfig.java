@@ -0,0 +1,58 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import com.rakeshgupta.notedoc_backend.filter.GzipRequestBodyFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Wire encoding configuration for note payloads.
+ * Registers CBOR and Smile converters next to JSON so clients can pick a binary
+ * encoding through the Accept / Content-Type headers, and decodes gzip request bodies.
+ * Response compression itself is handled by the embedded server (server.compression.*).
+ */
+@Configuration
+@Slf4j
+public class HttpEncodingConfig implements WebMvcConfigurer {
+
+    @Value("${app.encoding.binary-enabled:true}")
+    private boolean binaryEnabled;
+
+    @Value("${app.encoding.request-gzip.max-inflated-size:10485760}")
+    private long maxInflatedRequestSize;
+
+    /**
+     * Add CBOR (application/cbor) and Smile (application/x-jackson-smile) converters.
+     * JSON stays first in the list so it remains the default when Accept is missing or wildcard.
+     */
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        if (!binaryEnabled) {
+            return;
+        }
+        log.info("Enabling binary content negotiation: application/cbor, application/x-jackson-smile");
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(CBORMapper.builder()))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(SmileMapper.builder()));
+    }
+
+    /**
+     * Inflate gzip-encoded request bodies before they reach the message converters
+     */
+    @Bean
+    public FilterRegistrationBean<GzipRequestBodyFilter> gzipRequestBodyFilter() {
+        FilterRegistrationBean<GzipRequestBodyFilter> registration =
+                new FilterRegistrationBean<>(new GzipRequestBodyFilter(maxInflatedRequestSize));
+        registration.addUrlPatterns("/api/notes/*", "/notes/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,26 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import com.rakeshgupta.notedoc_backend.filter.RequestActivityFilter;
+import com.rakeshgupta.notedoc_backend.service.RequestActivityTracker;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Records client activity on the note endpoints for the idle-aware keep-alive.
+ * Health checks and actuator scrapes are deliberately not tracked, since the
+ * keep-alive's own self-pings would otherwise keep the instance looking busy.
+ */
+@Configuration
+public class KeepAliveConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestActivityFilter> requestActivityFilter(RequestActivityTracker tracker) {
+        FilterRegistrationBean<RequestActivityFilter> registration =
+                new FilterRegistrationBean<>(new RequestActivityFilter(tracker));
+        registration.addUrlPatterns("/api/notes/*", "/notes/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,55 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for routing read-only transactions to a read replica.
+ * Pool settings for the replica are bound from app.datasource.replica.hikari.*
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Whether read-only transactions are routed to the replica at all
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URL of the replica
+     */
+    private String url;
+
+    /**
+     * Replica credentials; the primary's are used when blank
+     */
+    private String username;
+    private String password;
+
+    /**
+     * How long a user's reads stay on the primary after that user's last write
+     */
+    private long stickyWindowMs = 5000;
+
+    /**
+     * Replication lag above which all reads go to the primary
+     */
+    private long maxLagMs = 1000;
+
+    /**
+     * Interval between replica lag checks
+     */
+    private long lagCheckIntervalMs = 2000;
+
+    /**
+     * Query returning the replica's lag in milliseconds. The default works on a PostgreSQL
+     * streaming replica and reports 0 when all received WAL has been replayed, so an idle
+     * primary does not look like lag.
+     */
+    private String lagQuery = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+}
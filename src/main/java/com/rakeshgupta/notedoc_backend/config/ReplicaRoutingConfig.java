@@ -0,0 +1,100 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import com.rakeshgupta.notedoc_backend.jdbc.ReplicaHealthIndicator;
+import com.rakeshgupta.notedoc_backend.jdbc.ReplicaLagMonitor;
+import com.rakeshgupta.notedoc_backend.jdbc.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.jdbc.health.DataSourceHealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica routing: separate Hikari pools for the primary (spring.datasource.*) and the
+ * replica (app.datasource.replica.*), exposed as one lazy routing DataSource that sends
+ * read-only transactions to the replica and everything else to the primary.
+ * Replaces Boot's single pooled DataSource only when app.datasource.replica.enabled=true.
+ * The "db" health check covers the primary only; the replica is reported separately and never
+ * takes the instance down, since reads fall back to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaDataSourceProperties replica, DataSourceProperties primary) {
+        if (!StringUtils.hasText(replica.getUrl())) {
+            throw new IllegalStateException("app.datasource.replica.url must be set when replica routing is enabled");
+        }
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primary.determineDriverClassName())
+                .url(replica.getUrl())
+                .username(StringUtils.hasText(replica.getUsername()) ? replica.getUsername() : primary.determineUsername())
+                .password(StringUtils.hasText(replica.getPassword()) ? replica.getPassword() : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaDataSourceProperties replica, MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, replica.getLagQuery(),
+                replica.getMaxLagMs(), replica.getLagCheckIntervalMs());
+        Gauge.builder("notedoc.datasource.replica.lag", monitor, ReplicaLagMonitor::getLagMillis)
+                .description("Replication lag of the read replica in milliseconds, -1 while it is down")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    /**
+     * The application DataSource. The lazy proxy defers borrowing a pooled connection to the first
+     * statement, so the routing decision sees the transaction's read-only flag.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor, ReplicaDataSourceProperties replica,
+                                 MeterRegistry meterRegistry) {
+        log.info("🔄 Routing read-only transactions to the read replica (sticky window {} ms, max lag {} ms)",
+                replica.getStickyWindowMs(), replica.getMaxLagMs());
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, meterRegistry));
+    }
+
+    @Bean
+    public HealthIndicator dbHealthContributor(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        return new DataSourceHealthIndicator(primaryDataSource);
+    }
+
+    @Bean
+    public HealthIndicator replicaHealthIndicator(ReplicaLagMonitor replicaLagMonitor) {
+        return new ReplicaHealthIndicator(replicaLagMonitor);
+    }
+}
@@ -1,18 +1,34 @@
 package com.rakeshgupta.notedoc_backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
+
 /**
- * Configuration for RestClient bean used by KeepAliveService
+ * Configuration for RestClient bean used by KeepAliveService.
+ * Connect and read timeouts keep a slow or unreachable endpoint from tying up the
+ * keep-alive scheduler threads.
  */
 @Configuration
 public class RestClientConfig {
 
+    @Value("${app.keep-alive.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.keep-alive.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
     @Bean
     public RestClient restClient() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
         return RestClient.builder()
+                .requestFactory(requestFactory)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import com.rakeshgupta.notedoc_backend.shard.ConsistentHashRing;
+import com.rakeshgupta.notedoc_backend.shard.ShardDirectory;
+import com.rakeshgupta.notedoc_backend.shard.ShardInitializer;
+import com.rakeshgupta.notedoc_backend.shard.ShardMigrator;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import com.rakeshgupta.notedoc_backend.shard.ShardRoutingDataSource;
+import com.rakeshgupta.notedoc_backend.shard.ShardSchemaSynchronizer;
+import com.rakeshgupta.notedoc_backend.shard.ShardsEndpoint;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.health.contributor.CompositeHealthContributor;
+import org.springframework.boot.health.contributor.HealthContributor;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.jdbc.health.DataSourceHealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharding of notes by user: one Hikari pool per shard, a routing DataSource that uses the pool
+ * of the shard selected for the current call, and the consistent-hash directory that selects it.
+ * The main shard (spring.datasource.*) also keeps all non-note tables.
+ * Replaces Boot's single pooled DataSource only when app.sharding.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource mainShardDataSource(DataSourceProperties properties, Environment environment) {
+        if (environment.getProperty("app.datasource.replica.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("app.sharding.enabled and app.datasource.replica.enabled cannot be combined");
+        }
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-" + ShardingProperties.MAIN_SHARD);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ShardRoutingDataSource shardRoutingDataSource(@Qualifier("mainShardDataSource") DataSource mainShardDataSource,
+                                                         ShardingProperties sharding, DataSourceProperties main,
+                                                         Environment environment, MeterRegistry meterRegistry) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        pools.put(ShardingProperties.MAIN_SHARD, mainShardDataSource);
+        Binder binder = Binder.get(environment);
+        sharding.getShards().forEach((name, shard) -> {
+            if (!StringUtils.hasText(shard.getUrl())) {
+                throw new IllegalStateException("app.sharding.shards." + name + ".url must be set");
+            }
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(main.determineDriverClassName())
+                    .url(shard.getUrl())
+                    .username(StringUtils.hasText(shard.getUsername()) ? shard.getUsername() : main.determineUsername())
+                    .password(StringUtils.hasText(shard.getPassword()) ? shard.getPassword() : main.determinePassword())
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            binder.bind("app.sharding.shards." + name + ".hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard-" + name);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.put(name, dataSource);
+        });
+        return new ShardRoutingDataSource(pools, ShardingProperties.MAIN_SHARD);
+    }
+
+    /**
+     * The application DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new DelegatingDataSource(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardRoutingDataSource shardRoutingDataSource, ShardingProperties sharding,
+                                         MeterRegistry meterRegistry) {
+        ShardDirectory directory = new ShardDirectory(
+                new ConsistentHashRing(shardRoutingDataSource.getShardNames(), sharding.getVirtualNodes()),
+                shardRoutingDataSource.getShard(ShardingProperties.MAIN_SHARD),
+                shardRoutingDataSource.getShardNames());
+        Gauge.builder("notedoc.shard.assignments", directory, ShardDirectory::getAssignmentCount)
+                .description("Users routed to a shard other than their ring shard")
+                .register(meterRegistry);
+        return directory;
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardDirectory shardDirectory, ShardRoutingDataSource shardRoutingDataSource,
+                                   DataSource dataSource, PlatformTransactionManager transactionManager,
+                                   ShardingProperties sharding, MeterRegistry meterRegistry) {
+        return new ShardRouter(shardDirectory, shardRoutingDataSource.getShardNames(), dataSource, transactionManager,
+                sharding.getMigrationWriteWaitMs(), meterRegistry);
+    }
+
+    @Bean
+    public ShardMigrator shardMigrator(ShardRoutingDataSource shardRoutingDataSource, ShardDirectory shardDirectory,
+                                       ShardingProperties sharding, MeterRegistry meterRegistry) {
+        return new ShardMigrator(shardRoutingDataSource, shardDirectory, sharding.getMigrationWriteWaitMs() * 5,
+                meterRegistry);
+    }
+
+    @Bean
+    public ShardSchemaSynchronizer shardSchemaSynchronizer() {
+        return new ShardSchemaSynchronizer();
+    }
+
+    /**
+     * Lets Hibernate hand its mapping metadata to the schema synchronizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchemaSynchronizer shardSchemaSynchronizer) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(shardSchemaSynchronizer));
+    }
+
+    @Bean
+    public ShardInitializer shardInitializer(ShardRoutingDataSource shardRoutingDataSource, ShardDirectory shardDirectory,
+                                             ShardSchemaSynchronizer shardSchemaSynchronizer) {
+        return new ShardInitializer(shardRoutingDataSource, shardDirectory, shardSchemaSynchronizer,
+                ShardingProperties.MAIN_SHARD);
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardRoutingDataSource shardRoutingDataSource, ShardDirectory shardDirectory,
+                                         ShardMigrator shardMigrator) {
+        return new ShardsEndpoint(shardRoutingDataSource, shardDirectory, shardMigrator);
+    }
+
+    /**
+     * "db" health with one entry per shard, replacing Boot's per-bean checks that would all hit the main shard
+     */
+    @Bean
+    public HealthContributor dbHealthContributor(ShardRoutingDataSource shardRoutingDataSource) {
+        Map<String, DataSourceHealthIndicator> indicators = new LinkedHashMap<>();
+        for (String shard : shardRoutingDataSource.getShardNames()) {
+            indicators.put(shard, new DataSourceHealthIndicator(shardRoutingDataSource.getShard(shard)));
+        }
+        return CompositeHealthContributor.fromMap(indicators);
+    }
+}
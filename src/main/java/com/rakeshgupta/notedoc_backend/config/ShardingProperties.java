@@ -0,0 +1,61 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for sharding notes by user across several databases.
+ * The database configured by spring.datasource.* is always the "main" shard; pool settings of
+ * the other shards default to spring.datasource.hikari.* and can be overridden per shard with
+ * app.sharding.shards.&lt;name&gt;.hikari.*
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    /**
+     * Name of the shard backed by spring.datasource.*
+     */
+    public static final String MAIN_SHARD = "main";
+
+    /**
+     * Whether notes are sharded at all
+     */
+    private boolean enabled = false;
+
+    /**
+     * Points per shard on the consistent-hash ring; more points spread users more evenly
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * How long a call waits for a running migration of its user before it is rejected with 503;
+     * migrations wait five times as long for the user's in-flight calls
+     */
+    private long migrationWriteWaitMs = 2000;
+
+    /**
+     * Additional shards by name
+     */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Data
+    public static class Shard {
+
+        /**
+         * JDBC URL of the shard
+         */
+        private String url;
+
+        /**
+         * Shard credentials; the main shard's are used when blank
+         */
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,77 @@
+package com.rakeshgupta.notedoc_backend.config;
+
+import com.rakeshgupta.notedoc_backend.filter.ServerTimingFilter;
+import com.rakeshgupta.notedoc_backend.jdbc.InstrumentedDataSource;
+import com.rakeshgupta.notedoc_backend.jdbc.InstrumentedDataSourceRuntimeHints;
+import com.rakeshgupta.notedoc_backend.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-request SQL instrumentation: wraps the connection pools in a timing/counting JDBC proxy and
+ * reports the totals through a Server-Timing response header. Statements slower than
+ * app.sql-instrumentation.slow-query-threshold-ms are logged with their bind-parameter shapes.
+ * Every Hikari pool is wrapped, not the application DataSource: the primary and replica pools with
+ * replica routing, and every shard's pool with sharding, so statements are measured whichever
+ * pool the routing picks and also when a pool is used directly.
+ * When app.sql-instrumentation.enabled=false nothing is registered and the raw pools are used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-instrumentation.enabled", havingValue = "true")
+@ImportRuntimeHints(InstrumentedDataSourceRuntimeHints.class)
+@Slf4j
+public class SqlInstrumentationConfig {
+
+    /**
+     * Wrap each connection pool once it has been created: the pool beans themselves, and the
+     * additional shard pools, which the shard routing DataSource creates and owns.
+     * Static so the post-processor does not force early initialization of this configuration.
+     */
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(Environment environment) {
+        long slowThresholdMillis = environment.getProperty(
+                "app.sql-instrumentation.slow-query-threshold-ms", Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    log.info("Enabling SQL instrumentation of {} (slow query threshold {} ms)",
+                            beanName, slowThresholdMillis);
+                    return InstrumentedDataSource.wrap(pool, slowThresholdMillis);
+                }
+                if (bean instanceof ShardRoutingDataSource shards) {
+                    // The main shard's pool is a bean and has already been wrapped
+                    Map<String, DataSource> pools = new LinkedHashMap<>();
+                    for (String shard : shards.getShardNames()) {
+                        DataSource pool = shards.getShard(shard);
+                        pools.put(shard, pool instanceof HikariDataSource hikari
+                                ? InstrumentedDataSource.wrap(hikari, slowThresholdMillis) : pool);
+                    }
+                    log.info("Enabling SQL instrumentation of shards {}", pools.keySet());
+                    return new ShardRoutingDataSource(pools, ShardingProperties.MAIN_SHARD);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,282 @@
+package com.rakeshgupta.notedoc_backend.controller;
+
+import com.rakeshgupta.notedoc_backend.dto.response.AttachmentDto;
+import com.rakeshgupta.notedoc_backend.dto.response.ErrorResponse;
+import com.rakeshgupta.notedoc_backend.service.AttachmentService;
+// Swagger imports removed for lightweight build
+// import io.swagger.v3.oas.annotations.Operation;
+// import io.swagger.v3.oas.annotations.Parameter;
+// import io.swagger.v3.oas.annotations.media.Content;
+// import io.swagger.v3.oas.annotations.media.Schema;
+// import io.swagger.v3.oas.annotations.responses.ApiResponse;
+// import io.swagger.v3.oas.annotations.responses.ApiResponses;
+// import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for files attached to notes, under both /api/notes and /notes.
+ * Downloads are handed to Tomcat's sendfile support when the connector offers it, so the bytes go
+ * from the page cache to the socket without passing through the heap; otherwise they are copied
+ * with {@link FileChannel#transferTo}. Uses hardcoded userId until authentication is implemented.
+ */
+@RestController
+@RequestMapping({"/api/notes/{noteId}/attachments", "/notes/{noteId}/attachments"})
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:4200", "https://notedoc-alpha.vercel.app"})
+// @Tag(name = "Attachments", description = "Files attached to notes") // Swagger annotation removed
+public class AttachmentController {
+
+    /**
+     * Hardcoded user ID for all operations until authentication is implemented.
+     */
+    private static final UUID HARDCODED_USER_ID =
+        UUID.fromString("11111111-1111-1111-1111-111111111111");
+
+    /**
+     * Request attributes of Tomcat's sendfile support (org.apache.coyote.Constants)
+     */
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AttachmentService attachmentService;
+
+    @Autowired
+    public AttachmentController(AttachmentService attachmentService) {
+        this.attachmentService = attachmentService;
+    }
+
+    /**
+     * Upload a file as the raw request body and attach it to the note.
+     * The body is streamed to disk; identical files of the same user are stored once.
+     *
+     * @param noteId the note ID
+     * @param filename the file name to offer on download
+     * @param contentType the type of the file, e.g. image/png or application/pdf
+     * @param body the file content
+     * @return ResponseEntity with the attachment metadata and HTTP 201 status
+     */
+    @PostMapping
+    // Swagger annotations removed for lightweight build
+    /*
+    @Operation(
+        summary = "Upload an attachment",
+        description = "Attaches the raw request body to the note as a file of the given content type"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Attachment stored",
+            content = @Content(schema = @Schema(implementation = AttachmentDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Note not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "413",
+            description = "File exceeds the maximum size",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "415",
+            description = "Content type not allowed",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    */
+    public ResponseEntity<AttachmentDto> uploadAttachment(
+            @PathVariable
+            // @Parameter(description = "Note unique identifier", required = true) // Swagger annotation removed
+            UUID noteId,
+            @RequestParam(required = false) String filename,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) throws IOException {
+        AttachmentDto attachment = attachmentService.upload(noteId, HARDCODED_USER_ID, filename, contentType, body);
+        return ResponseEntity.status(HttpStatus.CREATED).body(attachment);
+    }
+
+    /**
+     * List the attachments of a note, oldest first.
+     *
+     * @param noteId the note ID
+     * @return ResponseEntity with the attachment metadata and HTTP 200 status
+     */
+    @GetMapping
+    // Swagger annotations removed for lightweight build
+    /*
+    @Operation(
+        summary = "List attachments",
+        description = "Retrieves the metadata of all files attached to the note"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Attachments retrieved"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Note not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    */
+    public ResponseEntity<List<AttachmentDto>> getAttachments(
+            @PathVariable
+            // @Parameter(description = "Note unique identifier", required = true) // Swagger annotation removed
+            UUID noteId) {
+        return ResponseEntity.ok(attachmentService.list(noteId, HARDCODED_USER_ID));
+    }
+
+    /**
+     * Download an attachment.
+     * Supports a single byte range (Range, If-Range) and If-None-Match; the ETag is the SHA-256 of the file.
+     *
+     * @param noteId the note ID
+     * @param attachmentId the attachment ID
+     * @param headers the request headers
+     * @param request the servlet request, to hand the file to the connector
+     * @return ResponseEntity with the file and HTTP 200, 206, 304 or 416 status
+     */
+    @GetMapping("/{attachmentId}")
+    // Swagger annotations removed for lightweight build
+    /*
+    @Operation(
+        summary = "Download an attachment",
+        description = "Streams the attached file, optionally a byte range of it"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "File streamed"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range streamed"),
+        @ApiResponse(responseCode = "304", description = "File unchanged since the given ETag"),
+        @ApiResponse(responseCode = "416", description = "Requested range outside the file"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Attachment not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    */
+    public ResponseEntity<StreamingResponseBody> downloadAttachment(
+            @PathVariable UUID noteId,
+            @PathVariable UUID attachmentId,
+            @RequestHeader HttpHeaders headers,
+            HttpServletRequest request) {
+        AttachmentDto attachment = attachmentService.describe(noteId, attachmentId, HARDCODED_USER_ID);
+        String etag = "\"" + attachment.getSha256() + "\"";
+        // Attachments are never modified, so a cached copy stays valid
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        long length = attachment.getSize();
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        List<HttpRange> ranges = NoteContentResponses.ranges(headers, etag);
+        if (ranges.size() == 1) {
+            start = ranges.getFirst().getRangeStart(length);
+            end = ranges.getFirst().getRangeEnd(length);
+            if (start >= length || end < start) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+
+        Path file = attachmentService.file(attachment, HARDCODED_USER_ID);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType(attachment.getContentType()))
+                .contentLength(end - start + 1)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(attachment.getFilename(), StandardCharsets.UTF_8).build().toString())
+                .header("X-Content-Type-Options", "nosniff");
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        if (length == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return response.build();
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file itself once the headers are committed; the end is exclusive
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return response.build();
+        }
+        long first = start;
+        long count = end - start + 1;
+        return response.body(out -> transfer(file, first, count, out));
+    }
+
+    /**
+     * Delete an attachment.
+     *
+     * @param noteId the note ID
+     * @param attachmentId the attachment ID
+     * @return ResponseEntity with HTTP 204 status (No Content)
+     */
+    @DeleteMapping("/{attachmentId}")
+    // Swagger annotations removed for lightweight build
+    /*
+    @Operation(
+        summary = "Delete an attachment",
+        description = "Detaches the file from the note and deletes it once no other attachment shares it"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Attachment deleted"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Attachment not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    */
+    public ResponseEntity<Void> deleteAttachment(@PathVariable UUID noteId, @PathVariable UUID attachmentId) {
+        attachmentService.delete(noteId, attachmentId, HARDCODED_USER_ID);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static void transfer(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            while (count > 0) {
+                long sent = channel.transferTo(position, count, target);
+                if (sent <= 0) {
+                    throw new EOFException("Attachment file " + file.getFileName() + " is shorter than recorded");
+                }
+                position += sent;
+                count -= sent;
+            }
+        }
+    }
+}
@@ -2,20 +2,33 @@ package com.rakeshgupta.notedoc_backend.controller;
 
 import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
 import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
 import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.dto.response.TagSuggestionDto;
+import com.rakeshgupta.notedoc_backend.dto.response.UserStatsDto;
+import com.rakeshgupta.notedoc_backend.service.NoteContentService;
+import com.rakeshgupta.notedoc_backend.service.NoteRenderService;
 import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.TagSuggestionIndex;
+import com.rakeshgupta.notedoc_backend.service.UserStatsService;
 import jakarta.validation.Valid;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Direct REST controller for note management operations without /api prefix.
@@ -23,7 +36,6 @@ import java.util.UUID;
  */
 @RestController
 @RequestMapping("/notes")
-@Slf4j
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:4200", "https://notedoc-alpha.vercel.app"})
 public class DirectNoteController {
 
@@ -34,10 +46,20 @@ public class DirectNoteController {
         UUID.fromString("11111111-1111-1111-1111-111111111111");
 
     private final NoteService noteService;
+    private final TagSuggestionIndex tagSuggestionIndex;
+    private final UserStatsService userStatsService;
+    private final NoteContentService noteContentService;
+    private final NoteRenderService noteRenderService;
 
     @Autowired
-    public DirectNoteController(NoteService noteService) {
+    public DirectNoteController(NoteService noteService, TagSuggestionIndex tagSuggestionIndex,
+                                UserStatsService userStatsService, NoteContentService noteContentService,
+                                NoteRenderService noteRenderService) {
         this.noteService = noteService;
+        this.tagSuggestionIndex = tagSuggestionIndex;
+        this.userStatsService = userStatsService;
+        this.noteContentService = noteContentService;
+        this.noteRenderService = noteRenderService;
     }
 
     /**
@@ -45,7 +67,6 @@ public class DirectNoteController {
      */
     @PostMapping
     public ResponseEntity<NoteResponseDto> createNote(@Valid @RequestBody NoteCreateRequestDto request) {
-        log.info("Creating note with title: {}", request.getTitle());
         NoteResponseDto createdNote = noteService.createNote(request, HARDCODED_USER_ID);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdNote);
     }
@@ -61,9 +82,6 @@ public class DirectNoteController {
             @RequestParam(defaultValue = "desc") String direction,
             @RequestParam(defaultValue = "false") boolean archived) {
         
-        log.info("Getting notes - page: {}, size: {}, sort: {}, direction: {}, archived: {}", 
-                page, size, sort, direction, archived);
-        
         // Parse sort direction
         Sort.Direction sortDirection = "asc".equalsIgnoreCase(direction) 
             ? Sort.Direction.ASC 
@@ -80,7 +98,6 @@ public class DirectNoteController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<NoteResponseDto> getNoteById(@PathVariable UUID id) {
-        log.info("Getting note by ID: {}", id);
         NoteResponseDto note = noteService.getNoteById(id, HARDCODED_USER_ID);
         return ResponseEntity.ok(note);
     }
@@ -92,17 +109,40 @@ public class DirectNoteController {
     public ResponseEntity<NoteResponseDto> updateNote(
             @PathVariable UUID id, 
             @Valid @RequestBody NoteUpdateRequestDto request) {
-        log.info("Updating note with ID: {}", id);
         NoteResponseDto updatedNote = noteService.updateNote(id, request, HARDCODED_USER_ID);
         return ResponseEntity.ok(updatedNote);
     }
 
+    /**
+     * Stream the raw content of a note, or a byte range of it.
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getNoteContent(@PathVariable UUID id, @RequestHeader HttpHeaders headers) {
+        return NoteContentResponses.read(noteContentService, id, HARDCODED_USER_ID, headers);
+    }
+
+    /**
+     * Get the content of a note rendered to sanitized HTML.
+     */
+    @GetMapping("/{id}/html")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> getNoteHtml(@PathVariable UUID id,
+                                                                              @RequestHeader HttpHeaders headers) {
+        return NoteContentResponses.html(noteRenderService, id, HARDCODED_USER_ID, headers);
+    }
+
+    /**
+     * Replace the content of a note with the raw request body.
+     */
+    @PutMapping(value = "/{id}/content", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.TEXT_MARKDOWN_VALUE})
+    public ResponseEntity<NoteContentInfoDto> replaceNoteContent(@PathVariable UUID id, InputStream body) throws IOException {
+        return NoteContentResponses.replace(noteService, noteContentService, id, HARDCODED_USER_ID, body);
+    }
+
     /**
      * Soft delete a note.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteNote(@PathVariable UUID id) {
-        log.info("Deleting note with ID: {}", id);
         noteService.deleteNote(id, HARDCODED_USER_ID);
         return ResponseEntity.noContent().build();
     }
@@ -114,17 +154,34 @@ public class DirectNoteController {
     public ResponseEntity<Page<NoteResponseDto>> searchNotes(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        
-        log.info("Searching notes with query: {}, page: {}, size: {}", q, page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean content) {
         
         // Default sort for search is by updatedAt descending
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "updatedAt"));
-        Page<NoteResponseDto> searchResults = noteService.searchNotes(q, HARDCODED_USER_ID, pageable);
+        Page<NoteResponseDto> searchResults = noteService.searchNotes(q, HARDCODED_USER_ID, pageable, content);
         
         return ResponseEntity.ok(searchResults);
     }
 
+    /**
+     * Suggest the most used tags starting with a prefix.
+     */
+    @GetMapping("/tags/suggestions")
+    public ResponseEntity<List<TagSuggestionDto>> suggestTags(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(tagSuggestionIndex.suggest(HARDCODED_USER_ID, prefix, limit));
+    }
+
+    /**
+     * Get the user's note statistics.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<UserStatsDto> getStats() {
+        return ResponseEntity.ok(userStatsService.getStats(HARDCODED_USER_ID));
+    }
+
     /**
      * Handle preflight OPTIONS requests
      */
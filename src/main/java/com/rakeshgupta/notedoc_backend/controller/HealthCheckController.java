@@ -1,58 +1,53 @@
 package com.rakeshgupta.notedoc_backend.controller;
 
-import com.rakeshgupta.notedoc_backend.entity.HealthCheck;
-import com.rakeshgupta.notedoc_backend.repository.HealthCheckRepository;
+import com.rakeshgupta.notedoc_backend.service.DatabaseHealthProber;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+/**
+ * Database health endpoint serving the result cached by {@link DatabaseHealthProber}.
+ * Never touches the database itself, so load balancer probes cannot turn into database load.
+ */
 @RestController
 @RequestMapping("/api/db-health")
 @RequiredArgsConstructor
-@Slf4j
 public class HealthCheckController {
-    
-    private final HealthCheckRepository healthCheckRepository;
-    
+
+    private final DatabaseHealthProber databaseHealthProber;
+
+    @Value("${app.db-health.max-staleness-ms:30000}")
+    private long maxStalenessMs;
+
     @GetMapping
     public ResponseEntity<Map<String, Object>> checkDatabaseHealth() {
-        try {
-            // Perform a database operation
-            HealthCheck healthCheck = new HealthCheck(
-                "ACTIVE",
-                LocalDateTime.now(),
-                "Database connection verified"
-            );
-            healthCheckRepository.save(healthCheck);
-            
-            // Get recent checks
-            List<HealthCheck> recentChecks = healthCheckRepository.findTop10ByOrderByCheckTimeDesc();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "UP");
-            response.put("timestamp", LocalDateTime.now());
-            response.put("database", "CONNECTED");
-            response.put("totalChecks", healthCheckRepository.count());
-            response.put("recentChecks", recentChecks);
-            
-            log.info("Database health check successful");
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            log.error("Database health check failed: {}", e.getMessage());
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "DOWN");
-            response.put("timestamp", LocalDateTime.now());
-            response.put("error", e.getMessage());
-            return ResponseEntity.status(503).body(response);
+        DatabaseHealthProber.Snapshot snapshot = databaseHealthProber.getSnapshot();
+        long stalenessMs = Duration.between(snapshot.checkedAt(), Instant.now()).toMillis();
+        boolean stale = stalenessMs > maxStalenessMs;
+        boolean up = snapshot.isUp() && !stale;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", up ? "UP" : "DOWN");
+        response.put("timestamp", LocalDateTime.now());
+        response.put("database", up ? "CONNECTED" : "DISCONNECTED");
+        response.put("checkedAt", snapshot.checkedAt());
+        response.put("stalenessMs", stalenessMs);
+        response.put("stale", stale);
+        response.put("roundTripMicros", snapshot.roundTripMicros());
+        if (snapshot.error() != null) {
+            response.put("error", snapshot.error());
+        } else if (stale) {
+            response.put("error", "Last successful probe is older than " + maxStalenessMs + " ms");
         }
+        return up ? ResponseEntity.ok(response) : ResponseEntity.status(503).body(response);
     }
 }
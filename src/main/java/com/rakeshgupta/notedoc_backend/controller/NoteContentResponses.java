@@ -0,0 +1,142 @@
+package com.rakeshgupta.notedoc_backend.controller;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.service.NoteContentService;
+import com.rakeshgupta.notedoc_backend.service.NoteRenderService;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Raw and rendered content endpoints shared by {@link NoteController} and {@link DirectNoteController}
+ */
+final class NoteContentResponses {
+
+    static final MediaType MARKDOWN = new MediaType("text", "markdown", StandardCharsets.UTF_8);
+    static final MediaType HTML = new MediaType("text", "html", StandardCharsets.UTF_8);
+
+    /**
+     * Rendered notes are meant to be embedded: no scripts, frames or forms, images from the web only
+     */
+    private static final String HTML_POLICY = "default-src 'none'; img-src http: https:; style-src 'unsafe-inline'; sandbox";
+
+    private NoteContentResponses() {
+    }
+
+    /**
+     * Stream the content, or the single byte range requested. Multiple ranges, unparsable ranges and
+     * ranges whose If-Range does not match the current ETag are ignored and the whole content is sent.
+     */
+    static ResponseEntity<StreamingResponseBody> read(NoteContentService contentService, UUID id, UUID userId,
+                                                      HttpHeaders headers) {
+        NoteContentInfoDto info = contentService.describe(id, userId);
+        String etag = NoteContentService.etag(info);
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        long length = info.getLength();
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        List<HttpRange> ranges = ranges(headers, etag);
+        if (ranges.size() == 1) {
+            start = ranges.getFirst().getRangeStart(length);
+            end = ranges.getFirst().getRangeEnd(length);
+            if (start >= length || end < start) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+
+        long first = start;
+        long last = end;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .eTag(etag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MARKDOWN)
+                .contentLength(end - start + 1);
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        return response.body(out -> contentService.write(info, userId, first, last, out));
+    }
+
+    /**
+     * The content rendered to HTML. Small notes are served from the render cache or rendered on the
+     * render pool; larger ones are rendered while streaming, so the request completes asynchronously.
+     */
+    static CompletableFuture<ResponseEntity<StreamingResponseBody>> html(NoteRenderService renderService, UUID id,
+                                                                        UUID userId, HttpHeaders headers) {
+        NoteContentInfoDto info = renderService.describe(id, userId);
+        String etag = NoteRenderService.etag(info);
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(HTML)
+                .header("Content-Security-Policy", HTML_POLICY)
+                .header("X-Content-Type-Options", "nosniff");
+        if (renderService.isStreamed(info)) {
+            return CompletableFuture.completedFuture(response.body(out -> renderService.renderTo(info, userId, out)));
+        }
+        return renderService.render(id, userId)
+                .thenApply(html -> response.contentLength(html.length).body(out -> out.write(html)));
+    }
+
+    /**
+     * Replace the content with the request body: small bodies go through the regular update,
+     * larger ones are spooled to disk and streamed to the database
+     */
+    static ResponseEntity<NoteContentInfoDto> replace(NoteService noteService, NoteContentService contentService,
+                                                      UUID id, UUID userId, InputStream body) throws IOException {
+        int threshold = contentService.getStreamThresholdBytes();
+        byte[] head = body.readNBytes(threshold + 1);
+        NoteContentInfoDto info;
+        if (head.length <= threshold) {
+            NoteUpdateRequestDto request = new NoteUpdateRequestDto();
+            request.setContent(contentService.decode(head));
+            NoteResponseDto updated = noteService.updateNote(id, request, userId);
+            info = new NoteContentInfoDto(id, head.length, updated.getUpdatedAt());
+        } else {
+            try (SpooledContent content = contentService.spool(head, body)) {
+                info = noteService.replaceContent(id, content, userId);
+            }
+        }
+        return ResponseEntity.ok().eTag(NoteContentService.etag(info)).body(info);
+    }
+
+    /**
+     * The requested ranges, or none if they are unparsable or If-Range does not match the ETag
+     */
+    static List<HttpRange> ranges(HttpHeaders headers, String etag) {
+        String ifRange = headers.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return List.of();
+        }
+        try {
+            return headers.getRange();
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
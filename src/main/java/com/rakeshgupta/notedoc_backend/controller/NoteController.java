@@ -3,8 +3,15 @@ package com.rakeshgupta.notedoc_backend.controller;
 import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
 import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
 import com.rakeshgupta.notedoc_backend.dto.response.ErrorResponse;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
 import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.dto.response.TagSuggestionDto;
+import com.rakeshgupta.notedoc_backend.dto.response.UserStatsDto;
+import com.rakeshgupta.notedoc_backend.service.NoteContentService;
+import com.rakeshgupta.notedoc_backend.service.NoteRenderService;
 import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.TagSuggestionIndex;
+import com.rakeshgupta.notedoc_backend.service.UserStatsService;
 // Swagger imports removed for lightweight build
 // import io.swagger.v3.oas.annotations.Operation;
 // import io.swagger.v3.oas.annotations.Parameter;
@@ -19,11 +26,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for note management operations.
@@ -43,10 +57,20 @@ public class NoteController {
         UUID.fromString("11111111-1111-1111-1111-111111111111");
 
     private final NoteService noteService;
+    private final TagSuggestionIndex tagSuggestionIndex;
+    private final UserStatsService userStatsService;
+    private final NoteContentService noteContentService;
+    private final NoteRenderService noteRenderService;
 
     @Autowired
-    public NoteController(NoteService noteService) {
+    public NoteController(NoteService noteService, TagSuggestionIndex tagSuggestionIndex,
+                          UserStatsService userStatsService, NoteContentService noteContentService,
+                          NoteRenderService noteRenderService) {
         this.noteService = noteService;
+        this.tagSuggestionIndex = tagSuggestionIndex;
+        this.userStatsService = userStatsService;
+        this.noteContentService = noteContentService;
+        this.noteRenderService = noteRenderService;
     }
 
     /**
@@ -117,17 +141,26 @@ public class NoteController {
             // @Parameter(description = "Sort specification (field,direction)", example = "updatedAt,desc") // Swagger annotation removed
             String sort) {
         
-        // Parse sort parameter
+        Pageable pageable = PageRequest.of(page, size, parseSort(sort));
+        Page<NoteResponseDto> notes = noteService.getAllNotes(HARDCODED_USER_ID, pageable);
+        
+        return ResponseEntity.ok(notes);
+    }
+
+    /**
+     * Parse a "field,direction" sort specification.
+     * Direction defaults to descending unless "asc" is given explicitly.
+     * 
+     * @param sort sort specification, e.g. "updatedAt,desc"
+     * @return the parsed Sort
+     */
+    static Sort parseSort(String sort) {
         String[] sortParams = sort.split(",");
         String sortField = sortParams[0];
         Sort.Direction direction = sortParams.length > 1 && "asc".equalsIgnoreCase(sortParams[1]) 
             ? Sort.Direction.ASC 
             : Sort.Direction.DESC;
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
-        Page<NoteResponseDto> notes = noteService.getAllNotes(HARDCODED_USER_ID, pageable);
-        
-        return ResponseEntity.ok(notes);
+        return Sort.by(direction, sortField);
     }
 
     /**
@@ -207,6 +240,126 @@ public class NoteController {
         return ResponseEntity.ok(updatedNote);
     }
 
+    /**
+     * Get the raw content of a note, streamed as markdown.
+     * Supports a single byte range (Range, If-Range) and If-None-Match.
+     * 
+     * @param id the note ID
+     * @param headers the request headers
+     * @return ResponseEntity streaming the content with HTTP 200, 206, 304 or 416 status
+     */
+    @GetMapping("/{id}/content")
+    // Swagger annotations removed for lightweight build
+    /*
+    @Operation(
+        summary = "Get note content",
+        description = "Streams the raw markdown content of a note, optionally a byte range of it"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Content streamed"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range streamed"),
+        @ApiResponse(responseCode = "304", description = "Content unchanged since the given ETag"),
+        @ApiResponse(responseCode = "416", description = "Requested range outside the content"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Note not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    */
+    public ResponseEntity<StreamingResponseBody> getNoteContent(
+            @PathVariable 
+            // @Parameter(description = "Note unique identifier", required = true) // Swagger annotation removed
+            UUID id,
+            @RequestHeader HttpHeaders headers) {
+        return NoteContentResponses.read(noteContentService, id, HARDCODED_USER_ID, headers);
+    }
+
+    /**
+     * Get the content of a note rendered from markdown to HTML.
+     * Raw HTML in the markdown is escaped and only http, https and mailto links are kept, so the result
+     * can be embedded as is. Supports If-None-Match.
+     * 
+     * @param id the note ID
+     * @param headers the request headers
+     * @return ResponseEntity with the HTML and HTTP 200 or 304 status
+     */
+    @GetMapping("/{id}/html")
+    // Swagger annotations removed for lightweight build
+    /*
+    @Operation(
+        summary = "Get rendered note",
+        description = "Renders the markdown content of a note to sanitized HTML"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rendered HTML returned"),
+        @ApiResponse(responseCode = "304", description = "Content unchanged since the given ETag"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Note not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many renders queued, retry later",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    */
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> getNoteHtml(
+            @PathVariable 
+            // @Parameter(description = "Note unique identifier", required = true) // Swagger annotation removed
+            UUID id,
+            @RequestHeader HttpHeaders headers) {
+        return NoteContentResponses.html(noteRenderService, id, HARDCODED_USER_ID, headers);
+    }
+
+    /**
+     * Replace the content of a note with the raw request body.
+     * Bodies above the streaming threshold are spooled to disk instead of being held in memory.
+     * 
+     * @param id the note ID to update
+     * @param body the new markdown content, UTF-8 encoded
+     * @return ResponseEntity with the size and ETag of the new content and HTTP 200 status
+     */
+    @PutMapping(value = "/{id}/content", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.TEXT_MARKDOWN_VALUE})
+    // Swagger annotations removed for lightweight build
+    /*
+    @Operation(
+        summary = "Replace note content",
+        description = "Replaces the content of a note with the raw request body"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Content replaced",
+            content = @Content(schema = @Schema(implementation = NoteContentInfoDto.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Content is not valid UTF-8",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Note not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "413",
+            description = "Content exceeds the maximum size",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    */
+    public ResponseEntity<NoteContentInfoDto> replaceNoteContent(
+            @PathVariable 
+            // @Parameter(description = "Note unique identifier", required = true) // Swagger annotation removed
+            UUID id,
+            InputStream body) throws IOException {
+        return NoteContentResponses.replace(noteService, noteContentService, id, HARDCODED_USER_ID, body);
+    }
+
     /**
      * Soft delete a note.
      * 
@@ -246,6 +399,7 @@ public class NoteController {
      * @param q the search query
      * @param page page number (default: 0)
      * @param size page size (default: 10)
+     * @param content whether to include the full content besides the snippet (default: false)
      * @return ResponseEntity with paginated search results and HTTP 200 status
      */
     @GetMapping("/search")
@@ -253,7 +407,7 @@ public class NoteController {
     /*
     @Operation(
         summary = "Search notes",
-        description = "Searches notes by title and content using the provided query string"
+        description = "Searches notes by title and content using the provided query string and returns a highlighted snippet per hit"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -277,12 +431,66 @@ public class NoteController {
             int page,
             @RequestParam(defaultValue = "10") 
             // @Parameter(description = "Number of items per page", example = "10") // Swagger annotation removed
-            int size) {
+            int size,
+            @RequestParam(defaultValue = "false") 
+            // @Parameter(description = "Include the full content of each note", example = "false") // Swagger annotation removed
+            boolean content) {
         
         // Default sort for search is by updatedAt descending
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "updatedAt"));
-        Page<NoteResponseDto> searchResults = noteService.searchNotes(q, HARDCODED_USER_ID, pageable);
+        Page<NoteResponseDto> searchResults = noteService.searchNotes(q, HARDCODED_USER_ID, pageable, content);
         
         return ResponseEntity.ok(searchResults);
     }
+
+    /**
+     * Suggest tags for autocomplete.
+     * 
+     * @param prefix start of the tag being typed, case-insensitive (default: all tags)
+     * @param limit maximum number of suggestions (default: 10, at most 50)
+     * @return ResponseEntity with the most used matching tags and HTTP 200 status
+     */
+    @GetMapping("/tags/suggestions")
+    /*
+    @Operation(
+        summary = "Suggest tags",
+        description = "Returns the user's most used tags starting with the given prefix"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Suggestions retrieved successfully"
+        )
+    })
+    */
+    public ResponseEntity<List<TagSuggestionDto>> suggestTags(
+            @RequestParam(defaultValue = "") 
+            String prefix,
+            @RequestParam(defaultValue = "10") 
+            int limit) {
+        return ResponseEntity.ok(tagSuggestionIndex.suggest(HARDCODED_USER_ID, prefix, limit));
+    }
+
+    /**
+     * Get the user's note statistics.
+     * 
+     * @return ResponseEntity with note counts, content size and tag usage and HTTP 200 status
+     */
+    @GetMapping("/stats")
+    /*
+    @Operation(
+        summary = "Get note statistics",
+        description = "Returns the user's note counts, total content size and notes per tag"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Statistics retrieved successfully",
+            content = @Content(schema = @Schema(implementation = UserStatsDto.class))
+        )
+    })
+    */
+    public ResponseEntity<UserStatsDto> getStats() {
+        return ResponseEntity.ok(userStatsService.getStats(HARDCODED_USER_ID));
+    }
 }
\ No newline at end of file
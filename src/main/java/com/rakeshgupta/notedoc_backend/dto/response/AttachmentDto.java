@@ -0,0 +1,101 @@
+package com.rakeshgupta.notedoc_backend.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO for the metadata of a file attached to a note
+ */
+public class AttachmentDto {
+
+    private UUID id;
+
+    private UUID noteId;
+
+    private String filename;
+
+    private String contentType;
+
+    /**
+     * Size in bytes
+     */
+    private long size;
+
+    /**
+     * Hex SHA-256 of the content, also its ETag
+     */
+    private String sha256;
+
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public AttachmentDto() {}
+
+    public AttachmentDto(UUID id, UUID noteId, String filename, String contentType, long size, String sha256,
+                         LocalDateTime createdAt) {
+        this.id = id;
+        this.noteId = noteId;
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getNoteId() {
+        return noteId;
+    }
+
+    public void setNoteId(UUID noteId) {
+        this.noteId = noteId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,53 @@
+package com.rakeshgupta.notedoc_backend.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO describing a note's raw content without the content itself
+ */
+public class NoteContentInfoDto {
+
+    private UUID id;
+
+    /**
+     * Size of the content in UTF-8 bytes
+     */
+    private long length;
+
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public NoteContentInfoDto() {}
+
+    public NoteContentInfoDto(UUID id, long length, LocalDateTime updatedAt) {
+        this.id = id;
+        this.length = length;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
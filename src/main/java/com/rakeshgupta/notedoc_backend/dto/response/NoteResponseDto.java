@@ -1,5 +1,6 @@
 package com.rakeshgupta.notedoc_backend.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 // Swagger import removed for lightweight build
 // import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.LocalDateTime;
@@ -18,7 +19,8 @@ public class NoteResponseDto {
     // @Schema(description = "Note title", example = "Meeting Notes") // Swagger annotation removed
     private String title;
     
-    // @Schema(description = "Note content in markdown format", example = "## Agenda\n- Discuss project timeline\n- Review budget") // Swagger annotation removed
+    // @Schema(description = "Note content in markdown format, left out of search results unless requested", example = "## Agenda\n- Discuss project timeline\n- Review budget") // Swagger annotation removed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String content;
     
     // @Schema(description = "Set of tags associated with the note", example = "[\"work\", \"meeting\", \"project\"]") // Swagger annotation removed
@@ -39,6 +41,10 @@ public class NoteResponseDto {
     // @Schema(description = "Timestamp when the note was last updated", example = "2024-01-15T14:45:00") // Swagger annotation removed
     private LocalDateTime updatedAt;
 
+    // @Schema(description = "Excerpt around the best match, only set on search results") // Swagger annotation removed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SearchSnippetDto snippet;
+
     // Default constructor
     public NoteResponseDto() {}
 
@@ -129,4 +135,12 @@ public class NoteResponseDto {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public SearchSnippetDto getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(SearchSnippetDto snippet) {
+        this.snippet = snippet;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.rakeshgupta.notedoc_backend.dto.response;
+
+import java.util.List;
+
+/**
+ * DTO for the excerpt of a note's content returned with a search hit.
+ * Offsets count UTF-16 code units, the same unit as JavaScript string indexes.
+ */
+public class SearchSnippetDto {
+
+    /**
+     * Excerpt of the content around the best match, at most a few hundred characters
+     */
+    private String text;
+
+    /**
+     * Position of the excerpt within the full content
+     */
+    private int offset;
+
+    /**
+     * Whether the content continues after the excerpt
+     */
+    private boolean truncated;
+
+    /**
+     * Matches within the excerpt as [start, end) pairs relative to the excerpt
+     */
+    private List<int[]> highlights;
+
+    /**
+     * Matches within the title as [start, end) pairs
+     */
+    private List<int[]> titleHighlights;
+
+    // Default constructor
+    public SearchSnippetDto() {}
+
+    public SearchSnippetDto(String text, int offset, boolean truncated, List<int[]> highlights,
+                            List<int[]> titleHighlights) {
+        this.text = text;
+        this.offset = offset;
+        this.truncated = truncated;
+        this.highlights = highlights;
+        this.titleHighlights = titleHighlights;
+    }
+
+    // Getters and setters
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public List<int[]> getHighlights() {
+        return highlights;
+    }
+
+    public void setHighlights(List<int[]> highlights) {
+        this.highlights = highlights;
+    }
+
+    public List<int[]> getTitleHighlights() {
+        return titleHighlights;
+    }
+
+    public void setTitleHighlights(List<int[]> titleHighlights) {
+        this.titleHighlights = titleHighlights;
+    }
+}
@@ -0,0 +1,39 @@
+package com.rakeshgupta.notedoc_backend.dto.response;
+
+/**
+ * DTO for one tag autocomplete suggestion
+ */
+public class TagSuggestionDto {
+
+    private String name;
+
+    /**
+     * Number of the user's non-deleted notes carrying the tag
+     */
+    private int count;
+
+    // Default constructor
+    public TagSuggestionDto() {}
+
+    public TagSuggestionDto(String name, int count) {
+        this.name = name;
+        this.count = count;
+    }
+
+    // Getters and setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
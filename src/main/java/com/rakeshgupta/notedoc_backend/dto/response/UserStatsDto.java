@@ -0,0 +1,87 @@
+package com.rakeshgupta.notedoc_backend.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO for a user's note statistics
+ */
+public class UserStatsDto {
+
+    private long activeNotes;
+
+    private long pinnedNotes;
+
+    private long archivedNotes;
+
+    private long deletedNotes;
+
+    // UTF-8 size of the content of all active notes
+    private long contentBytes;
+
+    // Active notes per tag, most used first
+    private Map<String, Integer> tags;
+
+    // When the counters were last checked against the notes, null if never
+    private LocalDateTime reconciledAt;
+
+    // Default constructor
+    public UserStatsDto() {}
+
+    // Getters and setters
+    public long getActiveNotes() {
+        return activeNotes;
+    }
+
+    public void setActiveNotes(long activeNotes) {
+        this.activeNotes = activeNotes;
+    }
+
+    public long getPinnedNotes() {
+        return pinnedNotes;
+    }
+
+    public void setPinnedNotes(long pinnedNotes) {
+        this.pinnedNotes = pinnedNotes;
+    }
+
+    public long getArchivedNotes() {
+        return archivedNotes;
+    }
+
+    public void setArchivedNotes(long archivedNotes) {
+        this.archivedNotes = archivedNotes;
+    }
+
+    public long getDeletedNotes() {
+        return deletedNotes;
+    }
+
+    public void setDeletedNotes(long deletedNotes) {
+        this.deletedNotes = deletedNotes;
+    }
+
+    public long getContentBytes() {
+        return contentBytes;
+    }
+
+    public void setContentBytes(long contentBytes) {
+        this.contentBytes = contentBytes;
+    }
+
+    public Map<String, Integer> getTags() {
+        return tags;
+    }
+
+    public void setTags(Map<String, Integer> tags) {
+        this.tags = tags;
+    }
+
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public void setReconciledAt(LocalDateTime reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+}
@@ -0,0 +1,60 @@
+package com.rakeshgupta.notedoc_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Metadata of a file attached to a note. The bytes live on local disk, addressed by the owner and
+ * the SHA-256 of the content, so attachments of the same user with identical content share a file.
+ */
+@Entity
+@Table(name = "attachments", indexes = {
+    @Index(name = "idx_attachments_note", columnList = "note_id"),
+    @Index(name = "idx_attachments_user_sha256", columnList = "user_id, sha256")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Attachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "note_id", nullable = false)
+    private UUID noteId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /**
+     * File name given by the uploader, used for Content-Disposition only
+     */
+    @Column(nullable = false, length = 255)
+    private String filename;
+
+    @Column(name = "content_type", nullable = false, length = 127)
+    private String contentType;
+
+    /**
+     * Size in bytes
+     */
+    @Column(nullable = false)
+    private long size;
+
+    /**
+     * Hex SHA-256 of the content, the name of its file in the store
+     */
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
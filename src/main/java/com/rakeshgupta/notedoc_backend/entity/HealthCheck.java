@@ -27,6 +27,12 @@ public class HealthCheck {
     @Column(name = "message")
     private String message;
     
+    /**
+     * Slot in the fixed-size ring of keep-alive records, null for historical rows
+     */
+    @Column(name = "ring_slot", unique = true)
+    private Integer ringSlot;
+    
     public HealthCheck(String status, LocalDateTime checkTime, String message) {
         this.status = status;
         this.checkTime = checkTime;
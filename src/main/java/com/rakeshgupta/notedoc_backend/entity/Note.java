@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -17,7 +18,11 @@ import java.util.UUID;
  * Supports soft deletion and includes audit timestamps.
  */
 @Entity
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+    // Purge of soft-deleted notes walks them in (updated_at, id) order
+    @Index(name = "idx_notes_deleted_updated", columnList = "deleted, updated_at, id"),
+    @Index(name = "idx_notes_user_updated", columnList = "user_id, updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,14 +48,22 @@ public class Note {
     private String content;
 
     /**
-     * Tags associated with the note - stored in separate collection table
+     * Ids of the note's tags in the owner's tag dictionary - stored in separate collection table
      */
     @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(
-        name = "note_tags",
-        joinColumns = @JoinColumn(name = "note_id")
+        name = "note_tag_ids",
+        joinColumns = @JoinColumn(name = "note_id"),
+        // notes may be partitioned by state, and then id alone is not a key that can be referenced
+        foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)
     )
-    @Column(name = "tags")
+    @Column(name = "tag_id", nullable = false)
+    private Set<Integer> tagIds = new HashSet<>();
+
+    /**
+     * Tag names - not persisted; the service translates them to and from tagIds
+     */
+    @Transient
     private Set<String> tags = new HashSet<>();
 
     /**
@@ -60,20 +73,26 @@ public class Note {
     private Boolean pinned = false;
 
     /**
-     * Whether the note is archived - defaults to false
+     * Whether the note is archived - defaults to false.
+     * Partition key, see PARTITIONING_README.md: updates name the partition that holds the row.
      */
+    @PartitionKey
     @Column(nullable = false)
     private Boolean archived = false;
 
     /**
-     * Soft delete flag - defaults to false
+     * Soft delete flag - defaults to false.
+     * Partition key, see PARTITIONING_README.md: updates name the partition that holds the row.
      */
+    @PartitionKey
     @Column(nullable = false)
     private Boolean deleted = false;
 
     /**
-     * User ID for future authentication integration - currently hardcoded
+     * User ID for future authentication integration - currently hardcoded.
+     * Partition key of active notes when they are hash-partitioned, see PARTITIONING_README.md.
      */
+    @PartitionKey
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
@@ -0,0 +1,50 @@
+package com.rakeshgupta.notedoc_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Entry of a user's tag dictionary. Notes reference tags by their small integer id, which is
+ * assigned densely per user (1, 2, 3, ...) and never changes or gets reused.
+ * Read and written through {@link com.rakeshgupta.notedoc_backend.service.TagDictionary}.
+ */
+@Entity
+@Table(name = "tags", uniqueConstraints = @UniqueConstraint(name = "uk_tags_user_name", columnNames = {"user_id", "name"}))
+@IdClass(Tag.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tag {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Column(name = "tag_id", nullable = false)
+    private Integer tagId;
+
+    @Column(nullable = false, length = 255)
+    private String name;
+
+    /**
+     * Number of the user's non-deleted notes with this tag, maintained with the note statistics
+     */
+    @ColumnDefault("0")
+    @Column(name = "note_count", nullable = false)
+    private int noteCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID userId;
+        private Integer tagId;
+    }
+}
@@ -0,0 +1,53 @@
+package com.rakeshgupta.notedoc_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-user note counters, adjusted in the same transaction as every note write and periodically
+ * recomputed from the notes table. "Active" means not deleted, as in the note list; pinned,
+ * archived and content bytes count active notes only.
+ */
+@Entity
+@Table(name = "user_note_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserNoteStats {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "active_count", nullable = false)
+    private long activeCount;
+
+    @Column(name = "pinned_count", nullable = false)
+    private long pinnedCount;
+
+    @Column(name = "archived_count", nullable = false)
+    private long archivedCount;
+
+    @Column(name = "deleted_count", nullable = false)
+    private long deletedCount;
+
+    /**
+     * UTF-8 size of the content of active notes
+     */
+    @Column(name = "content_bytes", nullable = false)
+    private long contentBytes;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Last time the counters were checked against the notes table, null until the first check
+     */
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+}
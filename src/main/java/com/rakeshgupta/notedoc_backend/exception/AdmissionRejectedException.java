@@ -0,0 +1,65 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a request is rejected by admission control instead of being queued.
+ * Returns HTTP 429 Too Many Requests when the user's rate limit is exhausted and
+ * HTTP 503 Service Unavailable when the server-wide concurrency limit is reached,
+ * both with a Retry-After header.
+ * Instances carry no stack trace and are shared, so rejecting a request does not allocate.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private static final int MAX_RETRY_AFTER_SECONDS = 60;
+
+    private static final AdmissionRejectedException[] RATE_LIMITED = preallocate(HttpStatus.TOO_MANY_REQUESTS,
+            "Rate limit exceeded, retry later");
+    private static final AdmissionRejectedException[] OVERLOADED = preallocate(HttpStatus.SERVICE_UNAVAILABLE,
+            "Server is busy, retry later");
+
+    private final HttpStatus status;
+    private final int retryAfterSeconds;
+
+    private AdmissionRejectedException(HttpStatus status, String message, int retryAfterSeconds) {
+        super(message, null, false, false);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Rejection for a user whose token bucket is empty
+     *
+     * @param retryAfterNanos time until enough tokens are available, rounded up to whole seconds
+     */
+    public static AdmissionRejectedException rateLimited(long retryAfterNanos) {
+        return RATE_LIMITED[clampSeconds((retryAfterNanos + 999_999_999L) / 1_000_000_000L)];
+    }
+
+    /**
+     * Rejection because the server-wide concurrency limit is reached
+     */
+    public static AdmissionRejectedException overloaded(int retryAfterSeconds) {
+        return OVERLOADED[clampSeconds(retryAfterSeconds)];
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private static int clampSeconds(long seconds) {
+        return (int) Math.clamp(seconds, 1, MAX_RETRY_AFTER_SECONDS);
+    }
+
+    private static AdmissionRejectedException[] preallocate(HttpStatus status, String message) {
+        AdmissionRejectedException[] instances = new AdmissionRejectedException[MAX_RETRY_AFTER_SECONDS + 1];
+        for (int seconds = 1; seconds <= MAX_RETRY_AFTER_SECONDS; seconds++) {
+            instances[seconds] = new AdmissionRejectedException(status, message, seconds);
+        }
+        return instances;
+    }
+}
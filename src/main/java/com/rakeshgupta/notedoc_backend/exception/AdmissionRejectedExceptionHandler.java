@@ -0,0 +1,21 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import com.rakeshgupta.notedoc_backend.dto.response.ErrorResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns admission control rejections into 429 / 503 responses with a Retry-After header
+ */
+@RestControllerAdvice
+public class AdmissionRejectedExceptionHandler {
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleAdmissionRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, Integer.toString(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getStatus().name(), e.getMessage()));
+    }
+}
@@ -0,0 +1,23 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when a requested attachment is not found or its note is soft-deleted.
+ * Returns HTTP 404 Not Found status when thrown from controllers.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class AttachmentNotFoundException extends RuntimeException {
+
+    /**
+     * Create a new AttachmentNotFoundException with a message for the given attachment ID.
+     * 
+     * @param id the UUID of the attachment that was not found
+     */
+    public AttachmentNotFoundException(UUID id) {
+        super("Attachment not found with id: " + id);
+    }
+}
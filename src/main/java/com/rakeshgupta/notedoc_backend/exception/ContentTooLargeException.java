@@ -0,0 +1,30 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when uploaded note content or an attachment exceeds the configured maximum size.
+ * Returns HTTP 413 Content Too Large status when thrown from controllers.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class ContentTooLargeException extends RuntimeException {
+
+    /**
+     * Create a new ContentTooLargeException for the given limit.
+     * 
+     * @param maxBytes the maximum content size in bytes
+     */
+    public ContentTooLargeException(long maxBytes) {
+        super("Note content must not exceed " + maxBytes + " bytes");
+    }
+
+    /**
+     * Create a new ContentTooLargeException with a custom message.
+     * 
+     * @param message the custom error message
+     */
+    public ContentTooLargeException(String message) {
+        super(message);
+    }
+}
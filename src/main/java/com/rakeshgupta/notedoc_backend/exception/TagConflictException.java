@@ -0,0 +1,25 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when a new tag could not get an id because concurrent writes of the same user
+ * kept taking the next free one. Returns HTTP 409 Conflict status when thrown from controllers;
+ * repeating the request succeeds once the other writes are done.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TagConflictException extends RuntimeException {
+
+    /**
+     * Create a new TagConflictException for the given user and tag name.
+     * 
+     * @param userId the user adding the tag
+     * @param name the tag name that could not be added
+     */
+    public TagConflictException(UUID userId, String name) {
+        super("Could not add tag '" + name + "' for user " + userId + " because of concurrent changes, retry later");
+    }
+}
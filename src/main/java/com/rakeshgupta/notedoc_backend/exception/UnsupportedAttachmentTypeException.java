@@ -0,0 +1,21 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when an attachment is uploaded with a content type that is not allowed.
+ * Returns HTTP 415 Unsupported Media Type status when thrown from controllers.
+ */
+@ResponseStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+public class UnsupportedAttachmentTypeException extends RuntimeException {
+
+    /**
+     * Create a new UnsupportedAttachmentTypeException for the given content type.
+     * 
+     * @param contentType the rejected content type, may be null
+     */
+    public UnsupportedAttachmentTypeException(String contentType) {
+        super("Attachments of type " + contentType + " are not supported");
+    }
+}
@@ -0,0 +1,28 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when a call waited too long for a migration of the user's notes to another shard.
+ * Returns HTTP 503 Service Unavailable with a Retry-After header, since the call succeeds once the
+ * migration has finished.
+ */
+public class UserMigratingException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    /**
+     * Create a new UserMigratingException for the given user.
+     *
+     * @param userId the user being migrated
+     * @param retryAfterSeconds time after which the migration is expected to be done
+     */
+    public UserMigratingException(UUID userId, int retryAfterSeconds) {
+        super("Notes of user " + userId + " are being moved to another shard, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,22 @@
+package com.rakeshgupta.notedoc_backend.exception;
+
+import com.rakeshgupta.notedoc_backend.dto.response.ErrorResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns calls that timed out waiting for a shard migration into 503 responses with a Retry-After header
+ */
+@RestControllerAdvice
+public class UserMigratingExceptionHandler {
+
+    @ExceptionHandler(UserMigratingException.class)
+    public ResponseEntity<ErrorResponse> handleUserMigrating(UserMigratingException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Integer.toString(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.name(), e.getMessage()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.rakeshgupta.notedoc_backend.filter;
+
+import com.rakeshgupta.notedoc_backend.accesslog.AccessLogRingBuffer;
+import com.rakeshgupta.notedoc_backend.config.AccessLogProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records note requests into the access log ring buffer.
+ * Errors (status >= 400 or an exception), and requests slower than the threshold are always
+ * recorded; everything else is sampled at the per-endpoint rate. The hot path only reads
+ * strings the container already holds and copies them into a preallocated entry, so an
+ * unsampled request costs a clock read and a random draw. Request bodies and query strings
+ * (note titles, search terms) are never recorded.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED_ENDPOINT = "unmatched";
+
+    private final AccessLogRingBuffer ringBuffer;
+    private final AccessLogProperties properties;
+    private final long slowThresholdNanos;
+    private final EndpointPolicy unmatchedPolicy;
+    private final Map<Method, EndpointPolicy> policies = new ConcurrentHashMap<>();
+
+    /**
+     * Endpoint name and sample rate resolved once per handler method
+     */
+    private record EndpointPolicy(String endpoint, double sampleRate) {
+    }
+
+    public AccessLogFilter(AccessLogRingBuffer ringBuffer, AccessLogProperties properties) {
+        this.ringBuffer = ringBuffer;
+        this.properties = properties;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowThresholdMs());
+        this.unmatchedPolicy = new EndpointPolicy(UNMATCHED_ENDPOINT, properties.getDefaultSampleRate());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            record(request, response, System.nanoTime() - start, failed);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long durationNanos, boolean failed) {
+        int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+        EndpointPolicy policy = resolvePolicy(request);
+        boolean forced = failed || status >= 400 || durationNanos >= slowThresholdNanos;
+        if (!forced && ThreadLocalRandom.current().nextDouble() >= policy.sampleRate()) {
+            return;
+        }
+        AccessLogRingBuffer.Entry entry = ringBuffer.claim();
+        if (entry == null) {
+            return;
+        }
+        entry.timestampMillis = System.currentTimeMillis();
+        entry.method = request.getMethod();
+        entry.uri = request.getRequestURI();
+        entry.endpoint = policy.endpoint();
+        entry.status = status;
+        entry.durationNanos = durationNanos;
+        entry.forced = forced;
+        ringBuffer.publish(entry);
+    }
+
+    private EndpointPolicy resolvePolicy(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            EndpointPolicy policy = policies.get(handler.getMethod());
+            return policy != null ? policy : policies.computeIfAbsent(handler.getMethod(), this::createPolicy);
+        }
+        return unmatchedPolicy;
+    }
+
+    private EndpointPolicy createPolicy(Method method) {
+        String endpoint = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        double rate = properties.getDefaultSampleRate();
+        for (Map.Entry<String, Double> configured : properties.getSampleRates().entrySet()) {
+            if (configured.getKey().equalsIgnoreCase(endpoint)) {
+                rate = configured.getValue();
+                break;
+            }
+        }
+        return new EndpointPolicy(endpoint, rate);
+    }
+}
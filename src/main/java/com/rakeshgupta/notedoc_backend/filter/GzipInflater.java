@@ -0,0 +1,215 @@
+package com.rakeshgupta.notedoc_backend.filter;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Push-style gzip decoder. Unlike {@link java.util.zip.GZIPInputStream}, it never reads from a
+ * stream itself: compressed bytes are handed to {@link #feed} as they arrive, and {@link #inflate}
+ * returns 0 once it needs more of them. This lets non-blocking servlet reads inflate whatever has
+ * arrived without waiting for the rest of the body.
+ * Concatenated gzip members are decoded one after another, like GZIPInputStream does.
+ */
+class GzipInflater {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    /**
+     * Longest header accepted, so an unterminated file name cannot buffer the whole body
+     */
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+
+    private enum State { HEADER, BODY, TRAILER, END }
+
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private State state = State.HEADER;
+
+    // Compressed bytes not yet consumed; in BODY they are given to the inflater a chunk at a time
+    private byte[] input = new byte[8192];
+    private int position;
+    private int limit;
+
+    /**
+     * Whether {@link #feed} may be called, i.e. the buffered input is used up
+     */
+    boolean needsInput() {
+        return state != State.BODY || inflater.needsInput();
+    }
+
+    /**
+     * Whether the input so far ends exactly after a complete gzip member
+     */
+    boolean atEnd() {
+        return state == State.END && position == limit;
+    }
+
+    /**
+     * Append compressed bytes. Only allowed when {@link #needsInput()} is true, since the inflater
+     * keeps reading from the buffer until then.
+     */
+    void feed(byte[] bytes, int offset, int length) {
+        if (!needsInput()) {
+            throw new IllegalStateException("Buffered input has not been consumed");
+        }
+        if (position > 0) {
+            System.arraycopy(input, position, input, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit + length > input.length) {
+            input = Arrays.copyOf(input, Math.max(limit + length, input.length * 2));
+        }
+        System.arraycopy(bytes, offset, input, limit, length);
+        limit += length;
+    }
+
+    /**
+     * Inflate into the given buffer.
+     *
+     * @return the number of bytes written, or 0 if more input is needed first
+     * @throws ZipException if the input is not valid gzip
+     */
+    int inflate(byte[] out, int offset, int length) throws ZipException {
+        if (length == 0) {
+            return 0;
+        }
+        while (true) {
+            switch (state) {
+                case HEADER -> {
+                    if (!readHeader()) {
+                        return 0;
+                    }
+                    inflater.reset();
+                    crc.reset();
+                    state = State.BODY;
+                }
+                case BODY -> {
+                    if (inflater.needsInput()) {
+                        if (position == limit) {
+                            return 0;
+                        }
+                        inflater.setInput(input, position, limit - position);
+                        position = limit;
+                    }
+                    int n;
+                    try {
+                        n = inflater.inflate(out, offset, length);
+                    } catch (DataFormatException e) {
+                        throw new ZipException(e.getMessage());
+                    }
+                    if (n > 0) {
+                        crc.update(out, offset, n);
+                        return n;
+                    }
+                    if (inflater.finished()) {
+                        position = limit - inflater.getRemaining();
+                        state = State.TRAILER;
+                    } else if (inflater.needsDictionary()) {
+                        throw new ZipException("Invalid gzip data: preset dictionary");
+                    }
+                }
+                case TRAILER -> {
+                    if (limit - position < 8) {
+                        return 0;
+                    }
+                    if (readInt(position) != crc.getValue()) {
+                        throw new ZipException("Corrupt gzip trailer: CRC mismatch");
+                    }
+                    if (readInt(position + 4) != (inflater.getBytesWritten() & 0xffffffffL)) {
+                        throw new ZipException("Corrupt gzip trailer: size mismatch");
+                    }
+                    position += 8;
+                    state = State.END;
+                }
+                case END -> {
+                    if (position == limit) {
+                        return 0;
+                    }
+                    state = State.HEADER;
+                }
+            }
+        }
+    }
+
+    void end() {
+        inflater.end();
+    }
+
+    /**
+     * Consume a complete member header, or nothing if it has not fully arrived yet
+     */
+    private boolean readHeader() throws ZipException {
+        int p = position;
+        if (limit - p < 10) {
+            return false;
+        }
+        if ((input[p] & 0xff) != 0x1f || (input[p + 1] & 0xff) != 0x8b) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (input[p + 2] != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        int flags = input[p + 3] & 0xff;
+        p += 10;
+        if ((flags & FEXTRA) != 0) {
+            if (limit - p < 2) {
+                return tooLong();
+            }
+            p += 2 + ((input[p] & 0xff) | (input[p + 1] & 0xff) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            p = skipZeroTerminated(p);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            p = skipZeroTerminated(p);
+        }
+        if ((flags & FHCRC) != 0) {
+            if (p + 2 > limit) {
+                return tooLong();
+            }
+            CRC32 headerCrc = new CRC32();
+            headerCrc.update(input, position, p - position);
+            if (((input[p] & 0xff) | (input[p + 1] & 0xff) << 8) != (headerCrc.getValue() & 0xffff)) {
+                throw new ZipException("Corrupt gzip header");
+            }
+            p += 2;
+        }
+        if (p > limit) {
+            return tooLong();
+        }
+        position = p;
+        return true;
+    }
+
+    /**
+     * Index after the terminating zero, or past the limit if it has not arrived yet
+     */
+    private int skipZeroTerminated(int p) {
+        while (p < limit && input[p] != 0) {
+            p++;
+        }
+        return p + 1;
+    }
+
+    /**
+     * Wait for more of an incomplete header, unless it is already longer than allowed
+     */
+    private boolean tooLong() throws ZipException {
+        if (limit - position > MAX_HEADER_SIZE) {
+            throw new ZipException("Gzip header exceeds " + MAX_HEADER_SIZE + " bytes");
+        }
+        return false;
+    }
+
+    private long readInt(int p) {
+        return (input[p] & 0xffL) | (input[p + 1] & 0xffL) << 8 | (input[p + 2] & 0xffL) << 16
+                | (input[p + 3] & 0xffL) << 24;
+    }
+}
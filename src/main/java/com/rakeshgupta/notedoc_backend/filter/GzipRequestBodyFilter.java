@@ -0,0 +1,261 @@
+package com.rakeshgupta.notedoc_backend.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * Servlet filter that transparently inflates request bodies sent with
+ * {@code Content-Encoding: gzip}, so create and update payloads can be compressed
+ * on the client just like responses are compressed by the server.
+ * The inflated size is capped to protect against decompression bombs.
+ * Bodies can be read with blocking reads or with a {@link ReadListener}.
+ */
+public class GzipRequestBodyFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final long maxInflatedSize;
+
+    public GzipRequestBodyFilter(long maxInflatedSize) {
+        this.maxInflatedSize = maxInflatedSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return encoding == null || !GZIP.equalsIgnoreCase(encoding.trim());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(new GzipRequestWrapper(request, maxInflatedSize), response);
+    }
+
+    /**
+     * Request wrapper exposing the inflated body and hiding the original encoding headers
+     */
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final long maxInflatedSize;
+        private ServletInputStream inputStream;
+
+        GzipRequestWrapper(HttpServletRequest request, long maxInflatedSize) {
+            super(request);
+            this.maxInflatedSize = maxInflatedSize;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new InflatingInputStream(super.getInputStream(), maxInflatedSize);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1L;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isHiddenHeader(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isHiddenHeader(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        private boolean isHiddenHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * ServletInputStream that inflates the compressed body and fails once the size limit is exceeded.
+     * Blocking reads pull compressed bytes as needed. In non-blocking mode the container's
+     * callbacks are passed on to the application's listener, and {@link #isReady()} inflates
+     * whatever compressed bytes can be read without blocking.
+     */
+    private static class InflatingInputStream extends ServletInputStream {
+
+        private final ServletInputStream compressed;
+        private final long maxInflatedSize;
+        private final GzipInflater inflater = new GzipInflater();
+        private final byte[] chunk = new byte[8192];
+        private long bytesRead;
+        private boolean compressedFinished;
+        private boolean finished;
+
+        // Inflated by isReady() in non-blocking mode and not yet returned by read()
+        private final byte[] ready = new byte[8192];
+        private int readyPosition;
+        private int readyLimit;
+        // A failure while inflating in isReady(), thrown by the next read()
+        private IOException failure;
+
+        InflatingInputStream(ServletInputStream compressed, long maxInflatedSize) {
+            this.compressed = compressed;
+            this.maxInflatedSize = maxInflatedSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            if (readyPosition < readyLimit) {
+                int n = Math.min(length, readyLimit - readyPosition);
+                System.arraycopy(ready, readyPosition, buffer, offset, n);
+                readyPosition += n;
+                return n;
+            }
+            return inflate(buffer, offset, length, true);
+        }
+
+        /**
+         * Inflate into the buffer, reading compressed bytes as needed.
+         *
+         * @return the number of bytes inflated, -1 at the end of the body, or 0 if
+         *         {@code blocking} is false and no compressed bytes can be read without blocking
+         */
+        private int inflate(byte[] buffer, int offset, int length, boolean blocking) throws IOException {
+            if (finished) {
+                return -1;
+            }
+            while (true) {
+                int n = inflater.inflate(buffer, offset, length);
+                if (n > 0) {
+                    count(n);
+                    return n;
+                }
+                if (compressedFinished) {
+                    if (!inflater.atEnd()) {
+                        throw new EOFException("Unexpected end of gzip request body");
+                    }
+                    finished = true;
+                    return -1;
+                }
+                if (!blocking && !compressed.isReady()) {
+                    return 0;
+                }
+                int read = compressed.read(chunk);
+                if (read == -1) {
+                    compressedFinished = true;
+                } else {
+                    inflater.feed(chunk, 0, read);
+                }
+            }
+        }
+
+        private void count(int n) throws IOException {
+            bytesRead += n;
+            if (bytesRead > maxInflatedSize) {
+                throw new IOException("Inflated request body exceeds " + maxInflatedSize + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished && readyPosition == readyLimit;
+        }
+
+        @Override
+        public boolean isReady() {
+            if (readyPosition < readyLimit || finished || failure != null) {
+                return true;
+            }
+            try {
+                int n = inflate(ready, 0, ready.length, false);
+                readyPosition = 0;
+                readyLimit = Math.max(n, 0);
+                return n != 0;
+            } catch (IOException e) {
+                failure = e;
+                return true;
+            }
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            compressed.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    readListener.onDataAvailable();
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    // All compressed bytes have arrived, but some may not have been inflated and read yet
+                    long progress = -1;
+                    while (!isFinished() && failure == null && isReady() && progress != bytesRead + readyPosition) {
+                        progress = bytesRead + readyPosition;
+                        readListener.onDataAvailable();
+                    }
+                    if (failure != null) {
+                        readListener.onError(failure);
+                    } else {
+                        readListener.onAllDataRead();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            compressed.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rakeshgupta.notedoc_backend.filter;
+
+import com.rakeshgupta.notedoc_backend.service.RequestActivityTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Marks the instance as active whenever a note request is served
+ */
+public class RequestActivityFilter extends OncePerRequestFilter {
+
+    private final RequestActivityTracker tracker;
+
+    public RequestActivityFilter(RequestActivityTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            tracker.markRequest();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.rakeshgupta.notedoc_backend.filter;
+
+import com.rakeshgupta.notedoc_backend.jdbc.SqlRequestStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Collects per-request SQL stats and reports them as a Server-Timing header, e.g.
+ * {@code Server-Timing: db;dur=12.48, db-count;desc=3, db-rows;desc=40}.
+ * The header is added just before the response is committed, since controllers write
+ * the body before control returns to the filter.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.begin();
+        ServerTimingResponseWrapper wrapper = new ServerTimingResponseWrapper(response, stats);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            wrapper.addServerTiming();
+            SqlRequestStats.end();
+        }
+    }
+
+    static String formatServerTiming(SqlRequestStats stats) {
+        return String.format(Locale.ROOT, "db;dur=%.2f, db-count;desc=%d, db-rows;desc=%d",
+                stats.getNanos() / 1_000_000.0, stats.getStatements(), stats.getRows());
+    }
+
+    /**
+     * Adds the Server-Timing header once, on the first write, flush or error
+     */
+    private static class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final SqlRequestStats stats;
+        private boolean headerAdded;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ServerTimingResponseWrapper(HttpServletResponse response, SqlRequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void addServerTiming() {
+            if (headerAdded) {
+                return;
+            }
+            headerAdded = true;
+            if (!isCommitted()) {
+                addHeader(SERVER_TIMING_HEADER, formatServerTiming(stats));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CommitAwareOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(),
+                        Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+
+        private class CommitAwareOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            CommitAwareOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                addServerTiming();
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                addServerTiming();
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                addServerTiming();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                addServerTiming();
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+/**
+ * JDBC proxy layer that times every executed statement and counts returned and affected rows.
+ * Results are added to the {@link SqlRequestStats} of the current request, and statements slower
+ * than the threshold are logged together with the shapes (types and lengths) of their bind
+ * parameters, never the values themselves.
+ * Only installed when SQL instrumentation is enabled, so a disabled setup runs on the raw pool.
+ * The JDK proxies put a reflective call in front of every JDBC method, including each
+ * {@code ResultSet.next()}, which is why instrumentation is off by default.
+ */
+@Slf4j
+public final class InstrumentedDataSource {
+
+    private static final int MAX_TRACKED_PARAMETERS = 64;
+
+    private InstrumentedDataSource() {}
+
+    /**
+     * Wrap a DataSource so all connections and statements it hands out are instrumented
+     *
+     * @param target the pool to wrap
+     * @param slowThresholdMillis statements taking at least this long are logged
+     * @return the instrumented DataSource; unwrap() still reaches the target pool, and it is
+     *         {@link Closeable} if the pool is, so the container still closes the pool on shutdown
+     */
+    public static DataSource wrap(DataSource target, long slowThresholdMillis) {
+        long slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection) {
+                return wrapConnection(connection, slowThresholdNanos);
+            }
+            return result;
+        };
+        if (target instanceof Closeable) {
+            return (DataSource) proxy(new Class<?>[]{DataSource.class, Closeable.class}, handler);
+        }
+        return proxy(DataSource.class, target, handler);
+    }
+
+
+    private static Connection wrapConnection(Connection target, long slowThresholdNanos) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement,
+                        new StatementHandler(statement, (String) args[0], slowThresholdNanos));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement,
+                        new StatementHandler(statement, (String) args[0], slowThresholdNanos));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null, slowThresholdNanos));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Times execute* calls, counts rows and tracks bind parameter shapes for the slow-query log
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        private final long slowThresholdNanos;
+        private Object[] parameterValues;
+        private int parameterCount;
+
+        StatementHandler(Statement target, String sql, long slowThresholdNanos) {
+            this.target = target;
+            this.sql = sql;
+            this.slowThresholdNanos = slowThresholdNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                trackParameter(index, "setNull".equals(name) ? null : args[1]);
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+            if ("clearParameters".equals(name)) {
+                parameterCount = 0;
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof ResultSet resultSet && "getResultSet".equals(name)) {
+                return wrapResultSet(resultSet, SqlRequestStats.current());
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            SqlRequestStats stats = SqlRequestStats.current();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedDataSource.invoke(target, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (stats != null) {
+                    stats.addStatement(elapsed);
+                }
+                if (elapsed >= slowThresholdNanos) {
+                    logSlowStatement(args, elapsed);
+                }
+            }
+            if (stats != null) {
+                if (result instanceof Integer updated) {
+                    stats.addRows(Math.max(updated, 0));
+                } else if (result instanceof Long updated) {
+                    stats.addRows(Math.max(updated, 0));
+                } else if (result instanceof int[] batch) {
+                    stats.addRows(Arrays.stream(batch).filter(n -> n > 0).asLongStream().sum());
+                }
+            }
+            if (result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet, stats);
+            }
+            return result;
+        }
+
+        private void trackParameter(int index, Object value) {
+            if (index < 1 || index > MAX_TRACKED_PARAMETERS) {
+                return;
+            }
+            if (parameterValues == null) {
+                parameterValues = new Object[Math.min(MAX_TRACKED_PARAMETERS, Math.max(8, index))];
+            } else if (index > parameterValues.length) {
+                parameterValues = Arrays.copyOf(parameterValues, Math.min(MAX_TRACKED_PARAMETERS, index * 2));
+            }
+            // Keep the reference only; shapes are computed when a slow statement is actually logged
+            parameterValues[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private void logSlowStatement(Object[] args, long elapsedNanos) {
+            String statementSql = sql != null ? sql : (args != null && args.length > 0 ? String.valueOf(args[0]) : "?");
+            String[] shapes = new String[parameterCount];
+            for (int i = 0; i < parameterCount; i++) {
+                shapes[i] = shapeOf(parameterValues[i]);
+            }
+            log.warn("🐢 Slow SQL ({} ms): {} params={}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), statementSql, Arrays.toString(shapes));
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet target, SqlRequestStats stats) {
+        if (stats == null) {
+            return target;
+        }
+        return proxy(ResultSet.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                stats.addRows(1);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Describe a bind value by type and size only, e.g. String(12), UUID, null
+     */
+    static String shapeOf(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        if (value instanceof byte[] bytes) {
+            return "byte[" + bytes.length + "]";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Create a proxy for the JDBC interface; equals and hashCode use proxy identity so
+     * pools and transaction managers can still compare the objects they were handed
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) proxy(new Class<?>[]{type}, handler);
+    }
+
+    private static Object proxy(Class<?>[] types, InvocationHandler handler) {
+        InvocationHandler identityAware = (proxy, method, args) -> {
+            String name = method.getName();
+            if ("equals".equals(name) && args != null && args.length == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && args == null) {
+                return System.identityHashCode(proxy);
+            }
+            return handler.invoke(proxy, method, args);
+        };
+        return Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), types, identityAware);
+    }
+}
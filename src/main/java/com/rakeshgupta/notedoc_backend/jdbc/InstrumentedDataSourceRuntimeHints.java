@@ -0,0 +1,31 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Registers the JDK proxies created by {@link InstrumentedDataSource} for native images,
+ * where proxy classes have to be generated at build time
+ */
+public class InstrumentedDataSourceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.proxies()
+                .registerJdkProxy(DataSource.class)
+                .registerJdkProxy(DataSource.class, Closeable.class)
+                .registerJdkProxy(Connection.class)
+                .registerJdkProxy(Statement.class)
+                .registerJdkProxy(PreparedStatement.class)
+                .registerJdkProxy(CallableStatement.class)
+                .registerJdkProxy(ResultSet.class);
+    }
+}
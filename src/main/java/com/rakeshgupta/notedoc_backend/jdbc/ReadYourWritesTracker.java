@@ -0,0 +1,68 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which users wrote recently, so their reads can stay on the primary until the replica
+ * has had time to catch up. State is per instance: with several instances behind a load balancer
+ * without session affinity a user may still read a stale replica right after a write.
+ * Does nothing unless replica routing is enabled.
+ */
+@Component
+@Slf4j
+public class ReadYourWritesTracker {
+
+    private final boolean enabled;
+    private final long stickyWindowNanos;
+    private final ConcurrentHashMap<UUID, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(@Value("${app.datasource.replica.enabled:false}") boolean enabled,
+                                 @Value("${app.datasource.replica.sticky-window-ms:5000}") long stickyWindowMs) {
+        this.enabled = enabled && stickyWindowMs > 0;
+        this.stickyWindowNanos = TimeUnit.MILLISECONDS.toNanos(stickyWindowMs);
+    }
+
+    /**
+     * Record that the user has just committed a write
+     */
+    public void recordWrite(UUID userId) {
+        if (enabled) {
+            stickyUntil.put(userId, System.nanoTime() + stickyWindowNanos);
+        }
+    }
+
+    /**
+     * Whether the user's reads must go to the primary
+     */
+    public boolean isSticky(UUID userId) {
+        if (!enabled) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    /**
+     * Forget users whose window has passed
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        int before = stickyUntil.size();
+        stickyUntil.values().removeIf(until -> until - now <= 0);
+        int evicted = before - stickyUntil.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} expired read-your-writes entries", evicted);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+
+/**
+ * Health contributor ("replica") reporting where reads are served from. Always UP: while the
+ * replica is down or lagging, reads fall back to the primary, so the instance stays healthy.
+ * Reads the {@link ReplicaLagMonitor} state only, never the database.
+ */
+@RequiredArgsConstructor
+public class ReplicaHealthIndicator implements HealthIndicator {
+
+    private final ReplicaLagMonitor monitor;
+
+    @Override
+    public Health health() {
+        String state = !monitor.isUp() ? "down" : monitor.isLagging() ? "lagging" : "up";
+        return Health.up()
+                .withDetail("replica", state)
+                .withDetail("lagMs", monitor.getLagMillis())
+                .withDetail("reads", "up".equals(state) ? "replica" : "primary")
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks whether the read replica can serve reads: it must be reachable and its replication lag
+ * must be within the configured bound. A daemon thread runs the lag query at a fixed delay;
+ * {@link ReplicaRoutingDataSource} also reports a replica as down as soon as borrowing a
+ * connection from it fails, without waiting for the next check.
+ * The replica counts as down until the first successful check.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+
+    private volatile boolean up;
+    private volatile long lagMillis = -1;
+    private ScheduledExecutorService executor;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMillis, long checkIntervalMillis) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::check, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isUp() {
+        return up;
+    }
+
+    public boolean isLagging() {
+        return lagMillis > maxLagMillis;
+    }
+
+    /**
+     * @return last measured lag in milliseconds, or -1 while the replica is down
+     */
+    public long getLagMillis() {
+        return up ? lagMillis : -1;
+    }
+
+    /**
+     * Record a failure to reach the replica; reads go to the primary until the next successful check
+     */
+    public void markDown(SQLException e) {
+        if (up) {
+            log.warn("❌ Read replica unavailable, routing reads to the primary: {}", e.getMessage());
+        }
+        up = false;
+    }
+
+    void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(checkIntervalMillis)));
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                resultSet.next();
+                update(resultSet.getLong(1));
+            }
+        } catch (SQLException e) {
+            markDown(e);
+        } catch (RuntimeException e) {
+            log.error("❌ Replica lag check failed", e);
+        }
+    }
+
+    private void update(long measuredLagMillis) {
+        boolean wasLagging = isLagging();
+        lagMillis = measuredLagMillis;
+        if (!up) {
+            log.info("✅ Read replica reachable, lag {} ms", measuredLagMillis);
+            up = true;
+        } else if (isLagging() != wasLagging) {
+            if (isLagging()) {
+                log.warn("🔄 Read replica lag {} ms exceeds {} ms, routing reads to the primary", measuredLagMillis, maxLagMillis);
+            } else {
+                log.info("✅ Read replica caught up, lag {} ms", measuredLagMillis);
+            }
+        }
+    }
+}
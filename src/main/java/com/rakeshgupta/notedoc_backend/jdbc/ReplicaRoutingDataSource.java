@@ -0,0 +1,121 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections otherwise.
+ * A read still goes to the primary when the caller runs it through {@link #onPrimary} (read-your-writes
+ * stickiness), when the replica lags or is down according to {@link ReplicaLagMonitor}, or when
+ * borrowing a replica connection fails.
+ * <p>
+ * Must be used behind a {@code LazyConnectionDataSourceProxy}: the transaction manager opens its
+ * connection before the transaction is marked read-only, and the lazy proxy defers the actual
+ * borrow to the first statement, by which time the flag is visible here.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+
+    private final Counter replicaReads;
+    private final Counter stickyReads;
+    private final Counter laggingReads;
+    private final Counter downReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.replicaReads = readRoute(meterRegistry, "replica");
+        this.stickyReads = readRoute(meterRegistry, "sticky");
+        this.laggingReads = readRoute(meterRegistry, "lagging");
+        this.downReads = readRoute(meterRegistry, "down");
+    }
+
+    /**
+     * Run a call with all of its read-only transactions on the primary
+     */
+    public static <T> T onPrimary(Supplier<T> call) {
+        if (PRIMARY_ONLY.get() != null) {
+            return call.get();
+        }
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return call.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        if (PRIMARY_ONLY.get() != null) {
+            stickyReads.increment();
+            return primary.getConnection();
+        }
+        if (!monitor.isUp()) {
+            downReads.increment();
+            return primary.getConnection();
+        }
+        if (monitor.isLagging()) {
+            laggingReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            monitor.markDown(e);
+            downReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Explicit credentials are only meaningful for one pool, so these connections always come from the primary
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Unwraps to the primary pool, so pool-size lookups such as the connection warmup's see the primary
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private static Counter readRoute(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("notedoc.datasource.read.route")
+                .description("Read-only transactions by the pool that served them and why")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
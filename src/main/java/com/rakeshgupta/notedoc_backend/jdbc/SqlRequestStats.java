@@ -0,0 +1,61 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+/**
+ * SQL statement count, row count and time accumulated for the current HTTP request.
+ * Bound to the request thread by {@link #begin()} and released by {@link #end()};
+ * the JDBC proxies add to it only while a request is being served.
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    private SqlRequestStats() {}
+
+    /**
+     * Start collecting stats for the request served by the current thread
+     */
+    public static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stop collecting stats on the current thread
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Stats of the current request, or null when the thread is not serving a request
+     */
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    void addStatement(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    void addRows(long count) {
+        rows += count;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
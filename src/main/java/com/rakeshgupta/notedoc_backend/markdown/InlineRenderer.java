@@ -0,0 +1,402 @@
+package com.rakeshgupta.notedoc_backend.markdown;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Inline Markdown of one paragraph, heading or table cell.
+ * Every construct is recognised by searching forward for its closing delimiter. The search for a
+ * given delimiter remembers its last answer, which stays valid for any later start position up to
+ * it, so a paragraph full of unmatched delimiters is still processed in linear time. Code spans,
+ * whose closers are backtick runs of any length, are found in an index of the paragraph's runs
+ * instead, built on first use.
+ */
+final class InlineRenderer {
+
+    private static final int MAX_DEPTH = 16;
+    private static final int MAX_DESTINATION = 4096;
+
+    private final String text;
+    private final StringBuilder out;
+    /**
+     * Per delimiter: the position a search started from and the closer it found, or -1 for none
+     */
+    private final Map<String, int[]> lastFound = new HashMap<>();
+    /**
+     * Start positions of the paragraph's backtick runs by run length, in ascending order
+     */
+    private Map<Integer, int[]> backtickRuns;
+
+    private InlineRenderer(String text, StringBuilder out) {
+        this.text = text;
+        this.out = out;
+    }
+
+    static void render(String text, StringBuilder out) {
+        new InlineRenderer(text, out).render(0, text.length(), 0, false);
+    }
+
+    private void render(int from, int to, int depth, boolean inLink) {
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            int next = switch (c) {
+                case '\\' -> backslash(i, to);
+                case '`' -> codeSpan(i, to);
+                case '*', '_', '~' -> depth < MAX_DEPTH ? emphasis(i, to, depth, inLink) : -1;
+                case '!' -> image(i, to);
+                case '[' -> !inLink && depth < MAX_DEPTH ? link(i, to, depth) : -1;
+                case '<' -> inLink ? -1 : autolink(i, to);
+                case '\n' -> lineBreak(i);
+                default -> -1;
+            };
+            if (next < 0) {
+                MarkdownRenderer.escape(out, c);
+                next = i + 1;
+            }
+            i = next;
+        }
+    }
+
+    private int backslash(int i, int to) {
+        if (i + 1 >= to) {
+            return -1;
+        }
+        char next = text.charAt(i + 1);
+        if (next == '\n') {
+            out.append("<br />\n");
+            return i + 2;
+        }
+        if (isAsciiPunctuation(next)) {
+            MarkdownRenderer.escape(out, next);
+            return i + 2;
+        }
+        return -1;
+    }
+
+    private int codeSpan(int i, int to) {
+        int length = run(i, to, '`');
+        int close = backtickRun(length, i + length);
+        if (close < 0 || close + length > to) {
+            out.repeat('`', length);
+            return i + length;
+        }
+        String code = text.substring(i + length, close).replace('\n', ' ');
+        if (code.length() > 2 && code.startsWith(" ") && code.endsWith(" ") && !code.isBlank()) {
+            code = code.substring(1, code.length() - 1);
+        }
+        out.append("<code>");
+        MarkdownRenderer.escape(out, code, 0, code.length());
+        out.append("</code>");
+        return close + length;
+    }
+
+    private int emphasis(int i, int to, int depth, boolean inLink) {
+        char delimiter = text.charAt(i);
+        int run = run(i, to, delimiter);
+        if (delimiter == '_' && i > 0 && Character.isLetterOrDigit(text.charAt(i - 1))) {
+            // Underscores inside words, as in snake_case, are text
+            return -1;
+        }
+        int length = delimiter == '~' ? 2 : Math.min(run, 3);
+        if (run < length || i + length >= to || Character.isWhitespace(text.charAt(i + length))) {
+            return -1;
+        }
+        int close = find(String.valueOf(delimiter).repeat(length), i + length + 1, k -> isCloser(k, delimiter, length));
+        if (close < 0 || close + length > to) {
+            return -1;
+        }
+        int tags = delimiter == '~' ? 0 : length;
+        out.append(switch (tags) {
+            case 0 -> "<del>";
+            case 1 -> "<em>";
+            case 2 -> "<strong>";
+            default -> "<em><strong>";
+        });
+        render(i + length, close, depth + 1, inLink);
+        out.append(switch (tags) {
+            case 0 -> "</del>";
+            case 1 -> "</em>";
+            case 2 -> "</strong>";
+            default -> "</strong></em>";
+        });
+        return close + length;
+    }
+
+    private boolean isCloser(int k, char delimiter, int length) {
+        if (k + length > text.length() || Character.isWhitespace(text.charAt(k - 1))) {
+            return false;
+        }
+        for (int j = k; j < k + length; j++) {
+            if (text.charAt(j) != delimiter) {
+                return false;
+            }
+        }
+        int after = k + length;
+        if (length == 1 && (text.charAt(k - 1) == delimiter || (after < text.length() && text.charAt(after) == delimiter))) {
+            // Part of a longer run
+            return false;
+        }
+        return delimiter != '_' || after >= text.length() || !Character.isLetterOrDigit(text.charAt(after));
+    }
+
+    private int link(int i, int to, int depth) {
+        int[] target = target(i, to);
+        if (target == null) {
+            return -1;
+        }
+        int textEnd = target[0];
+        int end = target[1];
+        String[] destination = destination(textEnd + 2, end);
+        if (destination == null) {
+            return -1;
+        }
+        String url = safeUrl(destination[0], false);
+        if (url != null) {
+            out.append("<a href=\"");
+            MarkdownRenderer.escape(out, url, 0, url.length());
+            out.append('"');
+            title(destination[1]);
+            out.append(" rel=\"nofollow noopener noreferrer\">");
+        }
+        render(i + 1, textEnd, depth + 1, true);
+        if (url != null) {
+            out.append("</a>");
+        }
+        return end + 1;
+    }
+
+    private int image(int i, int to) {
+        if (i + 1 >= to || text.charAt(i + 1) != '[') {
+            return -1;
+        }
+        int[] target = target(i + 1, to);
+        if (target == null) {
+            return -1;
+        }
+        String[] destination = destination(target[0] + 2, target[1]);
+        if (destination == null) {
+            return -1;
+        }
+        String url = safeUrl(destination[0], true);
+        if (url == null) {
+            MarkdownRenderer.escape(out, text, i + 2, target[0]);
+        } else {
+            out.append("<img src=\"");
+            MarkdownRenderer.escape(out, url, 0, url.length());
+            out.append("\" alt=\"");
+            MarkdownRenderer.escape(out, text, i + 2, target[0]);
+            out.append('"');
+            title(destination[1]);
+            out.append(" loading=\"lazy\" />");
+        }
+        return target[1] + 1;
+    }
+
+    /**
+     * For the {@code [} at {@code i}: the positions of the matching {@code ]} and of the {@code )}
+     * closing the destination that must follow it, or null if there is no such pair
+     */
+    private int[] target(int i, int to) {
+        int textEnd = find("]", i + 1, k -> text.charAt(k) == ']' && !isEscaped(k));
+        if (textEnd < 0 || textEnd + 1 >= to || text.charAt(textEnd + 1) != '(') {
+            return null;
+        }
+        int end = find(")", textEnd + 2, k -> text.charAt(k) == ')' && !isEscaped(k));
+        int open = find("(", textEnd + 2, k -> text.charAt(k) == '(' && !isEscaped(k));
+        if (end >= 0 && open >= 0 && open < end) {
+            // One level of parentheses inside the destination, as in wiki/Name_(disambiguation)
+            // Remembered separately from the first closer so neither search is repeated
+            end = find("))", end + 1, k -> text.charAt(k) == ')' && !isEscaped(k));
+        }
+        return end < 0 || end >= to || end - textEnd > MAX_DESTINATION ? null : new int[]{textEnd, end};
+    }
+
+    /**
+     * URL and title (null if none) of a link destination, or null if it is malformed
+     */
+    private String[] destination(int from, int to) {
+        String destination = text.substring(from, to).strip();
+        String url;
+        String rest;
+        if (destination.startsWith("<")) {
+            int close = destination.indexOf('>');
+            if (close < 0) {
+                return null;
+            }
+            url = destination.substring(1, close);
+            rest = destination.substring(close + 1).strip();
+        } else {
+            int space = 0;
+            while (space < destination.length() && !Character.isWhitespace(destination.charAt(space))) {
+                space++;
+            }
+            url = destination.substring(0, space);
+            rest = destination.substring(space).strip();
+        }
+        if (url.isEmpty() || url.indexOf('\n') >= 0) {
+            return null;
+        }
+        String title = null;
+        if (!rest.isEmpty()) {
+            char open = rest.charAt(0);
+            char close = open == '(' ? ')' : open;
+            if (rest.length() < 2 || (open != '"' && open != '\'' && open != '(') || rest.charAt(rest.length() - 1) != close) {
+                return null;
+            }
+            title = unescape(rest.substring(1, rest.length() - 1));
+        }
+        return new String[]{unescape(url), title};
+    }
+
+    private void title(String title) {
+        if (title != null) {
+            out.append(" title=\"");
+            MarkdownRenderer.escape(out, title, 0, title.length());
+            out.append('"');
+        }
+    }
+
+    private int autolink(int i, int to) {
+        int close = find(">", i + 1, k -> text.charAt(k) == '>');
+        if (close < 0 || close >= to) {
+            return -1;
+        }
+        String url = text.substring(i + 1, close);
+        if (url.isEmpty() || url.indexOf(':') < 0 || url.chars().anyMatch(c -> c <= ' ' || c == '<')) {
+            return -1;
+        }
+        String safe = safeUrl(url, false);
+        if (safe == null) {
+            return -1;
+        }
+        out.append("<a href=\"");
+        MarkdownRenderer.escape(out, safe, 0, safe.length());
+        out.append("\" rel=\"nofollow noopener noreferrer\">");
+        MarkdownRenderer.escape(out, url, 0, url.length());
+        out.append("</a>");
+        return close + 1;
+    }
+
+    private int lineBreak(int i) {
+        if (i >= 2 && text.charAt(i - 1) == ' ' && text.charAt(i - 2) == ' ') {
+            out.append("<br />\n");
+        } else {
+            out.append('\n');
+        }
+        return i + 1;
+    }
+
+    /**
+     * First position at or after {@code from} satisfying {@code closer}, or -1.
+     * {@code closer} must depend only on the position, never on where the search started.
+     */
+    private int find(String delimiter, int from, IntPredicate closer) {
+        int[] last = lastFound.get(delimiter);
+        if (last != null && last[0] <= from && (last[1] < 0 || from <= last[1])) {
+            return last[1];
+        }
+        int found = -1;
+        char first = delimiter.charAt(0);
+        for (int k = text.indexOf(first, from); k >= 0; k = text.indexOf(first, k + 1)) {
+            if (closer.test(k)) {
+                found = k;
+                break;
+            }
+        }
+        lastFound.put(delimiter, new int[]{from, found});
+        return found;
+    }
+
+    /**
+     * Start of the first backtick run of exactly {@code length} at or after {@code from}, or -1
+     */
+    private int backtickRun(int length, int from) {
+        if (backtickRuns == null) {
+            Map<Integer, int[]> runs = new HashMap<>();
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (int k = text.indexOf('`'); k >= 0; k = text.indexOf('`', k + 1)) {
+                int run = run(k, text.length(), '`');
+                int[] starts = runs.computeIfAbsent(run, key -> new int[4]);
+                int count = counts.merge(run, 1, Integer::sum);
+                if (count > starts.length) {
+                    runs.put(run, starts = Arrays.copyOf(starts, starts.length * 2));
+                }
+                starts[count - 1] = k;
+                k += run - 1;
+            }
+            runs.replaceAll((run, starts) -> Arrays.copyOf(starts, counts.get(run)));
+            backtickRuns = runs;
+        }
+        int[] starts = backtickRuns.get(length);
+        if (starts == null) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(starts, from);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < starts.length ? starts[index] : -1;
+    }
+
+    private int run(int i, int to, char c) {
+        int j = i;
+        while (j < to && text.charAt(j) == c) {
+            j++;
+        }
+        return j - i;
+    }
+
+    private boolean isEscaped(int k) {
+        int backslashes = 0;
+        while (k - backslashes - 1 >= 0 && text.charAt(k - backslashes - 1) == '\\') {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    /**
+     * The URL if it is relative or uses an allowed scheme, null otherwise
+     */
+    static String safeUrl(String url, boolean image) {
+        int colon = url.indexOf(':');
+        int pathStart = -1;
+        for (int k = 0; k < url.length(); k++) {
+            char c = url.charAt(k);
+            if (Character.isISOControl(c)) {
+                return null;
+            }
+            if (pathStart < 0 && (c == '/' || c == '?' || c == '#')) {
+                pathStart = k;
+            }
+        }
+        if (colon >= 0 && (pathStart < 0 || colon < pathStart)) {
+            String scheme = url.substring(0, colon).toLowerCase(Locale.ROOT);
+            boolean allowed = scheme.equals("http") || scheme.equals("https") || (!image && scheme.equals("mailto"));
+            return allowed ? url : null;
+        }
+        return url;
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder unescaped = new StringBuilder(s.length());
+        for (int k = 0; k < s.length(); k++) {
+            char c = s.charAt(k);
+            if (c == '\\' && k + 1 < s.length() && isAsciiPunctuation(s.charAt(k + 1))) {
+                c = s.charAt(++k);
+            }
+            unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+
+    private static boolean isAsciiPunctuation(char c) {
+        return (c >= '!' && c <= '/') || (c >= ':' && c <= '@') || (c >= '[' && c <= '`') || (c >= '{' && c <= '~');
+    }
+}
@@ -0,0 +1,626 @@
+package com.rakeshgupta.notedoc_backend.markdown;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the Markdown of notes to HTML that is safe to insert into a page.
+ * Supports ATX and setext headings, paragraphs, block quotes, bullet, ordered and task lists, fenced
+ * and indented code, thematic breaks and pipe tables; inline code, emphasis, strong emphasis,
+ * strikethrough, links, images, autolinks, backslash escapes and hard line breaks.
+ * <p>
+ * The output is safe by construction rather than by filtering: raw HTML in the input is escaped like
+ * any other text, only the elements above are ever emitted, every attribute value is escaped, and
+ * link and image URLs with a scheme other than http, https (or mailto for links) are dropped.
+ * <p>
+ * Input is consumed line by line and every block is written as soon as it ends, so memory use is
+ * bounded by the longest paragraph, which is split after {@link #MAX_PARAGRAPH_CHARS} characters,
+ * not by the size of the document.
+ */
+public final class MarkdownRenderer {
+
+    /**
+     * Version of the output; part of render cache keys, to be increased whenever the output changes
+     */
+    public static final int VERSION = 1;
+
+    static final int MAX_PARAGRAPH_CHARS = 64 * 1024;
+
+    /**
+     * Deepest nesting of block quotes and lists; deeper markers are rendered as text
+     */
+    private static final int MAX_DEPTH = 32;
+
+    private static final Pattern SETEXT_UNDERLINE = Pattern.compile("^ {0,3}(=+|-+)[ \\t]*$");
+    private static final Pattern FENCE = Pattern.compile("^( {0,3})(`{3,}|~{3,})[ \\t]*([^`]*)$");
+    private static final Pattern BLOCK_QUOTE = Pattern.compile("^ {0,3}> ?(.*)$");
+    private static final Pattern LIST_ITEM = Pattern.compile("^( {0,3})([-+*]|\\d{1,9}[.)])(?:([ \\t]+)(.*))?$");
+    private static final Pattern TASK = Pattern.compile("^\\[([ xX])\\](?:[ \\t]+(.*))?$");
+
+    private MarkdownRenderer() {
+    }
+
+    /**
+     * Render the Markdown read from {@code in} to {@code out}. Neither is closed.
+     */
+    public static void render(Reader in, Writer out) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        Blocks blocks = new Blocks(out, 0, false);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            blocks.line(expandTabs(line));
+        }
+        blocks.close();
+    }
+
+    public static String render(String markdown) {
+        StringWriter out = new StringWriter(markdown.length() + markdown.length() / 4);
+        try {
+            render(new StringReader(markdown), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Append {@code c} to {@code out}, escaped for use in both text and attribute values
+     */
+    static void escape(StringBuilder out, char c) {
+        switch (c) {
+            case '&' -> out.append("&amp;");
+            case '<' -> out.append("&lt;");
+            case '>' -> out.append("&gt;");
+            case '"' -> out.append("&quot;");
+            case '\'' -> out.append("&#39;");
+            case '\0' -> out.append('\uFFFD');
+            default -> out.append(c);
+        }
+    }
+
+    static void escape(StringBuilder out, CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            escape(out, text.charAt(i));
+        }
+    }
+
+    /**
+     * Replace tabs in the indentation with spaces up to the next multiple of four columns
+     */
+    private static String expandTabs(String line) {
+        int firstTab = line.indexOf('\t');
+        if (firstTab < 0 || !line.substring(0, firstTab).isBlank()) {
+            return line;
+        }
+        StringBuilder expanded = new StringBuilder(line.length() + 8);
+        int i = 0;
+        for (; i < line.length() && (line.charAt(i) == ' ' || line.charAt(i) == '\t'); i++) {
+            if (line.charAt(i) == '\t') {
+                expanded.repeat(' ', 4 - expanded.length() % 4);
+            } else {
+                expanded.append(' ');
+            }
+        }
+        return expanded.append(line, i, line.length()).toString();
+    }
+
+    private static int indent(String line) {
+        int i = 0;
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private enum State { NONE, PARAGRAPH, FENCED_CODE, INDENTED_CODE, QUOTE, LIST, TABLE }
+
+    /**
+     * Block structure of a document or of the content of one container (block quote or list item).
+     * Containers feed their lines, with the container markers removed, to a child instance.
+     */
+    private static final class Blocks {
+
+        private final Writer out;
+        private final int depth;
+        /**
+         * List item content: the first paragraph is written without a {@code <p>} element
+         */
+        private final boolean tight;
+        private int blocks;
+        private boolean bareParagraph;
+        private State state = State.NONE;
+
+        private final StringBuilder paragraph = new StringBuilder();
+        private int paragraphLines;
+
+        private char fenceChar;
+        private int fenceLength;
+        private int fenceIndent;
+        private int pendingBlankLines;
+
+        private Blocks child;
+        private boolean ordered;
+        private char listDelimiter;
+        private int contentIndent;
+        private boolean blankInList;
+
+        private String[] alignments;
+        private int tableRows;
+
+        Blocks(Writer out, int depth, boolean tight) {
+            this.out = out;
+            this.depth = depth;
+            this.tight = tight;
+        }
+
+        void line(String line) throws IOException {
+            boolean consumed = switch (state) {
+                case NONE -> false;
+                case PARAGRAPH -> paragraphLine(line);
+                case FENCED_CODE -> fencedCodeLine(line);
+                case INDENTED_CODE -> indentedCodeLine(line);
+                case QUOTE -> quoteLine(line);
+                case LIST -> listLine(line);
+                case TABLE -> tableLine(line);
+            };
+            if (!consumed) {
+                start(line);
+            }
+        }
+
+        void close() throws IOException {
+            switch (state) {
+                case PARAGRAPH -> flushParagraph();
+                case FENCED_CODE, INDENTED_CODE -> out.write("</code></pre>\n");
+                case QUOTE -> {
+                    child.close();
+                    out.write("</blockquote>\n");
+                }
+                case LIST -> closeList();
+                case TABLE -> closeTable();
+                case NONE -> { }
+            }
+            state = State.NONE;
+        }
+
+        /**
+         * Whether the innermost open block is a paragraph, which a following text line continues
+         */
+        boolean inParagraph() {
+            return state == State.PARAGRAPH || ((state == State.QUOTE || state == State.LIST) && child.inParagraph());
+        }
+
+        private void start(String line) throws IOException {
+            if (line.isBlank()) {
+                return;
+            }
+            boolean first = blocks++ == 0;
+            if (indent(line) >= 4) {
+                state = State.INDENTED_CODE;
+                out.write("<pre><code>");
+                writeCode(line.substring(4));
+                return;
+            }
+            int level = headingLevel(line);
+            if (level > 0) {
+                heading(level, headingText(line));
+                return;
+            }
+            Matcher m = FENCE.matcher(line);
+            if (m.matches()) {
+                fenceIndent = m.group(1).length();
+                fenceChar = m.group(2).charAt(0);
+                fenceLength = m.group(2).length();
+                String language = language(m.group(3));
+                out.write(language.isEmpty() ? "<pre><code>" : "<pre><code class=\"language-" + language + "\">");
+                state = State.FENCED_CODE;
+                return;
+            }
+            if (isThematicBreak(line)) {
+                out.write("<hr />\n");
+                return;
+            }
+            if (depth < MAX_DEPTH) {
+                m = BLOCK_QUOTE.matcher(line);
+                if (m.matches()) {
+                    out.write("<blockquote>\n");
+                    child = new Blocks(out, depth + 1, false);
+                    state = State.QUOTE;
+                    child.line(m.group(1));
+                    return;
+                }
+                m = LIST_ITEM.matcher(line);
+                if (m.matches()) {
+                    ordered = Character.isDigit(m.group(2).charAt(0));
+                    listDelimiter = m.group(2).charAt(m.group(2).length() - 1);
+                    if (!ordered) {
+                        out.write("<ul>\n");
+                    } else {
+                        int start = Integer.parseInt(m.group(2), 0, m.group(2).length() - 1, 10);
+                        out.write(start == 1 ? "<ol>\n" : "<ol start=\"" + start + "\">\n");
+                    }
+                    state = State.LIST;
+                    openItem(m);
+                    return;
+                }
+            }
+            state = State.PARAGRAPH;
+            bareParagraph = tight && first;
+            appendParagraph(line);
+        }
+
+        private boolean paragraphLine(String line) throws IOException {
+            if (line.isBlank()) {
+                flushParagraph();
+                return true;
+            }
+            if (paragraphLines == 1 && line.indexOf('|') >= 0 && paragraph.indexOf("|") >= 0 && indent(line) <= 3) {
+                List<String> header = cells(paragraph.toString());
+                List<String> delimiters = cells(line);
+                if (header.size() == delimiters.size() && delimiters.stream().allMatch(Blocks::isDelimiterCell)) {
+                    startTable(header, delimiters);
+                    return true;
+                }
+            }
+            Matcher m = SETEXT_UNDERLINE.matcher(line);
+            if (m.matches()) {
+                String text = paragraph.toString();
+                resetParagraph();
+                state = State.NONE;
+                heading(m.group(1).charAt(0) == '=' ? 1 : 2, text);
+                return true;
+            }
+            if (startsBlock(line)) {
+                flushParagraph();
+                return false;
+            }
+            appendParagraph(line);
+            return true;
+        }
+
+        private boolean fencedCodeLine(String line) throws IOException {
+            String trimmed = line.strip();
+            if (indent(line) <= 3 && trimmed.length() >= fenceLength
+                    && trimmed.chars().allMatch(c -> c == fenceChar)) {
+                out.write("</code></pre>\n");
+                state = State.NONE;
+                return true;
+            }
+            writeCode(line.substring(Math.min(fenceIndent, indent(line))));
+            return true;
+        }
+
+        private boolean indentedCodeLine(String line) throws IOException {
+            if (line.isBlank()) {
+                // Written only if the code continues after them
+                pendingBlankLines++;
+                return true;
+            }
+            if (indent(line) >= 4) {
+                for (; pendingBlankLines > 0; pendingBlankLines--) {
+                    out.write('\n');
+                }
+                writeCode(line.substring(4));
+                return true;
+            }
+            pendingBlankLines = 0;
+            close();
+            return false;
+        }
+
+        private boolean quoteLine(String line) throws IOException {
+            Matcher m = BLOCK_QUOTE.matcher(line);
+            if (m.matches()) {
+                child.line(m.group(1));
+                return true;
+            }
+            if (!line.isBlank() && child.inParagraph() && !startsBlock(line)) {
+                // Lazy continuation of a quoted paragraph
+                child.line(line);
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        private boolean listLine(String line) throws IOException {
+            if (line.isBlank()) {
+                blankInList = true;
+                child.line("");
+                return true;
+            }
+            if (indent(line) >= contentIndent) {
+                blankInList = false;
+                child.line(line.substring(contentIndent));
+                return true;
+            }
+            Matcher m = LIST_ITEM.matcher(line);
+            if (m.matches() && !isThematicBreak(line)
+                    && Character.isDigit(m.group(2).charAt(0)) == ordered
+                    && m.group(2).charAt(m.group(2).length() - 1) == listDelimiter) {
+                closeItem();
+                openItem(m);
+                return true;
+            }
+            if (!blankInList && child.inParagraph() && !startsBlock(line)) {
+                child.line(line);
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        private boolean tableLine(String line) throws IOException {
+            if (line.isBlank() || line.indexOf('|') < 0 || startsBlock(line)) {
+                close();
+                return false;
+            }
+            row(cells(line), "td");
+            return true;
+        }
+
+        private void openItem(Matcher m) throws IOException {
+            String spacing = m.group(3);
+            String content = m.group(4) != null ? m.group(4) : "";
+            int spaces = spacing == null || content.isEmpty() || spacing.length() > 4 ? 1 : spacing.length();
+            contentIndent = m.group(1).length() + m.group(2).length() + spaces;
+            blankInList = false;
+            out.write("<li>");
+            Matcher task = ordered ? null : TASK.matcher(content);
+            if (task != null && task.matches()) {
+                out.write(task.group(1).equals(" ")
+                        ? "<input type=\"checkbox\" disabled /> "
+                        : "<input type=\"checkbox\" checked disabled /> ");
+                content = task.group(2) != null ? task.group(2) : "";
+            }
+            child = new Blocks(out, depth + 1, true);
+            child.line(content);
+        }
+
+        private void closeItem() throws IOException {
+            child.close();
+            out.write("</li>\n");
+        }
+
+        private void closeList() throws IOException {
+            closeItem();
+            out.write(ordered ? "</ol>\n" : "</ul>\n");
+        }
+
+        private void startTable(List<String> header, List<String> delimiters) throws IOException {
+            resetParagraph();
+            alignments = new String[delimiters.size()];
+            for (int i = 0; i < alignments.length; i++) {
+                String delimiter = delimiters.get(i);
+                boolean left = delimiter.startsWith(":");
+                boolean right = delimiter.endsWith(":");
+                alignments[i] = left && right ? "center" : right ? "right" : left ? "left" : null;
+            }
+            tableRows = 0;
+            state = State.TABLE;
+            out.write("<table>\n<thead>\n");
+            row(header, "th");
+            out.write("</thead>\n");
+        }
+
+        private void row(List<String> cells, String tag) throws IOException {
+            if ("td".equals(tag) && tableRows++ == 0) {
+                out.write("<tbody>\n");
+            }
+            StringBuilder html = new StringBuilder("<tr>\n");
+            for (int i = 0; i < alignments.length; i++) {
+                html.append('<').append(tag);
+                if (alignments[i] != null) {
+                    html.append(" style=\"text-align:").append(alignments[i]).append('"');
+                }
+                html.append('>');
+                if (i < cells.size()) {
+                    InlineRenderer.render(cells.get(i), html);
+                }
+                html.append("</").append(tag).append(">\n");
+            }
+            out.write(html.append("</tr>\n").toString());
+        }
+
+        private void closeTable() throws IOException {
+            out.write(tableRows > 0 ? "</tbody>\n</table>\n" : "</table>\n");
+        }
+
+        private void heading(int level, String text) throws IOException {
+            StringBuilder html = new StringBuilder(text.length() + 16).append("<h").append(level).append('>');
+            InlineRenderer.render(text.strip(), html);
+            out.write(html.append("</h").append(level).append(">\n").toString());
+        }
+
+        private void appendParagraph(String line) throws IOException {
+            if (paragraph.length() + line.length() > MAX_PARAGRAPH_CHARS && paragraphLines > 0) {
+                flushParagraph();
+                state = State.PARAGRAPH;
+            }
+            if (paragraphLines++ > 0) {
+                paragraph.append('\n');
+            }
+            paragraph.append(line, indent(line), line.length());
+        }
+
+        private void flushParagraph() throws IOException {
+            int end = paragraph.length();
+            while (end > 0 && Character.isWhitespace(paragraph.charAt(end - 1))) {
+                end--;
+            }
+            boolean bare = bareParagraph;
+            bareParagraph = false;
+            StringBuilder html = new StringBuilder(end + end / 4 + 8);
+            if (!bare) {
+                html.append("<p>");
+            }
+            InlineRenderer.render(paragraph.substring(0, end), html);
+            html.append(bare ? "\n" : "</p>\n");
+            out.write(html.toString());
+            resetParagraph();
+            state = State.NONE;
+        }
+
+        private void resetParagraph() {
+            paragraph.setLength(0);
+            paragraphLines = 0;
+        }
+
+        private void writeCode(String line) throws IOException {
+            StringBuilder html = new StringBuilder(line.length() + 16);
+            escape(html, line, 0, line.length());
+            out.write(html.append('\n').toString());
+        }
+
+        /**
+         * Whether the line starts a block that interrupts a paragraph
+         */
+        private boolean startsBlock(String line) {
+            int indent = indent(line);
+            if (indent >= 4 || indent == line.length()) {
+                return false;
+            }
+            if ("#`~-*_>+0123456789".indexOf(line.charAt(indent)) < 0) {
+                return false;
+            }
+            if (headingLevel(line) > 0 || FENCE.matcher(line).matches() || isThematicBreak(line)) {
+                return true;
+            }
+            if (depth >= MAX_DEPTH) {
+                return false;
+            }
+            if (BLOCK_QUOTE.matcher(line).matches()) {
+                return true;
+            }
+            Matcher m = LIST_ITEM.matcher(line);
+            return m.matches() && m.group(4) != null && !m.group(4).isBlank();
+        }
+
+        /**
+         * Level of the ATX heading the line is, 0 if it is none
+         */
+        private static int headingLevel(String line) {
+            int indent = indent(line);
+            int level = 0;
+            while (indent + level < line.length() && line.charAt(indent + level) == '#') {
+                level++;
+            }
+            int after = indent + level;
+            boolean separated = after == line.length() || line.charAt(after) == ' ' || line.charAt(after) == '\t';
+            return indent <= 3 && level >= 1 && level <= 6 && separated ? level : 0;
+        }
+
+        /**
+         * Text of an ATX heading, without the optional closing sequence of #s
+         */
+        private static String headingText(String line) {
+            String text = line.strip();
+            int start = 0;
+            while (start < text.length() && text.charAt(start) == '#') {
+                start++;
+            }
+            int end = text.length();
+            int closing = end;
+            while (closing > start && text.charAt(closing - 1) == '#') {
+                closing--;
+            }
+            if (closing == start || text.charAt(closing - 1) == ' ' || text.charAt(closing - 1) == '\t') {
+                end = closing;
+            }
+            return start < end ? text.substring(start, end) : "";
+        }
+
+        /**
+         * Three or more of the same -, * or _, optionally separated by spaces
+         */
+        private static boolean isThematicBreak(String line) {
+            if (indent(line) > 3) {
+                return false;
+            }
+            char marker = 0;
+            int count = 0;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == ' ' || c == '\t') {
+                    continue;
+                }
+                if (marker == 0 && (c == '-' || c == '*' || c == '_')) {
+                    marker = c;
+                }
+                if (c != marker) {
+                    return false;
+                }
+                count++;
+            }
+            return count >= 3;
+        }
+
+        /**
+         * A cell of a table delimiter row: dashes with optional colons at either end
+         */
+        private static boolean isDelimiterCell(String cell) {
+            int from = cell.startsWith(":") ? 1 : 0;
+            int to = cell.endsWith(":") && cell.length() > from ? cell.length() - 1 : cell.length();
+            if (from >= to) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                if (cell.charAt(i) != '-') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String language(String info) {
+            String word = info.strip();
+            int space = word.indexOf(' ');
+            if (space >= 0) {
+                word = word.substring(0, space);
+            }
+            StringBuilder language = new StringBuilder();
+            for (int i = 0; i < word.length() && language.length() < 32; i++) {
+                char c = word.charAt(i);
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '_' || c == '+' || c == '#' || c == '.') {
+                    language.append(c);
+                }
+            }
+            return language.toString();
+        }
+
+        /**
+         * Cells of a table row, split on pipes that are not escaped
+         */
+        private static List<String> cells(String row) {
+            String line = row.strip();
+            int from = line.startsWith("|") ? 1 : 0;
+            int to = line.length();
+            if (to > from && line.charAt(to - 1) == '|' && (to < 2 || line.charAt(to - 2) != '\\')) {
+                to--;
+            }
+            List<String> cells = new ArrayList<>();
+            int start = from;
+            for (int i = from; i < to; i++) {
+                char c = line.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (c == '|') {
+                    cells.add(line.substring(start, i).strip());
+                    start = i + 1;
+                }
+            }
+            cells.add(line.substring(start, to).strip());
+            return cells;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.rakeshgupta.notedoc_backend.repository;
+
+import com.rakeshgupta.notedoc_backend.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for attachment metadata. Attachments of deleted notes are treated as absent.
+ */
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, UUID> {
+
+    @Query("SELECT a FROM Attachment a WHERE a.noteId = :noteId AND a.userId = :userId AND " +
+           "EXISTS (SELECT 1 FROM Note n WHERE n.id = a.noteId AND n.deleted = false) " +
+           "ORDER BY a.createdAt, a.id")
+    List<Attachment> findActiveByNoteId(@Param("noteId") UUID noteId, @Param("userId") UUID userId);
+
+    @Query("SELECT a FROM Attachment a WHERE a.id = :id AND a.noteId = :noteId AND a.userId = :userId AND " +
+           "EXISTS (SELECT 1 FROM Note n WHERE n.id = a.noteId AND n.deleted = false)")
+    Optional<Attachment> findActive(@Param("id") UUID id, @Param("noteId") UUID noteId, @Param("userId") UUID userId);
+
+    /**
+     * @return 1 if the attachment was deleted, 0 if it does not exist or its note is deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Attachment a WHERE a.id = :id AND a.noteId = :noteId AND a.userId = :userId AND " +
+           "EXISTS (SELECT 1 FROM Note n WHERE n.id = a.noteId AND n.deleted = false)")
+    int deleteActive(@Param("id") UUID id, @Param("noteId") UUID noteId, @Param("userId") UUID userId);
+
+    /**
+     * Number of the user's attachments sharing a stored file
+     */
+    long countByUserIdAndSha256(UUID userId, String sha256);
+
+    /**
+     * Distinct stored files of the user's attachments on the given notes
+     */
+    @Query("SELECT DISTINCT a.sha256 FROM Attachment a WHERE a.userId = :userId AND a.noteId IN :noteIds")
+    List<String> findFilesOfNotes(@Param("userId") UUID userId, @Param("noteIds") Collection<UUID> noteIds);
+
+    @Modifying
+    @Query("DELETE FROM Attachment a WHERE a.userId = :userId AND a.noteId IN :noteIds")
+    int deleteByNoteIds(@Param("userId") UUID userId, @Param("noteIds") Collection<UUID> noteIds);
+}
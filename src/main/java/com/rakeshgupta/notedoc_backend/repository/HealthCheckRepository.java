@@ -2,11 +2,49 @@ package com.rakeshgupta.notedoc_backend.repository;
 
 import com.rakeshgupta.notedoc_backend.entity.HealthCheck;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface HealthCheckRepository extends JpaRepository<HealthCheck, Long> {
     List<HealthCheck> findTop10ByOrderByCheckTimeDesc();
+
+    /**
+     * Most recently written ring record, used to resume the ring position after a restart
+     */
+    Optional<HealthCheck> findTopByRingSlotIsNotNullOrderByCheckTimeDesc();
+
+    /**
+     * Overwrite the ring record in the given slot in place
+     *
+     * @return number of updated rows, 0 if the slot has not been written yet
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE HealthCheck h SET h.status = :status, h.checkTime = :checkTime, h.message = :message " +
+           "WHERE h.ringSlot = :slot")
+    int updateRingSlot(@Param("slot") int slot,
+                       @Param("status") String status,
+                       @Param("checkTime") LocalDateTime checkTime,
+                       @Param("message") String message);
+
+    /**
+     * Delete one batch of historical (non-ring) records older than the cutoff, oldest ids first
+     *
+     * @return number of deleted rows; 0 once nothing is left to purge
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM health_checks WHERE id IN (" +
+                   "SELECT id FROM health_checks WHERE ring_slot IS NULL AND check_time < :cutoff " +
+                   "ORDER BY id LIMIT :batchSize)",
+           nativeQuery = true)
+    int purgeHistoricalBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
 }
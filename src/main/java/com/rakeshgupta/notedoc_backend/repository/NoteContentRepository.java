@@ -0,0 +1,22 @@
+package com.rakeshgupta.notedoc_backend.repository;
+
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Note content writes that bind the content as a character stream instead of a String,
+ * mixed into {@link NoteRepository}
+ */
+public interface NoteContentRepository {
+
+    /**
+     * Replace the content of an active note in the current transaction.
+     * 
+     * @param content the new content
+     * @param length length of the content in UTF-16 chars
+     * @param updatedAt the new last update time
+     * @return number of notes updated, 0 if the note does not exist or is deleted
+     */
+    int replaceContent(UUID id, UUID userId, Reader content, int length, LocalDateTime updatedAt);
+}
@@ -0,0 +1,37 @@
+package com.rakeshgupta.notedoc_backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Runs on the JDBC connection of the current transaction, so the content goes to the driver as a
+ * stream. PgJDBC still assembles the parameter in memory to send it, but only that one copy exists.
+ */
+class NoteContentRepositoryImpl implements NoteContentRepository {
+
+    private static final String UPDATE_CONTENT =
+            "UPDATE notes SET content = ?, updated_at = ? WHERE id = ? AND user_id = ? AND deleted = false";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int replaceContent(UUID id, UUID userId, Reader content, int length, LocalDateTime updatedAt) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_CONTENT)) {
+                update.setCharacterStream(1, content, length);
+                update.setTimestamp(2, Timestamp.valueOf(updatedAt));
+                update.setObject(3, id);
+                update.setObject(4, userId);
+                return update.executeUpdate();
+            }
+        });
+    }
+}
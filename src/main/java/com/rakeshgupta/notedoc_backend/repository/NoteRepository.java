@@ -1,13 +1,17 @@
 package com.rakeshgupta.notedoc_backend.repository;
 
 import com.rakeshgupta.notedoc_backend.entity.Note;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,7 +21,7 @@ import java.util.UUID;
  * for active notes filtering and search functionality.
  */
 @Repository
-public interface NoteRepository extends JpaRepository<Note, UUID> {
+public interface NoteRepository extends JpaRepository<Note, UUID>, NoteContentRepository {
 
     /**
      * Find all active (non-deleted) notes for a specific user with pagination.
@@ -30,6 +34,17 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
     @Query("SELECT n FROM Note n WHERE n.deleted = false AND n.userId = :userId")
     Page<Note> findActiveNotesByUserId(@Param("userId") UUID userId, Pageable pageable);
 
+    /**
+     * Find one page of active (non-deleted) notes for a user without counting all of them.
+     * The caller supplies the total, e.g. from the user's statistics row.
+     * 
+     * @param userId the user ID to filter notes by
+     * @param pageable pagination and sorting parameters
+     * @return the notes of the requested page
+     */
+    @Query("SELECT n FROM Note n WHERE n.deleted = false AND n.userId = :userId")
+    java.util.List<Note> findActiveNoteListByUserId(@Param("userId") UUID userId, Pageable pageable);
+
     /**
      * Find a specific active (non-deleted) note by ID and user ID.
      * Returns empty Optional if note doesn't exist or is soft-deleted.
@@ -41,6 +56,12 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
     @Query("SELECT n FROM Note n WHERE n.deleted = false AND n.userId = :userId AND n.id = :id")
     Optional<Note> findActiveNoteByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
 
+    /**
+     * Whether an active (non-deleted) note exists, without loading it
+     */
+    @Query("SELECT COUNT(n) > 0 FROM Note n WHERE n.deleted = false AND n.userId = :userId AND n.id = :id")
+    boolean existsActiveNote(@Param("id") UUID id, @Param("userId") UUID userId);
+
     /**
      * Search active (non-deleted) notes by query string in title and content fields.
      * Performs case-insensitive search across both title and content.
@@ -75,4 +96,82 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
      */
     @Query("SELECT COUNT(n) FROM Note n WHERE n.deleted = false AND n.userId = :userId")
     long countActiveNotesByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Find the content size in UTF-8 bytes and the last update of an active note.
+     * 
+     * @param id the note ID
+     * @param userId the user ID to filter by
+     * @return one [size, updatedAt] row if the note exists and is active, none otherwise
+     */
+    @Query("SELECT octet_length(n.content), n.updatedAt FROM Note n WHERE n.deleted = false AND n.userId = :userId AND n.id = :id")
+    java.util.List<Object[]> findContentInfo(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /**
+     * Read a slice of an active note's content, as long as the note was not updated since updatedAt.
+     * 
+     * @param from position of the first character, 1-based
+     * @param length number of characters to read
+     * @return the slice (empty past the end), or empty if the note changed or is gone
+     */
+    @Query("SELECT SUBSTRING(n.content, :from, :length) FROM Note n WHERE n.deleted = false AND n.userId = :userId " +
+           "AND n.id = :id AND n.updatedAt = :updatedAt")
+    Optional<String> findContentChunk(@Param("id") UUID id, @Param("userId") UUID userId,
+                                      @Param("updatedAt") LocalDateTime updatedAt,
+                                      @Param("from") int from, @Param("length") int length);
+
+    /**
+     * Size in UTF-8 bytes and last character of a slice of an active note's content, as long as the note
+     * was not updated since updatedAt. Lets a range read skip the slices before the range without
+     * transferring them.
+     * 
+     * @param from position of the first character, 1-based
+     * @param length number of characters
+     * @return one [size, last character] row, or none if the note changed or is gone
+     */
+    @Query("SELECT octet_length(SUBSTRING(n.content, :from, :length)), SUBSTRING(n.content, :from + :length - 1, 1) " +
+           "FROM Note n WHERE n.deleted = false AND n.userId = :userId AND n.id = :id AND n.updatedAt = :updatedAt")
+    java.util.List<Object[]> findContentSliceInfo(@Param("id") UUID id, @Param("userId") UUID userId,
+                                                  @Param("updatedAt") LocalDateTime updatedAt,
+                                                  @Param("from") int from, @Param("length") int length);
+
+    /**
+     * Lock an active note for a content replacement and read what the statistics need.
+     * 
+     * @return one [pinned, archived, content size in bytes] row if the note exists and is active, none otherwise
+     */
+    @Query(value = "SELECT pinned, archived, OCTET_LENGTH(content) FROM notes " +
+                   "WHERE id = :id AND user_id = :userId AND deleted = false FOR UPDATE", nativeQuery = true)
+    java.util.List<Object[]> lockActiveNoteState(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /**
+     * First notes soft-deleted before the cutoff, oldest first. A deleted note is never updated
+     * again, so its updatedAt is the time it was deleted.
+     * 
+     * @return [id, userId, updatedAt] rows in (updatedAt, id) order
+     */
+    @Query("SELECT n.id, n.userId, n.updatedAt FROM Note n WHERE n.deleted = true AND n.updatedAt < :cutoff " +
+           "ORDER BY n.updatedAt, n.id")
+    java.util.List<Object[]> findFirstPurgeCandidates(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Notes soft-deleted before the cutoff that follow the given (updatedAt, id) key, oldest first
+     * 
+     * @return [id, userId, updatedAt] rows in (updatedAt, id) order
+     */
+    @Query("SELECT n.id, n.userId, n.updatedAt FROM Note n WHERE n.deleted = true AND n.updatedAt < :cutoff " +
+           "AND (n.updatedAt > :afterUpdatedAt OR (n.updatedAt = :afterUpdatedAt AND n.id > :afterId)) " +
+           "ORDER BY n.updatedAt, n.id")
+    java.util.List<Object[]> findPurgeCandidatesAfter(@Param("cutoff") LocalDateTime cutoff,
+                                                      @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                                      @Param("afterId") UUID afterId, Limit limit);
+
+    /**
+     * Permanently delete soft-deleted notes of a user; their note_tag_ids rows and attachments must be gone
+     * 
+     * @return number of deleted notes
+     */
+    @Modifying
+    @Query(value = "DELETE FROM notes WHERE user_id = :userId AND id IN (:ids) AND deleted = true", nativeQuery = true)
+    int purgeDeletedNotes(@Param("userId") UUID userId, @Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.rakeshgupta.notedoc_backend.repository;
+
+import com.rakeshgupta.notedoc_backend.entity.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the per-user tag dictionaries, including the queries that move tags out of
+ * the legacy note_tags table, which is no longer mapped.
+ */
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Tag.Key> {
+
+    List<Tag> findByUserId(UUID userId);
+
+    /**
+     * Add a tag to the user's dictionary under the next free id. Does nothing if the name already
+     * exists or a concurrent insert took the same id; the caller selects the name and retries if
+     * it is still missing. A conflicting insert of another transaction is waited for.
+     *
+     * @return 1 if the tag was added, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tags (user_id, tag_id, name) " +
+                   "SELECT :userId, COALESCE(MAX(tag_id), 0) + 1, :name FROM tags WHERE user_id = :userId " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertNext(@Param("userId") UUID userId, @Param("name") String name);
+
+    /**
+     * Id of the user's tag with the given name, or null if there is none
+     */
+    @Query("SELECT t.tagId FROM Tag t WHERE t.userId = :userId AND t.name = :name")
+    Integer findTagId(@Param("userId") UUID userId, @Param("name") String name);
+
+    /**
+     * The user's tags used by at least one non-deleted note, most used first
+     */
+    @Query("SELECT t FROM Tag t WHERE t.userId = :userId AND t.noteCount > 0 ORDER BY t.noteCount DESC, t.name")
+    List<Tag> findUsedByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Add the delta to the note count of the given tags
+     */
+    @Modifying
+    @Query(value = "UPDATE tags SET note_count = note_count + :delta WHERE user_id = :userId AND tag_id IN (:tagIds)",
+           nativeQuery = true)
+    int adjustNoteCounts(@Param("userId") UUID userId, @Param("tagIds") Collection<Integer> tagIds,
+                         @Param("delta") int delta);
+
+    /**
+     * Recompute the note count of all the user's tags from note_tag_ids
+     */
+    @Modifying
+    @Query(value = "UPDATE tags SET note_count = (SELECT COUNT(*) FROM note_tag_ids i JOIN notes n ON n.id = i.note_id " +
+                   "WHERE n.user_id = tags.user_id AND n.deleted = false AND i.tag_id = tags.tag_id) " +
+                   "WHERE user_id = :userId",
+           nativeQuery = true)
+    int recountNoteCounts(@Param("userId") UUID userId);
+
+    /**
+     * Number of non-deleted notes per tag name of the user, as (name, count) rows
+     */
+    @Query("SELECT t.name, COUNT(n) FROM Note n JOIN n.tagIds i, Tag t " +
+           "WHERE n.deleted = false AND n.userId = :userId AND t.userId = n.userId AND t.tagId = i " +
+           "GROUP BY t.name")
+    List<Object[]> countUsageByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Owners of notes that still have rows in the legacy note_tags table, as strings because
+     * native UUID results are driver specific
+     */
+    @Query(value = "SELECT DISTINCT CAST(n.user_id AS VARCHAR) FROM note_tags t JOIN notes n ON n.id = t.note_id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<String> findLegacyTagOwners(@Param("limit") int limit);
+
+    /**
+     * The user's legacy (note id, tag name) rows
+     */
+    @Query(value = "SELECT CAST(t.note_id AS VARCHAR), t.tags FROM note_tags t JOIN notes n ON n.id = t.note_id " +
+                   "WHERE n.user_id = :userId",
+           nativeQuery = true)
+    List<Object[]> findLegacyTags(@Param("userId") UUID userId);
+
+    /**
+     * The user's notes that already have tag ids, written after the switch to the dictionary
+     */
+    @Query("SELECT DISTINCT n.id FROM Note n JOIN n.tagIds i WHERE n.userId = :userId")
+    List<UUID> findNotesWithTagIds(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO note_tag_ids (note_id, tag_id) VALUES (:noteId, :tagId)", nativeQuery = true)
+    int insertNoteTagId(@Param("noteId") UUID noteId, @Param("tagId") int tagId);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_tag_ids WHERE note_id IN (:noteIds)", nativeQuery = true)
+    int deleteNoteTagIds(@Param("noteIds") Collection<UUID> noteIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM note_tags WHERE note_id IN (SELECT id FROM notes WHERE user_id = :userId)",
+           nativeQuery = true)
+    int deleteLegacyTags(@Param("userId") UUID userId);
+}
@@ -0,0 +1,87 @@
+package com.rakeshgupta.notedoc_backend.repository;
+
+import com.rakeshgupta.notedoc_backend.entity.UserNoteStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for the per-user note statistics
+ */
+@Repository
+public interface UserNoteStatsRepository extends JpaRepository<UserNoteStats, UUID> {
+
+    /**
+     * Add the given differences to the user's counters in place, so concurrent writers never lose updates
+     *
+     * @return 1 if the user has a statistics row, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE user_note_stats SET active_count = active_count + :active, " +
+                   "pinned_count = pinned_count + :pinned, archived_count = archived_count + :archived, " +
+                   "deleted_count = deleted_count + :deleted, content_bytes = content_bytes + :bytes, " +
+                   "updated_at = CURRENT_TIMESTAMP WHERE user_id = :userId",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") UUID userId, @Param("active") long active, @Param("pinned") long pinned,
+                   @Param("archived") long archived, @Param("deleted") long deleted, @Param("bytes") long bytes);
+
+    /**
+     * Create the user's row from the notes table. Does nothing if a concurrent writer created it first.
+     * Deleted notes are only counted, in a separate subquery, so neither part reads the other's partitions.
+     *
+     * @return 1 if the row was created, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_note_stats (user_id, active_count, pinned_count, archived_count, " +
+                   "deleted_count, content_bytes, updated_at, reconciled_at) " +
+                   "SELECT :userId, " +
+                   "COUNT(*), " +
+                   "COALESCE(SUM(CASE WHEN pinned = true THEN 1 ELSE 0 END), 0), " +
+                   "COALESCE(SUM(CASE WHEN archived = true THEN 1 ELSE 0 END), 0), " +
+                   "(SELECT COUNT(*) FROM notes d WHERE d.user_id = :userId AND d.deleted = true), " +
+                   "COALESCE(SUM(OCTET_LENGTH(content)), 0), " +
+                   "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+                   "FROM notes WHERE user_id = :userId AND deleted = false " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertFromNotes(@Param("userId") UUID userId);
+
+    /**
+     * The user's counters computed from the notes table, in entity column order:
+     * active, pinned, archived, deleted, content bytes. Split like {@link #insertFromNotes}.
+     */
+    @Query(value = "SELECT " +
+                   "COUNT(*), " +
+                   "COALESCE(SUM(CASE WHEN pinned = true THEN 1 ELSE 0 END), 0), " +
+                   "COALESCE(SUM(CASE WHEN archived = true THEN 1 ELSE 0 END), 0), " +
+                   "(SELECT COUNT(*) FROM notes d WHERE d.user_id = :userId AND d.deleted = true), " +
+                   "COALESCE(SUM(OCTET_LENGTH(content)), 0) " +
+                   "FROM notes WHERE user_id = :userId AND deleted = false",
+           nativeQuery = true)
+    List<Object[]> aggregateByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Load the user's row and lock it until the transaction ends, which holds back concurrent writers
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserNoteStats s WHERE s.userId = :userId")
+    Optional<UserNoteStats> findForUpdate(@Param("userId") UUID userId);
+
+    /**
+     * Owners of notes in user id order, for batched reconciliation
+     */
+    @Query("SELECT DISTINCT n.userId FROM Note n ORDER BY n.userId")
+    List<UUID> findFirstNoteOwners(Limit limit);
+
+    @Query("SELECT DISTINCT n.userId FROM Note n WHERE n.userId > :after ORDER BY n.userId")
+    List<UUID> findNoteOwnersAfter(@Param("after") UUID after, Limit limit);
+}
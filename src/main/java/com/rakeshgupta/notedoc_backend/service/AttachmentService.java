@@ -0,0 +1,241 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.admission.AdmissionControl;
+import com.rakeshgupta.notedoc_backend.dto.response.AttachmentDto;
+import com.rakeshgupta.notedoc_backend.entity.Attachment;
+import com.rakeshgupta.notedoc_backend.exception.AttachmentNotFoundException;
+import com.rakeshgupta.notedoc_backend.exception.NoteNotFoundException;
+import com.rakeshgupta.notedoc_backend.exception.UnsupportedAttachmentTypeException;
+import com.rakeshgupta.notedoc_backend.jdbc.ReadYourWritesTracker;
+import com.rakeshgupta.notedoc_backend.jdbc.ReplicaRoutingDataSource;
+import com.rakeshgupta.notedoc_backend.repository.AttachmentRepository;
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Files attached to notes: metadata in the attachments table, bytes in the {@link AttachmentStore}.
+ * Uploads are written to disk before any transaction starts, so a slow client never holds a pooled
+ * connection; the metadata row is inserted afterwards in a short transaction. Attachments of a
+ * soft-deleted note are hidden along with it.
+ * Each of those transactions passes {@link AdmissionControl} like a note service call; receiving an
+ * upload and sending a file do not, since they never touch the connection pool.
+ */
+@Service
+@Slf4j
+public class AttachmentService {
+
+    private static final int MAX_FILENAME_LENGTH = 255;
+
+    private final AttachmentRepository attachmentRepository;
+    private final NoteRepository noteRepository;
+    private final AttachmentStore store;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ShardRouter router;
+    private final AdmissionControl admissionControl;
+    private final TransactionTemplate transactions;
+    private final TransactionTemplate readOnly;
+    private final long maxBytes;
+    private final Set<String> allowedTypes;
+
+    public AttachmentService(AttachmentRepository attachmentRepository, NoteRepository noteRepository,
+                             AttachmentStore store, ReadYourWritesTracker readYourWritesTracker,
+                             ObjectProvider<ShardRouter> router, AdmissionControl admissionControl,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.attachments.max-bytes:26214400}") long maxBytes,
+                             @Value("${app.attachments.allowed-types:image/png,image/jpeg,image/gif,image/webp,application/pdf}")
+                             Set<String> allowedTypes) {
+        this.attachmentRepository = attachmentRepository;
+        this.noteRepository = noteRepository;
+        this.store = store;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.router = router.getIfAvailable();
+        this.admissionControl = admissionControl;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.maxBytes = maxBytes;
+        this.allowedTypes = allowedTypes;
+    }
+
+    /**
+     * Attachments of an active note, oldest first
+     *
+     * @throws NoteNotFoundException if the note does not exist or is deleted
+     */
+    public List<AttachmentDto> list(UUID noteId, UUID userId) {
+        return read(userId, () -> {
+            if (!noteRepository.existsActiveNote(noteId, userId)) {
+                throw new NoteNotFoundException(noteId);
+            }
+            return attachmentRepository.findActiveByNoteId(noteId, userId).stream().map(this::toDto).toList();
+        });
+    }
+
+    /**
+     * Store an upload and attach it to the note
+     *
+     * @param filename name given by the client; path components and control characters are dropped
+     * @param contentType declared type of the upload, which must be one of the allowed types
+     * @throws NoteNotFoundException if the note does not exist or is deleted
+     * @throws UnsupportedAttachmentTypeException if the content type is not allowed
+     * @throws com.rakeshgupta.notedoc_backend.exception.ContentTooLargeException if the upload exceeds the size limit
+     */
+    public AttachmentDto upload(UUID noteId, UUID userId, String filename, String contentType, InputStream body)
+            throws IOException {
+        String type = allowedType(contentType);
+        // Fail before reading the body when the note is already gone
+        if (!read(userId, () -> noteRepository.existsActiveNote(noteId, userId))) {
+            throw new NoteNotFoundException(noteId);
+        }
+        try (AttachmentStore.Upload upload = store.receive(body, maxBytes)) {
+            return store.locked(userId, upload.sha256(), () -> {
+                boolean stored = store.publish(userId, upload);
+                try {
+                    Attachment saved = write(userId, () -> {
+                        if (!noteRepository.existsActiveNote(noteId, userId)) {
+                            throw new NoteNotFoundException(noteId);
+                        }
+                        Attachment attachment = new Attachment();
+                        attachment.setNoteId(noteId);
+                        attachment.setUserId(userId);
+                        attachment.setFilename(cleanFilename(filename));
+                        attachment.setContentType(type);
+                        attachment.setSize(upload.size());
+                        attachment.setSha256(upload.sha256());
+                        return attachmentRepository.saveAndFlush(attachment);
+                    });
+                    return toDto(saved);
+                } catch (RuntimeException e) {
+                    if (stored) {
+                        store.delete(userId, upload.sha256());
+                    }
+                    throw e;
+                }
+            });
+        }
+    }
+
+    /**
+     * Metadata of an attachment of an active note
+     *
+     * @throws AttachmentNotFoundException if the attachment does not exist or its note is deleted
+     */
+    public AttachmentDto describe(UUID noteId, UUID id, UUID userId) {
+        return read(userId, () -> attachmentRepository.findActive(id, noteId, userId))
+                .map(this::toDto)
+                .orElseThrow(() -> new AttachmentNotFoundException(id));
+    }
+
+    /**
+     * The stored file of an attachment returned by {@link #describe}
+     *
+     * @throws AttachmentNotFoundException if the file is missing from the store
+     */
+    public Path file(AttachmentDto attachment, UUID userId) {
+        Path file = store.path(userId, attachment.getSha256());
+        if (!Files.isRegularFile(file)) {
+            log.warn("⚠️ File {} of attachment {} is missing from the store", attachment.getSha256(), attachment.getId());
+            throw new AttachmentNotFoundException(attachment.getId());
+        }
+        return file;
+    }
+
+    /**
+     * Detach and delete an attachment, and its file once no other attachment of the user shares it
+     *
+     * @throws AttachmentNotFoundException if the attachment does not exist or its note is deleted
+     */
+    public void delete(UUID noteId, UUID id, UUID userId) {
+        AttachmentDto attachment = describe(noteId, id, userId);
+        store.locked(userId, attachment.getSha256(), () -> {
+            long remaining = write(userId, () -> {
+                if (attachmentRepository.deleteActive(id, noteId, userId) == 0) {
+                    throw new AttachmentNotFoundException(id);
+                }
+                return attachmentRepository.countByUserIdAndSha256(userId, attachment.getSha256());
+            });
+            if (remaining == 0) {
+                store.delete(userId, attachment.getSha256());
+            }
+            return null;
+        });
+    }
+
+    private String allowedType(String contentType) {
+        try {
+            MediaType mediaType = contentType != null ? MediaType.parseMediaType(contentType) : null;
+            String type = mediaType != null
+                    ? (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase(Locale.ROOT)
+                    : null;
+            if (type != null && allowedTypes.contains(type)) {
+                return type;
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Rejected below
+        }
+        throw new UnsupportedAttachmentTypeException(contentType);
+    }
+
+    private static String cleanFilename(String filename) {
+        String name = filename != null ? filename : "";
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        name = name.codePoints()
+                .filter(c -> !Character.isISOControl(c))
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString()
+                .strip();
+        if (name.length() > MAX_FILENAME_LENGTH) {
+            int end = MAX_FILENAME_LENGTH;
+            if (Character.isLowSurrogate(name.charAt(end))) {
+                end--;
+            }
+            name = name.substring(0, end);
+        }
+        return name.isEmpty() ? "attachment" : name;
+    }
+
+    private AttachmentDto toDto(Attachment attachment) {
+        return new AttachmentDto(attachment.getId(), attachment.getNoteId(), attachment.getFilename(),
+                attachment.getContentType(), attachment.getSize(), attachment.getSha256(), attachment.getCreatedAt());
+    }
+
+    private <T> T read(UUID userId, Supplier<T> query) {
+        Supplier<T> inTransaction = () -> readOnly.execute(status -> query.get());
+        Supplier<T> routed = router != null ? () -> router.read(userId, inTransaction) : inTransaction;
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            return readYourWritesTracker.isSticky(userId) ? ReplicaRoutingDataSource.onPrimary(routed) : routed.get();
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+
+    private <T> T write(UUID userId, Supplier<T> action) {
+        Supplier<T> inTransaction = () -> transactions.execute(status -> action.get());
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            return router != null ? router.write(userId, inTransaction) : inTransaction.get();
+        } finally {
+            admissionControl.release(start);
+            readYourWritesTracker.recordWrite(userId);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.exception.ContentTooLargeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed attachment files on local disk, one per distinct content per user:
+ * {@code <dir>/<user id>/<first two hex digits>/<sha256>}. Uploads are streamed to a file under
+ * {@code <dir>/incoming} while being hashed and then moved into place, or dropped if the user
+ * already stores the same bytes. Stored files are never modified, only created and deleted, and
+ * both happen under a lock striped by user and hash so a file is never deleted while an upload
+ * of the same content is about to reference it.
+ */
+@Component
+@Slf4j
+public class AttachmentStore {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path incoming;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public AttachmentStore(@Value("${app.attachments.dir:${java.io.tmpdir}/notedoc-attachments}") String dir)
+            throws IOException {
+        this.root = Path.of(dir).toAbsolutePath().normalize();
+        this.incoming = root.resolve("incoming");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        Files.createDirectories(incoming);
+        // Leftovers of uploads interrupted by a restart
+        try (Stream<Path> leftovers = Files.list(incoming)) {
+            for (Path leftover : (Iterable<Path>) leftovers::iterator) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        log.info("📎 Attachment store at {}", root);
+    }
+
+    /**
+     * Copy an upload to a temporary file, hashing it on the way
+     *
+     * @throws ContentTooLargeException if the upload exceeds {@code maxBytes}
+     */
+    public Upload receive(InputStream in, long maxBytes) throws IOException {
+        Path file = Files.createTempFile(incoming, "upload-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new ContentTooLargeException("Attachments must not exceed " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+            return new Upload(file, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Run the action while no other thread creates or deletes the user's file with this hash
+     */
+    public <T> T locked(UUID userId, String sha256, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(31 * userId.hashCode() + sha256.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move the upload into place unless the user already stores the same content. Call under {@link #locked}.
+     *
+     * @return true if a new file was stored, false if the existing one is reused
+     */
+    public boolean publish(UUID userId, Upload upload) {
+        Path target = path(userId, upload.sha256());
+        try {
+            if (Files.exists(target)) {
+                return false;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(upload.file(), target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete the user's file with this hash. Call under {@link #locked}, once nothing references it.
+     */
+    public void delete(UUID userId, String sha256) {
+        try {
+            Files.deleteIfExists(path(userId, sha256));
+        } catch (IOException e) {
+            // Only wastes space; the next upload of the same content reuses the file
+            log.warn("⚠️ Could not delete attachment file {}: {}", sha256, e.getMessage());
+        }
+    }
+
+    public Path path(UUID userId, String sha256) {
+        return root.resolve(userId.toString()).resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A received upload; closing deletes its temporary file unless it was published
+     */
+    public record Upload(Path file, long size, String sha256) implements AutoCloseable {
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.repository.UserNoteStatsRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the connection pool and the hot note queries warm while the instance is idle.
+ * All minimum-idle connections are borrowed at once and validated, so each one gets a
+ * server round-trip before the server or a NAT can drop it; then the note list, lookup and
+ * search queries are run once for a user that owns no notes, which keeps Hibernate's query
+ * plans and the database's statement cache populated without reading real data.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConnectionWarmer {
+
+    private static final UUID WARMUP_USER_ID = new UUID(0L, 0L);
+    private static final Pageable WARMUP_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "updatedAt"));
+
+    private final DataSource dataSource;
+    private final NoteRepository noteRepository;
+    private final UserNoteStatsRepository userNoteStatsRepository;
+
+    @Value("${app.db-keepalive.ping-timeout-seconds:5}")
+    private int validationTimeoutSeconds;
+
+    /**
+     * Validate every minimum-idle connection and pre-touch the hot queries
+     *
+     * @return number of connections validated
+     */
+    public int warm() throws SQLException {
+        int validated = warmConnections();
+        touchHotQueries();
+        return validated;
+    }
+
+    private int warmConnections() throws SQLException {
+        int target = minimumIdle();
+        List<Connection> borrowed = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+            for (Connection connection : borrowed) {
+                if (!connection.isValid(validationTimeoutSeconds)) {
+                    throw new SQLException("Connection validation did not complete within " + validationTimeoutSeconds + "s");
+                }
+            }
+            return borrowed.size();
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Failed to return warmed connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void touchHotQueries() {
+        userNoteStatsRepository.findById(WARMUP_USER_ID);
+        noteRepository.findActiveNoteListByUserId(WARMUP_USER_ID, WARMUP_PAGE);
+        noteRepository.findActiveNoteByIdAndUserId(WARMUP_USER_ID, WARMUP_USER_ID);
+        noteRepository.searchActiveNotes("warmup", WARMUP_USER_ID, WARMUP_PAGE);
+    }
+
+    private int minimumIdle() throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            return Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle());
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,135 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Probes the database in the background at a fixed interval and caches the result,
+ * so health endpoints never touch the database on the request thread.
+ * Each ping is bounded by a timeout; a hung ping marks the database DOWN and later
+ * probes are skipped until it returns, so at most one ping thread can ever be stuck.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseHealthProber {
+
+    /**
+     * Result of the latest probe
+     *
+     * @param status UP, DOWN or UNKNOWN (before the first probe completes)
+     * @param checkedAt when the probe finished
+     * @param roundTripMicros measured ping round-trip, -1 if the probe failed
+     * @param error failure description, null when UP
+     */
+    public record Snapshot(String status, Instant checkedAt, long roundTripMicros, String error) {
+
+        public boolean isUp() {
+            return "UP".equals(status);
+        }
+    }
+
+    private final DatabaseKeepAliveService databaseKeepAliveService;
+
+    @Value("${app.db-health.probe-interval-ms:5000}")
+    private long probeIntervalMs;
+
+    @Value("${app.db-health.probe-timeout-ms:2000}")
+    private long probeTimeoutMs;
+
+    private final AtomicBoolean pingInFlight = new AtomicBoolean();
+    private volatile Snapshot snapshot = new Snapshot("UNKNOWN", Instant.now(), -1, "No probe completed yet");
+    private ScheduledExecutorService scheduler;
+    private ExecutorService pingExecutor;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemon("db-health-prober"));
+        pingExecutor = Executors.newSingleThreadExecutor(daemon("db-health-ping"));
+        scheduler.scheduleWithFixedDelay(this::probe, 0, probeIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Database health prober started (interval {} ms, timeout {} ms)", probeIntervalMs, probeTimeoutMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        pingExecutor.shutdownNow();
+    }
+
+    /**
+     * Latest cached probe result; never blocks and never touches the database
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getProbeIntervalMs() {
+        return probeIntervalMs;
+    }
+
+    void probe() {
+        if (!pingInFlight.compareAndSet(false, true)) {
+            update("DOWN", -1, "Previous ping still pending after " + probeTimeoutMs + " ms");
+            return;
+        }
+        Future<Long> ping;
+        try {
+            ping = pingExecutor.submit(() -> {
+                try {
+                    return databaseKeepAliveService.ping();
+                } finally {
+                    pingInFlight.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            pingInFlight.set(false);
+            update("DOWN", -1, e.getMessage());
+            return;
+        }
+        try {
+            long roundTripNanos = ping.get(probeTimeoutMs, TimeUnit.MILLISECONDS);
+            update("UP", TimeUnit.NANOSECONDS.toMicros(roundTripNanos), null);
+        } catch (TimeoutException e) {
+            update("DOWN", -1, "Ping timed out after " + probeTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            update("DOWN", -1, cause.getMessage());
+        }
+    }
+
+    private void update(String status, long roundTripMicros, String error) {
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(status, Instant.now(), roundTripMicros, error);
+        if (!status.equals(previous.status())) {
+            if ("UP".equals(status)) {
+                log.info("✅ Database health changed {} -> UP", previous.status());
+            } else {
+                log.error("❌ Database health changed {} -> {}: {}", previous.status(), status, error);
+            }
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
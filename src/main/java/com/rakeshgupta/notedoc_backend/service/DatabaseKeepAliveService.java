@@ -2,42 +2,185 @@ package com.rakeshgupta.notedoc_backend.service;
 
 import com.rakeshgupta.notedoc_backend.entity.HealthCheck;
 import com.rakeshgupta.notedoc_backend.repository.HealthCheckRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DatabaseKeepAliveService {
-    
+
+    /**
+     * How the keep-alive touches the database
+     */
+    public enum Mode {
+        /** Validate a pooled connection with a round-trip ping; writes nothing */
+        PING,
+        /** Ping, then overwrite one record of a fixed-size ring of recent checks */
+        RING,
+        /** Legacy behaviour: insert a new record on every run */
+        INSERT
+    }
+
     private final HealthCheckRepository healthCheckRepository;
-    
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.db-keepalive.mode:PING}")
+    private Mode mode;
+
+    @Value("${app.db-keepalive.ping-timeout-seconds:5}")
+    private int pingTimeoutSeconds;
+
+    @Value("${app.db-keepalive.ring-size:48}")
+    private int ringSize;
+
+    @Value("${app.db-keepalive.purge.retention-days:7}")
+    private int purgeRetentionDays;
+
+    @Value("${app.db-keepalive.purge.batch-size:500}")
+    private int purgeBatchSize;
+
+    @Value("${app.db-keepalive.purge.batch-pause-ms:200}")
+    private long purgeBatchPauseMs;
+
+    private final AtomicLong lastRoundTripNanos = new AtomicLong(-1);
+    private final AtomicInteger nextRingSlot = new AtomicInteger(-1);
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("notedoc.db.keepalive.roundtrip", lastRoundTripNanos, nanos -> nanos.get() / 1e9)
+                .description("Round-trip latency of the last keep-alive ping")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
     /**
-     * Scheduled task to keep database connection alive
-     * Runs every 30 minutes (1800000 milliseconds)
+     * Keep the database connection alive.
+     * Triggered by {@link KeepAliveService} once the instance has been idle for
+     * app.keep-alive.database-idle-threshold-ms (30 minutes by default)
      */
-    @Scheduled(fixedRate = 1800000) // 30 minutes
     public void keepDatabaseAlive() {
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            log.info("🔄 Running scheduled database keep-alive check...");
-            
-            HealthCheck healthCheck = new HealthCheck(
-                "SCHEDULED_CHECK",
-                LocalDateTime.now(),
-                "Automated keep-alive ping"
-            );
-            
-            healthCheckRepository.save(healthCheck);
-            
-            long totalChecks = healthCheckRepository.count();
-            log.info("✅ Database keep-alive successful. Total checks: {}", totalChecks);
-            
+            log.info("🔄 Running scheduled database keep-alive check ({} mode)...", mode);
+
+            if (mode == Mode.INSERT) {
+                healthCheckRepository.save(new HealthCheck(
+                    "SCHEDULED_CHECK",
+                    LocalDateTime.now(),
+                    "Automated keep-alive ping"
+                ));
+                lastRoundTripNanos.set(System.nanoTime() - start);
+            } else {
+                long roundTrip = ping();
+                if (mode == Mode.RING) {
+                    writeRingRecord(roundTrip);
+                }
+            }
+
+            log.info("✅ Database keep-alive successful. Round-trip: {} ms", getLastRoundTripMillis());
+            success = true;
+
         } catch (Exception e) {
             log.error("❌ Database keep-alive failed: {}", e.getMessage(), e);
+        } finally {
+            JobMetrics.record(meterRegistry, "database-keepalive", start, success);
+        }
+    }
+
+    /**
+     * Purge historical health check rows in small batches so the table stays bounded.
+     * Ring records are never purged. Runs once a day, one hour after startup.
+     */
+    @Scheduled(initialDelay = 3600000, fixedDelay = 86400000) // 1 hour, then every 24 hours
+    public void purgeHistoricalChecks() {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(purgeRetentionDays);
+            long purged = 0;
+            int deleted;
+            do {
+                deleted = healthCheckRepository.purgeHistoricalBatch(cutoff, purgeBatchSize);
+                purged += deleted;
+                if (deleted == purgeBatchSize && purgeBatchPauseMs > 0) {
+                    Thread.sleep(purgeBatchPauseMs);
+                }
+            } while (deleted == purgeBatchSize);
+            log.info("🧹 Purged {} health check records older than {} days", purged, purgeRetentionDays);
+            success = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Health check purge interrupted");
+        } catch (Exception e) {
+            log.error("❌ Health check purge failed: {}", e.getMessage(), e);
+        } finally {
+            JobMetrics.record(meterRegistry, "health-check-purge", start, success);
+        }
+    }
+
+    /**
+     * Validate a pooled connection with a server round-trip and record its latency
+     *
+     * @return measured round-trip time in nanoseconds
+     */
+    public long ping() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            long start = System.nanoTime();
+            if (!connection.isValid(pingTimeoutSeconds)) {
+                throw new SQLException("Connection validation did not complete within " + pingTimeoutSeconds + "s");
+            }
+            long roundTrip = System.nanoTime() - start;
+            lastRoundTripNanos.set(roundTrip);
+            return roundTrip;
+        }
+    }
+
+    /**
+     * Latency of the last successful keep-alive, or -1 if none has completed yet
+     */
+    public long getLastRoundTripMillis() {
+        long nanos = lastRoundTripNanos.get();
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private void writeRingRecord(long roundTripNanos) {
+        int slot = nextSlot();
+        LocalDateTime now = LocalDateTime.now();
+        String message = "Keep-alive ping " + TimeUnit.NANOSECONDS.toMicros(roundTripNanos) + " us";
+        if (healthCheckRepository.updateRingSlot(slot, "SCHEDULED_CHECK", now, message) == 0) {
+            HealthCheck record = new HealthCheck("SCHEDULED_CHECK", now, message);
+            record.setRingSlot(slot);
+            healthCheckRepository.save(record);
+        }
+    }
+
+    /**
+     * Next ring position, resumed from the newest ring record after a restart
+     */
+    private int nextSlot() {
+        if (nextRingSlot.get() < 0) {
+            int resumeFrom = healthCheckRepository.findTopByRingSlotIsNotNullOrderByCheckTimeDesc()
+                    .map(HealthCheck::getRingSlot)
+                    .orElse(-1);
+            nextRingSlot.compareAndSet(-1, resumeFrom + 1);
         }
+        return Math.floorMod(nextRingSlot.getAndIncrement(), ringSize);
     }
 }
@@ -0,0 +1,89 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.server.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits liveness from readiness during startup.
+ * Liveness is reported CORRECT as soon as the web server is listening, even while deferred JPA
+ * repositories are still initializing. Once the application is ready the database path is warmed
+ * in the background: {@link ConnectionWarmer} is retried until it succeeds, and until then the
+ * databaseWarmup health indicator keeps the readiness probe OUT_OF_SERVICE.
+ * When warm, ACCEPTING_TRAFFIC is published again so readiness listeners such as
+ * DataInitializer run against a database that is known to respond.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseReadinessGate {
+
+    private final ConnectionWarmer connectionWarmer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.readiness.warmup-retry-ms:5000}")
+    private long warmupRetryMs;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "db-readiness-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean warm;
+
+    @EventListener(WebServerInitializedEvent.class)
+    public void onWebServerInitialized() {
+        AvailabilityChangeEvent.publish(eventPublisher, this, LivenessState.CORRECT);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.execute(this::warmUntilReady);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Whether the database path has been warmed since startup
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    private void warmUntilReady() {
+        long start = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                int validated = connectionWarmer.warm();
+                warm = true;
+                log.info("✅ Database path warm ({} connections, {} ms after ready), accepting traffic",
+                        validated, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+                return;
+            } catch (Exception e) {
+                log.warn("Database warmup failed, readiness stays OUT_OF_SERVICE: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(warmupRetryMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness contributor ("databaseWarmup"): OUT_OF_SERVICE until {@link DatabaseReadinessGate}
+ * has warmed the connection pool and hot queries. Reads a flag only, never the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseWarmupHealthIndicator implements HealthIndicator {
+
+    private final DatabaseReadinessGate databaseReadinessGate;
+
+    @Override
+    public Health health() {
+        return databaseReadinessGate.isWarm() ? Health.up().build() : Health.outOfService().build();
+    }
+}
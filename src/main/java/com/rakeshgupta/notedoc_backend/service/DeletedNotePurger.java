@@ -0,0 +1,192 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.repository.AttachmentRepository;
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import com.rakeshgupta.notedoc_backend.repository.UserNoteStatsRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Permanently deletes notes that were soft-deleted longer than the retention period ago, along
+ * with their tag links and attachments. Walks the deleted notes in (deleted time, id) order,
+ * one short transaction per batch with a pause in between, so it never holds locks or a pooled
+ * connection for long. Attachment files are removed once no remaining attachment shares them.
+ * With sharding every shard is purged.
+ */
+@Component
+@Slf4j
+public class DeletedNotePurger {
+
+    private final NoteRepository noteRepository;
+    private final TagRepository tagRepository;
+    private final AttachmentRepository attachmentRepository;
+    private final UserNoteStatsRepository statsRepository;
+    private final AttachmentStore attachmentStore;
+    private final ObjectProvider<ShardRoutingDataSource> shards;
+    private final TransactionTemplate transactions;
+    private final MeterRegistry meterRegistry;
+    private final Counter purgedNotes;
+    private final Counter purgedFiles;
+    private final AtomicLong runProgress = new AtomicLong();
+
+    @Value("${app.notes.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notes.purge.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.notes.purge.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.notes.purge.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    public DeletedNotePurger(NoteRepository noteRepository, TagRepository tagRepository,
+                             AttachmentRepository attachmentRepository, UserNoteStatsRepository statsRepository,
+                             AttachmentStore attachmentStore, ObjectProvider<ShardRoutingDataSource> shards,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.noteRepository = noteRepository;
+        this.tagRepository = tagRepository;
+        this.attachmentRepository = attachmentRepository;
+        this.statsRepository = statsRepository;
+        this.attachmentStore = attachmentStore;
+        this.shards = shards;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.purgedNotes = Counter.builder("notedoc.purge.notes")
+                .description("Soft-deleted notes permanently deleted")
+                .register(meterRegistry);
+        this.purgedFiles = Counter.builder("notedoc.purge.files")
+                .description("Attachment files deleted along with purged notes")
+                .register(meterRegistry);
+        Gauge.builder("notedoc.purge.run.notes", runProgress, AtomicLong::get)
+                .description("Notes purged so far by the current or last purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.notes.purge.initial-delay-ms:600000}",
+               fixedDelayString = "${app.notes.purge.interval-ms:3600000}")
+    public void purgeAll() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        runProgress.set(0);
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            ShardRoutingDataSource shardRouting = shards.getIfAvailable();
+            if (shardRouting == null) {
+                purgeShard(cutoff);
+            } else {
+                for (String shard : shardRouting.getShardNames()) {
+                    ShardRoutingDataSource.onShard(shard, () -> purgeShard(cutoff));
+                }
+            }
+            log.info("🧹 Purged {} notes deleted more than {} days ago", runProgress.get(), retentionDays);
+            success = true;
+        } catch (Exception e) {
+            log.error("❌ Deleted note purge failed: {}", e.getMessage(), e);
+        } finally {
+            JobMetrics.record(meterRegistry, "note-purge", start, success);
+        }
+    }
+
+    private long purgeShard(LocalDateTime cutoff) {
+        long purged = 0;
+        List<Object[]> batch = noteRepository.findFirstPurgeCandidates(cutoff, Limit.of(batchSize));
+        while (!batch.isEmpty()) {
+            purged += purgeBatch(batch);
+            if (batch.size() < batchSize) {
+                break;
+            }
+            pause();
+            Object[] last = batch.getLast();
+            batch = noteRepository.findPurgeCandidatesAfter(cutoff, (LocalDateTime) last[2], (UUID) last[0],
+                    Limit.of(batchSize));
+        }
+        return purged;
+    }
+
+    /**
+     * Delete one batch of [id, userId, updatedAt] candidates in one transaction, then the files
+     * their attachments no longer share with any other attachment
+     */
+    private int purgeBatch(List<Object[]> batch) {
+        Map<UUID, List<UUID>> idsByUser = new LinkedHashMap<>();
+        for (Object[] row : batch) {
+            idsByUser.computeIfAbsent((UUID) row[1], userId -> new ArrayList<>()).add((UUID) row[0]);
+        }
+        Map<UUID, Set<String>> filesByUser = new LinkedHashMap<>();
+        Integer purged = transactions.execute(status -> {
+            int deleted = 0;
+            for (Map.Entry<UUID, List<UUID>> entry : idsByUser.entrySet()) {
+                UUID userId = entry.getKey();
+                List<UUID> ids = entry.getValue();
+                List<String> files = attachmentRepository.findFilesOfNotes(userId, ids);
+                if (!files.isEmpty()) {
+                    filesByUser.put(userId, new LinkedHashSet<>(files));
+                    attachmentRepository.deleteByNoteIds(userId, ids);
+                }
+                tagRepository.deleteNoteTagIds(ids);
+                int notes = noteRepository.purgeDeletedNotes(userId, ids);
+                if (notes > 0) {
+                    // Users without a statistics row get one computed from the remaining notes later
+                    statsRepository.applyDelta(userId, 0, 0, 0, -notes, 0);
+                }
+                deleted += notes;
+            }
+            return deleted;
+        });
+        filesByUser.forEach((userId, files) -> files.forEach(sha256 -> deleteIfUnreferenced(userId, sha256)));
+        int count = purged != null ? purged : 0;
+        purgedNotes.increment(count);
+        runProgress.addAndGet(count);
+        return count;
+    }
+
+    private void deleteIfUnreferenced(UUID userId, String sha256) {
+        attachmentStore.locked(userId, sha256, () -> {
+            // In a read-write transaction, so the count is never answered by a lagging replica
+            Long remaining = transactions.execute(status -> attachmentRepository.countByUserIdAndSha256(userId, sha256));
+            if (remaining != null && remaining == 0) {
+                attachmentStore.delete(userId, sha256);
+                purgedFiles.increment();
+            }
+            return null;
+        });
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+}
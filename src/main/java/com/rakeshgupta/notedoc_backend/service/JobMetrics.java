@@ -0,0 +1,43 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duration and failure meters for the scheduled background jobs.
+ * Jobs run every few minutes, so meters are simply looked up by name on each run.
+ */
+final class JobMetrics {
+
+    static final String DURATION_NAME = "notedoc.job.duration";
+    static final String FAILURES_NAME = "notedoc.job.failures";
+
+    private JobMetrics() {}
+
+    /**
+     * Record one run of a scheduled job
+     *
+     * @param meterRegistry registry to record into
+     * @param job job name used as the "job" tag
+     * @param startNanos System.nanoTime() taken when the run started
+     * @param success whether the run completed without error
+     */
+    static void record(MeterRegistry meterRegistry, String job, long startNanos, boolean success) {
+        Timer.builder(DURATION_NAME)
+                .description("Duration of scheduled job runs")
+                .tag("job", job)
+                .tag("outcome", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        Counter failures = Counter.builder(FAILURES_NAME)
+                .description("Failed scheduled job runs")
+                .tag("job", job)
+                .register(meterRegistry);
+        if (!success) {
+            failures.increment();
+        }
+    }
+}
@@ -1,18 +1,45 @@
 package com.rakeshgupta.notedoc_backend.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warm-keeping for the instance and its database, driven by real request activity.
+ * Every tick it checks how long the instance has been idle and only then:
+ * <ul>
+ *   <li>self-pings the health endpoint over HTTP, so free hosting plans do not put it to sleep</li>
+ *   <li>validates the pooled connections and pre-touches the hot note queries</li>
+ *   <li>runs the database keep-alive of {@link DatabaseKeepAliveService}</li>
+ * </ul>
+ * While clients keep the instance busy no extra traffic is generated. The tasks run on a
+ * dedicated pool rather than the shared Spring scheduler thread, and the HTTP ping is bounded
+ * by the connect/read timeouts of the RestClient.
+ */
 @Service
+@ConditionalOnProperty(name = "app.keep-alive.enabled", havingValue = "true", matchIfMissing = true)
 @Slf4j
 @RequiredArgsConstructor
 public class KeepAliveService {
 
     private final RestClient restClient;
+    private final MeterRegistry meterRegistry;
+    private final RequestActivityTracker activityTracker;
+    private final ConnectionWarmer connectionWarmer;
+    private final DatabaseKeepAliveService databaseKeepAliveService;
 
     @Value("${app.url:https://notedoc.onrender.com}")
     private String appUrl;
@@ -20,12 +47,70 @@ public class KeepAliveService {
     @Value("${app.health-check.endpoint:/api/health}")
     private String healthCheckEndpoint;
 
+    @Value("${app.keep-alive.tick-interval-ms:60000}")
+    private long tickIntervalMs;
+
+    @Value("${app.keep-alive.http-idle-threshold-ms:240000}")
+    private long httpIdleThresholdMs;
+
+    @Value("${app.keep-alive.warmup-idle-threshold-ms:240000}")
+    private long warmupIdleThresholdMs;
+
+    @Value("${app.keep-alive.database-idle-threshold-ms:1800000}")
+    private long databaseIdleThresholdMs;
+
+    @Value("${app.keep-alive.scheduler-pool-size:2}")
+    private int schedulerPoolSize;
+
+    private ScheduledExecutorService scheduler;
+    private volatile long lastHttpPingNanos = System.nanoTime();
+    private volatile long lastWarmupNanos = System.nanoTime();
+    private volatile long lastDatabaseKeepAliveNanos = System.nanoTime();
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newScheduledThreadPool(schedulerPoolSize, daemonThreads("keep-alive"));
+        scheduler.scheduleWithFixedDelay(this::httpKeepAliveTick, tickIntervalMs, tickIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::warmupTick, tickIntervalMs, tickIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::databaseKeepAliveTick, tickIntervalMs, tickIntervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("notedoc.keepalive.idle", activityTracker, tracker -> tracker.getIdleMillis() / 1000.0)
+                .description("Time since the last client request")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        log.info("Keep-alive scheduler started (tick {} ms, pool size {})", tickIntervalMs, schedulerPoolSize);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void httpKeepAliveTick() {
+        if (idleSince(lastHttpPingNanos) >= httpIdleThresholdMs) {
+            keepAliveHealthCheck();
+        }
+    }
+
+    void warmupTick() {
+        if (idleSince(lastWarmupNanos) >= warmupIdleThresholdMs) {
+            warmConnections();
+        }
+    }
+
+    void databaseKeepAliveTick() {
+        if (idleSince(lastDatabaseKeepAliveNanos) >= databaseIdleThresholdMs) {
+            lastDatabaseKeepAliveNanos = System.nanoTime();
+            databaseKeepAliveService.keepDatabaseAlive();
+        }
+    }
+
     /**
-     * Scheduled task that runs every 5 minutes to keep the service active
-     * This prevents the Render free plan from shutting down due to inactivity
+     * Self-ping the health endpoint so the hosting platform sees inbound traffic
      */
-    @Scheduled(fixedDelay = 300000) // 300000 milliseconds = 5 minutes
     public void keepAliveHealthCheck() {
+        long start = System.nanoTime();
+        lastHttpPingNanos = start;
+        boolean success = false;
         try {
             String url = appUrl + healthCheckEndpoint;
             String response = restClient.get()
@@ -33,8 +118,43 @@ public class KeepAliveService {
                     .retrieve()
                     .body(String.class);
             log.info("Keep-alive health check executed successfully: {}", response);
+            success = true;
         } catch (Exception e) {
             log.warn("Keep-alive health check failed: {}", e.getMessage());
+        } finally {
+            JobMetrics.record(meterRegistry, "http-keepalive", start, success);
         }
     }
-}
\ No newline at end of file
+
+    private void warmConnections() {
+        long start = System.nanoTime();
+        lastWarmupNanos = start;
+        boolean success = false;
+        try {
+            int validated = connectionWarmer.warm();
+            log.debug("Warmed {} pooled connections and hot queries", validated);
+            success = true;
+        } catch (Exception e) {
+            log.warn("Connection warmup failed: {}", e.getMessage());
+        } finally {
+            JobMetrics.record(meterRegistry, "connection-warmup", start, success);
+        }
+    }
+
+    /**
+     * Idle time counted from the later of the last client request and the last run of a task
+     */
+    private long idleSince(long lastRunNanos) {
+        long sinceRun = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRunNanos);
+        return Math.min(activityTracker.getIdleMillis(), sinceRun);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
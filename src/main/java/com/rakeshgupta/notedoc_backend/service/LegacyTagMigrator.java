@@ -0,0 +1,134 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves tags from the legacy note_tags table (one tag string per row) into the tag dictionary
+ * and note_tag_ids, one user per transaction, before the application reports ready. The user's
+ * legacy rows are deleted in the same transaction, so an interrupted run simply continues on the
+ * next start. Notes that were retagged since the switch keep their new tags.
+ * Does nothing once note_tags is empty or absent; with sharding every shard is migrated.
+ */
+@Component
+@Slf4j
+public class LegacyTagMigrator implements ApplicationRunner {
+
+    private static final String LEGACY_TABLE = "note_tags";
+
+    private final TagRepository tagRepository;
+    private final TagDictionary tagDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final ObjectProvider<ShardRoutingDataSource> shards;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public LegacyTagMigrator(TagRepository tagRepository, TagDictionary tagDictionary,
+                             PlatformTransactionManager transactionManager, DataSource dataSource,
+                             ObjectProvider<ShardRoutingDataSource> shards,
+                             @Value("${app.tags.migrate-legacy:true}") boolean enabled,
+                             @Value("${app.tags.migration-batch-users:100}") int batchSize) {
+        this.tagRepository = tagRepository;
+        this.tagDictionary = tagDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+        this.shards = shards;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        ShardRoutingDataSource shardRouting = shards.getIfAvailable();
+        if (shardRouting == null) {
+            migrate("default");
+            return;
+        }
+        for (String shard : shardRouting.getShardNames()) {
+            ShardRoutingDataSource.onShard(shard, () -> migrate(shard));
+        }
+    }
+
+    private int migrate(String target) {
+        if (!legacyTableExists()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int users = 0;
+        int rows = 0;
+        List<String> batch;
+        while (!(batch = tagRepository.findLegacyTagOwners(batchSize)).isEmpty()) {
+            for (String owner : batch) {
+                UUID userId = UUID.fromString(owner);
+                Integer migrated = transactionTemplate.execute(status -> migrateUser(userId));
+                rows += migrated != null ? migrated : 0;
+                users++;
+            }
+        }
+        if (users > 0) {
+            log.info("✅ Migrated {} legacy tag rows of {} users to the tag dictionary on '{}' in {} ms",
+                    rows, users, target, System.currentTimeMillis() - start);
+        }
+        return users;
+    }
+
+    private int migrateUser(UUID userId) {
+        List<Object[]> legacy = tagRepository.findLegacyTags(userId);
+        Set<UUID> retagged = new HashSet<>(tagRepository.findNotesWithTagIds(userId));
+        List<String> names = new ArrayList<>(legacy.size());
+        for (Object[] row : legacy) {
+            names.add((String) row[1]);
+        }
+        Map<String, Integer> ids = tagDictionary.idsByName(userId, names);
+        int inserted = 0;
+        for (Object[] row : legacy) {
+            UUID noteId = UUID.fromString((String) row[0]);
+            Integer tagId = ids.get((String) row[1]);
+            if (tagId != null && !retagged.contains(noteId)) {
+                inserted += tagRepository.insertNoteTagId(noteId, tagId);
+            }
+        }
+        tagRepository.deleteLegacyTags(userId);
+        return inserted;
+    }
+
+    private boolean legacyTableExists() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : List.of(LEGACY_TABLE, LEGACY_TABLE.toUpperCase())) {
+                try (ResultSet tables = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not check for the legacy " + LEGACY_TABLE + " table", e);
+        }
+    }
+}
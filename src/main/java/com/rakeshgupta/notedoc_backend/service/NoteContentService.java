@@ -0,0 +1,348 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.admission.AdmissionControl;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.exception.ContentTooLargeException;
+import com.rakeshgupta.notedoc_backend.exception.InvalidNoteDataException;
+import com.rakeshgupta.notedoc_backend.exception.NoteNotFoundException;
+import com.rakeshgupta.notedoc_backend.jdbc.ReadYourWritesTracker;
+import com.rakeshgupta.notedoc_backend.jdbc.ReplicaRoutingDataSource;
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Raw note content for notes too large to pass around as JSON strings.
+ * Reads fetch the content in slices, each in its own short read-only transaction, and write each
+ * slice to the client before fetching the next, so neither the heap nor a pooled connection holds
+ * more than one slice however large the note or slow the client. Byte ranges skip the slices before
+ * them by asking only for their size. Every slice query checks that the note is unchanged since the
+ * read started; if it changed, the response is aborted.
+ * <p>
+ * A character offset into text cannot be turned into a byte offset without reading what comes
+ * before it, so PostgreSQL detoasts (and decompresses) the content from its start up to the end of
+ * every slice it is asked for. Reading a note in slices of a fixed size would therefore cost work
+ * quadratic in its length. Slices are {@code chunk-chars} characters, but never fewer than
+ * 1/{@code max-slices} of the content's size, so a read takes at most {@code max-slices} + 1 slice
+ * queries and about ({@code max-slices} + 1) / 2 times the work of reading the content once.
+ * Uploads above {@code stream-threshold-bytes} are spooled to a temporary file before they reach
+ * the database, see {@link SpooledContent}.
+ * <p>
+ * These reads bypass the note service decorators, so every query passes {@link AdmissionControl}
+ * itself. A slot is held only while a query runs, never while the client drains a slice, and the
+ * query's own latency is what feeds the adaptive limit. A read rejected midway is aborted like one
+ * whose note changed.
+ */
+@Service
+public class NoteContentService {
+
+    private final NoteRepository noteRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ShardRouter router;
+    private final AdmissionControl admissionControl;
+    private final TransactionTemplate readOnly;
+    private final int chunkChars;
+    private final int maxSlices;
+    private final int streamThresholdBytes;
+    private final long maxBytes;
+
+    public NoteContentService(NoteRepository noteRepository, ReadYourWritesTracker readYourWritesTracker,
+                              ObjectProvider<ShardRouter> router, AdmissionControl admissionControl,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.notes.content.chunk-chars:262144}") int chunkChars,
+                              @Value("${app.notes.content.max-slices:16}") int maxSlices,
+                              @Value("${app.notes.content.stream-threshold-bytes:262144}") int streamThresholdBytes,
+                              @Value("${app.notes.content.max-bytes:52428800}") long maxBytes) {
+        this.noteRepository = noteRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.router = router.getIfAvailable();
+        this.admissionControl = admissionControl;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.chunkChars = chunkChars;
+        this.maxSlices = Math.max(1, maxSlices);
+        this.streamThresholdBytes = streamThresholdBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    public int getStreamThresholdBytes() {
+        return streamThresholdBytes;
+    }
+
+    /**
+     * Size and last update of an active note's content
+     *
+     * @throws NoteNotFoundException if the note does not exist or is deleted
+     */
+    public NoteContentInfoDto describe(UUID id, UUID userId) {
+        List<Object[]> rows = read(userId, () -> noteRepository.findContentInfo(id, userId));
+        if (rows.isEmpty()) {
+            throw new NoteNotFoundException(id);
+        }
+        Object[] row = rows.getFirst();
+        long length = row[0] != null ? ((Number) row[0]).longValue() : 0;
+        return new NoteContentInfoDto(id, length, (LocalDateTime) row[1]);
+    }
+
+    /**
+     * Write bytes {@code start} to {@code end} (inclusive) of the content described by {@code info}
+     *
+     * @throws IOException if writing fails or the note changed since it was described
+     */
+    public void write(NoteContentInfoDto info, UUID userId, long start, long end, OutputStream out) throws IOException {
+        UUID id = info.getId();
+        LocalDateTime updatedAt = info.getUpdatedAt();
+        int chars = sliceChars(info);
+        int from = 1;
+        long position = 0;
+        // Skip whole slices before the range
+        while (start > 0) {
+            int sliceChars = chars;
+            Object[] slice = sliceInfo(id, userId, updatedAt, from, sliceChars);
+            String last = (String) slice[1];
+            if (last != null && last.length() == 1 && Character.isHighSurrogate(last.charAt(0))) {
+                // The database counts UTF-16 units and the slice ends inside a character: leave it to the next one
+                sliceChars--;
+                slice = sliceInfo(id, userId, updatedAt, from, sliceChars);
+            }
+            long size = slice[0] != null ? ((Number) slice[0]).longValue() : 0;
+            if (size == 0 || position + size > start) {
+                break;
+            }
+            position += size;
+            from += sliceChars;
+        }
+
+        long written = 0;
+        String carry = "";
+        while (position <= end) {
+            int sliceFrom = from;
+            String chunk = read(userId, () -> noteRepository.findContentChunk(id, userId, updatedAt, sliceFrom, chars))
+                    .orElseThrow(() -> changed(id));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            String text = carry.isEmpty() ? chunk : carry + chunk;
+            // Keep a trailing high surrogate for the next slice, for databases that count UTF-16 units
+            carry = Character.isHighSurrogate(text.charAt(text.length() - 1)) ? text.substring(text.length() - 1) : "";
+            byte[] bytes = (carry.isEmpty() ? text : text.substring(0, text.length() - 1)).getBytes(StandardCharsets.UTF_8);
+            int offset = (int) Math.max(0, start - position);
+            int limit = (int) Math.min(bytes.length, end + 1 - position);
+            if (limit > offset) {
+                out.write(bytes, offset, limit - offset);
+                written += limit - offset;
+            }
+            position += bytes.length;
+            from += chars;
+        }
+        if (written != end - start + 1) {
+            // Never leave the client waiting for bytes promised by Content-Length
+            throw new IOException("Streamed " + written + " bytes of note " + id + " instead of " + (end - start + 1));
+        }
+    }
+
+    /**
+     * Reader over the content described by {@code info}, fetching one slice at a time like {@link #write}
+     * does. Reads fail with an IOException if the note changed since it was described.
+     */
+    public Reader openReader(NoteContentInfoDto info, UUID userId) {
+        return new ContentReader(info, userId);
+    }
+
+    /**
+     * Decode a small upload read fully into memory
+     *
+     * @throws InvalidNoteDataException if the bytes are not valid UTF-8
+     */
+    public String decode(byte[] bytes) {
+        try {
+            return newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (CharacterCodingException e) {
+            throw new InvalidNoteDataException("Note content must be valid UTF-8");
+        }
+    }
+
+    /**
+     * Copy an upload to a temporary file, checking that it is valid UTF-8 and within the size limit
+     *
+     * @param prefix bytes already read from the upload
+     * @throws InvalidNoteDataException if the upload is not valid UTF-8
+     * @throws ContentTooLargeException if the upload exceeds the size limit
+     */
+    public SpooledContent spool(byte[] prefix, InputStream rest) throws IOException {
+        Path file = Files.createTempFile("note-content-", ".txt");
+        try (InputStream source = new SequenceInputStream(new ByteArrayInputStream(prefix), rest);
+             OutputStream out = Files.newOutputStream(file)) {
+            CharsetDecoder decoder = newDecoder();
+            byte[] buffer = new byte[8192];
+            // Room for a read plus the incomplete sequence left over from the previous one
+            ByteBuffer pending = ByteBuffer.allocate(buffer.length + 4);
+            CharBuffer chars = CharBuffer.allocate(8192);
+            long bytes = 0;
+            long count = 0;
+            int read;
+            while ((read = source.read(buffer, 0, Math.min(buffer.length, pending.remaining()))) >= 0) {
+                bytes += read;
+                if (bytes > maxBytes) {
+                    throw new ContentTooLargeException(maxBytes);
+                }
+                out.write(buffer, 0, read);
+                pending.put(buffer, 0, read).flip();
+                count += decodeInto(decoder, pending, chars, false);
+                pending.compact();
+            }
+            pending.flip();
+            count += decodeInto(decoder, pending, chars, true);
+            chars.clear();
+            if (decoder.flush(chars).isError()) {
+                throw new InvalidNoteDataException("Note content must be valid UTF-8");
+            }
+            if (count > Integer.MAX_VALUE) {
+                throw new ContentTooLargeException(maxBytes);
+            }
+            return new SpooledContent(file, bytes, (int) count);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Strong ETag of a content version: its last update and size
+     */
+    public static String etag(NoteContentInfoDto info) {
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), info.getUpdatedAt());
+        return "\"" + Long.toHexString(micros) + "-" + Long.toHexString(info.getLength()) + "\"";
+    }
+
+    /**
+     * Decode as much of {@code in} as possible, leaving an incomplete trailing sequence in place
+     *
+     * @return number of chars decoded
+     */
+    private static long decodeInto(CharsetDecoder decoder, ByteBuffer in, CharBuffer chars, boolean endOfInput) {
+        long count = 0;
+        while (true) {
+            chars.clear();
+            CoderResult result = decoder.decode(in, chars, endOfInput);
+            count += chars.position();
+            if (result.isError()) {
+                throw new InvalidNoteDataException("Note content must be valid UTF-8");
+            }
+            if (result.isUnderflow()) {
+                return count;
+            }
+        }
+    }
+
+    private static CharsetDecoder newDecoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    /**
+     * Characters per slice for the described content. Its size in bytes bounds its length in
+     * characters, so there are at most max-slices full slices.
+     */
+    private int sliceChars(NoteContentInfoDto info) {
+        long minimum = Math.ceilDiv(info.getLength(), maxSlices);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(chunkChars, minimum));
+    }
+
+    private Object[] sliceInfo(UUID id, UUID userId, LocalDateTime updatedAt, int from, int length) throws IOException {
+        List<Object[]> rows = read(userId, () -> noteRepository.findContentSliceInfo(id, userId, updatedAt, from, length));
+        if (rows.isEmpty()) {
+            throw changed(id);
+        }
+        return rows.getFirst();
+    }
+
+    private static IOException changed(UUID id) {
+        return new IOException("Note " + id + " changed or was deleted while its content was being read");
+    }
+
+    private final class ContentReader extends Reader {
+
+        private final NoteContentInfoDto info;
+        private final UUID userId;
+        private final int sliceChars;
+        private String chunk = "";
+        private int position;
+        private int from = 1;
+        private boolean ended;
+
+        ContentReader(NoteContentInfoDto info, UUID userId) {
+            this.info = info;
+            this.userId = userId;
+            this.sliceChars = sliceChars(info);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (position == chunk.length()) {
+                if (ended) {
+                    return -1;
+                }
+                int sliceFrom = from;
+                chunk = NoteContentService.this.read(userId, () -> noteRepository.findContentChunk(
+                                info.getId(), userId, info.getUpdatedAt(), sliceFrom, sliceChars))
+                        .orElseThrow(() -> changed(info.getId()));
+                position = 0;
+                from += sliceChars;
+                ended = chunk.isEmpty();
+            }
+            int count = Math.min(length, chunk.length() - position);
+            chunk.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            ended = true;
+            chunk = "";
+            position = 0;
+        }
+    }
+
+    private <T> T read(UUID userId, Supplier<T> query) {
+        Supplier<T> inTransaction = () -> readOnly.execute(status -> query.get());
+        Supplier<T> routed = router != null ? () -> router.read(userId, inTransaction) : inTransaction;
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            return readYourWritesTracker.isSticky(userId) ? ReplicaRoutingDataSource.onPrimary(routed) : routed.get();
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+}
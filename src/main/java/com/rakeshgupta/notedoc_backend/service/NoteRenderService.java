@@ -0,0 +1,215 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.exception.AdmissionRejectedException;
+import com.rakeshgupta.notedoc_backend.markdown.MarkdownRenderer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders note content to HTML with {@link MarkdownRenderer}.
+ * Rendered HTML is cached by a hash of the content, so a note is only rendered again once its
+ * content changes and identical content is rendered once; the cache is bounded by the total size
+ * of the HTML it holds. Renders run on a small dedicated pool with a bounded queue, so a burst of
+ * them cannot take over the request threads, and concurrent renders of the same content share one.
+ * Notes above the stream threshold are not cached but rendered while their content is read from
+ * the database in slices, writing the HTML to the client as it is produced.
+ */
+@Service
+public class NoteRenderService {
+
+    private static final int WRITE_BUFFER_CHARS = 8192;
+
+    private final NoteService noteService;
+    private final NoteContentService contentService;
+    private final long streamThresholdBytes;
+    private final long maxCacheBytes;
+    private final long maxEntryBytes;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, byte[]> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter joined;
+    private final Timer renderTimer;
+
+    public NoteRenderService(NoteService noteService, NoteContentService contentService,
+                             @Value("${app.notes.render.threads:2}") int threads,
+                             @Value("${app.notes.render.queue-capacity:64}") int queueCapacity,
+                             @Value("${app.notes.render.stream-threshold-bytes:1048576}") long streamThresholdBytes,
+                             @Value("${app.notes.render.cache-max-bytes:67108864}") long maxCacheBytes,
+                             @Value("${app.notes.render.cache-max-entry-bytes:4194304}") long maxEntryBytes,
+                             MeterRegistry meterRegistry) {
+        this.noteService = noteService;
+        this.contentService = contentService;
+        this.streamThresholdBytes = streamThresholdBytes;
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "note-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.joined = lookups(meterRegistry, "joined");
+        this.renderTimer = Timer.builder("notedoc.render.duration")
+                .description("Time to render note content that is cached afterwards")
+                .register(meterRegistry);
+        Gauge.builder("notedoc.render.cache.bytes", cachedBytes, AtomicLong::get)
+                .description("Size of the rendered HTML currently cached")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("notedoc.render.queue", executor, pool -> pool.getQueue().size())
+                .description("Renders waiting for a render thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Length and last modification of the note's content, see {@link NoteContentService#describe}
+     */
+    public NoteContentInfoDto describe(UUID id, UUID userId) {
+        return contentService.describe(id, userId);
+    }
+
+    /**
+     * ETag of the HTML rendered from the described content; it changes with the renderer version.
+     * Weak, since Tomcat does not compress responses with a strong ETag.
+     */
+    public static String etag(NoteContentInfoDto info) {
+        return "W/\"html" + MarkdownRenderer.VERSION + "-" + NoteContentService.etag(info).substring(1);
+    }
+
+    /**
+     * Whether the note is too large to render in memory and has to be streamed with {@link #renderTo}
+     */
+    public boolean isStreamed(NoteContentInfoDto info) {
+        return info.getLength() > streamThresholdBytes;
+    }
+
+    /**
+     * UTF-8 HTML of the note's current content, from the cache or rendered on the render pool
+     *
+     * @throws com.rakeshgupta.notedoc_backend.exception.NoteNotFoundException if the note does not exist
+     * @throws AdmissionRejectedException if the render queue is full
+     */
+    public CompletableFuture<byte[]> render(UUID id, UUID userId) {
+        String markdown = Objects.requireNonNullElse(noteService.getNoteById(id, userId).getContent(), "");
+        String key = key(markdown);
+        byte[] cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, render);
+        if (running != null) {
+            joined.increment();
+            return running;
+        }
+        misses.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    byte[] html = renderTimer.record(() -> MarkdownRenderer.render(markdown).getBytes(StandardCharsets.UTF_8));
+                    put(key, html);
+                    render.complete(html);
+                } catch (RuntimeException | Error e) {
+                    render.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, render);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            AdmissionRejectedException rejected = AdmissionRejectedException.overloaded(1);
+            inFlight.remove(key, render);
+            // Callers that joined meanwhile are rejected as well
+            render.completeExceptionally(rejected);
+            throw rejected;
+        }
+        return render;
+    }
+
+    /**
+     * Render the described content to {@code out} as UTF-8 HTML while reading it slice by slice.
+     * Fails with an IOException if the note changes meanwhile.
+     */
+    public void renderTo(NoteContentInfoDto info, UUID userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        try (Reader reader = contentService.openReader(info, userId)) {
+            MarkdownRenderer.render(reader, writer);
+        }
+        writer.flush();
+    }
+
+    private void put(String key, byte[] html) {
+        if (html.length > maxEntryBytes || cache.putIfAbsent(key, html) != null) {
+            return;
+        }
+        long total = cachedBytes.addAndGet(html.length);
+        Iterator<Map.Entry<String, byte[]>> victims = cache.entrySet().iterator();
+        while (total > maxCacheBytes && victims.hasNext()) {
+            Map.Entry<String, byte[]> victim = victims.next();
+            if (cache.remove(victim.getKey(), victim.getValue())) {
+                total = cachedBytes.addAndGet(-victim.getValue().length);
+            }
+        }
+    }
+
+    /**
+     * Hash of the renderer version and content, so a new renderer never serves old output
+     */
+    private static String key(String markdown) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((byte) MarkdownRenderer.VERSION);
+            digest.update(markdown.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("notedoc.render.cache.lookups")
+                .description("Rendered HTML cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
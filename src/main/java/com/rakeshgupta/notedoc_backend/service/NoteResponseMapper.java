@@ -0,0 +1,49 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.entity.Note;
+
+import java.util.HashSet;
+
+/**
+ * Converts note entities to the response DTOs returned for every note the service hands out.
+ * Stateless, so the JMH benchmarks can exercise it without a service or its collaborators.
+ */
+public final class NoteResponseMapper {
+
+    private NoteResponseMapper() {
+    }
+
+    /**
+     * Convert Note entity to NoteResponseDto.
+     * 
+     * @param note the note entity to convert
+     * @return the converted response DTO
+     */
+    public static NoteResponseDto toResponseDto(Note note) {
+        NoteResponseDto dto = new NoteResponseDto();
+        dto.setId(note.getId());
+        dto.setTitle(note.getTitle());
+        dto.setContent(note.getContent());
+        dto.setTags(note.getTags() != null ? new HashSet<>(note.getTags()) : new HashSet<>());
+        dto.setPinned(note.getPinned());
+        dto.setArchived(note.getArchived());
+        dto.setUserId(note.getUserId());
+        dto.setCreatedAt(note.getCreatedAt());
+        dto.setUpdatedAt(note.getUpdatedAt());
+        return dto;
+    }
+
+    /**
+     * Convert a search hit to a response DTO carrying a snippet around the best match.
+     * The full content is dropped unless requested, which keeps result pages of long notes small.
+     */
+    public static NoteResponseDto toSearchResultDto(Note note, String query, boolean includeContent) {
+        NoteResponseDto dto = toResponseDto(note);
+        dto.setSnippet(SnippetExtractor.extract(note.getTitle(), note.getContent(), query));
+        if (!includeContent) {
+            dto.setContent(null);
+        }
+        return dto;
+    }
+}
@@ -2,6 +2,7 @@ package com.rakeshgupta.notedoc_backend.service;
 
 import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
 import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
 import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -70,15 +71,31 @@ public interface NoteService {
      */
     void deleteNote(UUID id, UUID userId);
 
+    /**
+     * Replace the content of a note with an upload spooled to disk.
+     * The content is streamed to the database and never loaded as a whole,
+     * neither the old nor the new one. Updates the updatedAt timestamp.
+     * 
+     * @param id the note ID to update
+     * @param content the new content
+     * @param userId the user ID to filter by
+     * @return size and last update of the new content
+     * @throws com.rakeshgupta.notedoc_backend.exception.NoteNotFoundException if note not found or deleted
+     */
+    NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId);
+
     /**
      * Search active (non-deleted) notes by query string in title and content fields.
      * Performs case-insensitive search and returns paginated results.
      * If query is empty or null, returns all active notes for the user.
+     * Each result carries a snippet of its content around the best match with highlight offsets;
+     * the full content is only included when requested.
      * 
      * @param query the search query string
      * @param userId the user ID to filter notes by
      * @param pageable pagination and sorting parameters
+     * @param includeContent whether to return the full content of each note besides the snippet
      * @return paginated list of notes matching the search query
      */
-    Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable);
+    Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers when the last real (client) request was served, so background warm-keeping
+ * only generates traffic while the instance is actually idle.
+ * Self-pings and actuator scrapes are not recorded.
+ */
+@Component
+public class RequestActivityTracker {
+
+    private volatile long lastRequestNanos = System.nanoTime();
+
+    /**
+     * Record that a client request was just served
+     */
+    public void markRequest() {
+        lastRequestNanos = System.nanoTime();
+    }
+
+    /**
+     * Milliseconds since the last client request, or since startup if none was served yet
+     */
+    public long getIdleMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRequestNanos);
+    }
+}
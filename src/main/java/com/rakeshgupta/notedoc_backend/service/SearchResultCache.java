@@ -0,0 +1,185 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search result pages keyed by user, normalized query and page.
+ * Every committed write gives the user a new version, a fresh value of a global clock, and an entry
+ * is only served while the user's version still equals the one read before the entry was loaded,
+ * so invalidation is a single map write and never scans the cache. Users without a version entry
+ * share a floor version; dropping a user's version to bound memory raises the floor, which
+ * invalidates the entries of every such user at once instead of ever reviving a stale one.
+ * Both maps are kept in access order under a lock and drop their least recently used entry when full.
+ */
+@Service
+public class SearchResultCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final ReentrantLock entriesLock = new ReentrantLock();
+    private final ReentrantLock versionsLock = new ReentrantLock();
+    private final Map<Key, Entry> entries;
+    private final Map<UUID, Long> versions;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong floor = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+    private final Counter expired;
+
+    public SearchResultCache(@Value("${app.search-cache.enabled:true}") boolean enabled,
+                             @Value("${app.search-cache.ttl-ms:60000}") long ttlMs,
+                             @Value("${app.search-cache.max-entries:10000}") int maxEntries,
+                             @Value("${app.search-cache.max-users:100000}") int maxUsers,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                if (size() <= maxUsers) {
+                    return false;
+                }
+                // Raise the floor, so the victim's entries never match a lower version
+                floor.accumulateAndGet(clock.get(), Math::max);
+                return true;
+            }
+        };
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.stale = lookups(meterRegistry, "stale");
+        this.expired = lookups(meterRegistry, "expired");
+        Gauge.builder("notedoc.search.cache.entries", this, SearchResultCache::size)
+                .description("Search result pages currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached page for the search, or the loader's result, which is cached for later calls
+     */
+    public Page<NoteResponseDto> getOrLoad(UUID userId, String query, Pageable pageable,
+                                           Supplier<Page<NoteResponseDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(userId, query == null ? "" : query.trim().toLowerCase(Locale.ROOT), pageable);
+        // Read before loading: a write committing meanwhile bumps the version past the stored one
+        long version = versionOf(userId);
+        Entry entry = entry(key);
+        if (entry == null) {
+            misses.increment();
+        } else if (entry.version() != version) {
+            stale.increment();
+        } else if (System.nanoTime() - entry.expiresAt() >= 0) {
+            expired.increment();
+        } else {
+            hits.increment();
+            return entry.page();
+        }
+
+        Page<NoteResponseDto> page = loader.get();
+        entriesLock.lock();
+        try {
+            entries.put(key, new Entry(version, System.nanoTime() + ttlNanos, page));
+        } finally {
+            entriesLock.unlock();
+        }
+        return page;
+    }
+
+    /**
+     * Number of cached pages, including stale and expired ones not looked up since
+     */
+    public int size() {
+        entriesLock.lock();
+        try {
+            return entries.size();
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    /**
+     * Invalidate the user's cached searches once the current transaction commits, or right away without one
+     */
+    public void invalidate(UUID userId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(userId);
+            }
+        });
+    }
+
+    private Entry entry(Key key) {
+        entriesLock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    private long versionOf(UUID userId) {
+        versionsLock.lock();
+        try {
+            Long version = versions.get(userId);
+            return version != null ? version : floor.get();
+        } finally {
+            versionsLock.unlock();
+        }
+    }
+
+    private void bump(UUID userId) {
+        versionsLock.lock();
+        try {
+            versions.put(userId, clock.incrementAndGet());
+        } finally {
+            versionsLock.unlock();
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("notedoc.search.cache.lookups")
+                .description("Search result cache lookups by outcome: hit, miss, stale (invalidated by a write) or expired")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Key(UUID userId, String query, Pageable pageable) {
+    }
+
+    private record Entry(long version, long expiresAt, Page<NoteResponseDto> page) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with an equal key into one execution.
+ * The first caller for a key (the leader) runs the call on its own thread; callers arriving while
+ * it is in flight wait for and share its result or exception. The entry is removed as soon as the
+ * leader finishes, so nothing is cached: a call starting afterwards always runs again.
+ * <p>
+ * Keys belong to groups (e.g. the user a read is made for), and {@link #forget} detaches all calls
+ * of a group at once. Calls are indexed by group, and every change to a group's calls happens under
+ * the lock of its entry, so a call is never registered in a group that was just forgotten.
+ * <p>
+ * A waiting caller that is interrupted stops waiting without affecting the leader or the other
+ * waiters, and the leader always completes the shared future, whatever it throws.
+ */
+public class SingleFlight<G, K, V> {
+
+    private final ConcurrentHashMap<G, Map<K, CompletableFuture<V>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run the call, or join the one already running for the key in the group
+     *
+     * @param onJoin invoked when this caller joins an in-flight call instead of running it
+     */
+    public V execute(G group, K key, Supplier<V> call, Runnable onJoin) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = register(group, key, mine);
+        if (existing != null) {
+            onJoin.run();
+            return await(existing);
+        }
+        try {
+            V result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (Throwable e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.computeIfPresent(group, (g, calls) -> {
+                calls.remove(key, mine);
+                return calls.isEmpty() ? null : calls;
+            });
+        }
+    }
+
+    /**
+     * Detach the group's in-flight calls, so later callers start a fresh execution instead of
+     * joining one that may have read data from before a write. Callers already waiting keep theirs.
+     */
+    public void forget(G group) {
+        inFlight.remove(group);
+    }
+
+    /**
+     * Number of distinct calls in flight
+     */
+    public int size() {
+        int size = 0;
+        for (Map<K, CompletableFuture<V>> calls : inFlight.values()) {
+            size += calls.size();
+        }
+        return size;
+    }
+
+    /**
+     * Register the future as the key's call, unless one is already in flight
+     *
+     * @return the call in flight, or null if the future was registered
+     */
+    private CompletableFuture<V> register(G group, K key, CompletableFuture<V> future) {
+        Object[] existing = new Object[1];
+        inFlight.compute(group, (g, calls) -> {
+            Map<K, CompletableFuture<V>> map = calls != null ? calls : new ConcurrentHashMap<>();
+            existing[0] = map.putIfAbsent(key, future);
+            return map;
+        });
+        @SuppressWarnings("unchecked")
+        CompletableFuture<V> call = (CompletableFuture<V>) existing[0];
+        return call;
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a coalesced call");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
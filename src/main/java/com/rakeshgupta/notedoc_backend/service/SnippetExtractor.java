@@ -0,0 +1,141 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.SearchSnippetDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the excerpt returned with a search hit in place of the full content.
+ * Matching is literal and case-insensitive, like the search query itself. One pass over the content
+ * finds the non-overlapping matches and, as it goes, the window of {@link #SNIPPET_LENGTH}
+ * characters holding the most of them; the excerpt is that window widened to whole words.
+ */
+public final class SnippetExtractor {
+
+    /**
+     * Target excerpt length in characters
+     */
+    public static final int SNIPPET_LENGTH = 200;
+
+    private SnippetExtractor() {
+    }
+
+    /**
+     * Excerpt of the content around its best match, with the match offsets in the excerpt and title
+     *
+     * @param query the search query, or null/blank for a plain listing (leading excerpt, no highlights)
+     */
+    public static SearchSnippetDto extract(String title, String content, String query) {
+        String needle = query != null ? query.trim() : "";
+        List<int[]> titleHighlights = needle.isEmpty() || title == null ? List.of() : findAll(title, needle);
+        if (content == null) {
+            return new SearchSnippetDto(null, 0, false, List.of(), titleHighlights);
+        }
+
+        int length = content.length();
+        int m = needle.length();
+        int window = Math.max(SNIPPET_LENGTH, m);
+        int[] starts = new int[8];
+        int count = 0;
+        int lo = 0;
+        int bestLo = -1;
+        int bestHi = -1;
+        int maxInWindow = m == 0 ? 0 : window / m;
+        for (int i = 0; m > 0 && i + m <= length; ) {
+            if (!content.regionMatches(true, i, needle, 0, m)) {
+                i++;
+                continue;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = i;
+            while (i + m - starts[lo] > window) {
+                lo++;
+            }
+            if (bestLo < 0 || count - 1 - lo > bestHi - bestLo) {
+                bestLo = lo;
+                bestHi = count - 1;
+                if (bestHi - bestLo + 1 == maxInWindow) {
+                    break;
+                }
+            }
+            i += m;
+        }
+
+        int from;
+        int to;
+        if (bestLo < 0) {
+            from = 0;
+            to = wordEnd(content, Math.min(length, window), 0);
+        } else {
+            int matchStart = starts[bestLo];
+            int matchEnd = starts[bestHi] + m;
+            // Center the matches, then shift the window back inside the content
+            from = Math.max(0, matchStart - (window - (matchEnd - matchStart)) / 2);
+            to = Math.min(length, from + window);
+            from = Math.max(0, to - window);
+            from = wordStart(content, from, matchStart);
+            to = wordEnd(content, to, matchEnd);
+        }
+
+        List<int[]> highlights = new ArrayList<>(bestLo < 0 ? 0 : bestHi - bestLo + 1);
+        for (int k = bestLo; k >= 0 && k <= bestHi; k++) {
+            highlights.add(new int[]{starts[k] - from, starts[k] + m - from});
+        }
+        return new SearchSnippetDto(content.substring(from, to), from, to < length, highlights, titleHighlights);
+    }
+
+    /**
+     * All non-overlapping matches as [start, end) pairs
+     */
+    private static List<int[]> findAll(String text, String needle) {
+        List<int[]> matches = new ArrayList<>();
+        int m = needle.length();
+        for (int i = 0; i + m <= text.length(); ) {
+            if (text.regionMatches(true, i, needle, 0, m)) {
+                matches.add(new int[]{i, i + m});
+                i += m;
+            } else {
+                i++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Move a start cut inside a word forward to the next word, but never past the first match
+     */
+    private static int wordStart(String content, int from, int limit) {
+        if (from > 0 && !Character.isWhitespace(content.charAt(from - 1))) {
+            for (int i = from; i < limit; i++) {
+                if (Character.isWhitespace(content.charAt(i))) {
+                    return i + 1;
+                }
+            }
+        }
+        if (from > 0 && from < content.length() && Character.isLowSurrogate(content.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Move an end cut inside a word back to the end of the previous word, but never before the last match
+     */
+    private static int wordEnd(String content, int to, int limit) {
+        if (to < content.length() && !Character.isWhitespace(content.charAt(to))) {
+            for (int i = to - 1; i > limit; i--) {
+                if (Character.isWhitespace(content.charAt(i))) {
+                    return i;
+                }
+            }
+        }
+        if (to > 0 && to < content.length() && Character.isLowSurrogate(content.charAt(to))) {
+            to--;
+        }
+        return to;
+    }
+}
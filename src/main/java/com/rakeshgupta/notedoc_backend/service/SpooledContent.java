@@ -0,0 +1,53 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Uploaded note content held in a temporary file, already validated as UTF-8, so it can be
+ * written to the database without buffering it on the heap or holding a connection while the
+ * client is still sending. Closing deletes the file.
+ */
+public final class SpooledContent implements AutoCloseable {
+
+    private final Path file;
+    private final long bytes;
+    private final int chars;
+
+    SpooledContent(Path file, long bytes, int chars) {
+        this.file = file;
+        this.bytes = bytes;
+        this.chars = chars;
+    }
+
+    /**
+     * Size in UTF-8 bytes
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Length in UTF-16 chars, as JDBC character streams count it
+     */
+    public int chars() {
+        return chars;
+    }
+
+    public Reader openReader() throws IOException {
+        return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
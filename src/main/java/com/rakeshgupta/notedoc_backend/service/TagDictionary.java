@@ -0,0 +1,217 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.entity.Tag;
+import com.rakeshgupta.notedoc_backend.exception.TagConflictException;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Translates between tag names and the per-user integer ids stored in note_tag_ids.
+ * Each cached user dictionary is an array indexed by tag id, so turning the ids of a page of
+ * notes back into names needs no boxing or hashing. Ids are never reassigned, which means a
+ * cached dictionary can only be incomplete, never wrong: an unknown id or name reloads it.
+ * New names are inserted in the caller's transaction with ON CONFLICT DO NOTHING and selected
+ * again, so the (user_id, name) unique constraint makes concurrent writers of one user agree on
+ * an id, and a writer that lost the race for the next id simply tries the one after it. While a
+ * transaction has added names for a user, it never caches that user's dictionary, since the
+ * names may still be rolled back.
+ */
+@Service
+@Slf4j
+public class TagDictionary {
+
+    private static final int MAX_CREATE_ATTEMPTS = 5;
+
+    private final TagRepository tagRepository;
+    private final int maxCachedUsers;
+    private final ConcurrentHashMap<UUID, UserTags> cache = new ConcurrentHashMap<>();
+
+    public TagDictionary(TagRepository tagRepository,
+                         @Value("${app.tags.cache-max-users:10000}") int maxCachedUsers,
+                         MeterRegistry meterRegistry) {
+        this.tagRepository = tagRepository;
+        this.maxCachedUsers = maxCachedUsers;
+        Gauge.builder("notedoc.tags.cached.users", cache, Map::size)
+                .description("Users whose tag dictionary is cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ids of the given tag names, adding names the user has not used before to the dictionary
+     * within the current transaction
+     */
+    @Transactional
+    public Set<Integer> toIds(UUID userId, Collection<String> names) {
+        return new HashSet<>(idsByName(userId, names).values());
+    }
+
+    /**
+     * Like {@link #toIds}, keyed by name
+     */
+    @Transactional
+    public Map<String, Integer> idsByName(UUID userId, Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (names == null || names.isEmpty()) {
+            return ids;
+        }
+        UserTags tags = cached(userId);
+        boolean reloaded = false;
+        for (String name : names) {
+            if (name == null || ids.containsKey(name)) {
+                continue;
+            }
+            int id = tags.idOf(name);
+            if (id == 0 && !reloaded) {
+                tags = load(userId);
+                cache(userId, tags);
+                reloaded = true;
+                id = tags.idOf(name);
+            }
+            if (id == 0) {
+                id = create(userId, name);
+            }
+            ids.put(name, id);
+        }
+        return ids;
+    }
+
+    /**
+     * Names of the given tag ids; ids missing from the dictionary are skipped
+     */
+    public Set<String> toNames(UUID userId, Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        Set<String> names = HashSet.newHashSet(ids.size());
+        UserTags tags = cached(userId);
+        boolean reloaded = false;
+        for (Integer id : ids) {
+            String name = tags.nameOf(id);
+            if (name == null && !reloaded) {
+                tags = load(userId);
+                cache(userId, tags);
+                reloaded = true;
+                name = tags.nameOf(id);
+            }
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private UserTags cached(UUID userId) {
+        UserTags tags = cache.get(userId);
+        if (tags == null) {
+            tags = load(userId);
+            cache(userId, tags);
+        }
+        return tags;
+    }
+
+    private int create(UUID userId, String name) {
+        addedInTransaction(userId);
+        for (int attempt = 1; attempt <= MAX_CREATE_ATTEMPTS; attempt++) {
+            tagRepository.insertNext(userId, name);
+            Integer id = tagRepository.findTagId(userId, name);
+            if (id != null) {
+                return id;
+            }
+            // Another transaction added a tag for this user under the same id; it is committed by now
+            log.debug("Tag id collision for user {} creating '{}', attempt {}", userId, name, attempt);
+        }
+        throw new TagConflictException(userId, name);
+    }
+
+    private UserTags load(UUID userId) {
+        List<Tag> rows = tagRepository.findByUserId(userId);
+        int maxId = 0;
+        for (Tag tag : rows) {
+            maxId = Math.max(maxId, tag.getTagId());
+        }
+        String[] names = new String[maxId + 1];
+        Map<String, Integer> ids = HashMap.newHashMap(rows.size());
+        for (Tag tag : rows) {
+            names[tag.getTagId()] = tag.getName();
+            ids.put(tag.getName(), tag.getTagId());
+        }
+        return new UserTags(names, ids);
+    }
+
+    private void cache(UUID userId, UserTags tags) {
+        if (addedInTransaction().contains(userId)) {
+            return;
+        }
+        if (cache.size() >= maxCachedUsers && !cache.containsKey(userId)) {
+            Iterator<UUID> victims = cache.keySet().iterator();
+            if (victims.hasNext()) {
+                victims.next();
+                victims.remove();
+            }
+        }
+        cache.put(userId, tags);
+    }
+
+    /**
+     * Users for whom the current transaction has added names
+     */
+    @SuppressWarnings("unchecked")
+    private Set<UUID> addedInTransaction() {
+        Set<UUID> users = (Set<UUID>) TransactionSynchronizationManager.getResource(this);
+        return users != null ? users : Set.of();
+    }
+
+    /**
+     * Keep the user's dictionary out of the cache until the current transaction completes
+     */
+    @SuppressWarnings("unchecked")
+    private void addedInTransaction(UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<UUID> users = (Set<UUID>) TransactionSynchronizationManager.getResource(this);
+        if (users == null) {
+            users = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, users);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TagDictionary.this);
+                }
+            });
+        }
+        users.add(userId);
+    }
+
+    /**
+     * Immutable snapshot of one user's dictionary: names indexed by id (slot 0 unused) and the reverse map
+     */
+    private record UserTags(String[] names, Map<String, Integer> ids) {
+
+        String nameOf(int id) {
+            return id > 0 && id < names.length ? names[id] : null;
+        }
+
+        int idOf(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : 0;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.TagSuggestionDto;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory tag autocomplete: per user, the tag names sorted by their lower-case form with the
+ * number of non-deleted notes using each. A prefix is a binary search for the start of its range
+ * followed by a top-k scan of that range, so suggestions never touch the database.
+ * A user's index is loaded with one aggregate query on first use and afterwards kept current by
+ * the tag changes of committed note writes. Each index is an immutable snapshot replaced on change.
+ * <p>
+ * The query runs outside the index map, so applying changes never waits for the database. A loaded
+ * index is only installed if none of the user's writes was committing or applied its change while
+ * it loaded, since the query may or may not have seen such a write; otherwise it answers just the
+ * current call. Writes are tracked in a fixed set of stripes by user, so a write of another user in
+ * the same stripe at most causes one more load. Indexes are reloaded once older than
+ * {@code max-age-ms}, which also corrects counts changed without a tracked write, such as by the
+ * legacy tag migration.
+ */
+@Service
+public class TagSuggestionIndex {
+
+    public static final int MAX_LIMIT = 50;
+
+    private static final int WRITE_STRIPES = 64;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final TagRepository tagRepository;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final int maxUsers;
+    private final long maxAgeNanos;
+    private final ConcurrentHashMap<UUID, UserIndex> indexes = new ConcurrentHashMap<>();
+    /**
+     * Per stripe: writes between their commit starting and their change being applied
+     */
+    private final AtomicIntegerArray committingWrites = new AtomicIntegerArray(WRITE_STRIPES);
+    /**
+     * Per stripe: number of changes applied so far
+     */
+    private final AtomicLongArray appliedWrites = new AtomicLongArray(WRITE_STRIPES);
+
+    public TagSuggestionIndex(TagRepository tagRepository, ObjectProvider<ShardRouter> shardRouter,
+                              @Value("${app.tag-suggestions.max-users:10000}") int maxUsers,
+                              @Value("${app.tag-suggestions.max-age-ms:900000}") long maxAgeMs,
+                              MeterRegistry meterRegistry) {
+        this.tagRepository = tagRepository;
+        this.shardRouter = shardRouter;
+        this.maxUsers = maxUsers;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        Gauge.builder("notedoc.tags.suggest.users", indexes, Map::size)
+                .description("Users whose tag autocomplete index is in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The user's most used tags starting with the prefix (case-insensitive), most used first
+     */
+    public List<TagSuggestionDto> suggest(UUID userId, String prefix, int limit) {
+        UserIndex index = indexes.get(userId);
+        if (index == null || isExpired(index, System.nanoTime())) {
+            index = load(userId);
+        }
+        return index.top(prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT),
+                Math.clamp(limit, 1, MAX_LIMIT));
+    }
+
+    /**
+     * Record that a note's tags changed from {@code before} to {@code after}; applied once the
+     * current transaction commits, or right away without one
+     */
+    public void recordChange(UUID userId, Collection<String> before, Collection<String> after) {
+        Map<String, Integer> delta = new HashMap<>();
+        for (String name : before) {
+            if (name != null && !after.contains(name)) {
+                delta.merge(name, -1, Integer::sum);
+            }
+        }
+        for (String name : after) {
+            if (name != null && !before.contains(name)) {
+                delta.merge(name, 1, Integer::sum);
+            }
+        }
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(userId, delta);
+            return;
+        }
+        int stripe = stripe(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                committing = true;
+                committingWrites.incrementAndGet(stripe);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    apply(userId, delta);
+                }
+                if (committing) {
+                    committingWrites.decrementAndGet(stripe);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop indexes older than the maximum age, so idle users do not hold memory with stale counts
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        indexes.values().removeIf(index -> isExpired(index, now));
+    }
+
+    private void apply(UUID userId, Map<String, Integer> delta) {
+        // Users without an index pick the change up from the database when it is loaded
+        indexes.computeIfPresent(userId, (id, index) -> index.with(delta));
+        appliedWrites.incrementAndGet(stripe(userId));
+    }
+
+    private UserIndex load(UUID userId) {
+        if (indexes.size() >= maxUsers) {
+            Iterator<UUID> victims = indexes.keySet().iterator();
+            if (victims.hasNext()) {
+                victims.next();
+                victims.remove();
+            }
+        }
+        int stripe = stripe(userId);
+        UserIndex loaded = null;
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long applied = appliedWrites.get(stripe);
+            UserIndex candidate = query(userId);
+            loaded = candidate;
+            UserIndex installed = indexes.compute(userId, (id, current) -> {
+                if (current != null && !isExpired(current, System.nanoTime())) {
+                    return current;
+                }
+                // Checked while holding the user's entry, which apply() needs to change the index
+                boolean quiet = committingWrites.get(stripe) == 0 && appliedWrites.get(stripe) == applied;
+                return quiet ? candidate : current;
+            });
+            if (installed == candidate || installed != null && !isExpired(installed, System.nanoTime())) {
+                return installed;
+            }
+        }
+        // Writes kept racing the load: answer from it without keeping it
+        return loaded;
+    }
+
+    private UserIndex query(UUID userId) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        List<Object[]> rows = router != null
+                ? router.read(userId, () -> tagRepository.countUsageByUserId(userId))
+                : tagRepository.countUsageByUserId(userId);
+        Map<String, Integer> counts = HashMap.newHashMap(rows.size());
+        for (Object[] row : rows) {
+            counts.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        return UserIndex.loaded(System.nanoTime()).with(counts);
+    }
+
+    private boolean isExpired(UserIndex index, long now) {
+        return now - index.loadedAt() > maxAgeNanos;
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), WRITE_STRIPES);
+    }
+
+    /**
+     * Sorted parallel arrays: lower-case keys, display names and usage counts, and when the counts
+     * were loaded from the database
+     */
+    private record UserIndex(String[] keys, String[] names, int[] counts, long loadedAt) {
+
+        static UserIndex loaded(long loadedAt) {
+            return new UserIndex(new String[0], new String[0], new int[0], loadedAt);
+        }
+
+        List<TagSuggestionDto> top(String prefix, int limit) {
+            int[] best = new int[limit];
+            int found = 0;
+            for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+                // Insertion into the small best-so-far list; equal counts keep key order
+                if (found == limit && counts[i] <= counts[best[limit - 1]]) {
+                    continue;
+                }
+                int slot = found < limit ? found++ : limit - 1;
+                while (slot > 0 && counts[best[slot - 1]] < counts[i]) {
+                    best[slot] = best[slot - 1];
+                    slot--;
+                }
+                best[slot] = i;
+            }
+            List<TagSuggestionDto> suggestions = new ArrayList<>(found);
+            for (int j = 0; j < found; j++) {
+                suggestions.add(new TagSuggestionDto(names[best[j]], counts[best[j]]));
+            }
+            return suggestions;
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Copy with the count deltas applied; tags dropping to zero are removed
+         */
+        UserIndex with(Map<String, Integer> delta) {
+            Map<String, Integer> merged = HashMap.newHashMap(names.length + delta.size());
+            for (int i = 0; i < names.length; i++) {
+                merged.put(names[i], counts[i]);
+            }
+            delta.forEach((name, change) -> merged.merge(name, change, Integer::sum));
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>(merged.size());
+            for (Map.Entry<String, Integer> entry : merged.entrySet()) {
+                if (entry.getValue() > 0) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparing((Map.Entry<String, Integer> e) -> e.getKey().toLowerCase(Locale.ROOT))
+                    .thenComparing(Map.Entry::getKey));
+            String[] newKeys = new String[entries.size()];
+            String[] newNames = new String[entries.size()];
+            int[] newCounts = new int[entries.size()];
+            for (int i = 0; i < newKeys.length; i++) {
+                newNames[i] = entries.get(i).getKey();
+                newKeys[i] = newNames[i].toLowerCase(Locale.ROOT);
+                newCounts[i] = entries.get(i).getValue();
+            }
+            return new UserIndex(newKeys, newNames, newCounts, loadedAt);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.repository.UserNoteStatsRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Periodically recomputes every user's statistics from the notes table, one user per short
+ * transaction and in user id order, pausing between batches so it never competes with requests
+ * for long. Corrects drift from writes that bypassed the service and creates missing rows.
+ */
+@Component
+@Slf4j
+public class UserStatsReconciler {
+
+    private final UserStatsService userStatsService;
+    private final UserNoteStatsRepository statsRepository;
+    private final ObjectProvider<ShardRoutingDataSource> shards;
+    private final MeterRegistry meterRegistry;
+    private final Counter reconciled;
+    private final Counter drifted;
+
+    @Value("${app.stats.reconcile.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.stats.reconcile.batch-pause-ms:100}")
+    private long batchPauseMs;
+
+    public UserStatsReconciler(UserStatsService userStatsService, UserNoteStatsRepository statsRepository,
+                               ObjectProvider<ShardRoutingDataSource> shards, MeterRegistry meterRegistry) {
+        this.userStatsService = userStatsService;
+        this.statsRepository = statsRepository;
+        this.shards = shards;
+        this.meterRegistry = meterRegistry;
+        this.reconciled = Counter.builder("notedoc.stats.reconciled")
+                .description("Users whose statistics were checked against their notes")
+                .register(meterRegistry);
+        this.drifted = Counter.builder("notedoc.stats.drift")
+                .description("Users whose statistics had to be corrected")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.stats.reconcile.initial-delay-ms:60000}",
+               fixedDelayString = "${app.stats.reconcile.interval-ms:3600000}")
+    public void reconcileAll() {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            int[] totals = new int[2];
+            ShardRoutingDataSource shardRouting = shards.getIfAvailable();
+            if (shardRouting == null) {
+                reconcileShard(totals);
+            } else {
+                for (String shard : shardRouting.getShardNames()) {
+                    ShardRoutingDataSource.onShard(shard, () -> reconcileShard(totals));
+                }
+            }
+            log.info("📊 Reconciled note statistics of {} users, {} corrected", totals[0], totals[1]);
+            success = true;
+        } catch (Exception e) {
+            log.error("❌ Note statistics reconciliation failed: {}", e.getMessage(), e);
+        } finally {
+            JobMetrics.record(meterRegistry, "stats-reconcile", start, success);
+        }
+    }
+
+    private int[] reconcileShard(int[] totals) {
+        List<UUID> batch = statsRepository.findFirstNoteOwners(Limit.of(batchSize));
+        while (!batch.isEmpty()) {
+            for (UUID userId : batch) {
+                if (userStatsService.reconcile(userId)) {
+                    drifted.increment();
+                    totals[1]++;
+                }
+                reconciled.increment();
+                totals[0]++;
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+            pause();
+            batch = statsRepository.findNoteOwnersAfter(batch.getLast(), Limit.of(batchSize));
+        }
+        return totals;
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+}
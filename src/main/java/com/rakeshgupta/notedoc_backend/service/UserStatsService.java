@@ -0,0 +1,231 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.UserStatsDto;
+import com.rakeshgupta.notedoc_backend.entity.Note;
+import com.rakeshgupta.notedoc_backend.entity.Tag;
+import com.rakeshgupta.notedoc_backend.entity.UserNoteStats;
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import com.rakeshgupta.notedoc_backend.repository.UserNoteStatsRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains the per-user statistics row and the per-tag note counts. Note writes report the
+ * state of the note before and after the change, and the difference is added to the counters
+ * with in-place UPDATEs inside the write's transaction. A user's row is created from the notes
+ * table on the first write that finds none, and {@link #reconcile} recomputes it periodically.
+ */
+@Service
+public class UserStatsService {
+
+    private final UserNoteStatsRepository statsRepository;
+    private final TagRepository tagRepository;
+    private final NoteRepository noteRepository;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final TransactionTemplate readOnly;
+
+    public UserStatsService(UserNoteStatsRepository statsRepository, TagRepository tagRepository,
+                            NoteRepository noteRepository, ObjectProvider<ShardRouter> shardRouter,
+                            PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.tagRepository = tagRepository;
+        this.noteRepository = noteRepository;
+        this.shardRouter = shardRouter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * What one note contributes to its owner's statistics
+     */
+    public record NoteState(int active, int pinned, int archived, int deleted, long contentBytes,
+                            Set<Integer> activeTagIds) {
+
+        /** A note that does not exist (yet) */
+        public static final NoteState NONE = new NoteState(0, 0, 0, 0, 0, Set.of());
+
+        public static NoteState of(Note note) {
+            if (Boolean.TRUE.equals(note.getDeleted())) {
+                return new NoteState(0, 0, 0, 1, 0, Set.of());
+            }
+            return new NoteState(1,
+                    Boolean.TRUE.equals(note.getPinned()) ? 1 : 0,
+                    Boolean.TRUE.equals(note.getArchived()) ? 1 : 0,
+                    0,
+                    utf8Length(note.getContent()),
+                    note.getTagIds() != null ? Set.copyOf(note.getTagIds()) : Set.of());
+        }
+    }
+
+    /**
+     * Apply the change of one note to the user's counters within the current transaction
+     */
+    @Transactional
+    public void recordChange(UUID userId, NoteState before, NoteState after) {
+        long active = after.active() - before.active();
+        long pinned = after.pinned() - before.pinned();
+        long archived = after.archived() - before.archived();
+        long deleted = after.deleted() - before.deleted();
+        long bytes = after.contentBytes() - before.contentBytes();
+        Set<Integer> removedTags = difference(before.activeTagIds(), after.activeTagIds());
+        Set<Integer> addedTags = difference(after.activeTagIds(), before.activeTagIds());
+        if (active == 0 && pinned == 0 && archived == 0 && deleted == 0 && bytes == 0
+                && removedTags.isEmpty() && addedTags.isEmpty()) {
+            return;
+        }
+        if (statsRepository.applyDelta(userId, active, pinned, archived, deleted, bytes) == 0) {
+            // No row yet: count everything, this write included
+            noteRepository.flush();
+            if (statsRepository.insertFromNotes(userId) == 1) {
+                tagRepository.recountNoteCounts(userId);
+                return;
+            }
+            // Another writer created the row first, without this write
+            statsRepository.applyDelta(userId, active, pinned, archived, deleted, bytes);
+        }
+        if (!removedTags.isEmpty()) {
+            tagRepository.adjustNoteCounts(userId, removedTags, -1);
+        }
+        if (!addedTags.isEmpty()) {
+            tagRepository.adjustNoteCounts(userId, addedTags, 1);
+        }
+    }
+
+    /**
+     * Number of active notes from the statistics row, empty if the user has none yet
+     */
+    public OptionalLong activeCount(UUID userId) {
+        Optional<UserNoteStats> stats = statsRepository.findById(userId);
+        return stats.isPresent() ? OptionalLong.of(stats.get().getActiveCount()) : OptionalLong.empty();
+    }
+
+    /**
+     * The user's statistics; computed from the notes, without storing them, if the user has no row yet
+     */
+    public UserStatsDto getStats(UUID userId) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        return router != null
+                ? router.read(userId, () -> readOnly.execute(status -> loadStats(userId)))
+                : readOnly.execute(status -> loadStats(userId));
+    }
+
+    /**
+     * Recompute the user's counters from the notes table, holding the row lock so that concurrent
+     * writes are either included or applied afterwards
+     *
+     * @return whether the stored counters were off
+     */
+    @Transactional
+    public boolean reconcile(UUID userId) {
+        Optional<UserNoteStats> locked = statsRepository.findForUpdate(userId);
+        if (locked.isEmpty()) {
+            if (statsRepository.insertFromNotes(userId) == 1) {
+                tagRepository.recountNoteCounts(userId);
+            }
+            return false;
+        }
+        UserNoteStats stats = locked.get();
+        long[] actual = aggregate(userId);
+        boolean drifted = stats.getActiveCount() != actual[0] || stats.getPinnedCount() != actual[1]
+                || stats.getArchivedCount() != actual[2] || stats.getDeletedCount() != actual[3]
+                || stats.getContentBytes() != actual[4];
+        LocalDateTime now = LocalDateTime.now();
+        if (drifted) {
+            stats.setActiveCount(actual[0]);
+            stats.setPinnedCount(actual[1]);
+            stats.setArchivedCount(actual[2]);
+            stats.setDeletedCount(actual[3]);
+            stats.setContentBytes(actual[4]);
+            stats.setUpdatedAt(now);
+        }
+        stats.setReconciledAt(now);
+        tagRepository.recountNoteCounts(userId);
+        return drifted;
+    }
+
+    private UserStatsDto loadStats(UUID userId) {
+        UserStatsDto dto = new UserStatsDto();
+        Map<String, Integer> tags = new LinkedHashMap<>();
+        Optional<UserNoteStats> stored = statsRepository.findById(userId);
+        if (stored.isPresent()) {
+            UserNoteStats stats = stored.get();
+            dto.setActiveNotes(stats.getActiveCount());
+            dto.setPinnedNotes(stats.getPinnedCount());
+            dto.setArchivedNotes(stats.getArchivedCount());
+            dto.setDeletedNotes(stats.getDeletedCount());
+            dto.setContentBytes(stats.getContentBytes());
+            dto.setReconciledAt(stats.getReconciledAt());
+            for (Tag tag : tagRepository.findUsedByUserId(userId)) {
+                tags.put(tag.getName(), tag.getNoteCount());
+            }
+        } else {
+            long[] actual = aggregate(userId);
+            dto.setActiveNotes(actual[0]);
+            dto.setPinnedNotes(actual[1]);
+            dto.setArchivedNotes(actual[2]);
+            dto.setDeletedNotes(actual[3]);
+            dto.setContentBytes(actual[4]);
+            tagRepository.countUsageByUserId(userId).stream()
+                    .sorted((a, b) -> Long.compare(((Number) b[1]).longValue(), ((Number) a[1]).longValue()))
+                    .forEach(row -> tags.put((String) row[0], ((Number) row[1]).intValue()));
+        }
+        dto.setTags(tags);
+        return dto;
+    }
+
+    private long[] aggregate(UUID userId) {
+        Object[] row = statsRepository.aggregateByUserId(userId).getFirst();
+        long[] values = new long[row.length];
+        for (int i = 0; i < row.length; i++) {
+            values[i] = ((Number) row[i]).longValue();
+        }
+        return values;
+    }
+
+    private static Set<Integer> difference(Set<Integer> from, Set<Integer> remove) {
+        if (from.isEmpty()) {
+            return Set.of();
+        }
+        Set<Integer> result = new HashSet<>(from);
+        result.removeAll(remove);
+        return result;
+    }
+
+    /**
+     * Number of bytes of the UTF-8 encoding, without encoding
+     */
+    static long utf8Length(String text) {
+        if (text == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,104 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.admission.AdmissionControl;
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * NoteService decorator: every call must pass {@link AdmissionControl} before it can
+ * wait for a pooled connection. Rejected calls never reach the metered service, so shed load
+ * does not show up as service errors in its timers.
+ * Wrapped in turn by {@link CachingNoteService}.
+ */
+@Service
+public class AdmissionControlledNoteService implements NoteService {
+
+    private final NoteService delegate;
+    private final AdmissionControl admissionControl;
+
+    public AdmissionControlledNoteService(@Qualifier("meteredNoteService") NoteService delegate,
+                                          AdmissionControl admissionControl) {
+        this.delegate = delegate;
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public NoteResponseDto createNote(NoteCreateRequestDto request, UUID userId) {
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            return delegate.createNote(request, userId);
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> getAllNotes(UUID userId, Pageable pageable) {
+        long start = admissionControl.acquire(userId, pageable.getPageSize());
+        try {
+            return delegate.getAllNotes(userId, pageable);
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+
+    @Override
+    public NoteResponseDto getNoteById(UUID id, UUID userId) {
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            return delegate.getNoteById(id, userId);
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+
+    @Override
+    public NoteResponseDto updateNote(UUID id, NoteUpdateRequestDto request, UUID userId) {
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            return delegate.updateNote(id, request, userId);
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+
+    @Override
+    public void deleteNote(UUID id, UUID userId) {
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            delegate.deleteNote(id, userId);
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+
+    @Override
+    public NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId) {
+        long start = admissionControl.acquire(userId, 0);
+        try {
+            return delegate.replaceContent(id, content, userId);
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent) {
+        long start = admissionControl.acquire(userId, pageable.getPageSize());
+        try {
+            return delegate.searchNotes(query, userId, pageable, includeContent);
+        } finally {
+            admissionControl.release(start);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import com.rakeshgupta.notedoc_backend.service.SearchResultCache;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * NoteService decorator serving repeated searches from {@link SearchResultCache}. It sits outside
+ * admission control, so a hit needs no tokens, no concurrency slot and no pooled connection.
+ * Searches that ask for the full content are not cached, which keeps each entry small.
+ * The transactional service invalidates a user's entries when one of their writes commits.
+ */
+@Service
+public class CachingNoteService implements NoteService {
+
+    private final NoteService delegate;
+    private final SearchResultCache cache;
+
+    public CachingNoteService(@Qualifier("admissionControlledNoteService") NoteService delegate,
+                              SearchResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public NoteResponseDto createNote(NoteCreateRequestDto request, UUID userId) {
+        return delegate.createNote(request, userId);
+    }
+
+    @Override
+    public Page<NoteResponseDto> getAllNotes(UUID userId, Pageable pageable) {
+        return delegate.getAllNotes(userId, pageable);
+    }
+
+    @Override
+    public NoteResponseDto getNoteById(UUID id, UUID userId) {
+        return delegate.getNoteById(id, userId);
+    }
+
+    @Override
+    public NoteResponseDto updateNote(UUID id, NoteUpdateRequestDto request, UUID userId) {
+        return delegate.updateNote(id, request, userId);
+    }
+
+    @Override
+    public void deleteNote(UUID id, UUID userId) {
+        delegate.deleteNote(id, userId);
+    }
+
+    @Override
+    public NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId) {
+        return delegate.replaceContent(id, content, userId);
+    }
+
+    @Override
+    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent) {
+        if (includeContent) {
+            return delegate.searchNotes(query, userId, pageable, true);
+        }
+        return cache.getOrLoad(userId, query, pageable,
+                () -> delegate.searchNotes(query, userId, pageable, false));
+    }
+}
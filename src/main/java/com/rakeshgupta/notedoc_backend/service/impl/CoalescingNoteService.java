@@ -0,0 +1,129 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import com.rakeshgupta.notedoc_backend.service.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Outermost NoteService decorator: concurrent identical list and search calls (same user, query
+ * and pageable), as sent by several devices or a reconnecting tab, share one execution of the
+ * wrapped services and therefore one database round trip.
+ * Only the leader of a group passes {@link AdmissionControlledNoteService}, so joined calls use no
+ * tokens or concurrency slots. A write detaches the user's in-flight reads, so a read issued after
+ * the write returns never gets a result computed before it.
+ */
+@Service
+@Primary
+public class CoalescingNoteService implements NoteService {
+
+    private final NoteService delegate;
+    private final boolean enabled;
+    private final SingleFlight<UUID, ReadKey, Page<NoteResponseDto>> reads = new SingleFlight<>();
+    private final Counter listCoalesced;
+    private final Counter searchCoalesced;
+
+    public CoalescingNoteService(@Qualifier("cachingNoteService") NoteService delegate,
+                                 @Value("${app.single-flight.enabled:true}") boolean enabled,
+                                 MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+        this.listCoalesced = coalesced(meterRegistry, "getAllNotes");
+        this.searchCoalesced = coalesced(meterRegistry, "searchNotes");
+        Gauge.builder("notedoc.singleflight.inflight", reads, SingleFlight::size)
+                .description("Distinct list and search calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public NoteResponseDto createNote(NoteCreateRequestDto request, UUID userId) {
+        try {
+            return delegate.createNote(request, userId);
+        } finally {
+            forgetReads(userId);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> getAllNotes(UUID userId, Pageable pageable) {
+        if (!enabled) {
+            return delegate.getAllNotes(userId, pageable);
+        }
+        return reads.execute(userId, new ReadKey(null, pageable, false),
+                () -> delegate.getAllNotes(userId, pageable), listCoalesced::increment);
+    }
+
+    @Override
+    public NoteResponseDto getNoteById(UUID id, UUID userId) {
+        return delegate.getNoteById(id, userId);
+    }
+
+    @Override
+    public NoteResponseDto updateNote(UUID id, NoteUpdateRequestDto request, UUID userId) {
+        try {
+            return delegate.updateNote(id, request, userId);
+        } finally {
+            forgetReads(userId);
+        }
+    }
+
+    @Override
+    public void deleteNote(UUID id, UUID userId) {
+        try {
+            delegate.deleteNote(id, userId);
+        } finally {
+            forgetReads(userId);
+        }
+    }
+
+    @Override
+    public NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId) {
+        try {
+            return delegate.replaceContent(id, content, userId);
+        } finally {
+            forgetReads(userId);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent) {
+        if (!enabled) {
+            return delegate.searchNotes(query, userId, pageable, includeContent);
+        }
+        return reads.execute(userId, new ReadKey(query, pageable, includeContent),
+                () -> delegate.searchNotes(query, userId, pageable, includeContent), searchCoalesced::increment);
+    }
+
+    private void forgetReads(UUID userId) {
+        if (enabled) {
+            reads.forget(userId);
+        }
+    }
+
+    private static Counter coalesced(MeterRegistry meterRegistry, String method) {
+        return Counter.builder("notedoc.singleflight.coalesced")
+                .description("Calls that joined an identical in-flight call instead of querying the database")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Identity of a read within the user's reads; a null query marks a plain listing
+     */
+    private record ReadKey(String query, Pageable pageable, boolean includeContent) {
+    }
+}
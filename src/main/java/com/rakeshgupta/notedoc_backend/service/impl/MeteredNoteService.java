@@ -0,0 +1,185 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NoteService decorator recording a latency timer per method and the result size of list and search.
+ * All meters are registered up front, so recording on the request path is a nanoTime read and a
+ * timer update, with no tag lookups or allocations.
+ * Timings include the transaction commit of the wrapped transactional service.
+ * Wrapped in turn by {@link AdmissionControlledNoteService}, so rejected calls are not timed here.
+ */
+@Service
+public class MeteredNoteService implements NoteService {
+
+    static final String TIMER_NAME = "notedoc.note.service";
+    static final String RESULT_SIZE_NAME = "notedoc.note.result.size";
+
+    private final NoteService delegate;
+
+    private final MethodTimers createTimers;
+    private final MethodTimers getAllTimers;
+    private final MethodTimers getByIdTimers;
+    private final MethodTimers updateTimers;
+    private final MethodTimers deleteTimers;
+    private final MethodTimers replaceContentTimers;
+    private final MethodTimers searchTimers;
+
+    private final DistributionSummary listResultSize;
+    private final DistributionSummary searchResultSize;
+
+    public MeteredNoteService(@Qualifier("readYourWritesNoteService") NoteService delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.createTimers = new MethodTimers(meterRegistry, "createNote");
+        this.getAllTimers = new MethodTimers(meterRegistry, "getAllNotes");
+        this.getByIdTimers = new MethodTimers(meterRegistry, "getNoteById");
+        this.updateTimers = new MethodTimers(meterRegistry, "updateNote");
+        this.deleteTimers = new MethodTimers(meterRegistry, "deleteNote");
+        this.replaceContentTimers = new MethodTimers(meterRegistry, "replaceContent");
+        this.searchTimers = new MethodTimers(meterRegistry, "searchNotes");
+        this.listResultSize = resultSize(meterRegistry, "list");
+        this.searchResultSize = resultSize(meterRegistry, "search");
+    }
+
+    @Override
+    public NoteResponseDto createNote(NoteCreateRequestDto request, UUID userId) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            NoteResponseDto result = delegate.createNote(request, userId);
+            success = true;
+            return result;
+        } finally {
+            createTimers.record(start, success);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> getAllNotes(UUID userId, Pageable pageable) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Page<NoteResponseDto> result = delegate.getAllNotes(userId, pageable);
+            listResultSize.record(result.getNumberOfElements());
+            success = true;
+            return result;
+        } finally {
+            getAllTimers.record(start, success);
+        }
+    }
+
+    @Override
+    public NoteResponseDto getNoteById(UUID id, UUID userId) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            NoteResponseDto result = delegate.getNoteById(id, userId);
+            success = true;
+            return result;
+        } finally {
+            getByIdTimers.record(start, success);
+        }
+    }
+
+    @Override
+    public NoteResponseDto updateNote(UUID id, NoteUpdateRequestDto request, UUID userId) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            NoteResponseDto result = delegate.updateNote(id, request, userId);
+            success = true;
+            return result;
+        } finally {
+            updateTimers.record(start, success);
+        }
+    }
+
+    @Override
+    public void deleteNote(UUID id, UUID userId) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            delegate.deleteNote(id, userId);
+            success = true;
+        } finally {
+            deleteTimers.record(start, success);
+        }
+    }
+
+    @Override
+    public NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            NoteContentInfoDto result = delegate.replaceContent(id, content, userId);
+            success = true;
+            return result;
+        } finally {
+            replaceContentTimers.record(start, success);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Page<NoteResponseDto> result = delegate.searchNotes(query, userId, pageable, includeContent);
+            searchResultSize.record(result.getNumberOfElements());
+            success = true;
+            return result;
+        } finally {
+            searchTimers.record(start, success);
+        }
+    }
+
+    private static DistributionSummary resultSize(MeterRegistry meterRegistry, String operation) {
+        return DistributionSummary.builder(RESULT_SIZE_NAME)
+                .description("Number of notes returned per call")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pre-registered success and error timers for one service method
+     */
+    private static final class MethodTimers {
+
+        private final Timer success;
+        private final Timer error;
+
+        MethodTimers(MeterRegistry meterRegistry, String method) {
+            this.success = timer(meterRegistry, method, "success");
+            this.error = timer(meterRegistry, method, "error");
+        }
+
+        void record(long startNanos, boolean succeeded) {
+            (succeeded ? success : error).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String method, String outcome) {
+            return Timer.builder(TIMER_NAME)
+                    .description("NoteService method latency")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
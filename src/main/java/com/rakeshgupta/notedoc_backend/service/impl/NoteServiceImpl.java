@@ -2,20 +2,37 @@ package com.rakeshgupta.notedoc_backend.service.impl;
 
 import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
 import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
 import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
 import com.rakeshgupta.notedoc_backend.entity.Note;
 import com.rakeshgupta.notedoc_backend.exception.InvalidNoteDataException;
 import com.rakeshgupta.notedoc_backend.exception.NoteNotFoundException;
 import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.service.NoteResponseMapper;
 import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SearchResultCache;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import com.rakeshgupta.notedoc_backend.service.TagDictionary;
+import com.rakeshgupta.notedoc_backend.service.TagSuggestionIndex;
+import com.rakeshgupta.notedoc_backend.service.UserStatsService;
+import com.rakeshgupta.notedoc_backend.service.UserStatsService.NoteState;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -27,10 +44,20 @@ import java.util.UUID;
 public class NoteServiceImpl implements NoteService {
 
     private final NoteRepository noteRepository;
+    private final TagDictionary tagDictionary;
+    private final TagSuggestionIndex tagSuggestionIndex;
+    private final UserStatsService userStatsService;
+    private final SearchResultCache searchResultCache;
 
     @Autowired
-    public NoteServiceImpl(NoteRepository noteRepository) {
+    public NoteServiceImpl(NoteRepository noteRepository, TagDictionary tagDictionary,
+                           TagSuggestionIndex tagSuggestionIndex, UserStatsService userStatsService,
+                           SearchResultCache searchResultCache) {
         this.noteRepository = noteRepository;
+        this.tagDictionary = tagDictionary;
+        this.tagSuggestionIndex = tagSuggestionIndex;
+        this.userStatsService = userStatsService;
+        this.searchResultCache = searchResultCache;
     }
 
     @Override
@@ -50,7 +77,9 @@ public class NoteServiceImpl implements NoteService {
         Note note = new Note();
         note.setTitle(request.getTitle().trim());
         note.setContent(request.getContent());
-        note.setTags(request.getTags() != null ? new HashSet<>(request.getTags()) : new HashSet<>());
+        Set<String> tags = request.getTags() != null ? new HashSet<>(request.getTags()) : new HashSet<>();
+        note.setTags(tags);
+        note.setTagIds(tagDictionary.toIds(userId, tags));
         note.setPinned(request.getPinned() != null ? request.getPinned() : false);
         note.setArchived(request.getArchived() != null ? request.getArchived() : false);
         note.setDeleted(false); // Always false for new notes
@@ -59,9 +88,12 @@ public class NoteServiceImpl implements NoteService {
 
         // Save the note
         Note savedNote = noteRepository.save(note);
+        userStatsService.recordChange(userId, NoteState.NONE, NoteState.of(savedNote));
+        tagSuggestionIndex.recordChange(userId, Set.of(), tags);
+        searchResultCache.invalidate(userId);
 
         // Convert to response DTO
-        return convertToResponseDto(savedNote);
+        return NoteResponseMapper.toResponseDto(savedNote);
     }
 
     @Override
@@ -71,8 +103,8 @@ public class NoteServiceImpl implements NoteService {
             throw new InvalidNoteDataException("User ID cannot be null");
         }
 
-        Page<Note> notes = noteRepository.findActiveNotesByUserId(userId, pageable);
-        return notes.map(this::convertToResponseDto);
+        Page<Note> notes = findActiveNotes(userId, pageable);
+        return notes.map(note -> NoteResponseMapper.toResponseDto(withTagNames(note)));
     }
 
     @Override
@@ -88,7 +120,7 @@ public class NoteServiceImpl implements NoteService {
         Note note = noteRepository.findActiveNoteByIdAndUserId(id, userId)
                 .orElseThrow(() -> new NoteNotFoundException(id));
 
-        return convertToResponseDto(note);
+        return NoteResponseMapper.toResponseDto(withTagNames(note));
     }
 
     @Override
@@ -107,6 +139,7 @@ public class NoteServiceImpl implements NoteService {
         // Find existing note
         Note existingNote = noteRepository.findActiveNoteByIdAndUserId(id, userId)
                 .orElseThrow(() -> new NoteNotFoundException(id));
+        NoteState before = NoteState.of(existingNote);
 
         // Update fields only if they are provided (non-null)
         if (request.getTitle() != null) {
@@ -121,7 +154,12 @@ public class NoteServiceImpl implements NoteService {
         }
 
         if (request.getTags() != null) {
+            Set<String> previousTags = tagDictionary.toNames(userId, existingNote.getTagIds());
             existingNote.setTags(new HashSet<>(request.getTags()));
+            existingNote.setTagIds(tagDictionary.toIds(userId, existingNote.getTags()));
+            tagSuggestionIndex.recordChange(userId, previousTags, existingNote.getTags());
+        } else {
+            withTagNames(existingNote);
         }
 
         if (request.getPinned() != null) {
@@ -134,8 +172,10 @@ public class NoteServiceImpl implements NoteService {
 
         // updatedAt is automatically updated by @UpdateTimestamp
         Note updatedNote = noteRepository.save(existingNote);
+        userStatsService.recordChange(userId, before, NoteState.of(updatedNote));
+        searchResultCache.invalidate(userId);
 
-        return convertToResponseDto(updatedNote);
+        return NoteResponseMapper.toResponseDto(updatedNote);
     }
 
     @Override
@@ -151,16 +191,60 @@ public class NoteServiceImpl implements NoteService {
         Note existingNote = noteRepository.findActiveNoteByIdAndUserId(id, userId)
                 .orElseThrow(() -> new NoteNotFoundException(id));
 
+        NoteState before = NoteState.of(existingNote);
+
         // Perform soft delete
         existingNote.setDeleted(true);
         // updatedAt is automatically updated by @UpdateTimestamp
 
         noteRepository.save(existingNote);
+        userStatsService.recordChange(userId, before, NoteState.of(existingNote));
+        tagSuggestionIndex.recordChange(userId, tagDictionary.toNames(userId, existingNote.getTagIds()), Set.of());
+        searchResultCache.invalidate(userId);
+    }
+
+    @Override
+    public NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId) {
+        if (id == null) {
+            throw new InvalidNoteDataException("Note ID cannot be null");
+        }
+        if (content == null) {
+            throw new InvalidNoteDataException("Note content cannot be null");
+        }
+        if (userId == null) {
+            throw new InvalidNoteDataException("User ID cannot be null");
+        }
+
+        // Lock the note and read its flags and content size, without loading the content
+        List<Object[]> rows = noteRepository.lockActiveNoteState(id, userId);
+        if (rows.isEmpty()) {
+            throw new NoteNotFoundException(id);
+        }
+        Object[] row = rows.getFirst();
+        int pinned = Boolean.TRUE.equals(row[0]) ? 1 : 0;
+        int archived = Boolean.TRUE.equals(row[1]) ? 1 : 0;
+        long previousBytes = row[2] != null ? ((Number) row[2]).longValue() : 0;
+
+        // Truncated to the database's precision, so the returned value matches later reads
+        LocalDateTime updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try (Reader reader = content.openReader()) {
+            noteRepository.replaceContent(id, userId, reader, content.chars(), updatedAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Tags are untouched, only the content size changes
+        userStatsService.recordChange(userId,
+                new NoteState(1, pinned, archived, 0, previousBytes, Set.of()),
+                new NoteState(1, pinned, archived, 0, content.bytes(), Set.of()));
+        searchResultCache.invalidate(userId);
+
+        return new NoteContentInfoDto(id, content.bytes(), updatedAt);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable) {
+    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent) {
         if (userId == null) {
             throw new InvalidNoteDataException("User ID cannot be null");
         }
@@ -169,32 +253,32 @@ public class NoteServiceImpl implements NoteService {
         
         // If query is empty or null, return all active notes
         if (!StringUtils.hasText(query)) {
-            notes = noteRepository.findActiveNotesByUserId(userId, pageable);
+            notes = findActiveNotes(userId, pageable);
         } else {
             // Perform case-insensitive search in title and content
             notes = noteRepository.searchActiveNotes(query.trim(), userId, pageable);
         }
 
-        return notes.map(this::convertToResponseDto);
+        return notes.map(note -> NoteResponseMapper.toSearchResultDto(withTagNames(note), query, includeContent));
+    }
+
+    /**
+     * One page of the user's active notes, with the total taken from the statistics row instead of a COUNT query
+     */
+    private Page<Note> findActiveNotes(UUID userId, Pageable pageable) {
+        OptionalLong total = userStatsService.activeCount(userId);
+        if (total.isEmpty()) {
+            return noteRepository.findActiveNotesByUserId(userId, pageable);
+        }
+        List<Note> content = noteRepository.findActiveNoteListByUserId(userId, pageable);
+        return new PageImpl<>(content, pageable, total.getAsLong());
     }
 
     /**
-     * Convert Note entity to NoteResponseDto.
-     * 
-     * @param note the note entity to convert
-     * @return the converted response DTO
+     * Fill the transient tag names of a loaded note from its tag ids
      */
-    private NoteResponseDto convertToResponseDto(Note note) {
-        NoteResponseDto dto = new NoteResponseDto();
-        dto.setId(note.getId());
-        dto.setTitle(note.getTitle());
-        dto.setContent(note.getContent());
-        dto.setTags(note.getTags() != null ? new HashSet<>(note.getTags()) : new HashSet<>());
-        dto.setPinned(note.getPinned());
-        dto.setArchived(note.getArchived());
-        dto.setUserId(note.getUserId());
-        dto.setCreatedAt(note.getCreatedAt());
-        dto.setUpdatedAt(note.getUpdatedAt());
-        return dto;
+    private Note withTagNames(Note note) {
+        note.setTags(tagDictionary.toNames(note.getUserId(), note.getTagIds()));
+        return note;
     }
-}
\ No newline at end of file
+}
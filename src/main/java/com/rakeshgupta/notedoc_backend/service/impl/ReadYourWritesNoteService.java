@@ -0,0 +1,94 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.jdbc.ReadYourWritesTracker;
+import com.rakeshgupta.notedoc_backend.jdbc.ReplicaRoutingDataSource;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * NoteService decorator around the transactional service: records each user's
+ * writes and keeps that user's reads on the primary for a short window afterwards, so a note is
+ * visible in the list right after it was saved even while the replica is catching up.
+ * A pass-through when replica routing is disabled.
+ */
+@Service
+public class ReadYourWritesNoteService implements NoteService {
+
+    private final NoteService delegate;
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesNoteService(@Qualifier("shardRoutingNoteService") NoteService delegate, ReadYourWritesTracker tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public NoteResponseDto createNote(NoteCreateRequestDto request, UUID userId) {
+        try {
+            return delegate.createNote(request, userId);
+        } finally {
+            tracker.recordWrite(userId);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> getAllNotes(UUID userId, Pageable pageable) {
+        if (tracker.isSticky(userId)) {
+            return ReplicaRoutingDataSource.onPrimary(() -> delegate.getAllNotes(userId, pageable));
+        }
+        return delegate.getAllNotes(userId, pageable);
+    }
+
+    @Override
+    public NoteResponseDto getNoteById(UUID id, UUID userId) {
+        if (tracker.isSticky(userId)) {
+            return ReplicaRoutingDataSource.onPrimary(() -> delegate.getNoteById(id, userId));
+        }
+        return delegate.getNoteById(id, userId);
+    }
+
+    @Override
+    public NoteResponseDto updateNote(UUID id, NoteUpdateRequestDto request, UUID userId) {
+        try {
+            return delegate.updateNote(id, request, userId);
+        } finally {
+            tracker.recordWrite(userId);
+        }
+    }
+
+    @Override
+    public void deleteNote(UUID id, UUID userId) {
+        try {
+            delegate.deleteNote(id, userId);
+        } finally {
+            tracker.recordWrite(userId);
+        }
+    }
+
+    @Override
+    public NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId) {
+        try {
+            return delegate.replaceContent(id, content, userId);
+        } finally {
+            tracker.recordWrite(userId);
+        }
+    }
+
+    @Override
+    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent) {
+        if (tracker.isSticky(userId)) {
+            return ReplicaRoutingDataSource.onPrimary(() -> delegate.searchNotes(query, userId, pageable, includeContent));
+        }
+        return delegate.searchNotes(query, userId, pageable, includeContent);
+    }
+}
@@ -0,0 +1,93 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteCreateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import com.rakeshgupta.notedoc_backend.service.SpooledContent;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Innermost NoteService decorator: runs each call, including its transaction, on the shard that
+ * holds the user's notes, so NoteRepository and everything below it work on a single shard.
+ * A pass-through when sharding is disabled.
+ */
+@Service
+public class ShardRoutingNoteService implements NoteService {
+
+    private final NoteService delegate;
+    private final ShardRouter router;
+
+    public ShardRoutingNoteService(@Qualifier("noteServiceImpl") NoteService delegate, ObjectProvider<ShardRouter> router) {
+        this.delegate = delegate;
+        this.router = router.getIfAvailable();
+    }
+
+    @Override
+    public NoteResponseDto createNote(NoteCreateRequestDto request, UUID userId) {
+        if (router == null) {
+            return delegate.createNote(request, userId);
+        }
+        return router.write(userId, () -> delegate.createNote(request, userId));
+    }
+
+    @Override
+    public Page<NoteResponseDto> getAllNotes(UUID userId, Pageable pageable) {
+        if (router == null) {
+            return delegate.getAllNotes(userId, pageable);
+        }
+        return router.read(userId, () -> delegate.getAllNotes(userId, pageable));
+    }
+
+    @Override
+    public NoteResponseDto getNoteById(UUID id, UUID userId) {
+        if (router == null) {
+            return delegate.getNoteById(id, userId);
+        }
+        return router.read(userId, () -> delegate.getNoteById(id, userId));
+    }
+
+    @Override
+    public NoteResponseDto updateNote(UUID id, NoteUpdateRequestDto request, UUID userId) {
+        if (router == null) {
+            return delegate.updateNote(id, request, userId);
+        }
+        return router.write(userId, () -> delegate.updateNote(id, request, userId));
+    }
+
+    @Override
+    public void deleteNote(UUID id, UUID userId) {
+        if (router == null) {
+            delegate.deleteNote(id, userId);
+            return;
+        }
+        router.write(userId, () -> {
+            delegate.deleteNote(id, userId);
+            return null;
+        });
+    }
+
+    @Override
+    public NoteContentInfoDto replaceContent(UUID id, SpooledContent content, UUID userId) {
+        if (router == null) {
+            return delegate.replaceContent(id, content, userId);
+        }
+        return router.write(userId, () -> delegate.replaceContent(id, content, userId));
+    }
+
+    @Override
+    public Page<NoteResponseDto> searchNotes(String query, UUID userId, Pageable pageable, boolean includeContent) {
+        if (router == null) {
+            return delegate.searchNotes(query, userId, pageable, includeContent);
+        }
+        return router.read(userId, () -> delegate.searchNotes(query, userId, pageable, includeContent));
+    }
+}
@@ -0,0 +1,49 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Immutable consistent-hash ring mapping users to shard names. Each shard owns a number of
+ * virtual nodes, so adding a shard only moves the users whose ring segment it takes over
+ * (about 1/N of them), and every instance computes the same placement without coordination.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(mix(((long) shard.hashCode() << 32) | i), shard);
+            }
+        }
+    }
+
+    /**
+     * Shard that owns the user's position on the ring
+     */
+    public String shardFor(UUID userId) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash(userId));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    static long hash(UUID userId) {
+        return mix(userId.getMostSignificantBits() ^ mix(userId.getLeastSignificantBits()));
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads ring points and user ids evenly over the 64-bit space
+     */
+    private static long mix(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+}
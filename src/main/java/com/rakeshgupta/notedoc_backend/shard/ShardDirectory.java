@@ -0,0 +1,202 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps users to shards: the consistent-hash ring decides by default, and explicit assignments
+ * override it for users whose notes live elsewhere (migrated users, and users that already had
+ * notes before their ring position moved to a newly added shard). Assignments are persisted in the
+ * shard_directory table on the main shard. Routing uses a copy in memory, which misses migrations
+ * made by other instances; {@link ShardRouter} detects those on the shard itself and corrects the
+ * copy with {@link #remember}.
+ */
+@Slf4j
+public class ShardDirectory {
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS shard_directory ("
+            + "user_id UUID PRIMARY KEY, shard VARCHAR(64) NOT NULL, updated_at TIMESTAMP NOT NULL)";
+
+    private final ConsistentHashRing ring;
+    private final DataSource main;
+    private final Set<String> shards;
+    private final ConcurrentHashMap<UUID, String> assignments = new ConcurrentHashMap<>();
+
+    public ShardDirectory(ConsistentHashRing ring, DataSource main, Set<String> shards) {
+        this.ring = ring;
+        this.main = main;
+        this.shards = Set.copyOf(shards);
+    }
+
+    /**
+     * Shard holding the user's notes
+     */
+    public String shardFor(UUID userId) {
+        String assigned = assignments.get(userId);
+        return assigned != null ? assigned : ring.shardFor(userId);
+    }
+
+    /**
+     * Shard the ring places the user on, where a rebalance moves the user to
+     */
+    public String homeShardFor(UUID userId) {
+        return ring.shardFor(userId);
+    }
+
+    /**
+     * Shard holding the user's notes according to the shard_directory table, which every migration
+     * updates, whichever instance ran it
+     */
+    public String lookup(UUID userId) throws SQLException {
+        try (Connection connection = main.getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT shard FROM shard_directory WHERE user_id = ?")) {
+            select.setObject(1, userId);
+            try (ResultSet row = select.executeQuery()) {
+                String shard = row.next() ? row.getString(1) : ring.shardFor(userId);
+                remember(userId, shard);
+                return shard;
+            }
+        }
+    }
+
+    /**
+     * Explicit assignments of all users, from the shard_directory table
+     */
+    public Map<UUID, String> getAssignments() throws SQLException {
+        Map<UUID, String> persisted = new HashMap<>();
+        try (Connection connection = main.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT user_id, shard FROM shard_directory")) {
+            while (rows.next()) {
+                persisted.put(rows.getObject(1, UUID.class), rows.getString(2));
+            }
+        }
+        return persisted;
+    }
+
+    /**
+     * Explicit assignments known to this instance
+     */
+    public int getAssignmentCount() {
+        return assignments.size();
+    }
+
+    /**
+     * Route the user to the shard its notes were found on, without touching the shard_directory
+     * table, which the instance that moved them has already updated
+     */
+    void remember(UUID userId, String shard) {
+        if (ring.shardFor(userId).equals(shard)) {
+            assignments.remove(userId);
+        } else {
+            assignments.put(userId, shard);
+        }
+    }
+
+    /**
+     * Load the persisted assignments, then assign every user found with notes on a shard other
+     * than its ring shard to the shard that has the notes, so adding a shard never hides data
+     *
+     * @param usersByShard users that own at least one note, per shard
+     * @return number of users assigned by this reconciliation
+     */
+    public int initialize(Map<String, Set<UUID>> usersByShard) throws SQLException {
+        try (Connection connection = main.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            try (ResultSet rows = statement.executeQuery("SELECT user_id, shard FROM shard_directory")) {
+                while (rows.next()) {
+                    UUID userId = rows.getObject(1, UUID.class);
+                    String shard = rows.getString(2);
+                    if (!shards.contains(shard)) {
+                        throw new IllegalStateException("User " + userId + " is assigned to shard '" + shard
+                                + "', which is not configured");
+                    }
+                    assignments.put(userId, shard);
+                }
+            }
+        }
+        Map<UUID, String> adopted = new HashMap<>();
+        for (Map.Entry<String, Set<UUID>> entry : usersByShard.entrySet()) {
+            for (UUID userId : entry.getValue()) {
+                String home = ring.shardFor(userId);
+                if (assignments.containsKey(userId) || home.equals(entry.getKey())) {
+                    continue;
+                }
+                if (usersByShard.getOrDefault(home, Set.of()).contains(userId)) {
+                    log.warn("User {} has notes on both '{}' and its ring shard '{}'; keeping '{}'",
+                            userId, entry.getKey(), home, home);
+                    continue;
+                }
+                adopted.put(userId, entry.getKey());
+            }
+        }
+        for (Map.Entry<UUID, String> entry : adopted.entrySet()) {
+            assign(entry.getKey(), entry.getValue());
+        }
+        return adopted.size();
+    }
+
+    /**
+     * Route the user to a shard from now on. Assigning the ring shard removes the explicit assignment.
+     */
+    public void assign(UUID userId, String shard) throws SQLException {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        boolean home = ring.shardFor(userId).equals(shard);
+        try (Connection connection = main.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM shard_directory WHERE user_id = ?")) {
+                    delete.setObject(1, userId);
+                    delete.executeUpdate();
+                }
+                if (!home) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO shard_directory (user_id, shard, updated_at) VALUES (?, ?, ?)")) {
+                        insert.setObject(1, userId);
+                        insert.setString(2, shard);
+                        insert.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                        insert.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        remember(userId, shard);
+    }
+
+    /**
+     * Users that own notes on a shard, soft-deleted ones included
+     */
+    static Set<UUID> usersOn(DataSource shard) throws SQLException {
+        Set<UUID> users = new HashSet<>();
+        try (Connection connection = shard.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT DISTINCT user_id FROM notes")) {
+            while (rows.next()) {
+                users.add(rows.getObject(1, UUID.class));
+            }
+        }
+        return users;
+    }
+}
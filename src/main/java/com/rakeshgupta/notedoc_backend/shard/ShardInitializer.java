@@ -0,0 +1,46 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Prepares the shards once the entity manager factory exists and before the web server accepts
+ * requests: brings every additional shard's schema in line with the main shard and creates the
+ * move markers of {@link UserShardLocks}, then loads the directory and assigns users whose notes
+ * are not on their ring shard.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ShardInitializer implements SmartInitializingSingleton {
+
+    private final ShardRoutingDataSource shards;
+    private final ShardDirectory directory;
+    private final ShardSchemaSynchronizer schemaSynchronizer;
+    private final String mainShard;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Map<String, Set<UUID>> usersByShard = new HashMap<>();
+            for (String shard : shards.getShardNames()) {
+                if (!shard.equals(mainShard)) {
+                    schemaSynchronizer.synchronize(shard);
+                }
+                UserShardLocks.createTable(shards.getShard(shard));
+                usersByShard.put(shard, ShardDirectory.usersOn(shards.getShard(shard)));
+            }
+            int adopted = directory.initialize(usersByShard);
+            log.info("✅ Sharding across {} shards {}, {} users assigned outside their ring shard ({} newly)",
+                    shards.getShardNames().size(), shards.getShardNames(), directory.getAssignmentCount(), adopted);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to initialize the shard directory", e);
+        }
+    }
+}
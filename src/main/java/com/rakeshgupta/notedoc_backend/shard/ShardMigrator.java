@@ -0,0 +1,229 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a user's notes between shards while the application keeps serving, holding a transaction
+ * on the source shard throughout:
+ * <ol>
+ *   <li>take the user's write lock on the source, waiting for in-flight writes from every
+ *       instance; new writes wait (reads continue on the source)</li>
+ *   <li>copy the user's rows into the target shard in one transaction, replacing leftovers of an
+ *       earlier attempt</li>
+ *   <li>take the user's read lock on the source, waiting for in-flight reads, then delete the
+ *       rows from the source and leave a marker pointing to the target</li>
+ *   <li>switch the directory, then commit, which releases the waiting calls; they find the
+ *       marker and continue on the target</li>
+ * </ol>
+ * Every step can be retried: a failure before the commit leaves the source authoritative (the
+ * directory switch is undone if the commit itself fails), and a failure after it only leaves
+ * unreachable rows on the target of an earlier attempt, which the next copy replaces.
+ * See {@link UserShardLocks} for the locks.
+ */
+@Slf4j
+public class ShardMigrator {
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Tables holding a user's data, parents first; each query takes the user id as its only parameter
+     */
+    private static final List<UserTable> USER_TABLES = List.of(
+            new UserTable("notes",
+                    "SELECT * FROM notes WHERE user_id = ?",
+                    "DELETE FROM notes WHERE user_id = ?"),
+            new UserTable("tags",
+                    "SELECT * FROM tags WHERE user_id = ?",
+                    "DELETE FROM tags WHERE user_id = ?"),
+            new UserTable("attachments",
+                    "SELECT * FROM attachments WHERE user_id = ?",
+                    "DELETE FROM attachments WHERE user_id = ?"),
+            new UserTable("note_tag_ids",
+                    "SELECT i.* FROM note_tag_ids i JOIN notes n ON n.id = i.note_id WHERE n.user_id = ?",
+                    "DELETE FROM note_tag_ids WHERE note_id IN (SELECT id FROM notes WHERE user_id = ?)"),
+            new UserTable("user_note_stats",
+                    "SELECT * FROM user_note_stats WHERE user_id = ?",
+                    "DELETE FROM user_note_stats WHERE user_id = ?"));
+
+    private final ShardRoutingDataSource shards;
+    private final ShardDirectory directory;
+    private final long lockTimeoutMillis;
+    private final MeterRegistry meterRegistry;
+
+    public ShardMigrator(ShardRoutingDataSource shards, ShardDirectory directory, long lockTimeoutMillis,
+                         MeterRegistry meterRegistry) {
+        this.shards = shards;
+        this.directory = directory;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public record MigrationResult(UUID userId, String from, String to, int rowsCopied, long durationMs) {
+    }
+
+    /**
+     * Move the user's notes to the target shard
+     *
+     * @throws IllegalArgumentException if the target shard is unknown
+     * @throws IllegalStateException if the user's in-flight calls did not finish in time, or
+     *         another instance migrated the user meanwhile
+     */
+    public MigrationResult migrate(UUID userId, String target) throws SQLException {
+        DataSource targetShard = shards.getShard(target);
+        long start = System.nanoTime();
+        String source = directory.lookup(userId);
+        boolean success = false;
+        try {
+            int copied = 0;
+            if (!source.equals(target)) {
+                copied = move(userId, source, target, targetShard);
+            }
+            success = true;
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("✅ Migrated user {} from shard '{}' to '{}' ({} rows, {} ms)", userId, source, target, copied, durationMs);
+            return new MigrationResult(userId, source, target, copied, durationMs);
+        } finally {
+            Timer.builder("notedoc.shard.migration")
+                    .description("Duration of user migrations between shards")
+                    .tag("success", Boolean.toString(success))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Move every user with an explicit assignment back to its ring shard, e.g. after adding a shard
+     *
+     * @return the migrations performed
+     */
+    public List<MigrationResult> rebalance() throws SQLException {
+        List<MigrationResult> results = new ArrayList<>();
+        for (Map.Entry<UUID, String> assignment : directory.getAssignments().entrySet()) {
+            UUID userId = assignment.getKey();
+            results.add(migrate(userId, directory.homeShardFor(userId)));
+        }
+        return results;
+    }
+
+    /**
+     * Copy, delete and switch, all under the user's locks on the source shard
+     */
+    private int move(UUID userId, String source, String target, DataSource targetShard) throws SQLException {
+        try (Connection from = shards.getShard(source).getConnection()) {
+            from.setAutoCommit(false);
+            boolean switched = false;
+            try {
+                if (!UserShardLocks.lock(from, UserShardLocks.WRITES, userId, false, lockTimeoutMillis)) {
+                    throw new IllegalStateException("Writes of user " + userId + " did not finish within " + lockTimeoutMillis + " ms");
+                }
+                String movedTo = UserShardLocks.movedTo(from, userId);
+                if (movedTo != null) {
+                    throw new IllegalStateException("User " + userId + " was moved to shard '" + movedTo + "' meanwhile");
+                }
+                int copied = copy(userId, from, targetShard);
+                if (!UserShardLocks.lock(from, UserShardLocks.READS, userId, false, lockTimeoutMillis)) {
+                    throw new IllegalStateException("Reads of user " + userId + " did not finish within " + lockTimeoutMillis + " ms");
+                }
+                deleteUserRows(userId, from);
+                UserShardLocks.markMoved(from, userId, target);
+                directory.assign(userId, target);
+                switched = true;
+                from.commit();
+                return copied;
+            } catch (SQLException | RuntimeException e) {
+                from.rollback();
+                if (switched) {
+                    // The source kept its rows, so it stays authoritative
+                    directory.assign(userId, source);
+                }
+                throw e;
+            } finally {
+                from.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Copy the user's rows in one transaction on the target, replacing leftovers of an earlier
+     * attempt and the marker of an earlier move away from the target
+     */
+    private int copy(UUID userId, Connection from, DataSource target) throws SQLException {
+        try (Connection to = target.getConnection()) {
+            to.setAutoCommit(false);
+            try {
+                deleteUserRows(userId, to);
+                UserShardLocks.markMoved(to, userId, null);
+                int copied = 0;
+                for (UserTable table : USER_TABLES) {
+                    copied += copyTable(userId, table, from, to);
+                }
+                to.commit();
+                return copied;
+            } catch (SQLException | RuntimeException e) {
+                to.rollback();
+                throw e;
+            } finally {
+                to.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int copyTable(UUID userId, UserTable table, Connection from, Connection to) throws SQLException {
+        try (PreparedStatement select = from.prepareStatement(table.selectSql())) {
+            select.setObject(1, userId);
+            try (ResultSet rows = select.executeQuery()) {
+                ResultSetMetaData metaData = rows.getMetaData();
+                int columns = metaData.getColumnCount();
+                List<String> names = new ArrayList<>(columns);
+                for (int i = 1; i <= columns; i++) {
+                    names.add(metaData.getColumnName(i));
+                }
+                String insertSql = "INSERT INTO " + table.name() + " (" + String.join(", ", names) + ") VALUES ("
+                        + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+                int copied = 0;
+                try (PreparedStatement insert = to.prepareStatement(insertSql)) {
+                    while (rows.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            insert.setObject(i, rows.getObject(i));
+                        }
+                        insert.addBatch();
+                        if (++copied % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    if (copied % BATCH_SIZE != 0) {
+                        insert.executeBatch();
+                    }
+                }
+                return copied;
+            }
+        }
+    }
+
+    private static void deleteUserRows(UUID userId, Connection connection) throws SQLException {
+        for (UserTable table : USER_TABLES.reversed()) {
+            try (PreparedStatement delete = connection.prepareStatement(table.deleteSql())) {
+                delete.setObject(1, userId);
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    private record UserTable(String name, String selectSql, String deleteSql) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import com.rakeshgupta.notedoc_backend.exception.UserMigratingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Runs note service calls on the shard that holds the user's notes, inside a transaction that
+ * first takes the user's {@link UserShardLocks} shared on that shard: writes wait while a
+ * migration copies the user's rows, reads only while it deletes them from the source, and both
+ * are rejected with 503 if the wait exceeds the configured time. Holding the lock, the call then
+ * checks for a move marker and, if the user has been migrated by any instance since this one's
+ * directory entry was loaded, follows it to the new shard. The directory is therefore only a hint,
+ * and the database decides, so migrations are safe with several instances running.
+ */
+public class ShardRouter {
+
+    private final ShardDirectory directory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransactions;
+    private final TransactionTemplate writeTransactions;
+    private final long writeWaitMillis;
+    private final Map<String, Counter> calls = new HashMap<>();
+
+    /**
+     * @param dataSource the application DataSource, the one the transaction manager binds connections for
+     */
+    public ShardRouter(ShardDirectory directory, Iterable<String> shards, DataSource dataSource,
+                       PlatformTransactionManager transactionManager, long writeWaitMillis, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readTransactions = new TransactionTemplate(transactionManager);
+        this.readTransactions.setReadOnly(true);
+        this.writeTransactions = new TransactionTemplate(transactionManager);
+        this.writeWaitMillis = writeWaitMillis;
+        for (String shard : shards) {
+            calls.put(shard, Counter.builder("notedoc.shard.calls")
+                    .description("Note service calls by the shard that served them")
+                    .tag("shard", shard)
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T read(UUID userId, Supplier<T> call) {
+        return onUserShard(userId, UserShardLocks.READS, readTransactions, call);
+    }
+
+    public <T> T write(UUID userId, Supplier<T> call) {
+        return onUserShard(userId, UserShardLocks.WRITES, writeTransactions, call);
+    }
+
+    private <T> T onUserShard(UUID userId, int lock, TransactionTemplate transactions, Supplier<T> call) {
+        String shard = directory.shardFor(userId);
+        // A user can only have moved once per other shard since this instance last saw it
+        for (int hops = 0; ; hops++) {
+            String current = shard;
+            try {
+                return ShardRoutingDataSource.onShard(current, () -> transactions.execute(status -> {
+                    awaitMigration(userId, lock);
+                    calls.get(current).increment();
+                    return call.get();
+                }));
+            } catch (UserMovedException moved) {
+                if (hops >= calls.size()) {
+                    throw new IllegalStateException("User " + userId + " keeps moving between shards");
+                }
+                shard = moved.shard;
+                directory.remember(userId, shard);
+            }
+        }
+    }
+
+    /**
+     * Take the user's lock in the current transaction and make sure the notes are still on this shard
+     *
+     * @throws UserMigratingException if a migration holds the lock longer than the write wait
+     * @throws UserMovedException if a migration moved the notes to another shard
+     */
+    private void awaitMigration(UUID userId, int lock) {
+        String movedTo = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            if (!UserShardLocks.lock(connection, lock, userId, true, writeWaitMillis)) {
+                throw new UserMigratingException(userId, (int) Math.max(1, writeWaitMillis / 1000));
+            }
+            return UserShardLocks.movedTo(connection, userId);
+        });
+        if (movedTo != null) {
+            throw new UserMovedException(movedTo);
+        }
+    }
+
+    /**
+     * Rolls back a call that reached a shard its user has left; never leaves the router
+     */
+    private static final class UserMovedException extends RuntimeException {
+
+        private final String shard;
+
+        UserMovedException(String shard) {
+            super("User moved to shard " + shard, null, false, false);
+            this.shard = shard;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Hands out connections from the pool of the shard selected for the current thread with
+ * {@link #onShard}, and from the main shard otherwise. Everything that is not note data
+ * (health checks, keep-alive, the shard directory) therefore stays on the main shard.
+ * The shard must be selected before the transaction starts, since the transaction's
+ * connection is borrowed when it begins.
+ */
+public class ShardRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final Map<String, DataSource> shards;
+    private final DataSource main;
+
+    public ShardRoutingDataSource(Map<String, DataSource> shards, String mainShard) {
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        this.main = shards.get(mainShard);
+    }
+
+    /**
+     * Run a call with all of its connections taken from the given shard
+     */
+    public static <T> T onShard(String shard, Supplier<T> call) {
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    public Set<String> getShardNames() {
+        return shards.keySet();
+    }
+
+    /**
+     * The pool of a shard, for work that addresses shards explicitly such as migrations
+     *
+     * @throws IllegalArgumentException if no such shard is configured
+     */
+    public DataSource getShard(String shard) {
+        DataSource dataSource = shards.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return current().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return current().getConnection(username, password);
+    }
+
+    /**
+     * Unwraps to the main shard's pool, so pool-size lookups such as the connection warmup's see a real pool
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return main.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || main.isWrapperFor(iface);
+    }
+
+    /**
+     * Close the pools of the additional shards; the main shard's pool is a bean and closed by the container.
+     * Pools may be wrapped, for example by the SQL instrumentation, so they are closed through unwrap().
+     */
+    public void close() throws Exception {
+        for (DataSource dataSource : shards.values()) {
+            if (dataSource != main && dataSource.isWrapperFor(AutoCloseable.class)) {
+                dataSource.unwrap(AutoCloseable.class).close();
+            }
+        }
+    }
+
+    private DataSource current() {
+        String shard = CURRENT_SHARD.get();
+        return shard == null ? main : getShard(shard);
+    }
+}
@@ -0,0 +1,38 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+/**
+ * Applies the configured schema action (spring.jpa.hibernate.ddl-auto) to every shard, not just
+ * the main one Hibernate sees at startup. Registered as a Hibernate integrator to capture the
+ * mapping metadata, which is then replayed against each shard through {@link ShardRoutingDataSource}.
+ */
+public class ShardSchemaSynchronizer implements Integrator {
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Create, update or validate the shard's schema, whichever the main shard got
+     */
+    public void synchronize(String shard) {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate has not been bootstrapped yet");
+        }
+        ShardRoutingDataSource.onShard(shard, () -> {
+            SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                    sessionFactory.getProperties(), action -> { });
+            return null;
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Actuator endpoint for the shard directory and user migrations. Like every actuator endpoint it
+ * is only reachable over HTTP once added to management.endpoints.web.exposure.include.
+ * <ul>
+ *   <li>GET /actuator/shards: shards and explicit assignments</li>
+ *   <li>GET /actuator/shards/{userId}: the user's current and ring shard</li>
+ *   <li>POST /actuator/shards/{userId} {"target": "..."}: migrate the user, to its ring shard when no target is given</li>
+ *   <li>POST /actuator/shards: move every explicitly assigned user to its ring shard</li>
+ * </ul>
+ */
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+public class ShardsEndpoint {
+
+    private final ShardRoutingDataSource shards;
+    private final ShardDirectory directory;
+    private final ShardMigrator migrator;
+
+    @ReadOperation
+    public Map<String, Object> shards() throws SQLException {
+        return Map.of("shards", shards.getShardNames(), "assignments", directory.getAssignments());
+    }
+
+    @ReadOperation
+    public Map<String, Object> user(@Selector UUID userId) throws SQLException {
+        return Map.of("userId", userId, "shard", directory.lookup(userId), "ringShard", directory.homeShardFor(userId));
+    }
+
+    @WriteOperation
+    public ShardMigrator.MigrationResult migrate(@Selector UUID userId, @Nullable String target) throws SQLException {
+        return migrator.migrate(userId, target != null ? target : directory.homeShardFor(userId));
+    }
+
+    @WriteOperation
+    public List<ShardMigrator.MigrationResult> rebalance() throws SQLException {
+        return migrator.rebalance();
+    }
+}
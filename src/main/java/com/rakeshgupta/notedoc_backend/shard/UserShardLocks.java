@@ -0,0 +1,134 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-user PostgreSQL advisory locks and move markers, kept on every shard. Advisory locks only
+ * exclude sessions of the same database, so they are taken on the shard that holds the user's
+ * notes, inside the transaction of the call or migration they guard, and released with it.
+ * Calls hold a lock shared, a migration holds it exclusively:
+ * <ul>
+ *   <li>{@link #WRITES} for the whole migration, so no write changes rows while they are copied</li>
+ *   <li>{@link #READS} while the source rows are deleted, so no read sees them half gone</li>
+ * </ul>
+ * The migration also leaves a marker naming the target shard on the source. A call that reaches
+ * the source after a migration, because its instance routed it with an outdated directory entry,
+ * finds the marker once it holds the lock and moves to the target instead.
+ */
+final class UserShardLocks {
+
+    /**
+     * First key of the two-key advisory lock form, one per lock; the second key is the user's hash
+     */
+    static final int WRITES = 0x4e440001;
+    static final int READS = 0x4e440002;
+
+    /**
+     * SQLState of PostgreSQL's lock_not_available error, raised when lock_timeout expires
+     */
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS shard_moved_users ("
+            + "user_id UUID PRIMARY KEY, shard VARCHAR(64) NOT NULL, moved_at TIMESTAMP NOT NULL)";
+
+    private UserShardLocks() {
+    }
+
+    static void createTable(DataSource shard) throws SQLException {
+        try (Connection connection = shard.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+        }
+    }
+
+    /**
+     * Take the lock for the current transaction, waiting at most the given time for a migration
+     * (shared) or for the user's in-flight calls (exclusive). Without contention this is a single
+     * try-lock; lock_timeout is only set, and then restored, when the lock has to be waited for.
+     *
+     * @return false if the wait timed out, which aborts the transaction
+     */
+    static boolean lock(Connection connection, int lock, UUID userId, boolean shared, long timeoutMillis)
+            throws SQLException {
+        String mode = shared ? "_shared" : "";
+        try (PreparedStatement tryLock = prepare(connection, "SELECT pg_try_advisory_xact_lock" + mode + "(?, ?)", lock, userId);
+             ResultSet row = tryLock.executeQuery()) {
+            if (row.next() && row.getBoolean(1)) {
+                return true;
+            }
+        }
+        String previousTimeout;
+        try (PreparedStatement setTimeout = connection.prepareStatement(
+                "SELECT current_setting('lock_timeout'), set_config('lock_timeout', ?, true)")) {
+            setTimeout.setString(1, Math.max(1, timeoutMillis) + "ms");
+            try (ResultSet row = setTimeout.executeQuery()) {
+                row.next();
+                previousTimeout = row.getString(1);
+            }
+        }
+        try (PreparedStatement waitForLock = prepare(connection, "SELECT pg_advisory_xact_lock" + mode + "(?, ?)", lock, userId)) {
+            waitForLock.executeQuery().close();
+        } catch (SQLException e) {
+            if (LOCK_NOT_AVAILABLE.equals(e.getSQLState())) {
+                return false;
+            }
+            throw e;
+        }
+        try (PreparedStatement restoreTimeout = connection.prepareStatement("SELECT set_config('lock_timeout', ?, true)")) {
+            restoreTimeout.setString(1, previousTimeout);
+            restoreTimeout.executeQuery().close();
+        }
+        return true;
+    }
+
+    /**
+     * Shard the user was migrated to from this one, or null if the user's notes are still here
+     */
+    static String movedTo(Connection connection, UUID userId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT shard FROM shard_moved_users WHERE user_id = ?")) {
+            select.setObject(1, userId);
+            try (ResultSet row = select.executeQuery()) {
+                return row.next() ? row.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Record that the user's notes now live on the given shard, or with a null shard, that they live here again
+     */
+    static void markMoved(Connection connection, UUID userId, String shard) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM shard_moved_users WHERE user_id = ?")) {
+            delete.setObject(1, userId);
+            delete.executeUpdate();
+        }
+        if (shard == null) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO shard_moved_users (user_id, shard, moved_at) VALUES (?, ?, ?)")) {
+            insert.setObject(1, userId);
+            insert.setString(2, shard);
+            insert.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            insert.executeUpdate();
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, int lock, UUID userId) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            statement.setInt(1, lock);
+            statement.setInt(2, (int) ConsistentHashRing.hash(userId));
+            return statement;
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.rakeshgupta.notedoc_backend.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new AccessLogRingBuffer(4).capacity()).isEqualTo(4);
+        assertThat(new AccessLogRingBuffer(5).capacity()).isEqualTo(8);
+        assertThat(new AccessLogRingBuffer(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void entriesArePolledInClaimOrder() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        publish(buffer, "/a");
+        publish(buffer, "/b");
+
+        assertThat(take(buffer)).isEqualTo("/a");
+        assertThat(take(buffer)).isEqualTo("/b");
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void unpublishedEntryHoldsBackTheOnesAfterIt() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        AccessLogRingBuffer.Entry first = buffer.claim();
+        first.uri = "/first";
+        publish(buffer, "/second");
+
+        assertThat(buffer.poll()).isNull();
+        buffer.publish(first);
+        assertThat(take(buffer)).isEqualTo("/first");
+        assertThat(take(buffer)).isEqualTo("/second");
+    }
+
+    @Test
+    void fullRingDropsAndCountsInsteadOfBlocking() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            publish(buffer, "/" + i);
+        }
+
+        assertThat(buffer.claim()).isNull();
+        assertThat(buffer.claim()).isNull();
+        assertThat(buffer.droppedCount()).isEqualTo(2);
+
+        // Releasing one entry frees exactly one slot
+        assertThat(take(buffer)).isEqualTo("/0");
+        assertThat(buffer.claim()).isNotNull();
+        assertThat(buffer.claim()).isNull();
+        assertThat(buffer.droppedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void slotsAreReusedAcrossManyWraps() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 40; i++) {
+            publish(buffer, "/" + i);
+            if (i % 3 == 2) {
+                // Keep up to three entries in flight so the head and tail wrap at different times
+                for (int j = i - 2; j <= i; j++) {
+                    assertThat(take(buffer)).isEqualTo("/" + j);
+                }
+            }
+        }
+        assertThat(take(buffer)).isEqualTo("/39");
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.droppedCount()).isZero();
+    }
+
+    @Test
+    void releasedEntryKeepsNoReferences() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        AccessLogRingBuffer.Entry entry = buffer.claim();
+        entry.method = "GET";
+        entry.uri = "/api/notes";
+        entry.endpoint = "/api/notes";
+        buffer.publish(entry);
+
+        buffer.release(buffer.poll());
+
+        assertThat(entry.method).isNull();
+        assertThat(entry.uri).isNull();
+        assertThat(entry.endpoint).isNull();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingButCountedDrops() throws Exception {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> published = new ArrayList<>();
+        try {
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                published.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < perProducer; i++) {
+                        AccessLogRingBuffer.Entry entry = buffer.claim();
+                        if (entry != null) {
+                            entry.uri = producer + "/" + i;
+                            buffer.publish(entry);
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+
+            Set<String> consumed = new HashSet<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (consumed.size() + buffer.droppedCount() < (long) producers * perProducer) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                AccessLogRingBuffer.Entry entry = buffer.poll();
+                if (entry != null) {
+                    assertThat(consumed.add(entry.uri)).as("entry %s consumed twice", entry.uri).isTrue();
+                    buffer.release(entry);
+                }
+            }
+
+            int total = 0;
+            for (Future<Integer> count : published) {
+                total += count.get(5, TimeUnit.SECONDS);
+            }
+            assertThat(consumed).hasSize(total);
+            assertThat(total + buffer.droppedCount()).isEqualTo((long) producers * perProducer);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void publish(AccessLogRingBuffer buffer, String uri) {
+        AccessLogRingBuffer.Entry entry = buffer.claim();
+        assertThat(entry).isNotNull();
+        entry.uri = uri;
+        buffer.publish(entry);
+    }
+
+    private static String take(AccessLogRingBuffer buffer) {
+        AccessLogRingBuffer.Entry entry = buffer.poll();
+        assertThat(entry).isNotNull();
+        String uri = entry.uri;
+        buffer.release(entry);
+        return uri;
+    }
+}
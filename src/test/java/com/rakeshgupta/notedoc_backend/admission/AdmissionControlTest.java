@@ -0,0 +1,42 @@
+package com.rakeshgupta.notedoc_backend.admission;
+
+import com.rakeshgupta.notedoc_backend.config.AdmissionProperties;
+import com.rakeshgupta.notedoc_backend.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Test
+    void userRateLimitIsOffByDefault() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setUserBurst(1);
+        AdmissionControl admissionControl = new AdmissionControl(properties, new SimpleMeterRegistry());
+
+        assertThatCode(() -> {
+            for (int i = 0; i < 100; i++) {
+                admissionControl.release(admissionControl.acquire(USER_ID, 10_000));
+            }
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void pageLargerThanTheBurstIsAdmittedWithAFullBucket() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setUserRateLimitEnabled(true);
+        AdmissionControl admissionControl = new AdmissionControl(properties, new SimpleMeterRegistry());
+
+        // 1 + 10000 / 100 tokens, more than the burst of 40
+        admissionControl.release(admissionControl.acquire(USER_ID, 10_000));
+
+        assertThatThrownBy(() -> admissionControl.acquire(USER_ID, 0))
+                .isInstanceOf(AdmissionRejectedException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.rakeshgupta.notedoc_backend.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRateLimiterTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void admitsUpToTheBurstThenReportsTheWait() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 4);
+        long now = 0;
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire(USER_ID, 1, now)).isEqualTo(UserRateLimiter.ADMITTED);
+        }
+        long wait = limiter.tryAcquire(USER_ID, 1, now);
+
+        assertThat(wait).isEqualTo(SECOND / 10);
+        assertThat(limiter.tryAcquire(USER_ID, 1, now + wait)).isEqualTo(UserRateLimiter.ADMITTED);
+    }
+
+    @Test
+    void callCostingMoreThanTheBurstIsAdmittedWithAFullBucket() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 4);
+        long now = 0;
+
+        assertThat(limiter.tryAcquire(USER_ID, 100, now)).isEqualTo(UserRateLimiter.ADMITTED);
+        // It took the whole bucket
+        long wait = limiter.tryAcquire(USER_ID, 100, now);
+        assertThat(wait).isEqualTo(4 * SECOND / 10);
+        // And the Retry-After it reported comes true
+        assertThat(limiter.tryAcquire(USER_ID, 100, now + wait)).isEqualTo(UserRateLimiter.ADMITTED);
+    }
+
+    @Test
+    void callCostingMoreThanTheBurstWaitsForARefillAfterSmallerCalls() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 4);
+        long now = 0;
+
+        assertThat(limiter.tryAcquire(USER_ID, 1, now)).isEqualTo(UserRateLimiter.ADMITTED);
+        long wait = limiter.tryAcquire(USER_ID, 100, now);
+
+        assertThat(wait).isEqualTo(SECOND / 10);
+        assertThat(limiter.tryAcquire(USER_ID, 100, now + wait)).isEqualTo(UserRateLimiter.ADMITTED);
+    }
+
+    @Test
+    void refundOfAnOversizedCallReturnsOnlyWhatItTook() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 4);
+        long now = 0;
+
+        assertThat(limiter.tryAcquire(USER_ID, 100, now)).isEqualTo(UserRateLimiter.ADMITTED);
+        limiter.refund(USER_ID, 100);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire(USER_ID, 1, now)).isEqualTo(UserRateLimiter.ADMITTED);
+        }
+        assertThat(limiter.tryAcquire(USER_ID, 1, now)).isPositive();
+    }
+
+    @Test
+    void refilledBucketsAreEvicted() {
+        UserRateLimiter limiter = new UserRateLimiter(1_000_000_000, 1);
+
+        limiter.tryAcquire(USER_ID, 1, System.nanoTime() - SECOND);
+
+        assertThat(limiter.evictIdle()).isEqualTo(1);
+        assertThat(limiter.size()).isZero();
+    }
+}
@@ -0,0 +1,132 @@
+package com.rakeshgupta.notedoc_backend.controller;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.service.NoteContentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NoteContentResponsesTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final NoteContentInfoDto INFO = new NoteContentInfoDto(ID, 100, LocalDateTime.of(2026, 1, 1, 12, 0));
+    private static final String ETAG = NoteContentService.etag(INFO);
+
+    private final NoteContentService contentService = mock(NoteContentService.class);
+
+    NoteContentResponsesTest() {
+        when(contentService.describe(ID, USER_ID)).thenReturn(INFO);
+    }
+
+    @Test
+    void singleRangeIsParsed() {
+        List<HttpRange> ranges = NoteContentResponses.ranges(headers("bytes=10-19", null), ETAG);
+
+        assertThat(ranges).hasSize(1);
+        assertThat(ranges.getFirst().getRangeStart(100)).isEqualTo(10);
+        assertThat(ranges.getFirst().getRangeEnd(100)).isEqualTo(19);
+    }
+
+    @Test
+    void rangeWithMatchingIfRangeIsKept() {
+        assertThat(NoteContentResponses.ranges(headers("bytes=10-19", ETAG), ETAG)).hasSize(1);
+    }
+
+    @Test
+    void rangeWithStaleIfRangeIsIgnored() {
+        assertThat(NoteContentResponses.ranges(headers("bytes=10-19", "\"stale\""), ETAG)).isEmpty();
+        // A date is never an exact match for a strong ETag
+        assertThat(NoteContentResponses.ranges(headers("bytes=10-19", "Thu, 01 Jan 2026 12:00:00 GMT"), ETAG)).isEmpty();
+    }
+
+    @Test
+    void unparsableRangeIsIgnored() {
+        assertThat(NoteContentResponses.ranges(headers("bytes=nonsense", null), ETAG)).isEmpty();
+        assertThat(NoteContentResponses.ranges(headers(null, null), ETAG)).isEmpty();
+    }
+
+    @Test
+    void singleRangeIsServedAsPartialContent() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = read(headers("bytes=90-", null));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 90-99/100");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(contentService).write(eq(INFO), eq(USER_ID), eq(90L), eq(99L), any());
+    }
+
+    @Test
+    void suffixRangeCoversTheLastBytes() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = read(headers("bytes=-1", null));
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 99-99/100");
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(contentService).write(eq(INFO), eq(USER_ID), eq(99L), eq(99L), any());
+    }
+
+    @Test
+    void rangeBeyondTheContentIsNotSatisfiable() {
+        ResponseEntity<StreamingResponseBody> response = read(headers("bytes=100-", null));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */100");
+    }
+
+    @Test
+    void rangeOfAChangedNoteGetsTheWholeContent() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = read(headers("bytes=10-19", "\"stale\""));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(100);
+        assertThat(response.getHeaders().containsHeader(HttpHeaders.CONTENT_RANGE)).isFalse();
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(contentService).write(eq(INFO), eq(USER_ID), eq(0L), eq(99L), any());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        HttpHeaders headers = headers("bytes=10-19", null);
+        headers.setIfNoneMatch(ETAG);
+
+        ResponseEntity<StreamingResponseBody> response = read(headers);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.getBody()).isNull();
+        verify(contentService, never()).write(any(), any(), anyLong(), anyLong(), any());
+    }
+
+    private ResponseEntity<StreamingResponseBody> read(HttpHeaders headers) {
+        return NoteContentResponses.read(contentService, ID, USER_ID, headers);
+    }
+
+    private static HttpHeaders headers(String range, String ifRange) {
+        HttpHeaders headers = new HttpHeaders();
+        if (range != null) {
+            headers.set(HttpHeaders.RANGE, range);
+        }
+        if (ifRange != null) {
+            headers.set(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return headers;
+    }
+}
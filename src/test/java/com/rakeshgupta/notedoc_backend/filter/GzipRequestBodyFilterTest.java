@@ -0,0 +1,337 @@
+package com.rakeshgupta.notedoc_backend.filter;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GzipRequestBodyFilterTest {
+
+    private static final byte[] BODY = "{\"title\":\"Note\",\"content\":\"lorem ipsum\"}".repeat(200)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void inflatesTheBodyAndHidesTheEncodingHeaders() throws Exception {
+        HttpServletRequest request = filter(gzipRequest(gzip(BODY)), 1 << 20);
+
+        assertThat(request.getInputStream().readAllBytes()).isEqualTo(BODY);
+        assertThat(request.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(request.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(request.getContentLengthLong()).isEqualTo(-1L);
+        assertThat(request.getInputStream().isFinished()).isTrue();
+    }
+
+    @Test
+    void leavesOtherEncodingsAlone() throws Exception {
+        MockHttpServletRequest plain = new MockHttpServletRequest("POST", "/api/notes");
+        plain.setContent(BODY);
+
+        HttpServletRequest request = filter(plain, 1 << 20);
+
+        assertThat(request).isSameAs(plain);
+    }
+
+    @Test
+    void rejectsADecompressionBomb() throws Exception {
+        // 64 MiB of zeros compress to about 64 KiB
+        byte[] bomb = gzip(new byte[64 << 20]);
+        HttpServletRequest request = filter(gzipRequest(bomb), 1 << 20);
+
+        assertThat(bomb.length).isLessThan(1 << 17);
+        assertThatThrownBy(() -> request.getInputStream().readAllBytes())
+                .isInstanceOf(IOException.class)
+                .hasMessage("Inflated request body exceeds 1048576 bytes");
+    }
+
+    @Test
+    void bodyOfExactlyTheLimitIsAccepted() throws Exception {
+        HttpServletRequest request = filter(gzipRequest(gzip(BODY)), BODY.length);
+
+        assertThat(request.getInputStream().readAllBytes()).isEqualTo(BODY);
+    }
+
+    @Test
+    void rejectsATruncatedBody() throws Exception {
+        byte[] compressed = gzip(BODY);
+        HttpServletRequest request = filter(gzipRequest(Arrays.copyOf(compressed, compressed.length - 4)), 1 << 20);
+
+        assertThatThrownBy(() -> request.getInputStream().readAllBytes()).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void rejectsACorruptTrailer() throws Exception {
+        byte[] compressed = gzip(BODY);
+        compressed[compressed.length - 8] ^= 1;
+        HttpServletRequest request = filter(gzipRequest(compressed), 1 << 20);
+
+        assertThatThrownBy(() -> request.getInputStream().readAllBytes())
+                .isInstanceOf(ZipException.class)
+                .hasMessageContaining("CRC");
+    }
+
+    @Test
+    void rejectsABodyThatIsNotGzip() throws Exception {
+        HttpServletRequest request = filter(gzipRequest(BODY), 1 << 20);
+
+        assertThatThrownBy(() -> request.getInputStream().readAllBytes()).isInstanceOf(ZipException.class);
+    }
+
+    @Test
+    void inflatesConcatenatedMembers() throws Exception {
+        byte[] first = gzip("first ".getBytes(StandardCharsets.UTF_8));
+        byte[] second = gzip("second".getBytes(StandardCharsets.UTF_8));
+        byte[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+
+        HttpServletRequest request = filter(gzipRequest(both), 1 << 20);
+
+        assertThat(request.getReader().readLine()).isEqualTo("first second");
+    }
+
+    @Test
+    void skipsOptionalHeaderFields() throws Exception {
+        HttpServletRequest request = filter(gzipRequest(gzipWithHeaderFields(BODY)), 1 << 20);
+
+        assertThat(request.getInputStream().readAllBytes()).isEqualTo(BODY);
+    }
+
+    @Test
+    void inflatesWithAReadListenerAsBytesArrive() throws Exception {
+        AsyncBody async = new AsyncBody(gzipWithHeaderFields(BODY), 7);
+        HttpServletRequest request = filter(async.request(), 1 << 20);
+        ServletInputStream inputStream = request.getInputStream();
+        CollectingListener listener = new CollectingListener(inputStream);
+
+        inputStream.setReadListener(listener);
+        async.deliver();
+
+        assertThat(listener.body.toByteArray()).isEqualTo(BODY);
+        assertThat(listener.allDataRead).isTrue();
+        assertThat(listener.error).isNull();
+        assertThat(listener.callbacks).isGreaterThan(10);
+    }
+
+    @Test
+    void readListenerSeesTheSizeLimit() throws Exception {
+        AsyncBody async = new AsyncBody(gzip(new byte[4 << 20]), 512);
+        HttpServletRequest request = filter(async.request(), 1 << 20);
+        ServletInputStream inputStream = request.getInputStream();
+        CollectingListener listener = new CollectingListener(inputStream);
+
+        inputStream.setReadListener(listener);
+        async.deliver();
+
+        assertThat(listener.error).hasMessage("Inflated request body exceeds 1048576 bytes");
+        assertThat(listener.body.size()).isLessThanOrEqualTo(1 << 20);
+    }
+
+    @Test
+    void readListenerSeesATruncatedBody() throws Exception {
+        byte[] compressed = gzip(BODY);
+        AsyncBody async = new AsyncBody(Arrays.copyOf(compressed, compressed.length - 3), 64);
+        HttpServletRequest request = filter(async.request(), 1 << 20);
+        ServletInputStream inputStream = request.getInputStream();
+        CollectingListener listener = new CollectingListener(inputStream);
+
+        inputStream.setReadListener(listener);
+        async.deliver();
+
+        assertThat(listener.error).isInstanceOf(EOFException.class);
+        assertThat(listener.allDataRead).isFalse();
+    }
+
+    private static HttpServletRequest filter(HttpServletRequest request, long maxInflatedSize) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        new GzipRequestBodyFilter(maxInflatedSize).doFilter(request, new MockHttpServletResponse(), chain);
+        ServletRequest filtered = chain.getRequest();
+        return (HttpServletRequest) filtered;
+    }
+
+    private static MockHttpServletRequest gzipRequest(byte[] content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/notes");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        request.addHeader(HttpHeaders.CONTENT_LENGTH, content.length);
+        request.setContent(content);
+        return request;
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A gzip member with extra field, file name, comment and header CRC, which GZIPOutputStream never writes
+     */
+    private static byte[] gzipWithHeaderFields(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x1f, (byte) 0x8b, 8, 2 | 4 | 8 | 16, 0, 0, 0, 0, 0, (byte) 0xff});
+        out.writeBytes(new byte[]{3, 0, 'a', 'b', 'c'});
+        out.writeBytes("note.json\0".getBytes(StandardCharsets.ISO_8859_1));
+        out.writeBytes("a comment\0".getBytes(StandardCharsets.ISO_8859_1));
+        CRC32 headerCrc = new CRC32();
+        headerCrc.update(out.toByteArray());
+        writeLittleEndian(out, headerCrc.getValue(), 2);
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(content);
+        deflater.finish();
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        writeLittleEndian(out, crc.getValue(), 4);
+        writeLittleEndian(out, content.length, 4);
+        return out.toByteArray();
+    }
+
+    private static void writeLittleEndian(ByteArrayOutputStream out, long value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            out.write((int) (value >>> (8 * i)) & 0xff);
+        }
+    }
+
+    /**
+     * Non-blocking request body arriving in chunks, driving the read listener like a container does
+     */
+    private static class AsyncBody extends ServletInputStream {
+
+        private final Deque<byte[]> pending = new ArrayDeque<>();
+        private final Deque<byte[]> arrived = new ArrayDeque<>();
+        private boolean complete;
+        private ReadListener listener;
+
+        AsyncBody(byte[] content, int chunkSize) {
+            for (int i = 0; i < content.length; i += chunkSize) {
+                pending.add(Arrays.copyOfRange(content, i, Math.min(content.length, i + chunkSize)));
+            }
+        }
+
+        HttpServletRequest request() {
+            MockHttpServletRequest request = gzipRequest(new byte[0]);
+            request.setAsyncSupported(true);
+            return new HttpServletRequestWrapper(request) {
+                @Override
+                public ServletInputStream getInputStream() {
+                    return AsyncBody.this;
+                }
+            };
+        }
+
+        void deliver() throws IOException {
+            try {
+                while (!pending.isEmpty()) {
+                    arrived.add(pending.poll());
+                    listener.onDataAvailable();
+                }
+                complete = true;
+                listener.onAllDataRead();
+            } catch (IOException e) {
+                listener.onError(e);
+            }
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (arrived.isEmpty()) {
+                if (complete) {
+                    return -1;
+                }
+                throw new IllegalStateException("read() while not ready");
+            }
+            byte[] chunk = arrived.poll();
+            if (chunk.length > length) {
+                arrived.addFirst(Arrays.copyOfRange(chunk, length, chunk.length));
+            }
+            int n = Math.min(length, chunk.length);
+            System.arraycopy(chunk, 0, buffer, offset, n);
+            return n;
+        }
+
+        @Override
+        public boolean isReady() {
+            return !arrived.isEmpty() || complete;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return complete && arrived.isEmpty();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            listener = readListener;
+        }
+    }
+
+    /**
+     * Reads whatever is ready on each callback, as a non-blocking servlet would
+     */
+    private static class CollectingListener implements ReadListener {
+
+        private final ServletInputStream inputStream;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private int callbacks;
+        private boolean allDataRead;
+        private Throwable error;
+
+        CollectingListener(ServletInputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            callbacks++;
+            byte[] buffer = new byte[100];
+            while (inputStream.isReady() && !inputStream.isFinished()) {
+                int n = inputStream.read(buffer);
+                if (n > 0) {
+                    body.write(buffer, 0, n);
+                }
+            }
+        }
+
+        @Override
+        public void onAllDataRead() {
+            allDataRead = true;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import com.rakeshgupta.notedoc_backend.config.SqlInstrumentationConfig;
+import com.rakeshgupta.notedoc_backend.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstrumentedDataSourceTest {
+
+    @AfterEach
+    void endRequest() {
+        SqlRequestStats.end();
+    }
+
+    @Test
+    void countsStatementsAndRowsOfTheCurrentRequest() throws Exception {
+        DataSource pool = poolReturningThreeRows();
+        SqlRequestStats stats = SqlRequestStats.begin();
+
+        DataSource dataSource = InstrumentedDataSource.wrap(pool, 1_000);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select 1")) {
+            statement.setObject(1, UUID.randomUUID());
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                // drain
+            }
+        }
+
+        assertThat(stats.getStatements()).isEqualTo(1);
+        assertThat(stats.getRows()).isEqualTo(3);
+    }
+
+    @Test
+    void resultSetsOutsideARequestAreNotWrapped() throws Exception {
+        DataSource pool = poolReturningThreeRows();
+
+        DataSource dataSource = InstrumentedDataSource.wrap(pool, 1_000);
+        ResultSet resultSet = dataSource.getConnection().prepareStatement("select 1").executeQuery();
+
+        assertThat(resultSet).isSameAs(pool.getConnection().prepareStatement("select 1").executeQuery());
+    }
+
+    @Test
+    void wrappedPoolIsStillClosedAndUnwrapped() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+
+        DataSource dataSource = InstrumentedDataSource.wrap(pool, 1_000);
+
+        assertThat(dataSource).isInstanceOf(Closeable.class);
+        assertThat(dataSource.unwrap(HikariDataSource.class)).isSameAs(pool);
+        ((Closeable) dataSource).close();
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+    @Test
+    void postProcessorWrapsPoolBeansAndTheAdditionalShardPools() throws Exception {
+        BeanPostProcessor postProcessor = SqlInstrumentationConfig.instrumentedDataSourcePostProcessor(new MockEnvironment());
+        HikariDataSource mainPool = new HikariDataSource();
+        HikariDataSource otherPool = new HikariDataSource();
+
+        Object main = postProcessor.postProcessAfterInitialization(mainPool, "mainShardDataSource");
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        pools.put("main", (DataSource) main);
+        pools.put("other", otherPool);
+        ShardRoutingDataSource shards = (ShardRoutingDataSource) postProcessor.postProcessAfterInitialization(
+                new ShardRoutingDataSource(pools, "main"), "shardRoutingDataSource");
+
+        assertThat(main).isNotInstanceOf(HikariDataSource.class);
+        assertThat(shards.getShard("main")).isSameAs(main);
+        assertThat(shards.getShard("other")).isNotInstanceOf(HikariDataSource.class);
+        assertThat(shards.getShard("other").unwrap(HikariDataSource.class)).isSameAs(otherPool);
+
+        shards.close();
+        assertThat(otherPool.isClosed()).isTrue();
+        assertThat(mainPool.isClosed()).isFalse();
+        mainPool.close();
+    }
+
+    @Test
+    void shapesHideValues() {
+        assertThat(InstrumentedDataSource.shapeOf("secret")).isEqualTo("String(6)");
+        assertThat(InstrumentedDataSource.shapeOf(new byte[4])).isEqualTo("byte[4]");
+        assertThat(InstrumentedDataSource.shapeOf(null)).isEqualTo("null");
+        assertThat(InstrumentedDataSource.shapeOf(UUID.randomUUID())).isEqualTo("UUID");
+    }
+
+    /**
+     * A pool whose statements return three rows
+     */
+    private static DataSource poolReturningThreeRows() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        return pool;
+    }
+}
@@ -0,0 +1,46 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTrackerTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Test
+    void writerReadsFromThePrimaryDuringTheWindow() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(true, 60000);
+
+        tracker.recordWrite(USER_ID);
+
+        assertThat(tracker.isSticky(USER_ID)).isTrue();
+        assertThat(tracker.isSticky(UUID.randomUUID())).isFalse();
+    }
+
+    @Test
+    void windowExpires() throws InterruptedException {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(true, 1);
+        tracker.recordWrite(USER_ID);
+
+        Thread.sleep(5);
+
+        assertThat(tracker.isSticky(USER_ID)).isFalse();
+        tracker.evictExpired();
+        assertThat(tracker.isSticky(USER_ID)).isFalse();
+    }
+
+    @Test
+    void nothingIsStickyWithoutReplicaRouting() {
+        ReadYourWritesTracker disabled = new ReadYourWritesTracker(false, 60000);
+        ReadYourWritesTracker noWindow = new ReadYourWritesTracker(true, 0);
+
+        disabled.recordWrite(USER_ID);
+        noWindow.recordWrite(USER_ID);
+
+        assertThat(disabled.isSticky(USER_ID)).isFalse();
+        assertThat(noWindow.isSticky(USER_ID)).isFalse();
+    }
+}
@@ -0,0 +1,107 @@
+package com.rakeshgupta.notedoc_backend.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReplicaLagMonitor monitor = mock(ReplicaLagMonitor.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replica, monitor, meterRegistry);
+
+    ReplicaRoutingDataSourceTest() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(monitor.isUp()).thenReturn(true);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void writesUseThePrimary() throws SQLException {
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(reads("replica")).isEqualTo(1);
+    }
+
+    @Test
+    void stickyReadsUseThePrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Connection connection = ReplicaRoutingDataSource.onPrimary(() -> ReplicaRoutingDataSource.onPrimary(this::connection));
+
+        assertThat(connection).isSameAs(primaryConnection);
+        assertThat(reads("sticky")).isEqualTo(1);
+        // Leaving the outermost call ends the stickiness
+        assertThat(connection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void readsAvoidALaggingReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(monitor.isLagging()).thenReturn(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(reads("lagging")).isEqualTo(1);
+    }
+
+    @Test
+    void readsAvoidAReplicaThatIsDown() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(monitor.isUp()).thenReturn(false);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+        assertThat(reads("down")).isEqualTo(1);
+    }
+
+    @Test
+    void failedReplicaBorrowFallsBackAndMarksItDown() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        SQLException failure = new SQLException("connection refused");
+        when(replica.getConnection()).thenThrow(failure);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(monitor).markDown(failure);
+        assertThat(reads("down")).isEqualTo(1);
+        assertThat(reads("replica")).isZero();
+    }
+
+    private Connection connection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double reads(String route) {
+        return meterRegistry.get("notedoc.datasource.read.route").tag("route", route).counter().count();
+    }
+}
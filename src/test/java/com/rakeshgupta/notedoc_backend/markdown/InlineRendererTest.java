@@ -0,0 +1,53 @@
+package com.rakeshgupta.notedoc_backend.markdown;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InlineRendererTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "javascript:alert(1)",
+            "JaVaScRiPt:alert(1)",
+            "JAVASCRIPT:alert(1)",
+            "vbscript:msgbox(1)",
+            "VBScript:msgbox(1)",
+            "data:text/html;base64,PHNjcmlwdD5hbGVydCgxKTwvc2NyaXB0Pg==",
+            "DATA:text/html,<script>alert(1)</script>",
+            "java\u0000script:alert(1)",
+            "java\tscript:alert(1)",
+            "java\nscript:alert(1)",
+            "\u0001javascript:alert(1)",
+            "javascript\u007F:alert(1)",
+            " javascript:alert(1)",
+            "file:///etc/passwd",
+            "http://example.com/\u0000"
+    })
+    void rejectsUnsafeUrls(String url) {
+        assertThat(InlineRenderer.safeUrl(url, false)).isNull();
+        assertThat(InlineRenderer.safeUrl(url, true)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "http://example.com",
+            "HTTPS://example.com/a?b=c#d",
+            "/notes/1",
+            "relative/path:with-colon",
+            "?q=javascript:alert(1)",
+            "#javascript:alert(1)"
+    })
+    void keepsSafeUrls(String url) {
+        assertThat(InlineRenderer.safeUrl(url, false)).isEqualTo(url);
+        assertThat(InlineRenderer.safeUrl(url, true)).isEqualTo(url);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mailto:someone@example.com", "MailTo:someone@example.com"})
+    void allowsMailtoForLinksOnly(String url) {
+        assertThat(InlineRenderer.safeUrl(url, false)).isEqualTo(url);
+        assertThat(InlineRenderer.safeUrl(url, true)).isNull();
+    }
+}
@@ -0,0 +1,273 @@
+package com.rakeshgupta.notedoc_backend.markdown;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class MarkdownRendererTest {
+
+    private static final Pattern TAG = Pattern.compile("<(/?)([a-z0-9]+)([^>]*)>");
+    private static final Pattern ATTRIBUTE = Pattern.compile("\\s([a-z-]+)(?:=\"([^\"]*)\")?");
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[x](javascript:alert(1))",
+            "[x](JaVaScRiPt:alert(1))",
+            "[x](<javascript:alert(1)>)",
+            "[x](vbscript:msgbox(1))",
+            "[x](data:text/html;base64,PHNjcmlwdD5hbGVydCgxKTwvc2NyaXB0Pg==)",
+            "[x](java\u0001script:alert(1))",
+            "[x](<java\u0000script:alert(1)>)",
+            "![x](javascript:alert(1))",
+            "![x](DATA:image/svg+xml;base64,PHN2Zz48L3N2Zz4=)",
+            "![x](VBScript:msgbox(1))"
+    })
+    void dropsUnsafeLinkAndImageUrls(String markdown) {
+        assertThat(MarkdownRenderer.render(markdown)).isEqualTo("<p>x</p>\n");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"<javascript:alert(1)>", "<JavaScript:alert(1)>", "<data:text/html,x>", "<vbscript:x>"})
+    void leavesUnsafeAutolinksAsText(String markdown) {
+        String html = MarkdownRenderer.render(markdown);
+
+        assertThat(html).startsWith("<p>&lt;").doesNotContain("<a");
+    }
+
+    @Test
+    void linksAndImagesWithSafeUrls() {
+        assertThat(MarkdownRenderer.render("[x](https://example.com/a?b=1&c=2 \"T\")"))
+                .isEqualTo("<p><a href=\"https://example.com/a?b=1&amp;c=2\" title=\"T\" "
+                        + "rel=\"nofollow noopener noreferrer\">x</a></p>\n");
+        assertThat(MarkdownRenderer.render("![alt](/i.png)"))
+                .isEqualTo("<p><img src=\"/i.png\" alt=\"alt\" loading=\"lazy\" /></p>\n");
+        assertThat(MarkdownRenderer.render("[a](http://x/y_(z)) b"))
+                .isEqualTo("<p><a href=\"http://x/y_(z)\" rel=\"nofollow noopener noreferrer\">a</a> b</p>\n");
+    }
+
+    @Test
+    void unsafeLinkWithParenthesesLeavesNoStrayText() {
+        assertThat(MarkdownRenderer.render("[x](javascript:alert(document.cookie)) y")).isEqualTo("<p>x y</p>\n");
+    }
+
+    @Test
+    void entityEncodedSchemeStaysLiteral() {
+        String html = MarkdownRenderer.render("[x](jav&#x09;ascript:alert(1))");
+
+        // The browser sees the characters "&#x09;", which cannot be part of a scheme
+        assertThat(html).contains("href=\"jav&amp;#x09;ascript:alert(1)\"");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "<script>alert(1)</script>",
+            "<img src=x onerror=alert(1)>",
+            "# <script>alert(1)</script>",
+            "## <img src=x onerror=alert(1)> ##",
+            "Title <svg onload=alert(1)>\n===",
+            "> <script>alert(1)</script>",
+            "- <img src=x onerror=alert(1)>",
+            "a | b\n--|--\n<script>alert(1)</script> | <img src=x onerror=alert(1)>",
+            "<scr<script>ipt>alert(1)</script>",
+            "*<script>alert(1)</script>*",
+            "[<img src=x onerror=alert(1)>](http://a)",
+            "`<script>`",
+            "    <script>alert(1)</script>",
+            "```\n<script>alert(1)</script>\n```"
+    })
+    void escapesRawHtml(String markdown) {
+        String html = MarkdownRenderer.render(markdown);
+
+        assertThat(html).doesNotContain("<script", "<img src=x", "<svg");
+        assertOnlyRendererOutput(html);
+    }
+
+    @Test
+    void escapesRawHtmlInHeadingsAndTableCells() {
+        assertThat(MarkdownRenderer.render("# <img src=x onerror=alert(1)>"))
+                .isEqualTo("<h1>&lt;img src=x onerror=alert(1)&gt;</h1>\n");
+        assertThat(MarkdownRenderer.render("a | b\n--|--\n<script>x</script> | <b onclick=\"y\">"))
+                .isEqualTo("<table>\n<thead>\n<tr>\n<th>a</th>\n<th>b</th>\n</tr>\n</thead>\n<tbody>\n<tr>\n"
+                        + "<td>&lt;script&gt;x&lt;/script&gt;</td>\n<td>&lt;b onclick=&quot;y&quot;&gt;</td>\n"
+                        + "</tr>\n</tbody>\n</table>\n");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[x](http://a \"t\\\" onmouseover=\\\"alert(1)\")",
+            "[x](http://a 't\" onmouseover=\"alert(1)')",
+            "[x](http://a (t\" onmouseover=\"alert(1)))",
+            "[x](<http://a\" onmouseover=\"alert(1)>)",
+            "![a\" onerror=\"alert(1)](http://a/i.png)",
+            "![a' onerror='alert(1)](http://a/i.png)",
+            "![a](http://a/i.png \"t\\\" onerror=\\\"alert(1)\")",
+            "<http://a/\"onmouseover=\"alert(1)>"
+    })
+    void quotesCannotBreakOutOfAttributes(String markdown) {
+        String html = MarkdownRenderer.render(markdown);
+
+        assertThat(html).doesNotContain("onmouseover=\"", "onerror=\"", "onerror='", "onmouseover='");
+        assertOnlyRendererOutput(html);
+    }
+
+    @Test
+    void escapesQuotesInTitlesAndAltText() {
+        assertThat(MarkdownRenderer.render("[x](http://a \"t\\\" onmouseover=\\\"alert(1)\")"))
+                .contains("title=\"t&quot; onmouseover=&quot;alert(1)\"");
+        assertThat(MarkdownRenderer.render("![a\" onerror=\"alert(1)](http://a/i.png)"))
+                .contains("alt=\"a&quot; onerror=&quot;alert(1)\"");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "```js\" onload=\"alert(1)\nx\n```",
+            "```js' onload='alert(1)\nx\n```",
+            "```\"><script>alert(1)</script>\nx\n```",
+            "~~~js&quot;onload=alert(1)\nx\n~~~",
+            "```js\u0000\"x\nx\n```"
+    })
+    void fenceInfoStringCannotInjectIntoClass(String markdown) {
+        String html = MarkdownRenderer.render(markdown);
+
+        assertOnlyRendererOutput(html);
+        Matcher open = Pattern.compile("<code( class=\"([^\"]*)\")?>").matcher(html);
+        assertThat(open.find()).isTrue();
+        if (open.group(2) != null) {
+            assertThat(open.group(2)).matches("language-[A-Za-z0-9#+._-]{1,32}");
+        }
+    }
+
+    @Test
+    void fenceInfoStringKeepsLanguage() {
+        assertThat(MarkdownRenderer.render("```java title=\"x\"\nint a;\n```"))
+                .isEqualTo("<pre><code class=\"language-java\">int a;\n</code></pre>\n");
+        assertThat(MarkdownRenderer.render("```" + "a".repeat(100) + "\nx\n```"))
+                .startsWith("<pre><code class=\"language-" + "a".repeat(32) + "\">");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"*a", "_a", "**a", "~~a", "[a", "![a", "[a](", "[a](b", "`a", "a``", "<a", "*[`", "a\\", "[a](((b"})
+    void unmatchedDelimitersRenderInLinearTime(String unit) {
+        String markdown = unit.repeat(200_000 / unit.length());
+
+        String html = renderWithin(Duration.ofSeconds(2), markdown);
+
+        assertThat(html).startsWith("<p>").endsWith("</p>\n");
+    }
+
+    @Test
+    void codeSpansOfGrowingLengthRenderInTime() {
+        StringBuilder markdown = new StringBuilder();
+        for (int length = 1; markdown.length() < 200_000; length++) {
+            markdown.repeat('`', length).append(' ');
+        }
+
+        renderWithin(Duration.ofSeconds(2), markdown.toString());
+    }
+
+    @Test
+    void manyShortLinesRenderInTime() {
+        String markdown = "> - *a [b](c `d\n".repeat(50_000);
+
+        renderWithin(Duration.ofSeconds(2), markdown);
+    }
+
+    @Test
+    void nestedBlockQuotesStopAtTheDepthLimit() {
+        String html = MarkdownRenderer.render(">".repeat(1_000) + " x");
+
+        assertThat(count(html, "<blockquote>")).isEqualTo(32);
+        assertThat(count(html, "</blockquote>")).isEqualTo(32);
+        assertThat(html).contains("&gt;&gt;&gt;");
+    }
+
+    @Test
+    void nestedListsStopAtTheDepthLimit() {
+        String html = MarkdownRenderer.render("- ".repeat(1_000) + "x");
+
+        assertThat(count(html, "<ul>")).isEqualTo(32);
+        assertThat(count(html, "</ul>")).isEqualTo(32);
+        assertThat(count(html, "<li>")).isEqualTo(count(html, "</li>"));
+    }
+
+    @Test
+    void mixedNestingStopsAtTheDepthLimit() {
+        String html = MarkdownRenderer.render("> 1. ".repeat(1_000) + "x");
+
+        assertThat(count(html, "<blockquote>") + count(html, "<ol>")).isEqualTo(32);
+        assertOnlyRendererOutput(html);
+    }
+
+    @Test
+    void nestedInlineMarkupStaysBalancedAndWithinTheDepthLimit() {
+        String markdown = "*a _b **c __d ~~e [f ***g ___h ".repeat(200) + "x" + " h___ g*** f](http://a) e~~ d__ c** b_ a*".repeat(200);
+
+        String html = renderWithin(Duration.ofSeconds(2), markdown);
+
+        assertThat(inlineDepth(html)).isBetween(1, 16);
+        assertOnlyRendererOutput(html);
+    }
+
+    private static String renderWithin(Duration limit, String markdown) {
+        Supplier<String> render = () -> MarkdownRenderer.render(markdown);
+        return assertTimeoutPreemptively(limit, render::get);
+    }
+
+    /**
+     * Every tag and attribute in the HTML is one the renderer emits, with no event handlers
+     */
+    private static void assertOnlyRendererOutput(String html) {
+        Matcher tag = TAG.matcher(html);
+        while (tag.find()) {
+            assertThat(tag.group(2)).isIn("p", "h1", "h2", "h3", "h4", "h5", "h6", "blockquote", "ul", "ol", "li",
+                    "pre", "code", "hr", "table", "thead", "tbody", "tr", "th", "td", "em", "strong", "del", "a",
+                    "img", "br", "input");
+            Matcher attribute = ATTRIBUTE.matcher(tag.group(3));
+            while (attribute.find()) {
+                assertThat(attribute.group(1)).isIn("href", "src", "alt", "title", "rel", "class", "style", "start",
+                        "loading", "type", "checked", "disabled");
+            }
+        }
+    }
+
+    /**
+     * Deepest nesting of inline elements; fails if they are not balanced
+     */
+    private static int inlineDepth(String html) {
+        Deque<String> open = new ArrayDeque<>();
+        int deepest = 0;
+        Matcher tag = TAG.matcher(html);
+        while (tag.find()) {
+            String name = tag.group(2);
+            if (!name.matches("em|strong|del|a")) {
+                continue;
+            }
+            if (tag.group(1).isEmpty()) {
+                open.push(name);
+                deepest = Math.max(deepest, open.size());
+            } else {
+                assertThat(open.pop()).isEqualTo(name);
+            }
+        }
+        assertThat(open).isEmpty();
+        return deepest;
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
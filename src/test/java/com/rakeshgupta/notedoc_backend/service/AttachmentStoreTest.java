@@ -0,0 +1,115 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.exception.ContentTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AttachmentStoreTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void uploadIsHashedWhileReceived() throws IOException {
+        AttachmentStore store = store();
+
+        try (AttachmentStore.Upload upload = receive(store, "hello")) {
+            assertThat(upload.sha256()).isEqualTo(HELLO_SHA256);
+            assertThat(upload.size()).isEqualTo(5);
+            assertThat(Files.readString(upload.file())).isEqualTo("hello");
+        }
+    }
+
+    @Test
+    void oversizedUploadLeavesNoFileBehind() throws IOException {
+        AttachmentStore store = store();
+
+        assertThatThrownBy(() -> store.receive(new ByteArrayInputStream(new byte[11]), 10))
+                .isInstanceOf(ContentTooLargeException.class);
+        assertThat(incomingFiles()).isZero();
+    }
+
+    @Test
+    void publishedFileIsStoredUnderItsHash() throws IOException {
+        AttachmentStore store = store();
+
+        try (AttachmentStore.Upload upload = receive(store, "hello")) {
+            assertThat(store.locked(USER_ID, upload.sha256(), () -> store.publish(USER_ID, upload))).isTrue();
+        }
+
+        Path stored = store.path(USER_ID, HELLO_SHA256);
+        assertThat(stored).isEqualTo(dir.resolve(USER_ID.toString()).resolve("2c").resolve(HELLO_SHA256));
+        assertThat(Files.readString(stored)).isEqualTo("hello");
+        assertThat(incomingFiles()).isZero();
+    }
+
+    @Test
+    void sameContentIsStoredOncePerUser() throws IOException {
+        AttachmentStore store = store();
+        UUID otherUser = UUID.randomUUID();
+        try (AttachmentStore.Upload upload = receive(store, "hello")) {
+            store.publish(USER_ID, upload);
+        }
+
+        try (AttachmentStore.Upload again = receive(store, "hello");
+             AttachmentStore.Upload otherUsers = receive(store, "hello")) {
+            assertThat(store.publish(USER_ID, again)).isFalse();
+            assertThat(store.publish(otherUser, otherUsers)).isTrue();
+        }
+
+        // Closing an unpublished upload deletes its temporary file
+        assertThat(incomingFiles()).isZero();
+        assertThat(store.path(otherUser, HELLO_SHA256)).exists();
+    }
+
+    @Test
+    void deletedFileIsGoneAndDeletingTwiceIsHarmless() throws IOException {
+        AttachmentStore store = store();
+        try (AttachmentStore.Upload upload = receive(store, "hello")) {
+            store.publish(USER_ID, upload);
+        }
+
+        store.delete(USER_ID, HELLO_SHA256);
+        store.delete(USER_ID, HELLO_SHA256);
+
+        assertThat(store.path(USER_ID, HELLO_SHA256)).doesNotExist();
+    }
+
+    @Test
+    void leftoverUploadsAreDeletedOnStartup() throws IOException {
+        Files.createDirectories(dir.resolve("incoming"));
+        Files.writeString(dir.resolve("incoming").resolve("upload-1.tmp"), "interrupted");
+
+        store();
+
+        assertThat(incomingFiles()).isZero();
+    }
+
+    private AttachmentStore store() throws IOException {
+        return new AttachmentStore(dir.toString());
+    }
+
+    private static AttachmentStore.Upload receive(AttachmentStore store, String content) throws IOException {
+        return store.receive(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), 1024);
+    }
+
+    private long incomingFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("incoming"))) {
+            return files.count();
+        }
+    }
+}
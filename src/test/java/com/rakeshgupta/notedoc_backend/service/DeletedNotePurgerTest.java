@@ -0,0 +1,178 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.repository.AttachmentRepository;
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import com.rakeshgupta.notedoc_backend.repository.UserNoteStatsRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DeletedNotePurgerTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID OTHER_USER_ID = UUID.randomUUID();
+    private static final LocalDateTime DELETED_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final TagRepository tagRepository = mock(TagRepository.class);
+    private final AttachmentRepository attachmentRepository = mock(AttachmentRepository.class);
+    private final UserNoteStatsRepository statsRepository = mock(UserNoteStatsRepository.class);
+    private final AttachmentStore attachmentStore = mock(AttachmentStore.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DeletedNotePurger purger;
+
+    DeletedNotePurgerTest() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ShardRoutingDataSource> shards = mock(ObjectProvider.class);
+        purger = new DeletedNotePurger(noteRepository, tagRepository, attachmentRepository, statsRepository,
+                attachmentStore, shards, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(purger, "enabled", true);
+        ReflectionTestUtils.setField(purger, "retentionDays", 30);
+        ReflectionTestUtils.setField(purger, "batchSize", 2);
+        ReflectionTestUtils.setField(purger, "batchPauseMs", 0L);
+        doAnswer(invocation -> ((List<?>) invocation.getArgument(1)).size())
+                .when(noteRepository).purgeDeletedNotes(any(), anyCollection());
+        doAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get())
+                .when(attachmentStore).locked(any(), anyString(), any());
+    }
+
+    @Test
+    void candidatesAreWalkedInBatchesUntilAShortOne() {
+        List<Object[]> candidates = candidates(5, USER_ID);
+        when(noteRepository.findFirstPurgeCandidates(any(), eq(Limit.of(2)))).thenReturn(candidates.subList(0, 2));
+        whenAfter(candidates.get(1)).thenReturn(candidates.subList(2, 4));
+        whenAfter(candidates.get(3)).thenReturn(candidates.subList(4, 5));
+
+        purger.purgeAll();
+
+        verify(noteRepository, times(2)).findPurgeCandidatesAfter(any(), any(), any(), any());
+        verify(transactionManager, times(3)).commit(any());
+        for (int from = 0; from < 5; from += 2) {
+            verify(noteRepository).purgeDeletedNotes(USER_ID, ids(candidates.subList(from, Math.min(5, from + 2))));
+        }
+        assertThat(meterRegistry.get("notedoc.purge.notes").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("notedoc.purge.run.notes").gauge().value()).isEqualTo(5);
+    }
+
+    @Test
+    void fullLastBatchIsFollowedByAnEmptyOne() {
+        List<Object[]> candidates = candidates(2, USER_ID);
+        when(noteRepository.findFirstPurgeCandidates(any(), any())).thenReturn(candidates);
+        whenAfter(candidates.get(1)).thenReturn(List.of());
+
+        purger.purgeAll();
+
+        verify(noteRepository, times(1)).findPurgeCandidatesAfter(any(), any(), any(), any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void onlyNotesDeletedBeforeTheRetentionPeriodAreCandidates() {
+        when(noteRepository.findFirstPurgeCandidates(any(), any())).thenReturn(List.of());
+
+        purger.purgeAll();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(noteRepository).findFirstPurgeCandidates(cutoff.capture(), any());
+        assertThat(cutoff.getValue()).isCloseTo(LocalDateTime.now().minusDays(30), within(1, ChronoUnit.MINUTES));
+        verifyNoInteractions(transactionManager, statsRepository);
+    }
+
+    @Test
+    void batchIsPurgedPerUserAndCountedAsDeletedNotesGone() {
+        List<Object[]> candidates = new ArrayList<>(candidates(1, USER_ID));
+        candidates.addAll(candidates(1, OTHER_USER_ID));
+        ReflectionTestUtils.setField(purger, "batchSize", 10);
+        when(noteRepository.findFirstPurgeCandidates(any(), any())).thenReturn(candidates);
+        // The other user's note was restored since it was selected
+        doAnswer(invocation -> 0).when(noteRepository).purgeDeletedNotes(eq(OTHER_USER_ID), anyCollection());
+
+        purger.purgeAll();
+
+        verify(tagRepository).deleteNoteTagIds(ids(candidates.subList(0, 1)));
+        verify(noteRepository).purgeDeletedNotes(USER_ID, ids(candidates.subList(0, 1)));
+        verify(statsRepository).applyDelta(USER_ID, 0, 0, 0, -1, 0);
+        verify(statsRepository, never()).applyDelta(eq(OTHER_USER_ID), anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+        assertThat(meterRegistry.get("notedoc.purge.notes").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void attachmentFilesAreDeletedAfterCommitOnlyWhenUnreferenced() {
+        List<Object[]> candidates = candidates(1, USER_ID);
+        List<UUID> ids = ids(candidates);
+        when(noteRepository.findFirstPurgeCandidates(any(), any())).thenReturn(candidates);
+        when(attachmentRepository.findFilesOfNotes(USER_ID, ids)).thenReturn(List.of("unshared", "shared", "unshared"));
+        when(attachmentRepository.countByUserIdAndSha256(USER_ID, "unshared")).thenReturn(0L);
+        when(attachmentRepository.countByUserIdAndSha256(USER_ID, "shared")).thenReturn(1L);
+
+        purger.purgeAll();
+
+        InOrder order = inOrder(attachmentRepository, transactionManager, attachmentStore);
+        order.verify(attachmentRepository).deleteByNoteIds(USER_ID, ids);
+        order.verify(transactionManager).commit(any());
+        order.verify(attachmentStore).delete(USER_ID, "unshared");
+        verify(attachmentStore, never()).delete(USER_ID, "shared");
+        verify(attachmentStore, times(1)).delete(any(), anyString());
+        assertThat(meterRegistry.get("notedoc.purge.files").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledPurgerDoesNothing() {
+        ReflectionTestUtils.setField(purger, "enabled", false);
+
+        purger.purgeAll();
+
+        verifyNoInteractions(noteRepository, transactionManager);
+    }
+
+    private OngoingStubbing<List<Object[]>> whenAfter(Object[] last) {
+        return when(noteRepository.findPurgeCandidatesAfter(any(), eq((LocalDateTime) last[2]), eq((UUID) last[0]), any()));
+    }
+
+    /**
+     * [id, userId, updatedAt] rows in purge order
+     */
+    private static List<Object[]> candidates(int count, UUID userId) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), userId, DELETED_AT.plusMinutes(i)});
+        }
+        return rows;
+    }
+
+    private static List<UUID> ids(List<Object[]> rows) {
+        return rows.stream().map(row -> (UUID) row[0]).toList();
+    }
+}
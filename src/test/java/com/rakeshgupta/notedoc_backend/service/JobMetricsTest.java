@@ -0,0 +1,31 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void runsAreTimedByOutcomeAndFailuresCounted() {
+        JobMetrics.record(meterRegistry, "note-purge", System.nanoTime(), true);
+        JobMetrics.record(meterRegistry, "note-purge", System.nanoTime(), true);
+        JobMetrics.record(meterRegistry, "note-purge", System.nanoTime(), false);
+
+        assertThat(meterRegistry.get(JobMetrics.DURATION_NAME).tag("job", "note-purge").tag("outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(JobMetrics.DURATION_NAME).tag("job", "note-purge").tag("outcome", "failure")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(JobMetrics.FAILURES_NAME).tag("job", "note-purge").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failureCounterExistsBeforeTheFirstFailure() {
+        JobMetrics.record(meterRegistry, "keep-alive", System.nanoTime(), true);
+
+        assertThat(meterRegistry.get(JobMetrics.FAILURES_NAME).tag("job", "keep-alive").counter().count()).isZero();
+    }
+}
@@ -0,0 +1,189 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.admission.AdmissionControl;
+import com.rakeshgupta.notedoc_backend.config.AdmissionProperties;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteContentInfoDto;
+import com.rakeshgupta.notedoc_backend.exception.AdmissionRejectedException;
+import com.rakeshgupta.notedoc_backend.jdbc.ReadYourWritesTracker;
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class NoteContentServiceTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Test
+    void rejectedQueriesNeverReachTheDatabase() {
+        NoteRepository repository = repositoryOf("content");
+        AdmissionControl admissionControl = admissionControl(1);
+        NoteContentService service = service(repository, admissionControl, 4);
+        admissionControl.acquire(USER_ID, 0);
+
+        assertThatThrownBy(() -> service.describe(ID, USER_ID)).isInstanceOf(AdmissionRejectedException.class);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void streamedReadsHoldNoSlotWhileWritingToTheClient() throws Exception {
+        AdmissionControl admissionControl = admissionControl(1);
+        NoteContentService service = service(repositoryOf("0123456789"), admissionControl, 4);
+        NoteContentInfoDto info = service.describe(ID, USER_ID);
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        OutputStream client = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written.write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                // The only slot is free between slice queries
+                admissionControl.release(admissionControl.acquire(USER_ID, 0));
+                written.write(bytes, offset, length);
+            }
+        };
+
+        service.write(info, USER_ID, 0, info.getLength() - 1, client);
+
+        assertThat(written.toString(StandardCharsets.UTF_8)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void rangeStartingInsideASliceSkipsTheSlicesBeforeIt() throws Exception {
+        NoteRepository repository = repositoryOf("0123456789abcdef");
+        NoteContentService service = service(repository, admissionControl(1), 4);
+
+        assertThat(write(service, 6, 9)).isEqualTo("6789".getBytes(StandardCharsets.UTF_8));
+        // Only the slice holding the range is fetched, the one before it is only measured
+        verify(repository, never()).findContentChunk(eq(ID), eq(USER_ID), any(), eq(1), anyInt());
+        verify(repository, times(1)).findContentChunk(eq(ID), eq(USER_ID), any(), eq(5), anyInt());
+    }
+
+    @Test
+    void surrogatePairAtASliceBoundaryIsWrittenWhole() throws Exception {
+        // The first slice of four UTF-16 units ends with the high surrogate of the emoji
+        String content = "abc\uD83D\uDE00def";
+        NoteContentService service = service(repositoryOf(content), admissionControl(1), 4);
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(write(service, 0, bytes.length - 1)).isEqualTo(bytes);
+        assertThat(write(service, 3, 6)).isEqualTo("\uD83D\uDE00".getBytes(StandardCharsets.UTF_8));
+        assertThat(write(service, 5, 8)).isEqualTo(Arrays.copyOfRange(bytes, 5, 9));
+    }
+
+    @Test
+    void lastByteAloneIsWritten() throws Exception {
+        String content = "note ending in \u00e9";
+        NoteContentService service = service(repositoryOf(content), admissionControl(1), 4);
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(write(service, bytes.length - 1, bytes.length - 1)).containsExactly(bytes[bytes.length - 1]);
+    }
+
+    @Test
+    void everyRangeMatchesTheContentBytesWhateverTheSliceSize() throws Exception {
+        String content = "a\uD83D\uDE00\u00e9\u20acb\uD83D\uDE00c";
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        for (int chunkChars = 1; chunkChars <= 5; chunkChars++) {
+            NoteContentService service = service(repositoryOf(content), admissionControl(1), chunkChars);
+            for (int start = 0; start < bytes.length; start++) {
+                for (int end = start; end < bytes.length; end++) {
+                    assertThat(write(service, start, end))
+                            .as("bytes %d-%d in slices of %d", start, end, chunkChars)
+                            .isEqualTo(Arrays.copyOfRange(bytes, start, end + 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rangeOfANoteChangedSinceItWasDescribedFails() {
+        NoteContentService service = service(repositoryOf("0123456789"), admissionControl(1), 4);
+        NoteContentInfoDto changed = new NoteContentInfoDto(ID, 10, UPDATED_AT.plusSeconds(1));
+
+        assertThatThrownBy(() -> service.write(changed, USER_ID, 6, 9, new ByteArrayOutputStream()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("changed");
+    }
+
+    private static byte[] write(NoteContentService service, long start, long end) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.write(service.describe(ID, USER_ID), USER_ID, start, end, out);
+        return out.toByteArray();
+    }
+
+    private static NoteContentService service(NoteRepository repository, AdmissionControl admissionControl, int chunkChars) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ShardRouter> router = mock(ObjectProvider.class);
+        return new NoteContentService(repository, new ReadYourWritesTracker(false, 0), router, admissionControl,
+                mock(PlatformTransactionManager.class), chunkChars, 16, 1024, 1 << 20);
+    }
+
+    private static AdmissionControl admissionControl(int limit) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(limit);
+        properties.setMinLimit(limit);
+        properties.setMaxLimit(limit);
+        return new AdmissionControl(properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * A repository holding one note, whose substrings count UTF-16 units like H2 does
+     */
+    private static NoteRepository repositoryOf(String content) {
+        NoteRepository repository = mock(NoteRepository.class);
+        long size = content.getBytes(StandardCharsets.UTF_8).length;
+        when(repository.findContentInfo(ID, USER_ID))
+                .thenReturn(Collections.singletonList(new Object[]{size, UPDATED_AT}));
+        when(repository.findContentChunk(eq(ID), eq(USER_ID), any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            if (!UPDATED_AT.equals(invocation.getArgument(2))) {
+                return Optional.empty();
+            }
+            return Optional.of(substring(content, invocation.getArgument(3), invocation.getArgument(4)));
+        });
+        when(repository.findContentSliceInfo(eq(ID), eq(USER_ID), any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            if (!UPDATED_AT.equals(invocation.getArgument(2))) {
+                return Collections.emptyList();
+            }
+            int from = invocation.getArgument(3);
+            int length = invocation.getArgument(4);
+            String slice = substring(content, from, length);
+            Object[] row = {(long) slice.getBytes(StandardCharsets.UTF_8).length, substring(content, from + length - 1, 1)};
+            return Collections.singletonList(row);
+        });
+        return repository;
+    }
+
+    private static String substring(String content, int from, int length) {
+        int start = Math.min(content.length(), from - 1);
+        return content.substring(start, Math.min(content.length(), start + length));
+    }
+}
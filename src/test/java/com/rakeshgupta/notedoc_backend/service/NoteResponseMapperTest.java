@@ -0,0 +1,49 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.entity.Note;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteResponseMapperTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Test
+    void searchHitLeavesContentOutOfTheResponse() {
+        JsonNode hit = jsonMapper.valueToTree(NoteResponseMapper.toSearchResultDto(note(), "budget", false));
+
+        assertThat(hit.has("content")).isFalse();
+        assertThat(hit.get("snippet").get("text").asString()).contains("budget");
+        assertThat(hit.get("title").asString()).isEqualTo("Meeting");
+    }
+
+    @Test
+    void searchHitCarriesContentWhenRequested() {
+        JsonNode hit = jsonMapper.valueToTree(NoteResponseMapper.toSearchResultDto(note(), "budget", true));
+
+        assertThat(hit.get("content").asString()).isEqualTo("Review the budget");
+        assertThat(hit.has("snippet")).isTrue();
+    }
+
+    @Test
+    void plainResponseHasNoSnippet() {
+        JsonNode note = jsonMapper.valueToTree(NoteResponseMapper.toResponseDto(note()));
+
+        assertThat(note.get("content").asString()).isEqualTo("Review the budget");
+        assertThat(note.has("snippet")).isFalse();
+    }
+
+    private static Note note() {
+        Note note = new Note();
+        note.setId(UUID.randomUUID());
+        note.setUserId(UUID.randomUUID());
+        note.setTitle("Meeting");
+        note.setContent("Review the budget");
+        return note;
+    }
+}
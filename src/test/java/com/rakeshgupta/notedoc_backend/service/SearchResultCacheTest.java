@@ -0,0 +1,119 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID OTHER_USER_ID = UUID.randomUUID();
+    private static final Pageable PAGE = PageRequest.of(0, 10);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void repeatedSearchIsServedFromTheCache() {
+        SearchResultCache cache = cache(10, 10);
+        Page<NoteResponseDto> first = search(cache, USER_ID, "Budget", "first");
+
+        assertThat(search(cache, USER_ID, " budget ", "second")).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void writeThenSearchReturnsFreshResults() {
+        SearchResultCache cache = cache(10, 10);
+        search(cache, USER_ID, "budget", "before write");
+        search(cache, OTHER_USER_ID, "budget", "other user");
+
+        cache.invalidate(USER_ID);
+
+        assertThat(title(search(cache, USER_ID, "budget", "after write"))).isEqualTo("after write");
+        assertThat(title(search(cache, USER_ID, "budget", "unexpected"))).isEqualTo("after write");
+        assertThat(title(search(cache, OTHER_USER_ID, "budget", "unexpected"))).isEqualTo("other user");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void writeInATransactionInvalidatesOnlyOnceItCommits() {
+        SearchResultCache cache = cache(10, 10);
+        search(cache, USER_ID, "budget", "before write");
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(USER_ID);
+        assertThat(title(search(cache, USER_ID, "budget", "unexpected"))).isEqualTo("before write");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(title(search(cache, USER_ID, "budget", "after write"))).isEqualTo("after write");
+    }
+
+    @Test
+    void versionEvictionNeverResurrectsAStalePage() {
+        SearchResultCache cache = cache(10, 1);
+        // Cached at the floor version, since the user has not written yet
+        search(cache, USER_ID, "budget", "before write");
+        cache.invalidate(USER_ID);
+
+        // Only one user's version is kept, so this drops USER_ID's and raises the floor past it
+        cache.invalidate(OTHER_USER_ID);
+
+        assertThat(title(search(cache, USER_ID, "budget", "after write"))).isEqualTo("after write");
+        assertThat(title(search(cache, USER_ID, "budget", "unexpected"))).isEqualTo("after write");
+    }
+
+    @Test
+    void leastRecentlyUsedPageIsEvictedWhenFull() {
+        SearchResultCache cache = cache(2, 10);
+        search(cache, USER_ID, "one", "one");
+        search(cache, USER_ID, "two", "two");
+        search(cache, USER_ID, "one", "unexpected");
+
+        search(cache, USER_ID, "three", "three");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(title(search(cache, USER_ID, "one", "unexpected"))).isEqualTo("one");
+        assertThat(title(search(cache, USER_ID, "two", "two again"))).isEqualTo("two again");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(loads).hasValue(4);
+    }
+
+    private Page<NoteResponseDto> search(SearchResultCache cache, UUID userId, String query, String title) {
+        return cache.getOrLoad(userId, query, PAGE, () -> {
+            loads.incrementAndGet();
+            NoteResponseDto note = new NoteResponseDto();
+            note.setTitle(title);
+            return new PageImpl<>(List.of(note), PAGE, 1);
+        });
+    }
+
+    private static SearchResultCache cache(int maxEntries, int maxUsers) {
+        return new SearchResultCache(true, 60000, maxEntries, maxUsers, new SimpleMeterRegistry());
+    }
+
+    private static String title(Page<NoteResponseDto> page) {
+        return page.getContent().getFirst().getTitle();
+    }
+}
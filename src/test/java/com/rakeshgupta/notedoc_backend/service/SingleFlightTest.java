@@ -0,0 +1,154 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String, Object> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseLeader = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void joinersShareTheLeadersResult() throws Exception {
+        Object result = new Object();
+        Future<Object> leader = executor.submit(() -> singleFlight.execute("user", "page", () -> blockingCall(result), () -> {
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CountDownLatch joined = new CountDownLatch(3);
+        List<Future<Object>> joiners = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            joiners.add(executor.submit(() -> singleFlight.execute("user", "page", () -> {
+                executions.incrementAndGet();
+                return new Object();
+            }, joined::countDown)));
+        }
+        assertThat(joined.await(5, TimeUnit.SECONDS)).isTrue();
+
+        releaseLeader.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        for (Future<Object> joiner : joiners) {
+            assertThat(joiner.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    void exceptionReachesEveryWaiter() throws Exception {
+        IllegalStateException failure = new IllegalStateException("query failed");
+        Future<Object> leader = executor.submit(() -> singleFlight.execute("user", "page", () -> {
+            blockingCall(null);
+            throw failure;
+        }, () -> {
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CountDownLatch joined = new CountDownLatch(2);
+        List<Future<Object>> joiners = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            joiners.add(executor.submit(() -> singleFlight.execute("user", "page", Object::new, joined::countDown)));
+        }
+        assertThat(joined.await(5, TimeUnit.SECONDS)).isTrue();
+
+        releaseLeader.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isSameAs(failure);
+        for (Future<Object> joiner : joiners) {
+            assertThatThrownBy(() -> joiner.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    void callsOfAForgottenGroupAreNotJoined() throws Exception {
+        Object before = new Object();
+        Object after = new Object();
+        Future<Object> leader = executor.submit(() -> singleFlight.execute("user", "page", () -> blockingCall(before), () -> {
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        singleFlight.forget("user");
+        Object fresh = singleFlight.execute("user", "page", () -> {
+            executions.incrementAndGet();
+            return after;
+        }, () -> {
+            throw new AssertionError("joined a forgotten call");
+        });
+        releaseLeader.countDown();
+
+        assertThat(fresh).isSameAs(after);
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(before);
+        assertThat(executions).hasValue(2);
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    void forgettingAGroupLeavesOtherGroupsAlone() throws Exception {
+        Object result = new Object();
+        Future<Object> leader = executor.submit(() -> singleFlight.execute("user", "page", () -> blockingCall(result), () -> {
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        singleFlight.forget("other user");
+        CountDownLatch joined = new CountDownLatch(1);
+        Future<Object> joiner = executor.submit(() -> singleFlight.execute("user", "page", Object::new, joined::countDown));
+        assertThat(joined.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(singleFlight.size()).isEqualTo(1);
+        releaseLeader.countDown();
+
+        assertThat(joiner.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(result);
+    }
+
+    @Test
+    void differentKeysRunSeparately() {
+        singleFlight.execute("user", "page 1", executions::incrementAndGet, () -> {
+        });
+        singleFlight.execute("user", "page 2", executions::incrementAndGet, () -> {
+        });
+        singleFlight.execute("user", "page 1", executions::incrementAndGet, () -> {
+        });
+
+        assertThat(executions).hasValue(3);
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    private Object blockingCall(Object result) {
+        executions.incrementAndGet();
+        leaderStarted.countDown();
+        try {
+            if (!releaseLeader.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("leader was never released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+        return result;
+    }
+}
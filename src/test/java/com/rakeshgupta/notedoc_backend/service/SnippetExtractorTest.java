@@ -0,0 +1,204 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.SearchSnippetDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static com.rakeshgupta.notedoc_backend.service.SnippetExtractor.SNIPPET_LENGTH;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnippetExtractorTest {
+
+    private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua ";
+
+    @Test
+    void matchAtTheStart() {
+        String content = "Needle " + WORDS.repeat(10);
+
+        SearchSnippetDto snippet = extract(content, "needle");
+
+        assertThat(snippet.getOffset()).isZero();
+        assertThat(snippet.getHighlights()).containsExactly(new int[]{0, 6});
+        assertThat(snippet.isTruncated()).isTrue();
+        assertThat(snippet.getText().length()).isLessThanOrEqualTo(SNIPPET_LENGTH);
+    }
+
+    @Test
+    void matchAtTheEnd() {
+        String content = WORDS.repeat(10) + "needle";
+
+        SearchSnippetDto snippet = extract(content, "NEEDLE");
+
+        assertThat(snippet.getText()).endsWith("needle");
+        assertThat(snippet.isTruncated()).isFalse();
+        assertThat(snippet.getOffset()).isPositive();
+        int[] highlight = snippet.getHighlights().getFirst();
+        assertThat(highlight[1]).isEqualTo(snippet.getText().length());
+        // Widened to whole words: starts right after a space
+        assertThat(content.charAt(snippet.getOffset() - 1)).isEqualTo(' ');
+    }
+
+    @Test
+    void matchInTheMiddleIsCentered() {
+        String content = WORDS.repeat(10) + "needle " + WORDS.repeat(10);
+
+        SearchSnippetDto snippet = extract(content, "needle");
+
+        int[] highlight = snippet.getHighlights().getFirst();
+        int before = highlight[0];
+        int after = snippet.getText().length() - highlight[1];
+        assertThat(Math.abs(before - after)).isLessThan(30);
+    }
+
+    @Test
+    void queryLongerThanTheSnippet() {
+        String needle = "x".repeat(SNIPPET_LENGTH + 50);
+        String content = WORDS.repeat(5) + needle + " " + WORDS.repeat(5);
+
+        SearchSnippetDto snippet = extract(content, needle);
+
+        assertThat(snippet.getText()).isEqualTo(needle);
+        assertThat(snippet.getHighlights()).containsExactly(new int[]{0, needle.length()});
+    }
+
+    @Test
+    void queryLongerThanTheContent() {
+        SearchSnippetDto snippet = extract("short", "short but longer");
+
+        assertThat(snippet.getText()).isEqualTo("short");
+        assertThat(snippet.getHighlights()).isEmpty();
+    }
+
+    @Test
+    void windowWithTheMostMatchesWins() {
+        String content = "one zq " + WORDS.repeat(5) + "zq ZQ xx zq " + WORDS.repeat(5);
+
+        SearchSnippetDto snippet = extract(content, "zq");
+
+        assertThat(snippet.getHighlights()).hasSize(3);
+        assertThat(snippet.getOffset()).isGreaterThan(WORDS.length());
+        assertThat(snippet.getHighlights()).allSatisfy(highlight ->
+                assertThat(snippet.getText().substring(highlight[0], highlight[1])).isEqualToIgnoringCase("zq"));
+    }
+
+    @Test
+    void overlappingMatchesAreNotHighlightedTwice() {
+        SearchSnippetDto snippet = extract("aaaaa", "aa");
+
+        assertThat(snippet.getHighlights()).containsExactly(new int[]{0, 2}, new int[]{2, 4});
+    }
+
+    @Test
+    void cutNextToASurrogatePairKeepsThePairWhole() {
+        String emoji = "😀";
+        // No whitespace to widen to, so the cuts fall inside the runs of emoji
+        String content = emoji.repeat(300) + "needle" + emoji.repeat(300);
+
+        for (int shift = 0; shift < 4; shift++) {
+            String shifted = "a".repeat(shift) + content;
+            SearchSnippetDto snippet = extract(shifted, "needle");
+
+            assertValid(shifted, "needle", snippet);
+            assertThat(snippet.getHighlights()).hasSize(1);
+        }
+    }
+
+    @Test
+    void leadingExcerptWithoutMatchKeepsSurrogatePairsWhole() {
+        String content = "😀".repeat(SNIPPET_LENGTH);
+
+        for (String shifted : new String[]{content, "a" + content}) {
+            SearchSnippetDto snippet = extract(shifted, "missing");
+
+            assertValid(shifted, "missing", snippet);
+            assertThat(snippet.getOffset()).isZero();
+            assertThat(snippet.getHighlights()).isEmpty();
+        }
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "   ", "\t\n"})
+    void nullOrBlankQueryGivesTheLeadingExcerpt(String query) {
+        String content = WORDS.repeat(10);
+
+        SearchSnippetDto snippet = SnippetExtractor.extract("Title", content, query);
+
+        assertThat(snippet.getOffset()).isZero();
+        assertThat(snippet.getHighlights()).isEmpty();
+        assertThat(snippet.getTitleHighlights()).isEmpty();
+        assertThat(snippet.isTruncated()).isTrue();
+        assertThat(content).startsWith(snippet.getText());
+        assertThat(snippet.getText()).doesNotEndWith(" ");
+        assertThat(snippet.getText().length()).isLessThanOrEqualTo(SNIPPET_LENGTH);
+    }
+
+    @Test
+    void nullContentHasOnlyTitleHighlights() {
+        SearchSnippetDto snippet = SnippetExtractor.extract("A title about Java", null, "java");
+
+        assertThat(snippet.getText()).isNull();
+        assertThat(snippet.getHighlights()).isEmpty();
+        assertThat(snippet.getTitleHighlights()).containsExactly(new int[]{14, 18});
+    }
+
+    @Test
+    void queryIsTrimmed() {
+        SearchSnippetDto snippet = extract("find the needle here", "  needle ");
+
+        assertThat(snippet.getHighlights()).containsExactly(new int[]{9, 15});
+    }
+
+    @Test
+    void highlightsStayInsideTheExcerptForRandomContent() {
+        Random random = new Random(42);
+        String[] pieces = {"a", "b", "ab", " ", "\n", "😀", "é", "AB", "  "};
+        for (int run = 0; run < 2_000; run++) {
+            StringBuilder content = new StringBuilder();
+            int length = random.nextInt(600);
+            while (content.length() < length) {
+                content.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String query = switch (random.nextInt(4)) {
+                case 0 -> "ab";
+                case 1 -> "a b";
+                case 2 -> "😀a";
+                default -> "b".repeat(1 + random.nextInt(SNIPPET_LENGTH + 20));
+            };
+
+            assertValid(content.toString(), query, extract(content.toString(), query));
+        }
+    }
+
+    private static SearchSnippetDto extract(String content, String query) {
+        return SnippetExtractor.extract(null, content, query);
+    }
+
+    /**
+     * The excerpt is the content at its offset, does not split a surrogate pair, and every highlight
+     * lies within it and covers a match of the query
+     */
+    private static void assertValid(String content, String query, SearchSnippetDto snippet) {
+        String text = snippet.getText();
+        int offset = snippet.getOffset();
+        assertThat(offset).isBetween(0, content.length());
+        assertThat(content.substring(offset, offset + text.length())).isEqualTo(text);
+        assertThat(snippet.isTruncated()).isEqualTo(offset + text.length() < content.length());
+        if (!text.isEmpty()) {
+            assertThat(Character.isLowSurrogate(text.charAt(0))).isFalse();
+            assertThat(Character.isHighSurrogate(text.charAt(text.length() - 1))).isFalse();
+        }
+        int previousEnd = 0;
+        for (int[] highlight : snippet.getHighlights()) {
+            assertThat(highlight[0]).isBetween(previousEnd, text.length() - 1);
+            assertThat(highlight[1]).isBetween(highlight[0] + 1, text.length());
+            assertThat(text.substring(highlight[0], highlight[1])).isEqualToIgnoringCase(query.trim());
+            previousEnd = highlight[1];
+        }
+    }
+}
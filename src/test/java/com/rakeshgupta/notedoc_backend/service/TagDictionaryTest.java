@@ -0,0 +1,115 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.entity.Tag;
+import com.rakeshgupta.notedoc_backend.exception.TagConflictException;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TagDictionaryTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final TagRepository repository = mock(TagRepository.class);
+    private final TagDictionary dictionary = new TagDictionary(repository, 100, new SimpleMeterRegistry());
+    private final List<Tag> committed = new ArrayList<>();
+
+    TagDictionaryTest() {
+        doAnswer(invocation -> List.copyOf(committed)).when(repository).findByUserId(USER_ID);
+        doAnswer(invocation -> null).when(repository).findTagId(eq(USER_ID), anyString());
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(dictionary);
+    }
+
+    @Test
+    void knownNamesAreTranslatedFromTheCache() {
+        committed.add(new Tag(USER_ID, 1, "work", 0));
+        committed.add(new Tag(USER_ID, 2, "home", 0));
+
+        assertThat(dictionary.idsByName(USER_ID, List.of("work", "home"))).isEqualTo(Map.of("work", 1, "home", 2));
+        assertThat(dictionary.toNames(USER_ID, List.of(2))).containsExactly("home");
+
+        verify(repository, times(1)).findByUserId(USER_ID);
+        verify(repository, never()).insertNext(eq(USER_ID), anyString());
+    }
+
+    @Test
+    void newNameIsInsertedAndSelectedAgain() {
+        doAnswer(invocation -> 3).when(repository).findTagId(USER_ID, "travel");
+
+        assertThat(dictionary.toIds(USER_ID, List.of("travel"))).containsExactly(3);
+
+        verify(repository).insertNext(USER_ID, "travel");
+    }
+
+    @Test
+    void nameAddedConcurrentlyUnderTheSameIdIsRetried() {
+        int[] selects = {0};
+        doAnswer(invocation -> ++selects[0] < 3 ? null : 5).when(repository).findTagId(USER_ID, "travel");
+
+        assertThat(dictionary.toIds(USER_ID, List.of("travel"))).containsExactly(5);
+
+        verify(repository, times(3)).insertNext(USER_ID, "travel");
+    }
+
+    @Test
+    void persistentIdCollisionIsAConflict() {
+        assertThatThrownBy(() -> dictionary.toIds(USER_ID, List.of("travel")))
+                .isInstanceOf(TagConflictException.class);
+    }
+
+    @Test
+    void dictionaryWithUncommittedNamesIsNotCachedUntilTheTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        doAnswer(invocation -> {
+            committed.add(new Tag(USER_ID, 1, "travel", 0));
+            return 1;
+        }).when(repository).insertNext(USER_ID, "travel");
+        doAnswer(invocation -> 1).when(repository).findTagId(USER_ID, "travel");
+
+        dictionary.toIds(USER_ID, List.of("travel"));
+        assertThat(dictionary.toNames(USER_ID, List.of(1))).containsExactly("travel");
+        assertThat(dictionary.toNames(USER_ID, List.of(1))).containsExactly("travel");
+        // Each lookup of the new id reloads, since the dictionary holding it may still be rolled back
+        verify(repository, times(4)).findByUserId(USER_ID);
+
+        rollback();
+        committed.clear();
+        committed.add(new Tag(USER_ID, 1, "other", 0));
+
+        assertThat(dictionary.toNames(USER_ID, List.of(1))).isEqualTo(Set.of("other"));
+        assertThat(dictionary.toNames(USER_ID, List.of(1))).isEqualTo(Set.of("other"));
+        verify(repository, times(5)).findByUserId(USER_ID);
+    }
+
+    private static void rollback() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+}
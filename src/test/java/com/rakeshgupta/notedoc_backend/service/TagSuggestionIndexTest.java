@@ -0,0 +1,148 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.dto.response.TagSuggestionDto;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TagSuggestionIndexTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final TagRepository tagRepository = mock(TagRepository.class);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadsOnceAndAppliesCommittedChanges() {
+        stubCounts(counts(usage("java", 2)));
+        TagSuggestionIndex index = index(900_000);
+
+        assertThat(index.suggest(USER_ID, "ja", 10)).extracting(TagSuggestionDto::getCount).containsExactly(2);
+        index.recordChange(USER_ID, Set.of(), Set.of("java", "javascript"));
+
+        assertThat(index.suggest(USER_ID, "JA", 10))
+                .extracting(TagSuggestionDto::getName, TagSuggestionDto::getCount)
+                .containsExactly(tuple("java", 3), tuple("javascript", 1));
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void applyingChangesDoesNotWaitForALoad() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(tagRepository.countUsageByUserId(USER_ID)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return counts(usage("java", 1));
+        });
+        TagSuggestionIndex index = index(900_000);
+
+        CompletableFuture<List<TagSuggestionDto>> load = CompletableFuture.supplyAsync(() -> index.suggest(USER_ID, "", 10));
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> apply = CompletableFuture.runAsync(
+                () -> index.recordChange(USER_ID, Set.of(), Set.of("java")));
+
+        apply.get(1, TimeUnit.SECONDS);
+        releaseQuery.countDown();
+        assertThat(load.get(5, TimeUnit.SECONDS)).hasSize(1);
+    }
+
+    @Test
+    void writeCommittingDuringALoadIsNotCountedTwice() {
+        TagSuggestionIndex index = index(900_000);
+        // The write commits before the load query, which therefore already counts it
+        List<TransactionSynchronization> write = recordInTransaction(index, Set.of("java"));
+        write.forEach(synchronization -> synchronization.beforeCommit(false));
+        stubCounts(counts(usage("java", 1)));
+
+        assertThat(index.suggest(USER_ID, "", 10)).extracting(TagSuggestionDto::getCount).containsExactly(1);
+        write.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(index.suggest(USER_ID, "", 10)).extracting(TagSuggestionDto::getCount).containsExactly(1);
+        assertThat(index.suggest(USER_ID, "", 10)).extracting(TagSuggestionDto::getCount).containsExactly(1);
+    }
+
+    @Test
+    void rolledBackWriteIsNotApplied() {
+        stubCounts(counts(usage("java", 1)));
+        TagSuggestionIndex index = index(900_000);
+        index.suggest(USER_ID, "", 10);
+
+        List<TransactionSynchronization> write = recordInTransaction(index, Set.of("java", "kotlin"));
+        write.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(index.suggest(USER_ID, "", 10)).extracting(TagSuggestionDto::getName).containsExactly("java");
+    }
+
+    @Test
+    void expiredIndexesAreReloaded() {
+        stubCounts(counts(usage("java", 1)));
+        TagSuggestionIndex index = index(0);
+
+        index.suggest(USER_ID, "", 10);
+        stubCounts(counts(usage("java", 5)));
+
+        assertThat(index.suggest(USER_ID, "", 10)).extracting(TagSuggestionDto::getCount).containsExactly(5);
+        index.evictExpired();
+        assertThat(queries).hasValue(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TagSuggestionIndex index(long maxAgeMs) {
+        ObjectProvider<ShardRouter> noSharding = mock(ObjectProvider.class);
+        return new TagSuggestionIndex(tagRepository, noSharding, 100, maxAgeMs, new SimpleMeterRegistry());
+    }
+
+    private void stubCounts(List<Object[]> rows) {
+        doAnswer(invocation -> {
+            queries.incrementAndGet();
+            return rows;
+        }).when(tagRepository).countUsageByUserId(USER_ID);
+    }
+
+    /**
+     * The synchronizations a note write registers for its tag change, to be driven by the test
+     */
+    private static List<TransactionSynchronization> recordInTransaction(TagSuggestionIndex index, Set<String> tags) {
+        TransactionSynchronizationManager.initSynchronization();
+        index.recordChange(USER_ID, Set.of(), tags);
+        List<TransactionSynchronization> synchronizations = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static List<Object[]> counts(Object[]... rows) {
+        return List.of(rows);
+    }
+
+    private static Object[] usage(String name, long count) {
+        return new Object[]{name, count};
+    }
+}
@@ -0,0 +1,149 @@
+package com.rakeshgupta.notedoc_backend.service;
+
+import com.rakeshgupta.notedoc_backend.entity.Note;
+import com.rakeshgupta.notedoc_backend.repository.NoteRepository;
+import com.rakeshgupta.notedoc_backend.repository.TagRepository;
+import com.rakeshgupta.notedoc_backend.repository.UserNoteStatsRepository;
+import com.rakeshgupta.notedoc_backend.service.UserStatsService.NoteState;
+import com.rakeshgupta.notedoc_backend.shard.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserStatsServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final UserNoteStatsRepository statsRepository = mock(UserNoteStatsRepository.class);
+    private final TagRepository tagRepository = mock(TagRepository.class);
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final UserStatsService service;
+
+    UserStatsServiceTest() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ShardRouter> router = mock(ObjectProvider.class);
+        service = new UserStatsService(statsRepository, tagRepository, noteRepository, router,
+                mock(PlatformTransactionManager.class));
+        when(statsRepository.applyDelta(eq(USER_ID), anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(1);
+    }
+
+    @Test
+    void unchangedNoteTouchesNothing() {
+        NoteState state = new NoteState(1, 1, 0, 0, 42, Set.of(1, 2));
+
+        service.recordChange(USER_ID, state, new NoteState(1, 1, 0, 0, 42, Set.of(2, 1)));
+
+        verifyNoInteractions(statsRepository, tagRepository, noteRepository);
+    }
+
+    @Test
+    void createdNoteAddsItselfAndItsTags() {
+        service.recordChange(USER_ID, NoteState.NONE, NoteState.of(note("héllo", Set.of(1, 2))));
+
+        verify(statsRepository).applyDelta(USER_ID, 1, 0, 0, 0, 6);
+        verify(tagRepository).adjustNoteCounts(USER_ID, Set.of(1, 2), 1);
+        verify(tagRepository, never()).adjustNoteCounts(eq(USER_ID), anyCollection(), eq(-1));
+    }
+
+    @Test
+    void updatedNoteAddsOnlyTheDifference() {
+        NoteState before = new NoteState(1, 0, 0, 0, 100, Set.of(1, 2));
+        NoteState after = new NoteState(1, 1, 1, 0, 60, Set.of(2, 3));
+
+        service.recordChange(USER_ID, before, after);
+
+        verify(statsRepository).applyDelta(USER_ID, 0, 1, 1, 0, -40);
+        verify(tagRepository).adjustNoteCounts(USER_ID, Set.of(1), -1);
+        verify(tagRepository).adjustNoteCounts(USER_ID, Set.of(3), 1);
+    }
+
+    @Test
+    void deletedNoteMovesFromActiveToDeletedAndReleasesItsTags() {
+        Note note = note("content", Set.of(4));
+        NoteState before = NoteState.of(note);
+        note.setPinned(true);
+        note.setDeleted(true);
+
+        service.recordChange(USER_ID, before, NoteState.of(note));
+
+        verify(statsRepository).applyDelta(USER_ID, -1, 0, 0, 1, -7);
+        verify(tagRepository).adjustNoteCounts(USER_ID, Set.of(4), -1);
+        verify(tagRepository, never()).adjustNoteCounts(eq(USER_ID), anyCollection(), eq(1));
+    }
+
+    @Test
+    void firstWriteOfAUserCountsEverythingFromTheNotes() {
+        when(statsRepository.applyDelta(eq(USER_ID), anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(0);
+        when(statsRepository.insertFromNotes(USER_ID)).thenReturn(1);
+
+        service.recordChange(USER_ID, NoteState.NONE, NoteState.of(note("content", Set.of(1))));
+
+        InOrder order = inOrder(statsRepository, noteRepository, tagRepository);
+        order.verify(statsRepository).applyDelta(USER_ID, 1, 0, 0, 0, 7);
+        // The row is computed from the notes table, so this write must be flushed to it first
+        order.verify(noteRepository).flush();
+        order.verify(statsRepository).insertFromNotes(USER_ID);
+        order.verify(tagRepository).recountNoteCounts(USER_ID);
+        verify(statsRepository, times(1)).applyDelta(eq(USER_ID), anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(tagRepository, never()).adjustNoteCounts(eq(USER_ID), anyCollection(), anyInt());
+    }
+
+    @Test
+    void writerLosingTheRaceToCreateTheRowAppliesItsDelta() {
+        int[] calls = {0};
+        doAnswer(invocation -> calls[0]++ == 0 ? 0 : 1)
+                .when(statsRepository).applyDelta(eq(USER_ID), anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+        when(statsRepository.insertFromNotes(USER_ID)).thenReturn(0);
+
+        service.recordChange(USER_ID, NoteState.NONE, NoteState.of(note("content", Set.of(1))));
+
+        verify(statsRepository, times(2)).applyDelta(USER_ID, 1, 0, 0, 0, 7);
+        verify(tagRepository).adjustNoteCounts(USER_ID, Set.of(1), 1);
+        verify(tagRepository, never()).recountNoteCounts(USER_ID);
+    }
+
+    @Test
+    void deletedNoteStateIgnoresContentAndTags() {
+        Note note = note("content", Set.of(1));
+        note.setDeleted(true);
+
+        assertThat(NoteState.of(note)).isEqualTo(new NoteState(0, 0, 0, 1, 0, Set.of()));
+    }
+
+    @Test
+    void utf8LengthMatchesTheEncoding() {
+        for (String text : new String[]{"", "ascii", "héllo", "€", "😀 emoji", "mixed é€😀"}) {
+            assertThat(UserStatsService.utf8Length(text))
+                    .as(text)
+                    .isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+        }
+        assertThat(UserStatsService.utf8Length(null)).isZero();
+    }
+
+    private static Note note(String content, Set<Integer> tagIds) {
+        Note note = new Note();
+        note.setUserId(USER_ID);
+        note.setContent(content);
+        note.setTagIds(tagIds);
+        return note;
+    }
+}
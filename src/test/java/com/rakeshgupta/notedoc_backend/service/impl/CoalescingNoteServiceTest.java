@@ -0,0 +1,130 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.dto.request.NoteUpdateRequestDto;
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CoalescingNoteServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    private final NoteService delegate = mock(NoteService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CoalescingNoteService service = new CoalescingNoteService(delegate, true, meterRegistry);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch firstReadStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstRead = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalListingsShareOneQuery() throws Exception {
+        Page<NoteResponseDto> page = page("note");
+        blockFirstRead(page, page("unexpected"));
+        Future<Page<NoteResponseDto>> first = executor.submit(() -> service.getAllNotes(USER_ID, PAGE));
+        assertThat(firstReadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<Page<NoteResponseDto>> second = executor.submit(() -> service.getAllNotes(USER_ID, PAGE));
+        awaitCoalesced(1);
+        releaseFirstRead.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(page);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(page);
+        verify(delegate, times(1)).getAllNotes(USER_ID, PAGE);
+    }
+
+    @Test
+    void readAfterAWriteNeverJoinsAReadFromBeforeIt() throws Exception {
+        Page<NoteResponseDto> stale = page("before update");
+        Page<NoteResponseDto> fresh = page("after update");
+        blockFirstRead(stale, fresh);
+        Future<Page<NoteResponseDto>> inFlight = executor.submit(() -> service.getAllNotes(USER_ID, PAGE));
+        assertThat(firstReadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        service.updateNote(UUID.randomUUID(), new NoteUpdateRequestDto(), USER_ID);
+        Page<NoteResponseDto> afterWrite = service.getAllNotes(USER_ID, PAGE);
+        releaseFirstRead.countDown();
+
+        assertThat(afterWrite).isSameAs(fresh);
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isSameAs(stale);
+        verify(delegate, times(2)).getAllNotes(USER_ID, PAGE);
+    }
+
+    @Test
+    void failedWriteStillDetachesInFlightReads() throws Exception {
+        Page<NoteResponseDto> fresh = page("after delete");
+        blockFirstRead(page("before delete"), fresh);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("commit failed");
+        }).when(delegate).deleteNote(any(), eq(USER_ID));
+        executor.submit(() -> service.getAllNotes(USER_ID, PAGE));
+        assertThat(firstReadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            service.deleteNote(UUID.randomUUID(), USER_ID);
+        } catch (IllegalStateException expected) {
+            // The write may have committed before failing
+        }
+        Page<NoteResponseDto> afterWrite = service.getAllNotes(USER_ID, PAGE);
+        releaseFirstRead.countDown();
+
+        assertThat(afterWrite).isSameAs(fresh);
+    }
+
+    /**
+     * The first listing blocks until released and returns {@code first}; later ones return {@code later}
+     */
+    private void blockFirstRead(Page<NoteResponseDto> first, Page<NoteResponseDto> later) {
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.getAndIncrement() > 0) {
+                return later;
+            }
+            firstReadStarted.countDown();
+            assertThat(releaseFirstRead.await(5, TimeUnit.SECONDS)).isTrue();
+            return first;
+        }).when(delegate).getAllNotes(USER_ID, PAGE);
+    }
+
+    private void awaitCoalesced(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("notedoc.singleflight.coalesced").tag("method", "getAllNotes").counter().count() < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static Page<NoteResponseDto> page(String title) {
+        NoteResponseDto note = new NoteResponseDto();
+        note.setTitle(title);
+        return new PageImpl<>(List.of(note), PAGE, 1);
+    }
+}
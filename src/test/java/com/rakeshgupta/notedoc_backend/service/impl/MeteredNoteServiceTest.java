@@ -0,0 +1,63 @@
+package com.rakeshgupta.notedoc_backend.service.impl;
+
+import com.rakeshgupta.notedoc_backend.dto.response.NoteResponseDto;
+import com.rakeshgupta.notedoc_backend.exception.NoteNotFoundException;
+import com.rakeshgupta.notedoc_backend.service.NoteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeteredNoteServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    private final NoteService delegate = mock(NoteService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeteredNoteService service = new MeteredNoteService(delegate, meterRegistry);
+
+    @Test
+    void everyMethodIsRegisteredUpFront() {
+        assertThat(meterRegistry.get(MeteredNoteService.TIMER_NAME).timers()).hasSize(14);
+        assertThat(meterRegistry.get(MeteredNoteService.RESULT_SIZE_NAME).summaries()).hasSize(2);
+    }
+
+    @Test
+    void successfulCallIsTimedWithItsResultSize() {
+        when(delegate.searchNotes("budget", USER_ID, PAGE, false))
+                .thenReturn(new PageImpl<>(List.of(new NoteResponseDto(), new NoteResponseDto()), PAGE, 2));
+
+        service.searchNotes("budget", USER_ID, PAGE, false);
+
+        assertThat(timerCount("searchNotes", "success")).isEqualTo(1);
+        assertThat(timerCount("searchNotes", "error")).isZero();
+        assertThat(meterRegistry.get(MeteredNoteService.RESULT_SIZE_NAME).tag("operation", "search")
+                .summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void failedCallIsTimedAsAnError() {
+        UUID id = UUID.randomUUID();
+        when(delegate.getNoteById(id, USER_ID)).thenThrow(new NoteNotFoundException(id));
+
+        assertThatThrownBy(() -> service.getNoteById(id, USER_ID)).isInstanceOf(NoteNotFoundException.class);
+
+        assertThat(timerCount("getNoteById", "error")).isEqualTo(1);
+        assertThat(timerCount("getNoteById", "success")).isZero();
+    }
+
+    private long timerCount(String method, String outcome) {
+        return meterRegistry.get(MeteredNoteService.TIMER_NAME).tag("method", method).tag("outcome", outcome)
+                .timer().count();
+    }
+}
@@ -0,0 +1,97 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final List<UUID> USERS = users(30_000);
+
+    @Test
+    void usersSpreadEvenlyOverTheShards() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("main", "shard1", "shard2"), VIRTUAL_NODES);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (UUID user : USERS) {
+            counts.merge(ring.shardFor(user), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys("main", "shard1", "shard2");
+        double expected = USERS.size() / 3.0;
+        for (int count : counts.values()) {
+            assertThat(count).isBetween((int) (expected * 0.8), (int) (expected * 1.2));
+        }
+    }
+
+    @Test
+    void placementDoesNotDependOnShardOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("main", "shard1", "shard2"), VIRTUAL_NODES);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("shard2", "main", "shard1"), VIRTUAL_NODES);
+
+        for (UUID user : USERS) {
+            assertThat(reordered.shardFor(user)).isEqualTo(ring.shardFor(user));
+        }
+    }
+
+    @Test
+    void addingAShardOnlyMovesUsersToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("main", "shard1", "shard2"), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("main", "shard1", "shard2", "shard3"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (UUID user : USERS) {
+            String shard = after.shardFor(user);
+            if (!shard.equals(before.shardFor(user))) {
+                assertThat(shard).isEqualTo("shard3");
+                moved++;
+            }
+        }
+        // About a quarter of the users, the new shard's share
+        assertThat(moved).isBetween((int) (USERS.size() * 0.2), (int) (USERS.size() * 0.3));
+    }
+
+    @Test
+    void removingAShardOnlyMovesItsUsers() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("main", "shard1", "shard2"), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("main", "shard1"), VIRTUAL_NODES);
+
+        for (UUID user : USERS) {
+            String shard = before.shardFor(user);
+            if (!shard.equals("shard2")) {
+                assertThat(after.shardFor(user)).isEqualTo(shard);
+            }
+        }
+    }
+
+    @Test
+    void userHashNeverChanges() {
+        // Placement and advisory lock keys derive from it, so every instance and release must agree on it
+        assertThat(ConsistentHashRing.hash(UUID.fromString("11111111-1111-1111-1111-111111111111")))
+                .isEqualTo(-4552863148713219690L);
+    }
+
+    @Test
+    void ringNeedsAShard() {
+        assertThatThrownBy(() -> new ConsistentHashRing(List.of(), VIRTUAL_NODES))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<UUID> users(int count) {
+        Random random = new Random(42);
+        List<UUID> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,166 @@
+package com.rakeshgupta.notedoc_backend.shard;
+
+import com.rakeshgupta.notedoc_backend.exception.UserMigratingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardRouterTest {
+
+    private final FakeShard main = new FakeShard();
+    private final FakeShard other = new FakeShard();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ShardRoutingDataSource shards;
+    private final ShardDirectory directory;
+    private final ShardRouter router;
+
+    ShardRouterTest() {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        pools.put("main", main.dataSource);
+        pools.put("other", other.dataSource);
+        shards = new ShardRoutingDataSource(pools, "main");
+        directory = new ShardDirectory(new ConsistentHashRing(pools.keySet(), 16), main.dataSource, pools.keySet());
+        router = new ShardRouter(directory, pools.keySet(), shards, transactionManager, 2000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void callRunsOnTheUsersShardHoldingItsLockShared() {
+        UUID userId = userOn("other");
+
+        String result = router.write(userId, () -> "written on " + shardOfCall());
+
+        assertThat(result).isEqualTo("written on other");
+        assertThat(other.statements).containsExactly(
+                "SELECT pg_try_advisory_xact_lock_shared(?, ?)",
+                "SELECT shard FROM shard_moved_users WHERE user_id = ?");
+        assertThat(other.lockKeys).containsExactly(UserShardLocks.WRITES);
+        assertThat(main.statements).isEmpty();
+    }
+
+    @Test
+    void readsAndWritesTakeDifferentLocks() {
+        UUID userId = userOn("main");
+
+        router.read(userId, () -> null);
+
+        assertThat(main.lockKeys).containsExactly(UserShardLocks.READS);
+    }
+
+    @Test
+    void callFollowsTheMarkerOfAMigrationByAnotherInstance() {
+        UUID userId = userOn("main");
+        main.movedTo = "other";
+
+        String result = router.read(userId, () -> "read on " + shardOfCall());
+
+        assertThat(result).isEqualTo("read on other");
+        assertThat(directory.shardFor(userId)).isEqualTo("other");
+        // The attempt on the old shard is rolled back
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+
+        main.statements.clear();
+        router.read(userId, () -> null);
+        assertThat(main.statements).isEmpty();
+    }
+
+    @Test
+    void callWaitingTooLongForAMigrationIsRejected() {
+        UUID userId = userOn("other");
+        other.lockHeldByMigration = true;
+        List<String> calls = new ArrayList<>();
+
+        assertThatThrownBy(() -> router.write(userId, () -> calls.add("ran")))
+                .isInstanceOf(UserMigratingException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2);
+        assertThat(calls).isEmpty();
+        assertThat(other.statements).contains("SELECT pg_advisory_xact_lock_shared(?, ?)");
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private UUID userOn(String shard) {
+        while (true) {
+            UUID userId = UUID.randomUUID();
+            if (directory.shardFor(userId).equals(shard)) {
+                return userId;
+            }
+        }
+    }
+
+    private String shardOfCall() {
+        try {
+            return shards.getConnection() == main.connection ? "main" : "other";
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A shard whose advisory lock is free unless a migration holds it, with an optional move marker
+     */
+    private static final class FakeShard {
+
+        final DataSource dataSource = mock(DataSource.class);
+        final Connection connection = mock(Connection.class);
+        final List<String> statements = new ArrayList<>();
+        final List<Integer> lockKeys = new ArrayList<>();
+        boolean lockHeldByMigration;
+        String movedTo;
+
+        FakeShard() {
+            try {
+                when(dataSource.getConnection()).thenReturn(connection);
+                when(connection.prepareStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private PreparedStatement statement(String sql) throws SQLException {
+            statements.add(sql);
+            PreparedStatement statement = mock(PreparedStatement.class);
+            ResultSet row = mock(ResultSet.class);
+            when(statement.executeQuery()).thenReturn(row);
+            when(row.next()).thenReturn(true);
+            if (sql.startsWith("SELECT pg_try_advisory_xact_lock")) {
+                doAnswer(invocation -> {
+                    lockKeys.add(invocation.getArgument(1));
+                    return null;
+                }).when(statement).setInt(eq(1), anyInt());
+                when(row.getBoolean(1)).thenAnswer(invocation -> !lockHeldByMigration);
+            } else if (sql.startsWith("SELECT current_setting")) {
+                when(row.getString(1)).thenReturn("0");
+            } else if (sql.startsWith("SELECT pg_advisory_xact_lock")) {
+                when(statement.executeQuery()).thenThrow(new SQLException("canceling statement due to lock timeout", "55P03"));
+            } else if (sql.startsWith("SELECT shard FROM shard_moved_users")) {
+                when(row.next()).thenAnswer(invocation -> movedTo != null);
+                when(row.getString(1)).thenAnswer(invocation -> movedTo);
+            }
+            return statement;
+        }
+    }
+}